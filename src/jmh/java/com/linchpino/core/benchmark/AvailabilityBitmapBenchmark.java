@@ -0,0 +1,136 @@
+package com.linchpino.core.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.linchpino.core.dto.AvailabilityBitmapResponse;
+import com.linchpino.core.dto.ScheduleDTOKt;
+import com.linchpino.core.dto.ValidWindow;
+import com.linchpino.core.entity.CompiledSchedule;
+import com.linchpino.core.entity.Schedule;
+import com.linchpino.core.enums.RecurrenceType;
+import com.linchpino.core.service.AvailabilityBitmap;
+import kotlin.sequences.SequencesKt;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server cost and payload size of one mentor availability request: free windows as ValidWindow JSON, as
+ * returned by ScheduleService.freeWindows, against one base64 bitmap per day. The payload counter reports
+ * the response size in bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityBitmapBenchmark {
+
+    @Param({"7", "30", "92"})
+    public int days;
+
+    @Param({"60", "480"})
+    public int duration;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private Schedule schedule;
+    private CompiledSchedule compiled;
+    private List<ValidWindow> booked;
+    private long[] bookedStarts;
+    private long[] bookedEnds;
+    private LocalDate firstDay;
+    private ZonedDateTime from;
+    private ZonedDateTime to;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        firstDay = LocalDate.of(2024, 9, 2);
+        from = firstDay.atStartOfDay(ZoneOffset.UTC);
+        to = from.plusDays(days);
+        schedule = new Schedule();
+        schedule.setStartTime(ZonedDateTime.of(2024, 8, 1, 8, 0, 0, 0, ZoneOffset.UTC));
+        schedule.setEndTime(schedule.getStartTime().plusYears(1));
+        schedule.setDuration(duration);
+        schedule.setInterval(1);
+        schedule.setRecurrenceType(RecurrenceType.DAILY);
+        compiled = CompiledSchedule.of(schedule);
+
+        Random random = new Random(42);
+        booked = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            if (random.nextBoolean()) {
+                ZonedDateTime start = from.plusDays(day).withHour(8).plusMinutes(random.nextInt(duration / 15) * 15L);
+                booked.add(new ValidWindow(start, start.plusMinutes(15 + random.nextInt(4) * 15L)));
+            }
+        }
+        bookedStarts = booked.stream().mapToLong(it -> it.getStart().toEpochSecond()).toArray();
+        bookedEnds = booked.stream().mapToLong(it -> it.getEnd().toEpochSecond()).toArray();
+    }
+
+    @Benchmark
+    public byte[] windowsJson(Payload payload) throws Exception {
+        List<ValidWindow> windows = SequencesKt.toList(
+            ScheduleDTOKt.without(schedule.occurrences(from, to), booked)
+        );
+        byte[] json = objectMapper.writeValueAsBytes(windows);
+        payload.bytes += json.length;
+        return json;
+    }
+
+    @Benchmark
+    public byte[] bitmapJson(Payload payload) throws Exception {
+        AvailabilityBitmap bitmap = new AvailabilityBitmap(firstDay, days);
+        long toSecond = to.toEpochSecond();
+        long occurrence = compiled.nextOccurrenceStart(from.toEpochSecond() - compiled.getDurationSeconds(), 0, toSecond);
+        while (occurrence != CompiledSchedule.NO_WINDOW && occurrence < toSecond) {
+            bitmap.addAvailable(occurrence, occurrence + compiled.getDurationSeconds());
+            occurrence = compiled.nextOccurrenceStart(occurrence + 1, 0, toSecond);
+        }
+        for (int i = 0; i < bookedStarts.length; i++) {
+            bitmap.removeBusy(bookedStarts[i], bookedEnds[i]);
+        }
+        List<String> encoded = new ArrayList<>(days);
+        for (int day = 0; day < days; day++) {
+            encoded.add(bitmap.encode(day));
+        }
+        byte[] json = objectMapper.writeValueAsBytes(
+            new AvailabilityBitmapResponse(1L, firstDay, AvailabilityBitmap.SLOT_MINUTES, encoded)
+        );
+        payload.bytes += json.length;
+        return json;
+    }
+}
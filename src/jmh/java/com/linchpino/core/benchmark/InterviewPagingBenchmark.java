@@ -0,0 +1,165 @@
+package com.linchpino.core.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads one page deep into the upcoming interviews of a mentor among 1M interviews in Postgres, once the old way
+ * (account email join, ORDER BY the time slot start, OFFSET and a count query) and once with the keyset query on
+ * interview(mentor_account_id, from_time, id). Needs Docker for the Postgres container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterviewPagingBenchmark {
+
+    private static final int INTERVIEWS = 1_000_000;
+    private static final int MENTORS = 10;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "100", "2500"})
+    public int page;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement offsetCount;
+    private PreparedStatement keysetPage;
+    private Timestamp cursorTime;
+    private long cursorId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.5"));
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                CREATE TABLE account (id BIGINT PRIMARY KEY, email VARCHAR(255) NOT NULL,
+                    first_name VARCHAR(255), last_name VARCHAR(255));
+                CREATE TABLE mentor_time_slot (id BIGINT PRIMARY KEY, account_id BIGINT NOT NULL,
+                    from_time TIMESTAMP NOT NULL, to_time TIMESTAMP NOT NULL, status INT NOT NULL);
+                CREATE TABLE interview (id BIGINT PRIMARY KEY, mentor_account_id BIGINT NOT NULL,
+                    job_seeker_account_id BIGINT NOT NULL, time_slot_id BIGINT NOT NULL, from_time TIMESTAMP NOT NULL);
+                INSERT INTO account SELECT g, 'user' || g || '@example.com', 'First' || g, 'Last' || g
+                    FROM generate_series(1, 1000) g;
+                INSERT INTO mentor_time_slot
+                    SELECT g, 1 + g % %1$d, TIMESTAMP '2030-01-01' + g * INTERVAL '10 minutes',
+                        TIMESTAMP '2030-01-01' + g * INTERVAL '10 minutes' + INTERVAL '1 hour', 3
+                    FROM generate_series(1, %2$d) g;
+                INSERT INTO interview
+                    SELECT g, 1 + g % %1$d, %1$d + 1 + g % 900, g, TIMESTAMP '2030-01-01' + g * INTERVAL '10 minutes'
+                    FROM generate_series(1, %2$d) g;
+                CREATE UNIQUE INDEX idx_account_email ON account (upper(email));
+                CREATE INDEX idx_interview_time_slot ON interview (time_slot_id);
+                CREATE INDEX idx_interview_mentor_from_time ON interview (mentor_account_id, from_time, id);
+                ANALYZE;
+                """.formatted(MENTORS, INTERVIEWS));
+        }
+        offsetPage = connection.prepareStatement("""
+            SELECT i.id, js.id, js.first_name, js.last_name, mts.from_time, mts.to_time
+            FROM interview i
+            JOIN account m ON m.id = i.mentor_account_id
+            JOIN account js ON js.id = i.job_seeker_account_id
+            JOIN mentor_time_slot mts ON mts.id = i.time_slot_id
+            WHERE upper(m.email) = upper(?) AND mts.status = 3 AND mts.from_time > TIMESTAMP '2030-01-01'
+            ORDER BY mts.from_time, i.id
+            OFFSET ? LIMIT ?
+            """);
+        offsetCount = connection.prepareStatement("""
+            SELECT count(*)
+            FROM interview i
+            JOIN account m ON m.id = i.mentor_account_id
+            JOIN mentor_time_slot mts ON mts.id = i.time_slot_id
+            WHERE upper(m.email) = upper(?) AND mts.status = 3 AND mts.from_time > TIMESTAMP '2030-01-01'
+            """);
+        keysetPage = connection.prepareStatement("""
+            SELECT i.id, js.id, js.first_name, js.last_name, i.from_time, mts.to_time
+            FROM interview i
+            JOIN account js ON js.id = i.job_seeker_account_id
+            JOIN mentor_time_slot mts ON mts.id = i.time_slot_id
+            WHERE i.mentor_account_id = ? AND mts.status = 3
+            AND i.from_time >= ? AND (i.from_time > ? OR i.id > ?)
+            ORDER BY i.from_time, i.id
+            LIMIT ?
+            """);
+        // the cursor a client holds after reading `page` pages: the last row before the page
+        cursorTime = Timestamp.valueOf("2030-01-01 00:00:00");
+        cursorId = Long.MAX_VALUE;
+        if (page > 0) {
+            try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT from_time, id FROM interview WHERE mentor_account_id = 1
+                ORDER BY from_time, id OFFSET ? LIMIT 1
+                """)) {
+                statement.setInt(1, page * PAGE_SIZE - 1);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    cursorTime = resultSet.getTimestamp(1);
+                    cursorId = resultSet.getLong(2);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public long offsetWithCount() throws SQLException {
+        offsetPage.setString(1, "user1@example.com");
+        offsetPage.setInt(2, page * PAGE_SIZE);
+        offsetPage.setInt(3, PAGE_SIZE);
+        long sum = read(offsetPage);
+        offsetCount.setString(1, "user1@example.com");
+        try (ResultSet resultSet = offsetCount.executeQuery()) {
+            resultSet.next();
+            return sum + resultSet.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public long keyset() throws SQLException {
+        keysetPage.setLong(1, 1);
+        keysetPage.setTimestamp(2, cursorTime);
+        keysetPage.setTimestamp(3, cursorTime);
+        keysetPage.setLong(4, cursorId);
+        keysetPage.setInt(5, PAGE_SIZE + 1);
+        return read(keysetPage);
+    }
+
+    private static long read(PreparedStatement statement) throws SQLException {
+        long sum = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) sum += resultSet.getLong(1);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,105 @@
+package com.linchpino.core.benchmark;
+
+import com.linchpino.core.dto.ScheduleDTOKt;
+import com.linchpino.core.dto.ValidWindow;
+import com.linchpino.core.entity.Account;
+import com.linchpino.core.entity.MentorTimeSlot;
+import com.linchpino.core.service.MentorIntervalIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks one candidate window per mentor against the booked slots of the day, once by scanning
+ * the mentor's slots with hasOverlapWith and once through {@link MentorIntervalIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MentorIntervalIndexBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int mentors;
+
+    @Param({"4", "32"})
+    public int slotsPerMentor;
+
+    private List<MentorTimeSlot> slots;
+    private Map<Long, List<MentorTimeSlot>> slotsByMentor;
+    private ValidWindow[] windows;
+    private MentorIntervalIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ZonedDateTime day = ZonedDateTime.parse("2024-09-09T00:00:00Z");
+        slots = new ArrayList<>();
+        slotsByMentor = new HashMap<>();
+        windows = new ValidWindow[mentors];
+        for (long mentorId = 1; mentorId <= mentors; mentorId++) {
+            Account account = new Account();
+            account.setId(mentorId);
+            for (int i = 0; i < slotsPerMentor; i++) {
+                ZonedDateTime start = day.plusMinutes(random.nextInt(24 * 4) * 15L);
+                MentorTimeSlot slot = new MentorTimeSlot();
+                slot.setAccount(account);
+                slot.setFromTime(start);
+                slot.setToTime(start.plusMinutes(30 + random.nextInt(4) * 15L));
+                slots.add(slot);
+                slotsByMentor.computeIfAbsent(mentorId, id -> new ArrayList<>()).add(slot);
+            }
+            ZonedDateTime start = day.plusMinutes(random.nextInt(24 * 4) * 15L);
+            windows[(int) mentorId - 1] = new ValidWindow(start, start.plusMinutes(60));
+        }
+        index = MentorIntervalIndex.of(slots);
+    }
+
+    @Benchmark
+    public int listScan() {
+        int free = 0;
+        for (int i = 0; i < windows.length; i++) {
+            boolean booked = false;
+            for (MentorTimeSlot slot : slotsByMentor.getOrDefault((long) i + 1, List.of())) {
+                if (ScheduleDTOKt.hasOverlapWith(new ValidWindow(slot.getFromTime(), slot.getToTime()), windows[i])) {
+                    booked = true;
+                    break;
+                }
+            }
+            if (!booked) free++;
+        }
+        return free;
+    }
+
+    @Benchmark
+    public int indexLookup() {
+        int free = 0;
+        for (int i = 0; i < windows.length; i++) {
+            if (!index.overlaps(i + 1, windows[i])) free++;
+        }
+        return free;
+    }
+
+    @Benchmark
+    public MentorIntervalIndex indexBuild() {
+        return MentorIntervalIndex.of(slots);
+    }
+}
@@ -0,0 +1,139 @@
+package com.linchpino.core.benchmark;
+
+import com.linchpino.core.entity.CompiledSchedule;
+import com.linchpino.core.entity.Schedule;
+import com.linchpino.core.enums.RecurrenceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares schedules described by recurrence type, week days and month days with the same schedules written
+ * as RRULEs, for the selected day check and for finding the next occurrence after a target.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecurrenceRuleBenchmark {
+
+    private static final String[] DAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    @Param({"1000", "10000"})
+    public int schedules;
+
+    @Param({"DAILY", "WEEKLY", "MONTHLY"})
+    public RecurrenceType recurrenceType;
+
+    private CompiledSchedule[] legacy;
+    private CompiledSchedule[] rules;
+    private long targetSecond;
+    private int targetOffset;
+
+    @Setup
+    public void setUp() {
+        ZoneId zoneId = ZoneId.of("Europe/Berlin");
+        Random random = new Random(42);
+        legacy = new CompiledSchedule[schedules];
+        rules = new CompiledSchedule[schedules];
+        ZonedDateTime base = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, zoneId);
+        for (int i = 0; i < schedules; i++) {
+            ZonedDateTime start = base.plusDays(random.nextInt(300)).plusMinutes(random.nextInt(96) * 15L);
+            int interval = 1 + random.nextInt(3);
+            Schedule schedule = schedule(start, interval);
+            String rule = "FREQ=" + recurrenceType.name() + ";INTERVAL=" + interval;
+            if (recurrenceType == RecurrenceType.WEEKLY) {
+                List<DayOfWeek> days = new ArrayList<>();
+                List<String> byDay = new ArrayList<>();
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if (random.nextInt(4) == 0) {
+                        days.add(day);
+                        byDay.add(DAYS[day.ordinal()]);
+                    }
+                }
+                if (days.isEmpty()) {
+                    days.add(DayOfWeek.SUNDAY);
+                    byDay.add("SU");
+                }
+                schedule.setWeekDays(days);
+                rule += ";BYDAY=" + String.join(",", byDay);
+            }
+            if (recurrenceType == RecurrenceType.MONTHLY) {
+                List<Integer> days = new ArrayList<>();
+                for (int day = 1; day <= 31; day++) {
+                    if (random.nextInt(6) == 0) days.add(day);
+                }
+                if (days.isEmpty()) days.add(27);
+                schedule.setMonthDays(days);
+                List<String> byMonthDay = new ArrayList<>();
+                for (Integer day : days) byMonthDay.add(day.toString());
+                rule += ";BYMONTHDAY=" + String.join(",", byMonthDay);
+            }
+            legacy[i] = CompiledSchedule.of(schedule);
+            Schedule ruleSchedule = schedule(start, interval);
+            ruleSchedule.applyRule(rule, Collections.emptyList());
+            rules[i] = CompiledSchedule.of(ruleSchedule);
+        }
+        ZonedDateTime target = ZonedDateTime.of(2024, 10, 27, 0, 0, 0, 0, zoneId);
+        targetSecond = target.toEpochSecond();
+        targetOffset = CompiledSchedule.SCHEDULE_ZONE;
+    }
+
+    private Schedule schedule(ZonedDateTime start, int interval) {
+        Schedule schedule = new Schedule();
+        schedule.setStartTime(start);
+        schedule.setEndTime(start.plusDays(365));
+        schedule.setDuration(60);
+        schedule.setInterval(interval);
+        schedule.setRecurrenceType(recurrenceType);
+        return schedule;
+    }
+
+    @Benchmark
+    public void legacySelectedDay(Blackhole blackhole) {
+        for (CompiledSchedule schedule : legacy) {
+            blackhole.consume(schedule.selectedDayStart(targetSecond, 0, targetOffset));
+        }
+    }
+
+    @Benchmark
+    public void ruleSelectedDay(Blackhole blackhole) {
+        for (CompiledSchedule schedule : rules) {
+            blackhole.consume(schedule.selectedDayStart(targetSecond, 0, targetOffset));
+        }
+    }
+
+    @Benchmark
+    public void legacyNextOccurrence(Blackhole blackhole) {
+        for (CompiledSchedule schedule : legacy) {
+            blackhole.consume(schedule.nextOccurrenceStart(targetSecond, 0));
+        }
+    }
+
+    @Benchmark
+    public void ruleNextOccurrence(Blackhole blackhole) {
+        for (CompiledSchedule schedule : rules) {
+            blackhole.consume(schedule.nextOccurrenceStart(targetSecond, 0));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.linchpino.core.benchmark;
+
+import com.linchpino.core.dto.BookedTimeSlot;
+import com.linchpino.core.dto.ScheduleDTOKt;
+import com.linchpino.core.dto.ValidWindow;
+import com.linchpino.core.entity.Schedule;
+import com.linchpino.core.enums.RecurrenceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the future bookings of one mentor against a changed weekly schedule, once by evaluating
+ * Schedule.timeSlot for every booking and once by sweeping the bookings against the schedule's occurrences.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleConflictBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int bookings;
+
+    private Schedule schedule;
+    private List<BookedTimeSlot> booked;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ZonedDateTime start = ZonedDateTime.parse("2024-01-01T09:00:00Z");
+        schedule = new Schedule();
+        schedule.setStartTime(start);
+        schedule.setEndTime(start.plusYears(20));
+        schedule.setDuration(480);
+        schedule.setInterval(1);
+        schedule.setRecurrenceType(RecurrenceType.WEEKLY);
+        schedule.setWeekDays(new ArrayList<>(List.of(
+            DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY
+        )));
+        booked = new ArrayList<>(bookings);
+        ZonedDateTime day = start;
+        while (booked.size() < bookings) {
+            day = day.plusDays(1);
+            // bookings on every day of the week, so the weekend ones conflict
+            for (int hour = 0; hour < 8 && booked.size() < bookings; hour += 2 + random.nextInt(3)) {
+                ZonedDateTime from = day.plusHours(hour);
+                long id = booked.size() + 1;
+                booked.add(new BookedTimeSlot(id, id, from, from.plusHours(1)));
+            }
+        }
+    }
+
+    @Benchmark
+    public int timeSlotPerBooking() {
+        int conflicts = 0;
+        for (BookedTimeSlot slot : booked) {
+            ValidWindow window = schedule.timeSlot(slot.getStart(), slot.getEnd());
+            if (window == null || window.getStart().isAfter(slot.getStart()) || window.getEnd().isBefore(slot.getEnd()))
+                conflicts++;
+        }
+        return conflicts;
+    }
+
+    @Benchmark
+    public int sweep() {
+        ZonedDateTime from = booked.get(0).getStart();
+        ZonedDateTime to = booked.get(booked.size() - 1).getEnd();
+        return ScheduleDTOKt.notCoveredBy(booked, schedule.occurrences(from, to)).size();
+    }
+}
@@ -0,0 +1,140 @@
+package com.linchpino.core.benchmark;
+
+import com.linchpino.core.dto.ValidWindow;
+import com.linchpino.core.entity.CompiledSchedule;
+import com.linchpino.core.entity.Schedule;
+import com.linchpino.core.enums.RecurrenceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates every schedule of a mentor population against one target, once through the entity methods
+ * and once through {@link CompiledSchedule}. Europe/Berlin targets sit on the autumn DST change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleEvaluationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int schedules;
+
+    @Param({"DAILY", "WEEKLY", "MONTHLY"})
+    public RecurrenceType recurrenceType;
+
+    @Param({"UTC", "Europe/Berlin"})
+    public String zone;
+
+    private Schedule[] entities;
+    private CompiledSchedule[] compiled;
+    private ZonedDateTime target;
+    private ZonedDateTime targetEnd;
+    private long targetSecond;
+    private long targetEndSecond;
+    private int targetOffset;
+
+    @Setup
+    public void setUp() {
+        ZoneId zoneId = ZoneId.of(zone);
+        Random random = new Random(42);
+        entities = new Schedule[schedules];
+        compiled = new CompiledSchedule[schedules];
+        ZonedDateTime base = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, zoneId);
+        for (int i = 0; i < schedules; i++) {
+            ZonedDateTime start = base.plusDays(random.nextInt(300)).plusMinutes(random.nextInt(96) * 15L);
+            Schedule schedule = new Schedule();
+            schedule.setStartTime(start);
+            schedule.setEndTime(start.plusDays(365));
+            schedule.setDuration(30 + random.nextInt(8) * 30);
+            schedule.setInterval(1 + random.nextInt(2));
+            schedule.setRecurrenceType(recurrenceType);
+            if (recurrenceType == RecurrenceType.WEEKLY) {
+                List<DayOfWeek> days = new ArrayList<>();
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if (random.nextBoolean()) days.add(day);
+                }
+                if (days.isEmpty()) days.add(DayOfWeek.SUNDAY);
+                schedule.setWeekDays(days);
+            }
+            if (recurrenceType == RecurrenceType.MONTHLY) {
+                List<Integer> days = new ArrayList<>();
+                for (int day = 1; day <= 31; day++) {
+                    if (random.nextInt(3) == 0) days.add(day);
+                }
+                if (days.isEmpty()) days.add(27);
+                schedule.setMonthDays(days);
+            }
+            entities[i] = schedule;
+            compiled[i] = CompiledSchedule.of(schedule);
+        }
+        target = ZonedDateTime.of(2024, 10, 27, 0, 0, 0, 0, zoneId);
+        targetEnd = target.plusMinutes(30);
+        targetSecond = target.toEpochSecond();
+        targetEndSecond = targetEnd.toEpochSecond();
+        targetOffset = CompiledSchedule.SCHEDULE_ZONE;
+    }
+
+    @Benchmark
+    public void entitySelectedDay(Blackhole blackhole) {
+        for (Schedule schedule : entities) {
+            blackhole.consume(schedule.doesMatchesSelectedDay(target));
+        }
+    }
+
+    @Benchmark
+    public void compiledSelectedDay(Blackhole blackhole) {
+        for (CompiledSchedule schedule : compiled) {
+            blackhole.consume(schedule.selectedDayStart(targetSecond, 0, targetOffset));
+        }
+    }
+
+    @Benchmark
+    public void entityTimeSlot(Blackhole blackhole) {
+        for (Schedule schedule : entities) {
+            blackhole.consume(schedule.timeSlot(target, targetEnd));
+        }
+    }
+
+    @Benchmark
+    public void compiledTimeSlot(Blackhole blackhole) {
+        for (CompiledSchedule schedule : compiled) {
+            blackhole.consume(
+                schedule.timeSlotStart(targetSecond, 0, targetOffset, targetEndSecond, 0, targetOffset)
+            );
+        }
+    }
+
+    @Benchmark
+    public int compiledSelectedDayWithWindows() {
+        int found = 0;
+        for (CompiledSchedule schedule : compiled) {
+            long start = schedule.selectedDayStart(targetSecond, 0, targetOffset);
+            if (start != CompiledSchedule.NO_WINDOW) {
+                ValidWindow window = schedule.window(start);
+                found += window.getStart().getHour();
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,75 @@
+package com.linchpino.core.benchmark;
+
+import com.linchpino.core.dto.ScheduleDTOKt;
+import com.linchpino.core.dto.TimeSlot;
+import com.linchpino.core.dto.TimeSlotDTOKt;
+import com.linchpino.core.dto.ValidWindow;
+import com.linchpino.core.enums.TimeSlotResultStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates a semester import of time slots for overlaps inside the request, once by comparing every slot
+ * with the slots accepted before it and once with the sorted sweep of TimeSlotDTOKt.validateBatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeSlotIngestionBenchmark {
+
+    @Param({"1000", "10000"})
+    public int slots;
+
+    private List<TimeSlot> timeSlots;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ZonedDateTime start = ZonedDateTime.parse("2024-09-02T00:00:00Z");
+        timeSlots = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            ZonedDateTime from = start.plusMinutes(random.nextInt(120 * 24 * 4) * 15L);
+            timeSlots.add(new TimeSlot(from, from.plusMinutes(30 + random.nextInt(4) * 15L)));
+        }
+    }
+
+    @Benchmark
+    public int pairwise() {
+        List<ValidWindow> accepted = new ArrayList<>();
+        for (TimeSlot slot : timeSlots) {
+            ValidWindow window = new ValidWindow(slot.getStartTime(), slot.getEndTime());
+            boolean overlaps = false;
+            for (ValidWindow other : accepted) {
+                if (ScheduleDTOKt.hasOverlapWith(other, window)) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) accepted.add(window);
+        }
+        return accepted.size();
+    }
+
+    @Benchmark
+    public TimeSlotResultStatus[] sweep() {
+        return TimeSlotDTOKt.validateBatch(timeSlots);
+    }
+}
@@ -0,0 +1,146 @@
+package com.linchpino.core.benchmark;
+
+import com.linchpino.core.dto.TimeSlot;
+import com.linchpino.core.repository.MentorTimeSlotBatchRepository;
+import com.linchpino.core.repository.Timestamps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores a semester import of time slots for one mentor in Postgres, once the old way (an overlap query and an
+ * INSERT ... RETURNING id per slot, which is what saving IDENTITY entities one by one costs) and once through
+ * MentorTimeSlotBatchRepository: one unnest overlap query and JDBC batches. Each invocation runs in one transaction
+ * on an emptied table. Needs Docker for the Postgres container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeSlotInsertBenchmark {
+
+    private static final long MENTOR_ID = 1;
+
+    @Param({"1000", "10000"})
+    public int slots;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private MentorTimeSlotBatchRepository repository;
+    private PreparedStatement overlaps;
+    private PreparedStatement insert;
+    private List<TimeSlot> timeSlots;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15.5"));
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                CREATE TABLE mentor_time_slot (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    account_id BIGINT NOT NULL, from_time TIMESTAMP NOT NULL, to_time TIMESTAMP NOT NULL,
+                    status INT NOT NULL, created_on TIMESTAMP, created_by BIGINT);
+                CREATE INDEX idx_mentor_time_slot_account_from_time ON mentor_time_slot (account_id, from_time);
+                """);
+        }
+        connection.setAutoCommit(false);
+        repository = new MentorTimeSlotBatchRepository(
+            new JdbcTemplate(new SingleConnectionDataSource(connection, true)),
+            Optional::empty
+        );
+        overlaps = connection.prepareStatement("""
+            SELECT 1 FROM mentor_time_slot
+            WHERE account_id = ? AND status <> 4 AND from_time < ? AND to_time > ?
+            LIMIT 1
+            """);
+        insert = connection.prepareStatement("""
+            INSERT INTO mentor_time_slot (account_id, from_time, to_time, status, created_on)
+            VALUES (?, ?, ?, 1, now())
+            RETURNING id
+            """);
+        // 30 minute slots every hour, no overlaps, so every slot is checked and inserted
+        ZonedDateTime start = ZonedDateTime.parse("2030-01-07T08:00:00Z");
+        timeSlots = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            ZonedDateTime from = start.plusHours(i);
+            timeSlots.add(new TimeSlot(from, from.plusMinutes(30)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE mentor_time_slot");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public long perRow() throws SQLException {
+        long ids = 0;
+        for (TimeSlot slot : timeSlots) {
+            Timestamp from = Timestamps.toUtcTimestamp(slot.getStartTime());
+            Timestamp to = Timestamps.toUtcTimestamp(slot.getEndTime());
+            overlaps.setLong(1, MENTOR_ID);
+            overlaps.setTimestamp(2, to);
+            overlaps.setTimestamp(3, from);
+            try (ResultSet resultSet = overlaps.executeQuery()) {
+                if (resultSet.next()) continue;
+            }
+            insert.setLong(1, MENTOR_ID);
+            insert.setTimestamp(2, from);
+            insert.setTimestamp(3, to);
+            try (ResultSet resultSet = insert.executeQuery()) {
+                resultSet.next();
+                ids += resultSet.getLong(1);
+            }
+        }
+        connection.commit();
+        return ids;
+    }
+
+    @Benchmark
+    public int jdbcBatch() throws SQLException {
+        Set<Integer> overlapping = repository.findOverlapping(MENTOR_ID, timeSlots);
+        repository.insertAvailable(MENTOR_ID, timeSlots);
+        connection.commit();
+        return overlapping.size();
+    }
+}
@@ -4,8 +4,10 @@ import com.linchpino.core.dto.AccountSummary
 import com.linchpino.core.dto.ActivateJobSeekerAccountRequest
 import com.linchpino.core.dto.AddProfileImageResponse
 import com.linchpino.core.dto.AddTimeSlotsRequest
+import com.linchpino.core.dto.AvailabilityBitmapResponse
 import com.linchpino.core.dto.CreateAccountRequest
 import com.linchpino.core.dto.CreateAccountResult
+import com.linchpino.core.dto.MentorSearchResult
 import com.linchpino.core.dto.MentorWithClosestSchedule
 import com.linchpino.core.dto.RegisterMentorRequest
 import com.linchpino.core.dto.RegisterMentorResult
@@ -14,7 +16,9 @@ import com.linchpino.core.dto.ScheduleRequest
 import com.linchpino.core.dto.ScheduleResponse
 import com.linchpino.core.dto.ScheduleUpdateRequest
 import com.linchpino.core.dto.SearchAccountResult
+import com.linchpino.core.dto.TimeSlotResult
 import com.linchpino.core.dto.UpdateProfileRequest
+import com.linchpino.core.dto.ValidWindow
 import com.linchpino.core.enums.AccountTypeEnum
 import com.linchpino.core.service.AccountService
 import com.linchpino.core.service.ScheduleService
@@ -40,6 +44,7 @@ import org.springframework.http.ResponseEntity
 import org.springframework.security.core.Authentication
 import org.springframework.web.bind.annotation.DeleteMapping
 import org.springframework.web.bind.annotation.GetMapping
+import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.PostMapping
 import org.springframework.web.bind.annotation.PutMapping
 import org.springframework.web.bind.annotation.RequestBody
@@ -48,6 +53,8 @@ import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.ResponseStatus
 import org.springframework.web.bind.annotation.RestController
 import org.springframework.web.multipart.MultipartFile
+import java.time.LocalDate
+import java.time.ZoneOffset
 import java.time.ZonedDateTime
 
 @RestController
@@ -109,6 +116,228 @@ class AccountController(
         return ResponseEntity.ok(result)
     }
 
+    @Operation(summary = "Search mentors with free windows for several interview types over a range of days")
+    @ApiResponses(
+        value = [
+            ApiResponse(
+                responseCode = "200",
+                description = "Mentors with their earliest free window, grouped by UTC day and interview type"
+            ),
+            ApiResponse(responseCode = "400", description = "Invalid date range or number of interview types")
+        ]
+    )
+    @Parameters(
+        value = [
+            Parameter(
+                name = "interviewTypeIds",
+                description = "comma separated ids of interview types, at most 10",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "from",
+                description = "first UTC day in ISO-8601 format, example 2024-03-26",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "to",
+                description = "last UTC day in ISO-8601 format, at most 30 days after from",
+                `in` = ParameterIn.QUERY,
+                required = true
+            )
+        ]
+    )
+    @GetMapping("/mentors/search/batch", produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun searchMentors(
+        @RequestParam(value = "interviewTypeIds", required = true) interviewTypeIds: Set<Long>,
+        @RequestParam(value = "from", required = true) from: LocalDate,
+        @RequestParam(value = "to", required = true) to: LocalDate
+    ): List<MentorSearchResult> {
+        return accountService.searchMentors(interviewTypeIds, from, to)
+    }
+
+
+    @Operation(summary = "Mentors with the soonest free window for an interview type")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "Earliest free window per mentor ordered by start time")
+        ]
+    )
+    @Parameters(
+        value = [
+            Parameter(
+                name = "interviewTypeId",
+                description = "id of the interview type",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "from",
+                description = "zoned date time in ISO-8601 format, defaults to now",
+                `in` = ParameterIn.QUERY,
+                required = false
+            ),
+            Parameter(
+                name = "limit",
+                description = "number of mentors to return, at most 50",
+                `in` = ParameterIn.QUERY,
+                required = false
+            )
+        ]
+    )
+    @GetMapping("/mentors/next-available", produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun findNextAvailableMentors(
+        @RequestParam(value = "interviewTypeId", required = true) interviewTypeId: Long,
+        @RequestParam(value = "from", required = false) from: ZonedDateTime?,
+        @RequestParam(value = "limit", defaultValue = "10") limit: Int
+    ): List<MentorWithClosestSchedule> {
+        return scheduleService.nextAvailableMentors(interviewTypeId, from ?: ZonedDateTime.now(ZoneOffset.UTC), limit)
+    }
+
+    @Operation(summary = "Free windows of a mentor's schedule between two instants")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "Free windows ordered by start time"),
+            ApiResponse(responseCode = "400", description = "Invalid date range"),
+            ApiResponse(responseCode = "404", description = "Mentor not found")
+        ]
+    )
+    @Parameters(
+        value = [
+            Parameter(
+                name = "from",
+                description = "zoned date time in ISO-8601 format, example 2024-03-26T00:00:00+03:30",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "to",
+                description = "zoned date time in ISO-8601 format, at most 92 days after from",
+                `in` = ParameterIn.QUERY,
+                required = true
+            )
+        ]
+    )
+    @GetMapping("/mentors/{id}/availability", produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun mentorAvailability(
+        @PathVariable id: Long,
+        @RequestParam(value = "from", required = true) from: ZonedDateTime,
+        @RequestParam(value = "to", required = true) to: ZonedDateTime
+    ): List<ValidWindow> {
+        return scheduleService.freeWindows(id, from, to)
+    }
+
+    @Operation(summary = "Free bookable slots of a mentor for an interview type between two instants")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "Free slots of the interview type's length ordered by start time"),
+            ApiResponse(responseCode = "400", description = "Invalid date range"),
+            ApiResponse(responseCode = "404", description = "Mentor or interview type not found")
+        ]
+    )
+    @Parameters(
+        value = [
+            Parameter(
+                name = "interviewTypeId",
+                description = "id of the interview type, its slot length splits the mentor's windows",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "from",
+                description = "zoned date time in ISO-8601 format, example 2024-03-26T00:00:00+03:30",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "to",
+                description = "zoned date time in ISO-8601 format, at most 92 days after from",
+                `in` = ParameterIn.QUERY,
+                required = true
+            )
+        ]
+    )
+    @GetMapping("/mentors/{id}/slots", produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun mentorSlots(
+        @PathVariable id: Long,
+        @RequestParam(value = "interviewTypeId", required = true) interviewTypeId: Long,
+        @RequestParam(value = "from", required = true) from: ZonedDateTime,
+        @RequestParam(value = "to", required = true) to: ZonedDateTime
+    ): List<ValidWindow> {
+        return scheduleService.bookableSlots(id, interviewTypeId, from, to)
+    }
+
+    @Operation(summary = "Windows in which all mentors of a panel interview are free")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "Common free windows in UTC, ordered by start"),
+            ApiResponse(responseCode = "400", description = "Invalid date range or panel size")
+        ]
+    )
+    @Parameters(
+        value = [
+            Parameter(
+                name = "mentorIds",
+                description = "comma separated ids of the panel mentors, at most 10",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "from",
+                description = "zoned date time in ISO-8601 format, example 2024-03-26T10:00:00+01:00",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "to",
+                description = "zoned date time in ISO-8601 format, at most 92 days after from",
+                `in` = ParameterIn.QUERY,
+                required = true
+            )
+        ]
+    )
+    @GetMapping("/mentors/common-availability", produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun panelAvailability(
+        @RequestParam(value = "mentorIds", required = true) mentorIds: List<Long>,
+        @RequestParam(value = "from", required = true) from: ZonedDateTime,
+        @RequestParam(value = "to", required = true) to: ZonedDateTime
+    ): List<ValidWindow> {
+        return scheduleService.commonFreeWindows(mentorIds, from, to)
+    }
+
+    @Operation(summary = "Free 15-minute slots of a mentor as one base64 bitmap per UTC day, for calendar widgets")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "One 96-bit bitmap per day, least significant bit first"),
+            ApiResponse(responseCode = "400", description = "Invalid number of days"),
+            ApiResponse(responseCode = "404", description = "Mentor not found")
+        ]
+    )
+    @Parameters(
+        value = [
+            Parameter(
+                name = "from",
+                description = "first UTC day in ISO-8601 format, example 2024-03-26",
+                `in` = ParameterIn.QUERY,
+                required = true
+            ),
+            Parameter(
+                name = "days",
+                description = "number of days, at most 92",
+                `in` = ParameterIn.QUERY,
+                required = false
+            )
+        ]
+    )
+    @GetMapping("/mentors/{id}/availability/bitmap", produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun mentorAvailabilityBitmap(
+        @PathVariable id: Long,
+        @RequestParam(value = "from", required = true) from: LocalDate,
+        @RequestParam(value = "days", defaultValue = "7") days: Int
+    ): AvailabilityBitmapResponse {
+        return scheduleService.availabilityBitmap(id, from, days)
+    }
 
     @Operation(summary = "Activate Job Seeker Account", description = "Activates a job seeker account")
     @ApiResponse(
@@ -156,8 +385,8 @@ class AccountController(
         consumes = [MediaType.APPLICATION_JSON_VALUE],
         produces = [MediaType.APPLICATION_JSON_VALUE]
     )
-    fun addTimeSlotsForMentor(@Valid @RequestBody request: AddTimeSlotsRequest) {
-        timeSlotService.addTimeSlots(request)
+    fun addTimeSlotsForMentor(@Valid @RequestBody request: AddTimeSlotsRequest): List<TimeSlotResult> {
+        return timeSlotService.addTimeSlots(request)
     }
 
     @Operation(summary = "Add schedule for mentor")
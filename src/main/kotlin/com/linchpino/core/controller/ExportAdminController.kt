@@ -0,0 +1,123 @@
+package com.linchpino.core.controller
+
+import com.linchpino.core.enums.ExportFormat
+import com.linchpino.core.service.ExportService
+import io.swagger.v3.oas.annotations.Operation
+import io.swagger.v3.oas.annotations.responses.ApiResponse
+import io.swagger.v3.oas.annotations.responses.ApiResponses
+import jakarta.servlet.http.HttpServletRequest
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.http.ContentDisposition
+import org.springframework.http.HttpHeaders
+import org.springframework.http.MediaType
+import org.springframework.http.ResponseEntity
+import org.springframework.web.bind.annotation.GetMapping
+import org.springframework.web.bind.annotation.RequestHeader
+import org.springframework.web.bind.annotation.RequestMapping
+import org.springframework.web.bind.annotation.RequestParam
+import org.springframework.web.bind.annotation.RestController
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody
+import java.io.OutputStream
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Full-table exports for analytics, streamed as NDJSON or CSV instead of paged. The body is gzip encoded when the
+ * client accepts it. An export may take longer than other async requests, so it raises the timeout of its own
+ * async context to export.timeout-ms instead of the application wide default.
+ */
+@RestController
+@RequestMapping("api/admin/exports")
+class ExportAdminController(
+    private val exportService: ExportService,
+    @Value("\${export.timeout-ms}") private val timeoutMillis: Long
+) {
+
+    @Operation(summary = "Export all interviews", description = "Streams every interview as NDJSON or CSV.")
+    @GetMapping("/interviews")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "Successful"),
+            ApiResponse(responseCode = "401", description = "Not authenticated"),
+            ApiResponse(responseCode = "403", description = "Not authorized")
+        ]
+    )
+    fun exportInterviews(
+        @RequestParam(defaultValue = "NDJSON") format: ExportFormat,
+        @RequestHeader(HttpHeaders.ACCEPT_ENCODING, required = false) acceptEncoding: String?,
+        request: HttpServletRequest
+    ): ResponseEntity<StreamingResponseBody> =
+        stream("interviews", format, acceptEncoding, request) { exportService.exportInterviews(format, it) }
+
+    @Operation(summary = "Export all payments", description = "Streams every payment as NDJSON or CSV.")
+    @GetMapping("/payments")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "Successful"),
+            ApiResponse(responseCode = "401", description = "Not authenticated"),
+            ApiResponse(responseCode = "403", description = "Not authorized")
+        ]
+    )
+    fun exportPayments(
+        @RequestParam(defaultValue = "NDJSON") format: ExportFormat,
+        @RequestHeader(HttpHeaders.ACCEPT_ENCODING, required = false) acceptEncoding: String?,
+        request: HttpServletRequest
+    ): ResponseEntity<StreamingResponseBody> =
+        stream("payments", format, acceptEncoding, request) { exportService.exportPayments(format, it) }
+
+    @Operation(summary = "Export all accounts", description = "Streams every account as NDJSON or CSV.")
+    @GetMapping("/accounts")
+    @ApiResponses(
+        value = [
+            ApiResponse(responseCode = "200", description = "Successful"),
+            ApiResponse(responseCode = "401", description = "Not authenticated"),
+            ApiResponse(responseCode = "403", description = "Not authorized")
+        ]
+    )
+    fun exportAccounts(
+        @RequestParam(defaultValue = "NDJSON") format: ExportFormat,
+        @RequestHeader(HttpHeaders.ACCEPT_ENCODING, required = false) acceptEncoding: String?,
+        request: HttpServletRequest
+    ): ResponseEntity<StreamingResponseBody> =
+        stream("accounts", format, acceptEncoding, request) { exportService.exportAccounts(format, it) }
+
+    private fun stream(
+        name: String,
+        format: ExportFormat,
+        acceptEncoding: String?,
+        request: HttpServletRequest,
+        export: (OutputStream) -> Unit
+    ): ResponseEntity<StreamingResponseBody> {
+        val gzip = acceptsGzip(acceptEncoding)
+        val response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.mediaType))
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("$name.${format.extension}").build().toString()
+            )
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+        return response.body(StreamingResponseBody { out ->
+            if (request.isAsyncStarted) request.asyncContext.timeout = timeoutMillis
+            if (gzip) GZIPOutputStream(out, GZIP_BUFFER_SIZE).also { export(it) }.finish() else export(out)
+        })
+    }
+
+    companion object {
+        private const val GZIP_BUFFER_SIZE = 64 * 1024
+
+        /**
+         * Whether [acceptEncoding] gives gzip a q-value above 0, either by name or through `*` when gzip is not
+         * listed. A malformed q-value counts as 0.
+         */
+        fun acceptsGzip(acceptEncoding: String?): Boolean {
+            val qualities = acceptEncoding.orEmpty().split(',').filter { it.isNotBlank() }.associate { part ->
+                val params = part.split(';').map { it.trim() }
+                val quality = params.drop(1).firstOrNull { it.startsWith("q=", ignoreCase = true) }
+                    ?.let { it.substring(2).trim().toDoubleOrNull() ?: 0.0 }
+                    ?: 1.0
+                params[0].lowercase() to quality
+            }
+            return (qualities["gzip"] ?: qualities["x-gzip"] ?: qualities["*"] ?: 0.0) > 0
+        }
+    }
+}
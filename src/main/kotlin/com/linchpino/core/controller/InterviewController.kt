@@ -4,9 +4,15 @@ import com.linchpino.core.dto.CreateInterviewRequest
 import com.linchpino.core.dto.CreateInterviewResult
 import com.linchpino.core.dto.InterviewFeedBackRequest
 import com.linchpino.core.dto.InterviewListResponse
+import com.linchpino.core.dto.InterviewProvisioningResponse
+import com.linchpino.core.dto.InterviewSlice
 import com.linchpino.core.dto.InterviewValidityResponse
+import com.linchpino.core.dto.SlotHoldRequest
+import com.linchpino.core.dto.SlotHoldResponse
 import com.linchpino.core.service.FeedbackService
 import com.linchpino.core.service.InterviewService
+import com.linchpino.core.service.MeetProvisioningService
+import com.linchpino.core.service.SlotHoldService
 import io.swagger.v3.oas.annotations.Operation
 import io.swagger.v3.oas.annotations.responses.ApiResponse
 import io.swagger.v3.oas.annotations.responses.ApiResponses
@@ -17,17 +23,25 @@ import org.springframework.http.HttpStatus
 import org.springframework.http.MediaType
 import org.springframework.http.ResponseEntity
 import org.springframework.security.core.Authentication
+import org.springframework.web.bind.annotation.DeleteMapping
 import org.springframework.web.bind.annotation.GetMapping
 import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.PostMapping
 import org.springframework.web.bind.annotation.RequestBody
 import org.springframework.web.bind.annotation.RequestMapping
+import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.ResponseStatus
 import org.springframework.web.bind.annotation.RestController
+import java.util.UUID
 
 @RestController
 @RequestMapping("api/interviews")
-class InterviewController(private val service: InterviewService, private val feedbackService: FeedbackService) {
+class InterviewController(
+    private val service: InterviewService,
+    private val feedbackService: FeedbackService,
+    private val slotHoldService: SlotHoldService,
+    private val meetProvisioning: MeetProvisioningService
+) {
 
 
     @Operation(summary = "Create a new Interview")
@@ -42,6 +56,42 @@ class InterviewController(private val service: InterviewService, private val fee
         return ResponseEntity.status(HttpStatus.CREATED).body(result)
     }
 
+    @Operation(summary = "Poll whether the Meet link and invitation of a new interview are ready")
+    @ApiResponses(
+        value = [ApiResponse(responseCode = "200", description = "Provisioning status fetched successfully"),
+            ApiResponse(responseCode = "401", description = "User is not authenticated"),
+            ApiResponse(responseCode = "404", description = "Interview not found or user is not a participant")]
+    )
+    @GetMapping("/{id}/provisioning")
+    fun provisioningStatus(@PathVariable id: Long, authentication: Authentication): InterviewProvisioningResponse {
+        return meetProvisioning.status(id, authentication)
+    }
+
+    @Operation(summary = "Hold a mentor time slot for a few minutes until the interview is created")
+    @ResponseStatus(HttpStatus.CREATED)
+    @ApiResponses(
+        value = [ApiResponse(responseCode = "201", description = "Time slot held successfully"),
+            ApiResponse(responseCode = "400", description = "Time slot is invalid or already booked"),
+            ApiResponse(responseCode = "401", description = "User is not authenticated"),
+            ApiResponse(responseCode = "403", description = "Authenticated user is not JOB_SEEKER"),
+            ApiResponse(responseCode = "429", description = "Job seeker holds too many time slots")]
+    )
+    @PostMapping("/holds", consumes = [MediaType.APPLICATION_JSON_VALUE], produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun holdTimeSlot(
+        @Valid @RequestBody request: SlotHoldRequest,
+        authentication: Authentication
+    ): ResponseEntity<SlotHoldResponse> {
+        val result = slotHoldService.hold(request, authentication)
+        return ResponseEntity.status(HttpStatus.CREATED).body(result)
+    }
+
+    @Operation(summary = "Release a time slot held by the authenticated job seeker")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @DeleteMapping("/holds/{id}")
+    fun releaseTimeSlot(@PathVariable id: UUID, authentication: Authentication) {
+        slotHoldService.release(id, authentication)
+    }
+
     @Operation(summary = "Return page of upcoming interviews for authenticated mentor")
     @ApiResponses(
         value = [
@@ -70,6 +120,32 @@ class InterviewController(private val service: InterviewService, private val fee
         return result
     }
 
+    @Operation(
+        summary = "Return upcoming interviews for authenticated mentor after a cursor",
+        description = "Keyset paging without a total count. Send an empty cursor for the first page and nextCursor of the previous slice for the following ones"
+    )
+    @GetMapping("/mentors/upcoming", params = ["cursor"])
+    fun upcomingInterviewsAfter(
+        authentication: Authentication,
+        @RequestParam cursor: String,
+        @RequestParam(defaultValue = "20") size: Int
+    ): InterviewSlice {
+        return service.upcomingInterviewsAfter(authentication, cursor.ifEmpty { null }, size)
+    }
+
+    @Operation(
+        summary = "Return past interviews for authenticated mentor after a cursor",
+        description = "Keyset paging without a total count. Send an empty cursor for the first page and nextCursor of the previous slice for the following ones"
+    )
+    @GetMapping("/mentors/past", params = ["cursor"])
+    fun pastInterviewsBefore(
+        authentication: Authentication,
+        @RequestParam cursor: String,
+        @RequestParam(defaultValue = "20") size: Int
+    ): InterviewSlice {
+        return service.pastInterviewsBefore(authentication, cursor.ifEmpty { null }, size)
+    }
+
     @GetMapping("/{id}/validity")
     fun checkInterviewValidity(@PathVariable id: Long,authentication: Authentication): ResponseEntity<InterviewValidityResponse> {
         val result = service.checkValidity(id, authentication)
@@ -123,4 +199,30 @@ class InterviewController(private val service: InterviewService, private val fee
         val result = service.jobSeekerPastInterviews(authentication, page)
         return result
     }
+
+    @Operation(
+        summary = "Return upcoming interviews for authenticated job-seeker after a cursor",
+        description = "Keyset paging without a total count. Send an empty cursor for the first page and nextCursor of the previous slice for the following ones"
+    )
+    @GetMapping("/jobseekers/upcoming", params = ["cursor"])
+    fun jobSeekerUpcomingInterviewsAfter(
+        authentication: Authentication,
+        @RequestParam cursor: String,
+        @RequestParam(defaultValue = "20") size: Int
+    ): InterviewSlice {
+        return service.jobSeekerUpcomingInterviewsAfter(authentication, cursor.ifEmpty { null }, size)
+    }
+
+    @Operation(
+        summary = "Return past interviews for authenticated job-seeker after a cursor",
+        description = "Keyset paging without a total count. Send an empty cursor for the first page and nextCursor of the previous slice for the following ones"
+    )
+    @GetMapping("/jobseekers/past", params = ["cursor"])
+    fun jobSeekerPastInterviewsBefore(
+        authentication: Authentication,
+        @RequestParam cursor: String,
+        @RequestParam(defaultValue = "20") size: Int
+    ): InterviewSlice {
+        return service.jobSeekerPastInterviewsBefore(authentication, cursor.ifEmpty { null }, size)
+    }
 }
@@ -1,6 +1,8 @@
 package com.linchpino.core.controller
 
+import com.linchpino.core.dto.AvailabilityDay
 import com.linchpino.core.dto.InterviewTypeResponse
+import com.linchpino.core.service.AvailabilityHeatmapService
 import com.linchpino.core.service.InterviewTypeService
 import io.swagger.v3.oas.annotations.Operation
 import io.swagger.v3.oas.annotations.Parameter
@@ -10,13 +12,18 @@ import org.springframework.data.domain.Pageable
 import org.springframework.data.web.PageableDefault
 import org.springframework.http.MediaType
 import org.springframework.web.bind.annotation.GetMapping
+import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.RequestMapping
 import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.RestController
+import java.time.YearMonth
 
 @RestController
 @RequestMapping("api/interviewtypes")
-class InterviewTypeController(private val service: InterviewTypeService) {
+class InterviewTypeController(
+    private val service: InterviewTypeService,
+    private val heatmapService: AvailabilityHeatmapService
+) {
 
 
     @Operation(summary = "Search interview types by name")
@@ -32,5 +39,16 @@ class InterviewTypeController(private val service: InterviewTypeService) {
         @PageableDefault(size = 10) pageable: Pageable
     ): Page<InterviewTypeResponse> = service.searchByName(name, pageable)
 
-
+    @Operation(summary = "Number of free mentor windows per UTC day of a month for an interview type")
+    @Parameter(
+        name = "month",
+        description = "month in ISO-8601 format YYYY-MM, example 2024-10",
+        `in` = ParameterIn.QUERY,
+        required = true
+    )
+    @GetMapping("/{id}/availability", produces = [MediaType.APPLICATION_JSON_VALUE])
+    fun availabilityHeatmap(
+        @PathVariable id: Long,
+        @RequestParam(value = "month", required = true) month: YearMonth
+    ): List<AvailabilityDay> = heatmapService.heatmap(id, month)
 }
@@ -12,6 +12,7 @@ import jakarta.validation.constraints.NotBlank
 import jakarta.validation.constraints.NotEmpty
 import jakarta.validation.constraints.NotNull
 import jakarta.validation.constraints.Pattern
+import java.time.LocalDate
 import java.time.ZonedDateTime
 
 data class CreateAccountRequest(
@@ -90,6 +91,15 @@ data class MentorWithClosestSchedule(
     val avatar: String?
 )
 
+/**
+ * Mentors with a free window on a UTC day for one interview type, each with their earliest window of the day.
+ */
+data class MentorSearchResult(
+    val day: LocalDate,
+    val interviewTypeId: Long,
+    val mentors: List<MentorWithClosestSchedule>
+)
+
 data class ActivateJobSeekerAccountRequest(
     @field:NotBlank(message = "external id is required") val externalId: String,
     @field:NotBlank(message = "firstname is required") val firstName: String,
@@ -0,0 +1,34 @@
+package com.linchpino.core.dto
+
+import java.time.ZonedDateTime
+
+/**
+ * A busy event of a mentor's Google calendar, in UTC.
+ */
+data class CalendarBusyEvent(
+    val eventId: String,
+    val start: ZonedDateTime,
+    val end: ZonedDateTime
+)
+
+/**
+ * Events changed since the previous sync token. A full sync replaces every stored event of the mentor.
+ */
+data class CalendarBusyChanges(
+    val busy: List<CalendarBusyEvent>,
+    val removedEventIds: List<String>,
+    val syncToken: String?,
+    val fullSync: Boolean
+)
+
+data class CalendarSyncTarget(
+    val accountId: Long,
+    val email: String,
+    val syncToken: String?
+)
+
+data class CalendarBusy(
+    val accountId: Long,
+    val start: ZonedDateTime,
+    val end: ZonedDateTime
+)
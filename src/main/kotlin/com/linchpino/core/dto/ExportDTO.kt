@@ -0,0 +1,68 @@
+package com.linchpino.core.dto
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer
+import com.linchpino.core.enums.AccountStatusEnum
+import com.linchpino.core.enums.PaymentStatus
+import java.math.BigDecimal
+import java.time.ZonedDateTime
+
+/**
+ * One exported row. [values] are the CSV cells, in the order of the columns of its export.
+ */
+interface ExportRow {
+    fun values(): List<Any?>
+}
+
+data class InterviewExportRow(
+    val id: Long,
+    val mentorAccountId: Long?,
+    val jobSeekerAccountId: Long,
+    val interviewTypeId: Long,
+    val jobPositionId: Long,
+    val fromTime: ZonedDateTime,
+    val toTime: ZonedDateTime,
+    val meetCode: String?,
+    val createdOn: ZonedDateTime?
+) : ExportRow {
+    override fun values() =
+        listOf(id, mentorAccountId, jobSeekerAccountId, interviewTypeId, jobPositionId, fromTime, toTime, meetCode, createdOn)
+
+    companion object {
+        val COLUMNS = listOf(
+            "id", "mentorAccountId", "jobSeekerAccountId", "interviewTypeId", "jobPositionId",
+            "fromTime", "toTime", "meetCode", "createdOn"
+        )
+    }
+}
+
+data class PaymentExportRow(
+    val interviewId: Long,
+    val refNumber: String?,
+    @JsonSerialize(using = ToStringSerializer::class)
+    val amount: BigDecimal,
+    val status: PaymentStatus,
+    val createdOn: ZonedDateTime?,
+    val modifiedOn: ZonedDateTime?
+) : ExportRow {
+    override fun values() = listOf(interviewId, refNumber, amount, status, createdOn, modifiedOn)
+
+    companion object {
+        val COLUMNS = listOf("interviewId", "refNumber", "amount", "status", "createdOn", "modifiedOn")
+    }
+}
+
+data class AccountExportRow(
+    val id: Long,
+    val email: String,
+    val firstName: String?,
+    val lastName: String?,
+    val status: AccountStatusEnum,
+    val createdOn: ZonedDateTime?
+) : ExportRow {
+    override fun values() = listOf(id, email, firstName, lastName, status, createdOn)
+
+    companion object {
+        val COLUMNS = listOf("id", "email", "firstName", "lastName", "status", "createdOn")
+    }
+}
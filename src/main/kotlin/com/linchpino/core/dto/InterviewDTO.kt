@@ -1,9 +1,17 @@
 package com.linchpino.core.dto
 
 import com.linchpino.core.entity.Interview
+import com.linchpino.core.enums.MeetProvisioningStatus
+import com.linchpino.core.enums.ReminderRecipient
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
 import jakarta.validation.constraints.Email
 import jakarta.validation.constraints.NotNull
+import java.time.Instant
+import java.time.ZoneOffset
 import java.time.ZonedDateTime
+import java.util.Base64
+import java.util.UUID
 
 data class CreateInterviewRequest(
     @field:NotNull(message = "jobPositionId is required") val jobPositionId: Long,
@@ -12,6 +20,7 @@ data class CreateInterviewRequest(
     @field:NotNull(message = "endTime is required") val endTime: ZonedDateTime,
     @field:NotNull(message = "mentorAccountId is required") val mentorAccountId: Long,
     @field:Email(message = "jobSeekerEmail is required") val jobSeekerEmail: String,
+    val holdId: UUID? = null,
 )
 
 data class CreateInterviewResult(
@@ -32,6 +41,48 @@ data class InterviewListResponse(
     val interviewType: String,
 )
 
+/**
+ * A page of an interview list without a total count. [nextCursor] is passed back to get the rows after this page,
+ * null on the last page.
+ */
+data class InterviewSlice(
+    val content: List<InterviewListResponse>,
+    val nextCursor: String?
+) {
+    val hasNext: Boolean
+        get() = nextCursor != null
+}
+
+/**
+ * Position in an interview list: the (fromTime, id) of the last row returned. Clients see it as an opaque string.
+ */
+data class InterviewCursor(val fromTime: ZonedDateTime, val id: Long) {
+
+    fun encode(): String = Base64.getUrlEncoder().withoutPadding()
+        .encodeToString("${fromTime.toInstant()}|$id".toByteArray())
+
+    companion object {
+        fun decode(cursor: String): InterviewCursor = try {
+            val (instant, id) = String(Base64.getUrlDecoder().decode(cursor)).split('|', limit = 2)
+            InterviewCursor(Instant.parse(instant).atZone(ZoneOffset.UTC), id.toLong())
+        } catch (ex: RuntimeException) {
+            throw LinchpinException("invalid cursor $cursor", ex, ErrorCode.INVALID_CURSOR)
+        }
+    }
+}
+
+fun InterviewListResponse.cursor() = InterviewCursor(fromTime, id)
+
+/**
+ * The reminder of an interview sent [offsetMinutes] before it starts.
+ */
+data class ReminderKey(val interviewId: Long, val offsetMinutes: Int)
+
+/**
+ * A reminder taken for sending, with the recipients an earlier, partly failed send already mailed.
+ */
+data class ClaimedReminder(val key: ReminderKey, val delivered: Set<ReminderRecipient> = emptySet())
+
 fun Interview.toCreateInterviewResult(): CreateInterviewResult = CreateInterviewResult(
     id,
     jobPosition?.id,
@@ -47,3 +98,64 @@ data class InterviewValidityResponse(
     val verifyStatus: Boolean,
     val link: String?
 )
+
+/**
+ * What the validity check needs to know about an interview: who may join it, when, and its meet code once
+ * provisioned.
+ */
+data class InterviewJoinWindow(
+    val interviewId: Long,
+    val jobSeekerId: Long,
+    val jobSeekerEmail: String,
+    val mentorId: Long?,
+    val mentorEmail: String?,
+    val fromTime: ZonedDateTime,
+    val toTime: ZonedDateTime,
+    val meetCode: String?
+) {
+    /**
+     * Account id of the participant signed in as [email], or null when [email] is not a participant.
+     */
+    fun participantId(email: String): Long? = when {
+        jobSeekerEmail.equals(email, ignoreCase = true) -> jobSeekerId
+        mentorEmail.equals(email, ignoreCase = true) -> mentorId
+        else -> null
+    }
+}
+
+fun Interview.toJoinWindow(): InterviewJoinWindow? {
+    val jobSeeker = jobSeekerAccount ?: return null
+    val slot = timeSlot ?: return null
+    return InterviewJoinWindow(
+        id ?: return null,
+        jobSeeker.id ?: return null,
+        jobSeeker.email,
+        mentorAccount?.id,
+        mentorAccount?.email,
+        slot.fromTime,
+        slot.toTime,
+        meetCode
+    )
+}
+
+data class InterviewProvisioningResponse(
+    val interviewId: Long,
+    val status: MeetProvisioningStatus
+)
+
+data class SlotHoldRequest(
+    @field:NotNull(message = "mentorAccountId is required") val mentorAccountId: Long,
+    @field:NotNull(message = "startTime is required") val startTime: ZonedDateTime,
+    @field:NotNull(message = "endTime is required") val endTime: ZonedDateTime,
+    @field:NotNull(message = "interviewTypeId is required") val interviewTypeId: Long,
+    val minutes: Long? = null,
+)
+
+data class SlotHoldResponse(
+    val holdId: UUID,
+    val timeSlotId: Long?,
+    val mentorAccountId: Long,
+    val startTime: ZonedDateTime,
+    val endTime: ZonedDateTime,
+    val expiresAt: ZonedDateTime,
+)
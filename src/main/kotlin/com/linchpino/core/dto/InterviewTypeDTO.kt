@@ -1,11 +1,22 @@
 package com.linchpino.core.dto
 
 import jakarta.validation.constraints.NotBlank
+import jakarta.validation.constraints.Positive
+import java.time.LocalDate
 
 data class InterviewTypeSearchResponse(val id: Long?, val title: String)
 data class InterviewTypeResponse(val id: Long?, val title: String,val jobPosition: JobPositionSearchResponse)
 
 
-data class InterviewTypeCreateRequest(@field:NotBlank val name: String, val jobPositionId: Long)
+data class InterviewTypeCreateRequest(
+    @field:NotBlank val name: String,
+    val jobPositionId: Long,
+    @field:Positive val slotMinutes: Int? = null
+)
 
-data class InterviewTypeUpdateRequest(val name: String?,val jobPositionId: Long?)
+data class InterviewTypeUpdateRequest(val name: String?, val jobPositionId: Long?, @field:Positive val slotMinutes: Int? = null)
+
+/**
+ * Free schedule occurrences of an interview type starting on a UTC day.
+ */
+data class AvailabilityDay(val day: LocalDate, val freeWindows: Int)
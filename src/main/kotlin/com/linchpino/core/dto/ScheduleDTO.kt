@@ -4,15 +4,84 @@ import com.linchpino.core.entity.Account
 import com.linchpino.core.entity.Schedule
 import com.linchpino.core.enums.RecurrenceType
 import java.time.DayOfWeek
+import java.time.LocalDate
 import java.time.ZonedDateTime
 import java.time.temporal.ChronoUnit
 
 data class ValidWindow(val start: ZonedDateTime, val end: ZonedDateTime)
 
+/**
+ * Free 15-minute slots of a mentor for consecutive UTC days starting at [from], one base64 encoded 96-bit bitmap
+ * per day. Byte k bit j (least significant first) of a day is the slot starting 15 * (8k + j) minutes after
+ * midnight UTC.
+ */
+data class AvailabilityBitmapResponse(
+    val mentorId: Long,
+    val from: LocalDate,
+    val slotMinutes: Int,
+    val days: List<String>
+)
+
 fun ValidWindow.hasOverlapWith(window: ValidWindow) =
     start.truncatedTo(ChronoUnit.MINUTES).isBefore(window.end.truncatedTo(ChronoUnit.MINUTES))
         && window.start.truncatedTo(ChronoUnit.MINUTES).isBefore(end.truncatedTo(ChronoUnit.MINUTES))
 
+/**
+ * Removes [busy] windows from these windows in a single merge pass. Both must be ordered by start,
+ * [busy] windows may overlap each other.
+ */
+fun Sequence<ValidWindow>.without(busy: List<ValidWindow>): Sequence<ValidWindow> = sequence {
+    var first = 0
+    for (window in this@without) {
+        while (first < busy.size && !busy[first].end.isAfter(window.start)) first++
+        var cursor = window.start
+        var index = first
+        while (index < busy.size && busy[index].start.isBefore(window.end)) {
+            val slot = busy[index]
+            if (slot.start.isAfter(cursor))
+                yield(ValidWindow(cursor, slot.start.withZoneSameInstant(cursor.zone)))
+            if (slot.end.isAfter(cursor))
+                cursor = slot.end.withZoneSameInstant(cursor.zone)
+            index++
+        }
+        if (window.end.isAfter(cursor))
+            yield(ValidWindow(cursor, window.end))
+    }
+}
+
+/**
+ * A future ALLOCATED or HELD time slot of a mentor, with its interview if it is booked already.
+ */
+data class BookedTimeSlot(
+    val timeSlotId: Long,
+    val interviewId: Long?,
+    val start: ZonedDateTime,
+    val end: ZonedDateTime
+)
+
+/**
+ * Mentor and window of a HELD time slot that was just released.
+ */
+data class ReleasedTimeSlot(val accountId: Long, val window: ValidWindow)
+
+/**
+ * Booked slots that do not fit inside any of [occurrences], in a single merge pass after sorting the slots by start.
+ * [occurrences] must be ordered by start and must not overlap each other, booked slots never overlap each other
+ * either, so both ends advance monotonically.
+ */
+fun List<BookedTimeSlot>.notCoveredBy(occurrences: Sequence<ValidWindow>): List<BookedTimeSlot> {
+    val windows = occurrences.iterator()
+    var window = if (windows.hasNext()) windows.next() else null
+    val conflicts = mutableListOf<BookedTimeSlot>()
+    for (slot in sortedBy { it.start.toInstant() }) {
+        while (window != null && window.end.isBefore(slot.end))
+            window = if (windows.hasNext()) windows.next() else null
+        if (window == null || window.start.isAfter(slot.start))
+            conflicts.add(slot)
+    }
+    return conflicts
+}
+
 data class ScheduleRequest(
     val startTime: ZonedDateTime,
     val duration: Int,
@@ -20,7 +89,9 @@ data class ScheduleRequest(
     val interval: Int,
     val endTime: ZonedDateTime,
     val weekDays: List<DayOfWeek> = listOf(),
-    val monthDays: List<Int> = listOf()
+    val monthDays: List<Int> = listOf(),
+    val rrule: String? = null,
+    val excludedDates: List<LocalDate> = listOf()
 )
 
 data class ScheduleUpdateRequest(
@@ -30,7 +101,9 @@ data class ScheduleUpdateRequest(
     val interval: Int?,
     val endTime: ZonedDateTime?,
     val weekDays: List<DayOfWeek> = listOf(),
-    val monthDays: List<Int> = listOf()
+    val monthDays: List<Int> = listOf(),
+    val rrule: String? = null,
+    val excludedDates: List<LocalDate>? = null
 )
 
 fun ScheduleRequest.toSchedule(account: Account): Schedule {
@@ -46,6 +119,8 @@ fun ScheduleRequest.toSchedule(account: Account): Schedule {
     if (this.recurrenceType == RecurrenceType.MONTHLY) {
         schedule.monthDays.addAll(this.monthDays)
     }
+    if (this.rrule != null) schedule.applyRule(this.rrule, excludedDates)
+    else if (excludedDates.isNotEmpty()) throw Schedule.excludedDatesWithoutRule()
 
     schedule.account = account
     return schedule
@@ -61,6 +136,8 @@ data class ScheduleResponse(
     val endTime: ZonedDateTime?,
     val weekDays: List<DayOfWeek> = listOf(),
     val monthDays: List<Int> = listOf(),
+    val rrule: String? = null,
+    val excludedDates: List<LocalDate> = listOf(),
 )
 
 fun Schedule.toResponse() = ScheduleResponse(
@@ -73,4 +150,38 @@ fun Schedule.toResponse() = ScheduleResponse(
     endTime,
     weekDays,
     monthDays,
+    rrule,
+    excludedDates,
 )
+
+data class MentorScheduleOccurrence(
+    val mentorId: Long,
+    val mentorFirstName: String?,
+    val mentorLastName: String?,
+    val email: String,
+    val avatar: String?,
+    val start: ZonedDateTime,
+    val end: ZonedDateTime
+)
+
+/**
+ * Mentor and window of a HELD time slot that was just released.
+ */
+data class ReleasedTimeSlot(val accountId: Long, val window: ValidWindow)
+
+/**
+ * A [MentorScheduleOccurrence] of one of the interview types the mentor offers, with the slot length of the type.
+ */
+data class MentorTypeOccurrence(
+    val interviewTypeId: Long,
+    val slotMinutes: Int?,
+    val mentorId: Long,
+    val mentorFirstName: String?,
+    val mentorLastName: String?,
+    val email: String,
+    val avatar: String?,
+    val start: ZonedDateTime,
+    val end: ZonedDateTime
+) {
+    fun toOccurrence() = MentorScheduleOccurrence(mentorId, mentorFirstName, mentorLastName, email, avatar, start, end)
+}
@@ -1,30 +1,48 @@
 package com.linchpino.core.dto
 
-import com.linchpino.core.entity.Account
-import com.linchpino.core.entity.MentorTimeSlot
-import com.linchpino.core.enums.MentorTimeSlotEnum
-import com.linchpino.core.exception.ErrorCode
-import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.enums.TimeSlotResultStatus
 import jakarta.validation.constraints.NotEmpty
 import jakarta.validation.constraints.NotNull
 import java.time.ZonedDateTime
 
-data class TimeSlot(@field:NotNull(message = "start time must not be null") val startTime: ZonedDateTime,@field:NotNull(message = "end time must not be null") val endTime: ZonedDateTime){
-
-    fun validate(){
-        if (startTime.isAfter(endTime)) {
-            throw LinchpinException(ErrorCode.INVALID_TIMESLOT,"invalid time slot, start is after end")
-        }
-    }
-}
+data class TimeSlot(@field:NotNull(message = "start time must not be null") val startTime: ZonedDateTime,@field:NotNull(message = "end time must not be null") val endTime: ZonedDateTime)
 data class AddTimeSlotsRequest(@field:NotNull(message = "mentorId must not be null") val mentorId: Long,@field:NotEmpty(message = "time slots must be provided") val timeSlots: List<TimeSlot>)
 
 
-fun TimeSlot.toAvailableMentorTimeSlot(account:Account):MentorTimeSlot {
-    val mentorTimeSlot = MentorTimeSlot()
-    mentorTimeSlot.fromTime = this.startTime
-    mentorTimeSlot.toTime = this.endTime
-    mentorTimeSlot.account = account
-    mentorTimeSlot.status = MentorTimeSlotEnum.AVAILABLE
-    return mentorTimeSlot
+data class TimeSlotResult(
+    val index: Int,
+    val startTime: ZonedDateTime,
+    val endTime: ZonedDateTime,
+    val status: TimeSlotResultStatus
+)
+
+/**
+ * Validates a batch of time slots in one sorted sweep. Returns the status of each slot in request order, null for
+ * slots accepted so far; a slot overlapping an earlier accepted slot of the batch is rejected, accepted slots never
+ * overlap each other.
+ */
+fun List<TimeSlot>.validateBatch(): Array<TimeSlotResultStatus?> {
+    val statuses = arrayOfNulls<TimeSlotResultStatus>(size)
+    val starts = LongArray(size)
+    val ends = LongArray(size)
+    val valid = ArrayList<Int>(size)
+    forEachIndexed { index, slot ->
+        if (slot.startTime.isAfter(slot.endTime)) {
+            statuses[index] = TimeSlotResultStatus.INVALID
+        } else {
+            starts[index] = slot.startTime.toInstant().toEpochMilli()
+            ends[index] = slot.endTime.toInstant().toEpochMilli()
+            valid.add(index)
+        }
+    }
+    valid.sortWith { first, second -> starts[first].compareTo(starts[second]) }
+    var maxEnd = Long.MIN_VALUE
+    for (index in valid) {
+        if (maxEnd > starts[index]) {
+            statuses[index] = TimeSlotResultStatus.OVERLAPS_REQUEST
+        } else {
+            maxEnd = maxOf(maxEnd, ends[index])
+        }
+    }
+    return statuses
 }
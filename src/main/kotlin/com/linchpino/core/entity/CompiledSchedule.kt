@@ -0,0 +1,427 @@
+package com.linchpino.core.entity
+
+import com.linchpino.core.dto.ValidWindow
+import com.linchpino.core.enums.RecurrenceType
+import java.time.DayOfWeek
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.time.temporal.TemporalAdjusters
+import java.util.Arrays
+
+/**
+ * Primitive form of a [Schedule] that answers [Schedule.timeSlot] and [Schedule.doesMatchesSelectedDay]
+ * with epoch-second arithmetic, a weekday bitmask and a month-day bitmask.
+ *
+ * Results are identical to the entity methods, including their ChronoUnit.between truncation rules and
+ * DST resolution in the schedule zone. Targets are passed as (epochSecond, nano, offsetSeconds); pass
+ * [SCHEDULE_ZONE] as offset when the target lives in the schedule zone so its DST rules are applied too.
+ * The primitive methods return the window start as epoch second, or [NO_WINDOW], and do not allocate.
+ *
+ * Schedules with an RRULE are expanded once into the sorted local days of their occurrences, day checks become
+ * binary searches and the next occurrence after any instant is found in O(log n). For them a target matches the
+ * occurrence on its local day of the schedule zone, there are no legacy truncation rules to reproduce.
+ */
+class CompiledSchedule private constructor(
+    val recurrenceType: RecurrenceType,
+    val zone: ZoneId,
+    start: ZonedDateTime,
+    end: ZonedDateTime,
+    duration: Int,
+    interval: Int,
+    weekDays: Collection<DayOfWeek>,
+    monthDays: Collection<Int>,
+    private val ruleDays: LongArray?
+) {
+    private val interval = interval.toLong()
+    val durationSeconds = duration * SECONDS_PER_MINUTE
+    val weekDayMask = weekDays.fold(0) { mask, day -> mask or (1 shl day.ordinal) }
+    val monthDayMask = monthDays.filter { it in 1..31 }.fold(0) { mask, day -> mask or (1 shl (day - 1)) }
+
+    private val startLocalSecond = start.toLocalDateTime().toEpochSecond(ZoneOffset.UTC)
+    private val startOffset = start.offset.totalSeconds
+    val startEpochSecond = start.toEpochSecond()
+    val startNano = start.nano
+    val firstDay = start.toLocalDate().toEpochDay()
+    private val firstMonday = mondayOf(firstDay)
+    private val firstMonth = Math.floorDiv(packedMonthDay(firstDay), 32L)
+    private val step = interval.coerceAtLeast(1).toLong()
+
+    val endEpochSecond = end.toEpochSecond()
+    private val endLocalSecond = end.toLocalDateTime().toEpochSecond(ZoneOffset.UTC)
+    private val endNano = end.nano
+
+    // anchors the entity methods measure distances from, resolved once with java.time
+    private val dayAnchor = start.with(LocalTime.MIN).toLocalDateTime()
+    private val weekAnchor = start.with(LocalTime.MIN).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+        .toLocalDateTime()
+    private val monthAnchor = start.withDayOfMonth(1).toLocalDateTime()
+    private val dayAnchorDay = dayAnchor.toLocalDate().toEpochDay()
+    private val dayAnchorNanoOfDay = dayAnchor.toLocalTime().toNanoOfDay()
+    private val weekAnchorDay = weekAnchor.toLocalDate().toEpochDay()
+    private val weekAnchorNanoOfDay = weekAnchor.toLocalTime().toNanoOfDay()
+    private val monthAnchorDay = monthAnchor.toLocalDate().toEpochDay()
+    private val monthAnchorNanoOfDay = monthAnchor.toLocalTime().toNanoOfDay()
+    private val monthAnchorPacked = packedMonthDay(monthAnchorDay)
+
+    // offset transitions of the schedule zone around the schedule lifetime, outside of it java.time is used
+    private val fixedOffset = zone.rules.isFixedOffset
+    private val rangeStart: Long
+    private val rangeEnd: Long
+    private val baseOffset: Int
+    private val transitionEpochs: LongArray
+    private val offsetsBefore: IntArray
+    private val offsetsAfter: IntArray
+    private val transitionLocalLow: LongArray
+    private val transitionLocalHigh: LongArray
+
+    init {
+        val rules = zone.rules
+        if (fixedOffset) {
+            rangeStart = Long.MIN_VALUE
+            rangeEnd = Long.MAX_VALUE
+            baseOffset = rules.getOffset(start.toInstant()).totalSeconds
+        } else {
+            rangeStart = startEpochSecond - TRANSITION_MARGIN_SECONDS
+            rangeEnd = minOf(endEpochSecond, startEpochSecond + MAX_TRANSITION_SPAN_SECONDS) +
+                TRANSITION_MARGIN_SECONDS
+            baseOffset = rules.getOffset(Instant.ofEpochSecond(rangeStart)).totalSeconds
+        }
+        val transitions = generateSequence(
+            if (fixedOffset) null else rules.nextTransition(Instant.ofEpochSecond(rangeStart))
+        ) { rules.nextTransition(it.instant) }
+            .takeWhile { it.toEpochSecond() <= rangeEnd }
+            .toList()
+        transitionEpochs = LongArray(transitions.size) { transitions[it].toEpochSecond() }
+        offsetsBefore = IntArray(transitions.size) { transitions[it].offsetBefore.totalSeconds }
+        offsetsAfter = IntArray(transitions.size) { transitions[it].offsetAfter.totalSeconds }
+        transitionLocalLow = LongArray(transitions.size) {
+            transitionEpochs[it] + minOf(offsetsBefore[it], offsetsAfter[it])
+        }
+        transitionLocalHigh = LongArray(transitions.size) {
+            transitionEpochs[it] + maxOf(offsetsBefore[it], offsetsAfter[it])
+        }
+    }
+
+    /**
+     * Equivalent of [Schedule.doesMatchesSelectedDay].
+     */
+    fun selectedDayStart(epochSecond: Long, nano: Int, offset: Int): Long {
+        val candidate = if (ruleDays != null) occurrenceStart(localDay(epochSecond))
+        else candidateStart(epochSecond, nano, offset)
+        if (candidate == NO_WINDOW || !isAfter(candidate, startNano, epochSecond, nano))
+            return NO_WINDOW
+        return candidate
+    }
+
+    /**
+     * Equivalent of [Schedule.timeSlot].
+     */
+    fun timeSlotStart(
+        fromEpochSecond: Long,
+        fromNano: Int,
+        fromOffset: Int,
+        toEpochSecond: Long,
+        toNano: Int,
+        toOffset: Int
+    ): Long {
+        if (isAfterScheduleEnd(toEpochSecond, toNano, toOffset))
+            return NO_WINDOW
+        if (ruleDays != null)
+            return ruleTimeSlotStart(fromEpochSecond, fromNano, toEpochSecond, toNano)
+        when (recurrenceType) {
+            RecurrenceType.WEEKLY -> if (!hasWeekDay(targetLocalDay(toEpochSecond, toOffset))) return NO_WINDOW
+            RecurrenceType.MONTHLY -> if (!hasMonthDay(targetLocalDay(toEpochSecond, toOffset))) return NO_WINDOW
+            RecurrenceType.DAILY -> {}
+        }
+        val candidate = candidateStart(fromEpochSecond, fromNano, fromOffset)
+        if (candidate == NO_WINDOW)
+            return NO_WINDOW
+        val candidateEnd = candidate + durationSeconds
+        val outside = isAfter(candidate, startNano, fromEpochSecond, fromNano) ||
+            isAfter(fromEpochSecond, fromNano, candidateEnd, startNano) ||
+            isAfter(toEpochSecond, toNano, candidateEnd, startNano) ||
+            isAfter(candidate, startNano, toEpochSecond, toNano)
+        return if (outside) NO_WINDOW else candidate
+    }
+
+    /**
+     * Start of the occurrence on a local day of the schedule zone, with the day rules of [Schedule.occurrences].
+     */
+    fun occurrenceStart(epochDay: Long): Long {
+        val days = epochDay - firstDay
+        if (days < 0) return NO_WINDOW
+        val matches = if (ruleDays != null) Arrays.binarySearch(ruleDays, epochDay) >= 0 else when (recurrenceType) {
+            RecurrenceType.DAILY -> days % step == 0L
+            RecurrenceType.WEEKLY -> hasWeekDay(epochDay) && (mondayOf(epochDay) - firstMonday) / 7 % step == 0L
+            RecurrenceType.MONTHLY ->
+                hasMonthDay(epochDay) && (Math.floorDiv(packedMonthDay(epochDay), 32L) - firstMonth) % step == 0L
+        }
+        if (!matches) return NO_WINDOW
+        val start = resolveLocal(startLocalSecond + days * SECONDS_PER_DAY, startOffset)
+        if (start < startEpochSecond || isAfter(start, startNano, endEpochSecond, endNano)) return NO_WINDOW
+        return start
+    }
+
+    /**
+     * Start of the first occurrence starting at or after the instant, or [NO_WINDOW]. A binary search for RRULE
+     * schedules, a walk over the days up to the next occurrence otherwise. Days after [untilEpochSecond] are
+     * not searched.
+     */
+    @JvmOverloads
+    fun nextOccurrenceStart(epochSecond: Long, nano: Int, untilEpochSecond: Long = endEpochSecond): Long {
+        val lastDay = localDay(minOf(endEpochSecond, untilEpochSecond))
+        if (ruleDays != null) {
+            var index = ceilingIndex(ruleDays, localDay(epochSecond))
+            while (index < ruleDays.size && ruleDays[index] <= lastDay) {
+                val start = occurrenceStart(ruleDays[index])
+                if (start != NO_WINDOW && !isAfter(epochSecond, nano, start, startNano)) return start
+                index++
+            }
+            return NO_WINDOW
+        }
+        var day = maxOf(localDay(epochSecond), firstDay)
+        while (day <= lastDay) {
+            val start = occurrenceStart(day)
+            if (start != NO_WINDOW && !isAfter(epochSecond, nano, start, startNano)) return start
+            day++
+        }
+        return NO_WINDOW
+    }
+
+    /**
+     * Windows overlapping (from, to), same result as [Schedule.occurrences].
+     */
+    fun occurrences(from: ZonedDateTime, to: ZonedDateTime): Sequence<ValidWindow> {
+        val first = localDay(from.toEpochSecond()) - durationSeconds / SECONDS_PER_DAY - 1
+        val last = localDay(to.toEpochSecond())
+        val days = if (ruleDays != null) {
+            (ceilingIndex(ruleDays, first) until ruleDays.size).asSequence().map { ruleDays[it] }
+        } else {
+            generateSequence(maxOf(first, firstDay)) { it + 1 }
+        }
+        return days.takeWhile { it <= last }
+            .map { occurrenceStart(it) }
+            .filter { it != NO_WINDOW }
+            .map { window(it) }
+            .filter { it.end.isAfter(from) && it.start.isBefore(to) }
+    }
+
+    /**
+     * Local day of the schedule zone the instant falls on.
+     */
+    fun localDay(epochSecond: Long) = Math.floorDiv(localSecond(epochSecond), SECONDS_PER_DAY)
+
+    fun doesMatchesSelectedDay(selectedDay: ZonedDateTime): ValidWindow? {
+        val start = selectedDayStart(selectedDay.toEpochSecond(), selectedDay.nano, offsetOf(selectedDay))
+        return if (start == NO_WINDOW) null else window(start)
+    }
+
+    fun timeSlot(startTime: ZonedDateTime, targetTime: ZonedDateTime): ValidWindow? {
+        val start = timeSlotStart(
+            startTime.toEpochSecond(), startTime.nano, offsetOf(startTime),
+            targetTime.toEpochSecond(), targetTime.nano, offsetOf(targetTime)
+        )
+        return if (start == NO_WINDOW) null else window(start)
+    }
+
+    fun window(startEpochSecond: Long) = ValidWindow(
+        ZonedDateTime.ofInstant(Instant.ofEpochSecond(startEpochSecond, startNano.toLong()), zone),
+        ZonedDateTime.ofInstant(Instant.ofEpochSecond(startEpochSecond + durationSeconds, startNano.toLong()), zone)
+    )
+
+    /**
+     * Occurrence containing [from, to], with the inclusive bounds of the entity's validWindow.
+     */
+    private fun ruleTimeSlotStart(fromEpochSecond: Long, fromNano: Int, toEpochSecond: Long, toNano: Int): Long {
+        val day = localDay(fromEpochSecond)
+        for (back in 0..durationSeconds / SECONDS_PER_DAY + 1) {
+            val start = occurrenceStart(day - back)
+            if (start == NO_WINDOW) continue
+            val end = start + durationSeconds
+            val inside = !isAfter(start, startNano, fromEpochSecond, fromNano) &&
+                !isAfter(fromEpochSecond, fromNano, end, startNano) &&
+                !isAfter(toEpochSecond, toNano, end, startNano) &&
+                !isAfter(start, startNano, toEpochSecond, toNano)
+            if (inside) return start
+        }
+        return NO_WINDOW
+    }
+
+    private fun offsetOf(time: ZonedDateTime) = if (time.zone == zone) SCHEDULE_ZONE else time.offset.totalSeconds
+
+    /**
+     * Start of the occurrence on the day of the target, after the recurrence checks, before the time checks.
+     */
+    private fun candidateStart(epochSecond: Long, nano: Int, offset: Int): Long {
+        val days = adjustedEndDay(dayAnchorDay, dayAnchorNanoOfDay, localSecond(epochSecond), nano) - dayAnchorDay
+        when (recurrenceType) {
+            RecurrenceType.DAILY -> if (days % interval != 0L) return NO_WINDOW
+
+            RecurrenceType.WEEKLY -> {
+                val targetDay = targetLocalDay(epochSecond, offset)
+                if (!hasWeekDay(targetDay)) return NO_WINDOW
+                val targetOffset = targetOffsetAt(epochSecond, offset)
+                val midnight = targetResolve(targetDay * SECONDS_PER_DAY, targetOffset, offset)
+                val midnightOffset = targetOffsetAt(midnight, offset)
+                val midnightLocal = midnight + midnightOffset
+                val mondayLocal = mondayOf(Math.floorDiv(midnightLocal, SECONDS_PER_DAY)) * SECONDS_PER_DAY +
+                    Math.floorMod(midnightLocal, SECONDS_PER_DAY)
+                val monday = targetResolve(mondayLocal, midnightOffset, offset)
+                val weeks =
+                    (adjustedEndDay(weekAnchorDay, weekAnchorNanoOfDay, localSecond(monday), 0) - weekAnchorDay) / 7
+                if (weeks % interval != 0L) return NO_WINDOW
+            }
+
+            RecurrenceType.MONTHLY -> {
+                val targetOffset = targetOffsetAt(epochSecond, offset)
+                val targetLocal = epochSecond + targetOffset
+                val targetDay = Math.floorDiv(targetLocal, SECONDS_PER_DAY)
+                if (!hasMonthDay(targetDay)) return NO_WINDOW
+                val firstOfMonthLocal = (targetDay - dayOfMonth(targetDay) + 1) * SECONDS_PER_DAY +
+                    Math.floorMod(targetLocal, SECONDS_PER_DAY)
+                val firstOfMonth = targetResolve(firstOfMonthLocal, targetOffset, offset)
+                val months = (packedMonthDay(
+                    adjustedEndDay(monthAnchorDay, monthAnchorNanoOfDay, localSecond(firstOfMonth), nano)
+                ) - monthAnchorPacked) / 32
+                if (months % interval != 0L) return NO_WINDOW
+            }
+        }
+        return resolveLocal(startLocalSecond + days * SECONDS_PER_DAY, startOffset)
+    }
+
+    private fun isAfterScheduleEnd(epochSecond: Long, nano: Int, offset: Int): Boolean {
+        if (epochSecond != endEpochSecond || nano != endNano)
+            return isAfter(epochSecond, nano, endEpochSecond, endNano)
+        // same instant, ZonedDateTime.compareTo falls back to the local date-time
+        return epochSecond + targetOffsetAt(epochSecond, offset) > endLocalSecond
+    }
+
+    private fun hasWeekDay(epochDay: Long) = ((weekDayMask ushr Math.floorMod(epochDay + 3, 7L).toInt()) and 1) == 1
+
+    private fun hasMonthDay(epochDay: Long) = ((monthDayMask ushr (dayOfMonth(epochDay) - 1)) and 1) == 1
+
+    private fun targetLocalDay(epochSecond: Long, offset: Int) =
+        Math.floorDiv(epochSecond + targetOffsetAt(epochSecond, offset), SECONDS_PER_DAY)
+
+    private fun targetOffsetAt(epochSecond: Long, offset: Int) =
+        if (offset == SCHEDULE_ZONE) offsetAt(epochSecond) else offset
+
+    private fun targetResolve(localSecond: Long, preferredOffset: Int, offset: Int) =
+        if (offset == SCHEDULE_ZONE) resolveLocal(localSecond, preferredOffset) else localSecond - offset
+
+    private fun localSecond(epochSecond: Long) = epochSecond + offsetAt(epochSecond)
+
+    private fun offsetAt(epochSecond: Long): Int {
+        if (fixedOffset) return baseOffset
+        if (epochSecond < rangeStart || epochSecond > rangeEnd)
+            return zone.rules.getOffset(Instant.ofEpochSecond(epochSecond)).totalSeconds
+        val index = lastIndexAtOrBefore(transitionEpochs, epochSecond)
+        return if (index < 0) baseOffset else offsetsAfter[index]
+    }
+
+    /**
+     * Same resolution as ZonedDateTime.ofLocal: gaps shift forward, overlaps keep the preferred offset.
+     */
+    private fun resolveLocal(localSecond: Long, preferredOffset: Int): Long {
+        if (fixedOffset) return localSecond - baseOffset
+        if (localSecond - MAX_OFFSET_SECONDS < rangeStart || localSecond + MAX_OFFSET_SECONDS > rangeEnd) {
+            return ZonedDateTime.ofLocal(
+                LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC),
+                zone,
+                ZoneOffset.ofTotalSeconds(preferredOffset)
+            ).toEpochSecond()
+        }
+        val index = lastIndexAtOrBefore(transitionLocalLow, localSecond)
+        if (index < 0) return localSecond - baseOffset
+        val before = offsetsBefore[index]
+        val after = offsetsAfter[index]
+        if (localSecond >= transitionLocalHigh[index]) return localSecond - after
+        return when {
+            after > before -> localSecond - before
+            preferredOffset == after -> localSecond - after
+            else -> localSecond - before
+        }
+    }
+
+    private fun ceilingIndex(values: LongArray, key: Long): Int {
+        val index = Arrays.binarySearch(values, key)
+        return if (index >= 0) index else -index - 1
+    }
+
+    private fun lastIndexAtOrBefore(values: LongArray, key: Long): Int {
+        val index = Arrays.binarySearch(values, key)
+        return if (index >= 0) index else -index - 2
+    }
+
+    companion object {
+        const val NO_WINDOW = Long.MIN_VALUE
+        const val SCHEDULE_ZONE = Int.MIN_VALUE
+
+        private const val SECONDS_PER_MINUTE = 60L
+        private const val SECONDS_PER_DAY = 86_400L
+        private const val NANOS_PER_SECOND = 1_000_000_000L
+        private const val MAX_OFFSET_SECONDS = 18 * 3600L
+        private const val TRANSITION_MARGIN_SECONDS = 400 * SECONDS_PER_DAY
+        private const val MAX_TRANSITION_SPAN_SECONDS = 50 * 366 * SECONDS_PER_DAY
+
+        @JvmStatic
+        fun of(schedule: Schedule): CompiledSchedule? {
+            val start = schedule.startTime ?: return null
+            val end = schedule.endTime ?: return null
+            val rule = schedule.rrule?.let { RecurrenceRule.parse(it) }
+            val type = rule?.frequency ?: schedule.recurrenceType ?: return null
+            return CompiledSchedule(
+                type,
+                start.zone,
+                start,
+                end,
+                schedule.duration,
+                schedule.interval,
+                schedule.weekDays,
+                schedule.monthDays,
+                rule?.occurrenceDays(start, end, schedule.excludedDates)
+            )
+        }
+
+        /**
+         * LocalDateTime.until moves the end date one day towards the start when its time of day has not been reached yet.
+         */
+        private fun adjustedEndDay(startDay: Long, startNanoOfDay: Long, endLocalSecond: Long, endNano: Int): Long {
+            val endDay = Math.floorDiv(endLocalSecond, SECONDS_PER_DAY)
+            val endNanoOfDay = Math.floorMod(endLocalSecond, SECONDS_PER_DAY) * NANOS_PER_SECOND + endNano
+            return when {
+                endDay > startDay && endNanoOfDay < startNanoOfDay -> endDay - 1
+                endDay < startDay && endNanoOfDay > startNanoOfDay -> endDay + 1
+                else -> endDay
+            }
+        }
+
+        private fun isAfter(epochSecond: Long, nano: Int, otherEpochSecond: Long, otherNano: Int) =
+            epochSecond > otherEpochSecond || (epochSecond == otherEpochSecond && nano > otherNano)
+
+        private fun mondayOf(epochDay: Long) = epochDay - Math.floorMod(epochDay + 3, 7L)
+
+        private fun dayOfMonth(epochDay: Long) = Math.floorMod(packedMonthDay(epochDay), 32L).toInt()
+
+        /**
+         * prolepticMonth * 32 + dayOfMonth, the value LocalDate.until(MONTHS) subtracts.
+         */
+        private fun packedMonthDay(epochDay: Long): Long {
+            val shifted = epochDay + 719_468
+            val era = Math.floorDiv(shifted, 146_097L)
+            val dayOfEra = shifted - era * 146_097
+            val yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365
+            val dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)
+            val shiftedMonth = (5 * dayOfYear + 2) / 153
+            val day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1
+            val month = if (shiftedMonth < 10) shiftedMonth + 3 else shiftedMonth - 9
+            val year = yearOfEra + era * 400 + if (month <= 2) 1 else 0
+            return (year * 12 + month - 1) * 32 + day
+        }
+    }
+}
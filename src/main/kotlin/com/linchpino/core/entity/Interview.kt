@@ -5,7 +5,10 @@ import jakarta.persistence.Entity
 import jakarta.persistence.FetchType
 import jakarta.persistence.JoinColumn
 import jakarta.persistence.ManyToOne
+import jakarta.persistence.PrePersist
+import jakarta.persistence.PreUpdate
 import jakarta.persistence.Table
+import java.time.ZonedDateTime
 
 @Entity
 @Table(name = "INTERVIEW")
@@ -32,6 +35,18 @@ class Interview : AbstractEntity() {
 
     @Column(name = "MEET_CODE")
     var meetCode:String? = null
+
+    /**
+     * Start of [timeSlot], copied so interview lists page on an index of this table.
+     */
+    @Column(name = "FROM_TIME", nullable = false)
+    var fromTime: ZonedDateTime? = null
+
+    @PrePersist
+    @PreUpdate
+    fun copyFromTime() {
+        fromTime = timeSlot?.fromTime
+    }
 }
 
 fun Interview.interviewPartiesFullName(): Pair<String,String> {
@@ -11,6 +11,12 @@ class InterviewType : AbstractEntity() {
     @Column(name = "NAME")
     lateinit var name: String
 
+    /**
+     * Length of the slots schedule windows are carved into for this type, null books whole windows.
+     */
+    @Column(name = "SLOT_MINUTES")
+    var slotMinutes: Int? = null
+
     @ManyToMany(mappedBy = "interviewTypes")
     val jobPositions = mutableSetOf<JobPosition>()
 
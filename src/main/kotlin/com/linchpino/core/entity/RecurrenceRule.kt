@@ -0,0 +1,188 @@
+package com.linchpino.core.entity
+
+import com.linchpino.core.enums.RecurrenceType
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import java.time.DayOfWeek
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.time.format.DateTimeFormatter
+import java.time.format.DateTimeParseException
+import java.time.temporal.TemporalAdjusters
+
+/**
+ * The part of an RFC 5545 RRULE a mentor schedule supports: FREQ=DAILY|WEEKLY|MONTHLY, INTERVAL, BYDAY with
+ * ordinals such as 2TU or -1FR for monthly rules, BYMONTHDAY (negative days count from the end of the month),
+ * COUNT, UNTIL and WKST=MO. DTSTART and the duration come from the schedule.
+ */
+class RecurrenceRule private constructor(
+    val frequency: RecurrenceType,
+    val interval: Int,
+    val byDay: List<WeekDayNum>,
+    val byMonthDay: List<Int>,
+    val count: Int?,
+    private val until: String?
+) {
+
+    data class WeekDayNum(val ordinal: Int, val day: DayOfWeek)
+
+    /**
+     * Sorted local epoch days of the occurrences from [start] to [end], EXDATE [excluded] days removed.
+     * Evaluated once per compiled schedule, lookups on the result are binary searches.
+     */
+    fun occurrenceDays(start: ZonedDateTime, end: ZonedDateTime, excluded: Collection<LocalDate>): LongArray {
+        val firstDay = start.toLocalDate()
+        val lastDay = minOf(
+            end.withZoneSameInstant(start.zone).toLocalDate(),
+            firstDay.plusDays(MAX_SPAN_DAYS)
+        )
+        val untilDateTime = until?.let { untilLocal(it, start) }
+        val limit = count ?: Int.MAX_VALUE
+        val excludedDays = excluded.toHashSet()
+        val days = ArrayList<Long>()
+        var generated = 0
+        var period = 0L
+        periods@ while (periodStart(firstDay, period * interval) <= lastDay) {
+            for (day in periodDays(firstDay, period * interval)) {
+                if (day < firstDay) continue
+                if (day > lastDay || generated >= limit) break@periods
+                if (untilDateTime != null && day.atTime(start.toLocalTime()) > untilDateTime) break@periods
+                generated++
+                if (day !in excludedDays) days.add(day.toEpochDay())
+            }
+            period++
+        }
+        return days.toLongArray()
+    }
+
+    private fun periodStart(firstDay: LocalDate, offset: Long): LocalDate = when (frequency) {
+        RecurrenceType.DAILY -> firstDay.plusDays(offset)
+        RecurrenceType.WEEKLY -> firstDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).plusWeeks(offset)
+        RecurrenceType.MONTHLY -> firstDay.withDayOfMonth(1).plusMonths(offset)
+    }
+
+    private fun periodDays(firstDay: LocalDate, offset: Long): List<LocalDate> {
+        val periodStart = periodStart(firstDay, offset)
+        val days = when (frequency) {
+            RecurrenceType.DAILY -> listOf(periodStart).filter { matchesByDay(it) }
+            RecurrenceType.WEEKLY -> (byDay.map { it.day }.ifEmpty { listOf(firstDay.dayOfWeek) })
+                .map { periodStart.plusDays(it.ordinal.toLong()) }
+
+            RecurrenceType.MONTHLY -> when {
+                byMonthDay.isNotEmpty() -> byMonthDay.mapNotNull { monthDay(periodStart, it) }.filter { matchesByDay(it) }
+                byDay.isNotEmpty() -> byDay.flatMap { monthWeekDays(periodStart, it) }
+                else -> listOfNotNull(monthDay(periodStart, firstDay.dayOfMonth))
+            }
+        }
+        return days.filter { byMonthDay.isEmpty() || frequency == RecurrenceType.MONTHLY || matchesByMonthDay(it) }
+            .distinct()
+            .sorted()
+    }
+
+    private fun matchesByDay(day: LocalDate) = byDay.isEmpty() || byDay.any { it.day == day.dayOfWeek }
+
+    private fun matchesByMonthDay(day: LocalDate) = byMonthDay.any { monthDay(day.withDayOfMonth(1), it) == day }
+
+    private fun monthDay(firstOfMonth: LocalDate, day: Int): LocalDate? {
+        val length = firstOfMonth.lengthOfMonth()
+        val dayOfMonth = if (day > 0) day else length + day + 1
+        return if (dayOfMonth in 1..length) firstOfMonth.withDayOfMonth(dayOfMonth) else null
+    }
+
+    private fun monthWeekDays(firstOfMonth: LocalDate, weekDay: WeekDayNum): List<LocalDate> {
+        val all = generateSequence(firstOfMonth.with(TemporalAdjusters.nextOrSame(weekDay.day))) { it.plusWeeks(1) }
+            .takeWhile { it.month == firstOfMonth.month }
+            .toList()
+        return when {
+            weekDay.ordinal == 0 -> all
+            weekDay.ordinal > 0 -> listOfNotNull(all.getOrNull(weekDay.ordinal - 1))
+            else -> listOfNotNull(all.getOrNull(all.size + weekDay.ordinal))
+        }
+    }
+
+    companion object {
+        private const val MAX_SPAN_DAYS = 50 * 366L
+        private val DAYS = mapOf(
+            "MO" to DayOfWeek.MONDAY,
+            "TU" to DayOfWeek.TUESDAY,
+            "WE" to DayOfWeek.WEDNESDAY,
+            "TH" to DayOfWeek.THURSDAY,
+            "FR" to DayOfWeek.FRIDAY,
+            "SA" to DayOfWeek.SATURDAY,
+            "SU" to DayOfWeek.SUNDAY
+        )
+        private val UNTIL_DATE = DateTimeFormatter.ofPattern("yyyyMMdd")
+        private val UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss")
+
+        @JvmStatic
+        fun parse(value: String): RecurrenceRule {
+            val parts = value.trim().removePrefix("RRULE:").split(';').filter { it.isNotBlank() }.associate {
+                val part = it.split('=', limit = 2)
+                if (part.size != 2) throw invalid(value, "malformed part $it")
+                part[0].trim().uppercase() to part[1].trim().uppercase()
+            }
+            val unsupported = parts.keys - setOf("FREQ", "INTERVAL", "BYDAY", "BYMONTHDAY", "COUNT", "UNTIL", "WKST")
+            if (unsupported.isNotEmpty()) throw invalid(value, "unsupported parts $unsupported")
+            if (parts["WKST"]?.let { it != "MO" } == true) throw invalid(value, "only WKST=MO is supported")
+            if (parts.containsKey("COUNT") && parts.containsKey("UNTIL"))
+                throw invalid(value, "COUNT and UNTIL must not both be set")
+
+            val frequency = when (parts["FREQ"]) {
+                "DAILY" -> RecurrenceType.DAILY
+                "WEEKLY" -> RecurrenceType.WEEKLY
+                "MONTHLY" -> RecurrenceType.MONTHLY
+                else -> throw invalid(value, "FREQ must be DAILY, WEEKLY or MONTHLY")
+            }
+            val interval = parts["INTERVAL"]?.let { positive(value, "INTERVAL", it) } ?: 1
+            val count = parts["COUNT"]?.let { positive(value, "COUNT", it) }
+            val byDay = parts["BYDAY"]?.split(',')?.map { weekDayNum(value, it.trim()) } ?: listOf()
+            if (frequency != RecurrenceType.MONTHLY && byDay.any { it.ordinal != 0 })
+                throw invalid(value, "BYDAY ordinals are only supported for MONTHLY rules")
+            val byMonthDay = parts["BYMONTHDAY"]?.split(',')?.map {
+                it.trim().toIntOrNull()?.takeIf { day -> day in -31..31 && day != 0 }
+                    ?: throw invalid(value, "BYMONTHDAY $it is not a day of month")
+            } ?: listOf()
+            val until = parts["UNTIL"]?.also { untilLocal(it, null) ?: throw invalid(value, "UNTIL $it is not a date") }
+            return RecurrenceRule(frequency, interval, byDay, byMonthDay, count, until)
+        }
+
+        private fun weekDayNum(rule: String, value: String): WeekDayNum {
+            val day = DAYS[value.takeLast(2)] ?: throw invalid(rule, "BYDAY $value is not a week day")
+            val ordinal = value.dropLast(2).ifEmpty { "0" }.removePrefix("+").toIntOrNull()
+                ?.takeIf { it in -5..5 }
+                ?: throw invalid(rule, "BYDAY $value has an invalid ordinal")
+            return WeekDayNum(ordinal, day)
+        }
+
+        private fun positive(rule: String, name: String, value: String) =
+            value.toIntOrNull()?.takeIf { it > 0 } ?: throw invalid(rule, "$name must be a positive number")
+
+        /**
+         * UNTIL as local date-time of the schedule zone: a date covers the whole day, a UTC date-time is converted,
+         * a floating date-time is taken as is. Only validates the format when [start] is null.
+         */
+        private fun untilLocal(value: String, start: ZonedDateTime?): LocalDateTime? = try {
+            when {
+                value.length == 8 -> LocalDate.parse(value, UNTIL_DATE).atTime(LocalTime.MAX)
+                value.endsWith("Z") -> LocalDateTime.parse(value.dropLast(1), UNTIL_DATE_TIME).let {
+                    if (start == null) it else it.atOffset(ZoneOffset.UTC).atZoneSameInstant(start.zone)
+                        .toLocalDateTime()
+                }
+
+                else -> LocalDateTime.parse(value, UNTIL_DATE_TIME)
+            }
+        } catch (ex: DateTimeParseException) {
+            null
+        }
+
+        private fun invalid(rule: String, reason: String) = LinchpinException(
+            ErrorCode.INVALID_STATE,
+            "invalid rrule $rule: $reason",
+            Schedule::class.java.simpleName,
+            "rrule $reason"
+        )
+    }
+}
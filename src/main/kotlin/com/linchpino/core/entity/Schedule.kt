@@ -17,7 +17,12 @@ import jakarta.persistence.Id
 import jakarta.persistence.JoinColumn
 import jakarta.persistence.OneToOne
 import jakarta.persistence.Table
+import jakarta.persistence.Transient
+import jakarta.persistence.Version
+import org.hibernate.annotations.BatchSize
+import org.hibernate.annotations.OptimisticLock
 import java.time.DayOfWeek
+import java.time.LocalDate
 import java.time.LocalTime
 import java.time.ZonedDateTime
 import java.time.temporal.ChronoUnit
@@ -52,22 +57,71 @@ class Schedule {
     var endTime: ZonedDateTime? = null
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "weekly_recurrence_days", joinColumns = [JoinColumn(name = "schedule_id")])
     @Column(name = "day_of_week", nullable = false)
     @Enumerated(EnumType.STRING)
     var weekDays: MutableList<DayOfWeek> = mutableListOf()
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "monthly_recurrence_days", joinColumns = [JoinColumn(name = "schedule_id")])
     @Column(name = "day_of_month", nullable = false)
     var monthDays: MutableList<Int> = mutableListOf()
 
+    /**
+     * RFC 5545 recurrence rule, when set it replaces recurrenceType, interval, weekDays and monthDays.
+     */
+    @Column(name = "rrule")
+    var rrule: String? = null
+
+    @ElementCollection
+    @BatchSize(size = 100)
+    @CollectionTable(name = "schedule_excluded_dates", joinColumns = [JoinColumn(name = "schedule_id")])
+    @Column(name = "excluded_date", nullable = false)
+    var excludedDates: MutableList<LocalDate> = mutableListOf()
+
+    // moved by the nightly horizon job, which neither changes the schedule nor may conflict with an edit
+    @OptimisticLock(excluded = true)
+    @Column(name = "occurrences_until")
+    var occurrencesUntil: ZonedDateTime? = null
+
+    @Version
+    @Column(nullable = false)
+    var version: Long = 0
+
+    @Transient
+    private var compiledForm: CompiledSchedule? = null
+
+    @Transient
+    private var changed = false
+
+    /**
+     * Primitive form of this schedule for hot paths, cached until the next [update]. Loaded copies of a saved
+     * schedule share one compiled form through CompiledScheduleCache.
+     */
+    fun compiled(): CompiledSchedule? = compiledForm ?: CompiledSchedule.of(this).also { compiledForm = it }
+
+    /**
+     * Whether the compiled form may be shared: the schedule is saved and not changed since it was loaded, so its
+     * version identifies its contents.
+     */
+    val shareable: Boolean
+        get() = id != 0L && !changed
+
+    fun adopt(compiled: CompiledSchedule): CompiledSchedule {
+        compiledForm = compiled
+        return compiled
+    }
+
     fun timeSlot(
         startTime: ZonedDateTime,
         targetTime: ZonedDateTime
     ): ValidWindow? {
         if (targetTime > endTime)
             return null
+        if (rrule != null)
+            return compiled()?.timeSlot(startTime, targetTime)
         return when (recurrenceType) {
             RecurrenceType.DAILY -> timeSlotDaily(startTime, targetTime)
             RecurrenceType.WEEKLY -> timeSlotWeekly(startTime, targetTime)
@@ -77,6 +131,8 @@ class Schedule {
     }
 
     fun doesMatchesSelectedDay(selectedDay: ZonedDateTime): ValidWindow? {
+        if (rrule != null)
+            return compiled()?.doesMatchesSelectedDay(selectedDay)
         return when (recurrenceType) {
             RecurrenceType.DAILY -> timeSlotDaily(selectedDay)
             RecurrenceType.WEEKLY -> timeSlotWeekly(selectedDay)
@@ -85,6 +141,48 @@ class Schedule {
         }
     }
 
+    /**
+     * Lazily expands this schedule into the concrete windows overlapping [from, to).
+     * Days are evaluated in the zone of [startTime], windows keep the schedule's local start time.
+     */
+    fun occurrences(from: ZonedDateTime, to: ZonedDateTime): Sequence<ValidWindow> {
+        val start = this.startTime ?: return emptySequence()
+        val end = this.endTime ?: return emptySequence()
+        if (rrule != null)
+            return compiled()?.occurrences(from, to) ?: emptySequence()
+        val zone = start.zone
+        val spannedDays = duration.toLong() / MINUTES_PER_DAY + 1
+        val firstDay = maxOf(from.withZoneSameInstant(zone).toLocalDate().minusDays(spannedDays), start.toLocalDate())
+        val lastDay = minOf(to, end).withZoneSameInstant(zone).toLocalDate()
+
+        return generateSequence(firstDay) { it.plusDays(1) }
+            .takeWhile { !it.isAfter(lastDay) }
+            .filter { matchesDay(it) }
+            .map { start.plusDays(ChronoUnit.DAYS.between(start.toLocalDate(), it)) }
+            .filter { !it.isBefore(start) && !it.isAfter(end) }
+            .map { ValidWindow(it, it.plusMinutes(duration.toLong())) }
+            .filter { it.end.isAfter(from) && it.start.isBefore(to) }
+    }
+
+    private fun matchesDay(day: LocalDate): Boolean {
+        val startDay = this.startTime?.toLocalDate() ?: return false
+        val step = interval.coerceAtLeast(1).toLong()
+        return when (recurrenceType) {
+            RecurrenceType.DAILY -> ChronoUnit.DAYS.between(startDay, day) % step == 0L
+            RecurrenceType.WEEKLY -> weekDays.contains(day.dayOfWeek) && ChronoUnit.WEEKS.between(
+                startDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+            ) % step == 0L
+
+            RecurrenceType.MONTHLY -> monthDays.contains(day.dayOfMonth) && ChronoUnit.MONTHS.between(
+                startDay.withDayOfMonth(1),
+                day.withDayOfMonth(1)
+            ) % step == 0L
+
+            else -> false
+        }
+    }
+
     private fun timeSlotDaily(
         startTarget: ZonedDateTime,
         endTarget: ZonedDateTime? = null
@@ -218,6 +316,13 @@ class Schedule {
             )
         }
 
+        // parsing rejects rules that can not be evaluated, the rule defines the days
+        rrule?.let {
+            RecurrenceRule.parse(it)
+            return
+        }
+        if (excludedDates.isNotEmpty()) throw excludedDatesWithoutRule()
+
         when (this.recurrenceType) {
             RecurrenceType.WEEKLY -> {
                 if (weekDays.isEmpty()) throw LinchpinException(
@@ -256,6 +361,18 @@ class Schedule {
     }
 
     fun update(request: ScheduleUpdateRequest): Schedule {
+        if (rrule != null && request.rrule == null && request.recurrenceType == null &&
+            request.interval != null && request.interval != interval
+        )
+            throw LinchpinException(
+                ErrorCode.INVALID_STATE,
+                "interval of a schedule with rrule is set by the rule's INTERVAL",
+                Schedule::class.java.simpleName,
+                "interval can not be changed without rrule"
+            )
+        if (request.rrule == null && !request.excludedDates.isNullOrEmpty() &&
+            (request.recurrenceType != null || rrule == null)
+        ) throw excludedDatesWithoutRule()
         request.startTime?.let { this.startTime = it }
         request.endTime?.let { this.endTime = it }
         request.duration?.let { this.duration = it }
@@ -281,8 +398,49 @@ class Schedule {
             this.monthDays = request.monthDays.toMutableList()
         }
 
+        when {
+            request.rrule != null -> applyRule(request.rrule, (request.excludedDates ?: excludedDates).toList())
+            request.recurrenceType != null -> {
+                rrule = null
+                excludedDates.clear()
+            }
+
+            request.excludedDates != null -> {
+                excludedDates.clear()
+                excludedDates.addAll(request.excludedDates)
+            }
+        }
+
         validate()
+        compiledForm = null
+        changed = true
         return this
     }
 
+    /**
+     * Switches this schedule to an RFC 5545 rule; recurrenceType and interval mirror its FREQ and INTERVAL.
+     */
+    fun applyRule(rule: String, excluded: Collection<LocalDate>) {
+        val parsed = RecurrenceRule.parse(rule)
+        rrule = rule.trim()
+        recurrenceType = parsed.frequency
+        interval = parsed.interval
+        weekDays.clear()
+        monthDays.clear()
+        excludedDates.clear()
+        excludedDates.addAll(excluded)
+        compiledForm = null
+        changed = true
+    }
+
+    companion object {
+        private const val MINUTES_PER_DAY = 24 * 60L
+
+        fun excludedDatesWithoutRule() = LinchpinException(
+            ErrorCode.INVALID_STATE,
+            "excluded dates are only supported with rrule",
+            Schedule::class.java.simpleName,
+            "excludedDates require rrule"
+        )
+    }
 }
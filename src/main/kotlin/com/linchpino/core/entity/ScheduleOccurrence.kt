@@ -0,0 +1,43 @@
+package com.linchpino.core.entity
+
+import jakarta.persistence.Column
+import jakarta.persistence.Entity
+import jakarta.persistence.FetchType
+import jakarta.persistence.GeneratedValue
+import jakarta.persistence.GenerationType
+import jakarta.persistence.Id
+import jakarta.persistence.JoinColumn
+import jakarta.persistence.ManyToOne
+import jakarta.persistence.Table
+import java.time.ZonedDateTime
+
+/**
+ * One concrete window of a mentor [Schedule] for one of the mentor's interview types.
+ * Rows are derived data, maintained by ScheduleOccurrenceService over a rolling horizon.
+ */
+@Entity
+@Table(name = "schedule_occurrence")
+class ScheduleOccurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    var id: Long? = null
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "schedule_id", nullable = false)
+    var schedule: Schedule? = null
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    var account: Account? = null
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "interview_type_id", nullable = false)
+    var interviewType: InterviewType? = null
+
+    @Column(name = "start_time", nullable = false)
+    lateinit var startTime: ZonedDateTime
+
+    @Column(name = "end_time", nullable = false)
+    lateinit var endTime: ZonedDateTime
+}
@@ -0,0 +1,5 @@
+package com.linchpino.core.enums
+
+enum class ExportFormat(val mediaType: String, val extension: String) {
+    NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv", "csv")
+}
@@ -0,0 +1,9 @@
+package com.linchpino.core.enums
+
+enum class MeetProvisioningStatus {
+    PENDING,
+    READY,
+    FAILED,
+    // booked before Meet links were provisioned after booking, so there is nothing to wait for
+    NOT_APPLICABLE
+}
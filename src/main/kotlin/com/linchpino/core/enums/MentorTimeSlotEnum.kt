@@ -4,5 +4,6 @@ enum class MentorTimeSlotEnum(val value: Int) {
     AVAILABLE(1),
     DRAFT(2),
     ALLOCATED(3),
-    UNKNOWN(4)
+    UNKNOWN(4),
+    HELD(5)
 }
@@ -0,0 +1,6 @@
+package com.linchpino.core.enums
+
+enum class ReminderRecipient {
+    JOB_SEEKER,
+    MENTOR
+}
@@ -0,0 +1,5 @@
+package com.linchpino.core.enums
+
+enum class TimeSlotResultStatus {
+    CREATED, INVALID, OVERLAPS_REQUEST, OVERLAPS_EXISTING
+}
@@ -20,4 +20,9 @@ enum class ErrorCode(val status: HttpStatus) {
     UNIQUE_ENTITY_VIOLATION(HttpStatus.BAD_REQUEST),
     INTEGRITY_VIOLATION(HttpStatus.BAD_REQUEST),
     INVALID_STATE(HttpStatus.BAD_REQUEST),
+    INVALID_DATE_RANGE(HttpStatus.BAD_REQUEST),
+    MENTOR_IS_BUSY(HttpStatus.TOO_MANY_REQUESTS),
+    SCHEDULE_CONFLICT(HttpStatus.CONFLICT),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST),
+    TOO_MANY_HOLDS(HttpStatus.TOO_MANY_REQUESTS),
 }
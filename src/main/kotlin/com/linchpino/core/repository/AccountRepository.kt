@@ -1,60 +1,25 @@
 package com.linchpino.core.repository
 
-import com.linchpino.core.dto.MentorWithClosestTimeSlot
+import com.linchpino.core.dto.AccountExportRow
 import com.linchpino.core.entity.Account
 import com.linchpino.core.enums.AccountTypeEnum
-import com.linchpino.core.enums.MentorTimeSlotEnum
+import jakarta.persistence.QueryHint
+import org.hibernate.jpa.HibernateHints
 import org.springframework.data.jpa.repository.JpaRepository
 import org.springframework.data.jpa.repository.Query
+import org.springframework.data.jpa.repository.QueryHints
 import org.springframework.stereotype.Repository
 import java.time.ZonedDateTime
+import java.util.stream.Stream
 import org.springframework.data.domain.Page
 import org.springframework.data.domain.Pageable
 
 @Repository
-interface AccountRepository : JpaRepository<Account, Long> {
+interface AccountRepository : JpaRepository<Account, Long>, ClosestMentorTimeSlots {
     fun findByEmailIgnoreCase(email: String): Account?
 
-    @Query(
-        """
-    SELECT NEW com.linchpino.core.dto.MentorWithClosestTimeSlot(
-            a.id ,
-            a.firstName,
-            a.lastName,
-            mts.id,
-            mts.fromTime,
-            mts.toTime
-        )
-    FROM
-        Account a
-    JOIN a.roles role
-    JOIN
-        a.interviewTypes it
-    JOIN
-        MentorTimeSlot mts ON mts.account.id = a.id
-    WHERE
-        role.title = :type
-        AND mts.fromTime BETWEEN :from AND :to
-        AND it.id = :interviewTypeId
-        AND mts.fromTime = (
-            SELECT
-                MIN(mentorTimeSlot.fromTime)
-            FROM
-                MentorTimeSlot mentorTimeSlot
-            WHERE
-                mentorTimeSlot.account.id = a.id
-                AND mentorTimeSlot.fromTime BETWEEN :from AND :to
-                AND mentorTimeSlot.status = :status
-        )
-    """
-    )
-    fun closestMentorTimeSlots(
-        from: ZonedDateTime,
-        to: ZonedDateTime,
-        interviewTypeId: Long,
-        type: AccountTypeEnum = AccountTypeEnum.MENTOR,
-        status: MentorTimeSlotEnum = MentorTimeSlotEnum.AVAILABLE
-    ): List<MentorWithClosestTimeSlot>
+    @Query("select a.id from Account a where upper(a.email) = upper(:email)")
+    fun findIdByEmail(email: String): Long?
 
     @Query("""
         select a from Account a
@@ -93,4 +58,17 @@ interface AccountRepository : JpaRepository<Account, Long> {
     )
     fun searchByNameOrRole(name: String?, type: AccountTypeEnum?, page: Pageable): Page<Account>
 
+    /**
+     * Every account by id, without credentials, read through a server side cursor. Must be consumed and closed
+     * inside a transaction.
+     */
+    @QueryHints(QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(
+        """
+        select NEW com.linchpino.core.dto.AccountExportRow(a.id, a.email, a.firstName, a.lastName, a.status, a.createdOn)
+        from Account a
+        order by a.id
+    """
+    )
+    fun streamForExport(): Stream<AccountExportRow>
 }
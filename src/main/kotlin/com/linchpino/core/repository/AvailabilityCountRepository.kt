@@ -0,0 +1,198 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.AvailabilityDay
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowMapper
+import org.springframework.stereotype.Repository
+import java.sql.Date
+import java.sql.Timestamp
+import java.time.LocalDate
+import java.time.ZonedDateTime
+
+/**
+ * Counters of free windows per interview type and UTC day in availability_day_count, counted like mentor search
+ * offers them: a whole occurrence nothing busy overlaps, or each free carved slot when the interview type has a slot
+ * length. Busy time is an ALLOCATED or HELD time slot or calendar busy time of the mentor. Every occurrence keeps
+ * its own count in schedule_occurrence.free_slots, so a change recounts only the occurrences it touches and moves
+ * the day counters by the difference. A recount derives the count from the current rows, so one that is repeated,
+ * or runs late after a change committed on its own, still ends on the right value.
+ */
+@Repository
+class AvailabilityCountRepository(private val jdbcTemplate: JdbcTemplate) {
+
+    /**
+     * Takes every occurrence of the schedule out of the counters. Called before the occurrences are deleted.
+     */
+    fun removeOccurrences(scheduleId: Long) {
+        jdbcTemplate.update(
+            """
+            WITH removed AS (
+                SELECT o.interview_type_id, o.start_time, o.free_slots
+                FROM schedule_occurrence o
+                WHERE o.schedule_id = ?
+                FOR UPDATE
+            )
+            $UPSERT
+            SELECT interview_type_id, CAST(start_time AS DATE), -SUM(free_slots)
+            FROM removed
+            GROUP BY interview_type_id, CAST(start_time AS DATE)
+            HAVING SUM(free_slots) <> 0
+            $ON_CONFLICT
+            """.trimIndent(),
+            scheduleId
+        )
+    }
+
+    /**
+     * Counts the occurrences of the schedule starting at or after [from]. Called after they are materialized.
+     */
+    fun countOccurrences(scheduleId: Long, from: ZonedDateTime?) =
+        recountWhere("o.schedule_id = ? AND o.start_time >= ?", scheduleId, from?.toUtcTimestamp() ?: EPOCH)
+
+    /**
+     * Recounts the occurrences of the mentor overlapping [from, to) after its busy time there changed: a time slot
+     * was reserved, held, claimed, released or changed status.
+     */
+    fun recount(accountId: Long, from: ZonedDateTime, to: ZonedDateTime) = recountWhere(
+        "o.account_id = ? AND o.start_time < ? AND o.end_time > ?",
+        accountId,
+        to.toUtcTimestamp(),
+        from.toUtcTimestamp()
+    )
+
+    /**
+     * Recounts every occurrence of the mentor after a calendar sync changed its busy time.
+     */
+    fun recount(accountId: Long) = recountWhere("o.account_id = ?", accountId)
+
+    private fun recountWhere(condition: String, vararg args: Any) {
+        jdbcTemplate.update(
+            """
+            WITH counted AS (
+                UPDATE schedule_occurrence o
+                SET free_slots = $FREE_SLOTS
+                FROM schedule_occurrence previous, interview_type t
+                WHERE previous.id = o.id
+                AND t.id = o.interview_type_id
+                AND $condition
+                RETURNING o.interview_type_id, o.start_time, o.free_slots - previous.free_slots AS delta
+            )
+            $UPSERT
+            SELECT interview_type_id, CAST(start_time AS DATE), SUM(delta)
+            FROM counted
+            GROUP BY interview_type_id, CAST(start_time AS DATE)
+            HAVING SUM(delta) <> 0
+            $ON_CONFLICT
+            """.trimIndent(),
+            *args
+        )
+    }
+
+    fun deleteBefore(day: LocalDate): Int =
+        jdbcTemplate.update("DELETE FROM availability_day_count WHERE day < ?", Date.valueOf(day))
+
+    /**
+     * Counters of the interview type in [from, to), days without a counter row are left out.
+     */
+    fun findDays(interviewTypeId: Long, from: LocalDate, to: LocalDate): List<AvailabilityDay> = jdbcTemplate.query(
+        """
+        SELECT day, free_windows
+        FROM availability_day_count
+        WHERE interview_type_id = ?
+        AND day >= ?
+        AND day < ?
+        ORDER BY day
+        """.trimIndent(),
+        RowMapper { resultSet, _ -> AvailabilityDay(resultSet.getDate(1).toLocalDate(), resultSet.getInt(2)) },
+        interviewTypeId,
+        Date.valueOf(from),
+        Date.valueOf(to)
+    )
+
+    /**
+     * Recounts every occurrence and every counter from it, and returns how many (interview type, day) pairs had
+     * drifted. The occurrences are updated first and the counters locked after, in the order writers take them, and
+     * writers then wait on the table lock, so no increment is lost between the comparison and the replacement.
+     */
+    fun rebuild(): Int {
+        jdbcTemplate.update(
+            """
+            UPDATE schedule_occurrence o
+            SET free_slots = $FREE_SLOTS
+            FROM interview_type t
+            WHERE t.id = o.interview_type_id
+            """.trimIndent()
+        )
+        jdbcTemplate.execute("LOCK TABLE availability_day_count IN EXCLUSIVE MODE")
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE availability_day_recount ON COMMIT DROP AS $RECOUNT")
+        val drifted = jdbcTemplate.queryForObject(
+            """
+            SELECT COUNT(*)
+            FROM availability_day_recount recount
+            FULL JOIN availability_day_count counted
+                ON counted.interview_type_id = recount.interview_type_id
+                AND counted.day = recount.day
+            WHERE COALESCE(counted.free_windows, 0) <> COALESCE(recount.free_windows, 0)
+            """.trimIndent(),
+            Int::class.java
+        ) ?: 0
+        jdbcTemplate.update("DELETE FROM availability_day_count")
+        jdbcTemplate.update(
+            """
+            INSERT INTO availability_day_count (interview_type_id, day, free_windows)
+            SELECT interview_type_id, day, free_windows
+            FROM availability_day_recount
+            """.trimIndent()
+        )
+        return drifted
+    }
+
+    companion object {
+        private val EPOCH = Timestamp.valueOf("1970-01-01 00:00:00")
+        private const val UPSERT = "INSERT INTO availability_day_count (interview_type_id, day, free_windows)"
+        private const val ON_CONFLICT = """
+            ON CONFLICT (interview_type_id, day)
+            DO UPDATE SET free_windows = availability_day_count.free_windows + EXCLUDED.free_windows
+        """
+        private val BUSY_STATUSES =
+            MentorTimeSlotRepository.BUSY.joinToString(", ") { it.value.toString() }
+
+        /**
+         * Whether the mentor of occurrence o has busy time overlapping [start, end), both SQL expressions.
+         */
+        private fun busy(start: String, end: String) = """
+            (EXISTS (SELECT 1
+                     FROM mentor_time_slot mts
+                     WHERE mts.account_id = o.account_id
+                     AND mts.status IN ($BUSY_STATUSES)
+                     AND mts.from_time < $end
+                     AND mts.to_time > $start)
+             OR EXISTS (SELECT 1
+                        FROM calendar_busy cb
+                        WHERE cb.account_id = o.account_id
+                        AND cb.from_time < $end
+                        AND cb.to_time > $start))
+        """
+
+        // the carving of CarvedWindow: back-to-back slots from the occurrence start, a shorter tail is no slot
+        private const val SLOT_START = "o.start_time + make_interval(mins => slot.n * t.slot_minutes)"
+        private const val SLOT_END = "o.start_time + make_interval(mins => (slot.n + 1) * t.slot_minutes)"
+        private const val SLOTS =
+            "CAST(FLOOR(EXTRACT(EPOCH FROM o.end_time - o.start_time) / 60) AS INTEGER) / t.slot_minutes"
+        private val FREE_SLOTS = """
+            CASE
+                WHEN t.slot_minutes IS NULL THEN
+                    CASE WHEN ${busy("o.start_time", "o.end_time")} THEN 0 ELSE 1 END
+                ELSE (SELECT COUNT(*)
+                      FROM generate_series(0, $SLOTS - 1) AS slot(n)
+                      WHERE NOT ${busy(SLOT_START, SLOT_END)})
+            END
+        """
+        private const val RECOUNT = """
+            SELECT o.interview_type_id, CAST(o.start_time AS DATE) AS day, SUM(o.free_slots)::INTEGER AS free_windows
+            FROM schedule_occurrence o
+            GROUP BY o.interview_type_id, CAST(o.start_time AS DATE)
+            HAVING SUM(o.free_slots) > 0
+        """
+    }
+}
@@ -0,0 +1,127 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.CalendarBusy
+import com.linchpino.core.dto.CalendarBusyChanges
+import com.linchpino.core.dto.CalendarSyncTarget
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowMapper
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate
+import org.springframework.stereotype.Repository
+import org.springframework.transaction.annotation.Transactional
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * Busy intervals imported from mentors' Google calendars in calendar_busy, keyed by event id so a delta only
+ * touches the events it names, and the sync token of each mentor in calendar_sync.
+ */
+@Repository
+class CalendarBusyRepository(private val jdbcTemplate: JdbcTemplate) {
+
+    private val namedJdbcTemplate = NamedParameterJdbcTemplate(jdbcTemplate)
+
+    /**
+     * Mentors with a running schedule, the ones synced longest ago, or never, first.
+     */
+    fun findSyncTargets(now: ZonedDateTime, limit: Int): List<CalendarSyncTarget> = jdbcTemplate.query(
+        """
+        SELECT a.id, a.email, cs.sync_token
+        FROM account a
+        JOIN schedule s ON s.account_id = a.id
+        LEFT JOIN calendar_sync cs ON cs.account_id = a.id
+        WHERE s.end_time > ?
+        AND a.email IS NOT NULL
+        ORDER BY cs.synced_at NULLS FIRST, a.id
+        LIMIT ?
+        """.trimIndent(),
+        RowMapper { resultSet, _ ->
+            CalendarSyncTarget(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3))
+        },
+        now.toUtcTimestamp(),
+        limit
+    )
+
+    /**
+     * Applies the changes of one sync and stores its token in one transaction, so a failed write is fetched again
+     * with the previous token.
+     */
+    @Transactional
+    fun apply(accountId: Long, changes: CalendarBusyChanges, syncedAt: ZonedDateTime) {
+        if (changes.fullSync)
+            jdbcTemplate.update("DELETE FROM calendar_busy WHERE account_id = ?", accountId)
+        if (changes.removedEventIds.isNotEmpty())
+            jdbcTemplate.batchUpdate(
+                "DELETE FROM calendar_busy WHERE account_id = ? AND event_id = ?",
+                changes.removedEventIds.map { arrayOf<Any>(accountId, it) }
+            )
+        if (changes.busy.isNotEmpty())
+            jdbcTemplate.batchUpdate(
+                """
+                INSERT INTO calendar_busy (account_id, event_id, from_time, to_time)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (account_id, event_id) DO UPDATE
+                SET from_time = EXCLUDED.from_time, to_time = EXCLUDED.to_time
+                """.trimIndent(),
+                changes.busy.map {
+                    arrayOf<Any>(accountId, it.eventId, it.start.toUtcTimestamp(), it.end.toUtcTimestamp())
+                }
+            )
+        saveSyncState(accountId, changes.syncToken, syncedAt)
+    }
+
+    /**
+     * Records a sync attempt, a null token makes the next sync of the mentor a full one.
+     */
+    fun saveSyncState(accountId: Long, syncToken: String?, syncedAt: ZonedDateTime) {
+        jdbcTemplate.update(
+            """
+            INSERT INTO calendar_sync (account_id, sync_token, synced_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (account_id) DO UPDATE
+            SET sync_token = EXCLUDED.sync_token, synced_at = EXCLUDED.synced_at
+            """.trimIndent(),
+            accountId,
+            syncToken,
+            syncedAt.toUtcTimestamp()
+        )
+    }
+
+    /**
+     * Busy intervals of the mentors overlapping [from, to), ordered by mentor and start.
+     */
+    fun findBusyBetween(accountIds: Collection<Long>, from: ZonedDateTime, to: ZonedDateTime): List<CalendarBusy> {
+        if (accountIds.isEmpty()) return emptyList()
+        return namedJdbcTemplate.query(
+            """
+            SELECT account_id, from_time, to_time
+            FROM calendar_busy
+            WHERE account_id IN (:accountIds)
+            AND from_time < :to
+            AND to_time > :from
+            ORDER BY account_id, from_time
+            """.trimIndent(),
+            mapOf("accountIds" to accountIds, "from" to from.toUtcTimestamp(), "to" to to.toUtcTimestamp()),
+            RowMapper { resultSet, _ ->
+                CalendarBusy(
+                    resultSet.getLong(1),
+                    resultSet.getTimestamp(2).toLocalDateTime().atZone(ZoneOffset.UTC),
+                    resultSet.getTimestamp(3).toLocalDateTime().atZone(ZoneOffset.UTC)
+                )
+            }
+        )
+    }
+
+    fun overlaps(accountId: Long, from: ZonedDateTime, to: ZonedDateTime): Boolean = jdbcTemplate.queryForObject(
+        """
+        SELECT EXISTS (SELECT 1
+                       FROM calendar_busy
+                       WHERE account_id = ?
+                       AND from_time < ?
+                       AND to_time > ?)
+        """.trimIndent(),
+        Boolean::class.java,
+        accountId,
+        to.toUtcTimestamp(),
+        from.toUtcTimestamp()
+    ) == true
+}
@@ -0,0 +1,72 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.MentorWithClosestTimeSlot
+import com.linchpino.core.enums.AccountTypeEnum
+import com.linchpino.core.enums.MentorTimeSlotEnum
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowMapper
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * Earliest time slot of every mentor, a repository fragment of [AccountRepository].
+ */
+interface ClosestMentorTimeSlots {
+    fun closestMentorTimeSlots(
+        from: ZonedDateTime,
+        to: ZonedDateTime,
+        interviewTypeId: Long,
+        type: AccountTypeEnum = AccountTypeEnum.MENTOR,
+        status: MentorTimeSlotEnum = MentorTimeSlotEnum.AVAILABLE
+    ): List<MentorWithClosestTimeSlot>
+}
+
+/**
+ * One DISTINCT ON pass instead of a MIN subquery per candidate mentor: for each mentor of the interview type the
+ * (account_id, status, from_time) index yields its slots of [status] in [from, to] already in from_time order, so
+ * the first row of every account is its closest slot. Ties keep the lowest slot id.
+ */
+class ClosestMentorTimeSlotsImpl(private val jdbcTemplate: JdbcTemplate) : ClosestMentorTimeSlots {
+
+    override fun closestMentorTimeSlots(
+        from: ZonedDateTime,
+        to: ZonedDateTime,
+        interviewTypeId: Long,
+        type: AccountTypeEnum,
+        status: MentorTimeSlotEnum
+    ): List<MentorWithClosestTimeSlot> = jdbcTemplate.query(
+        QUERY,
+        RowMapper { resultSet, _ ->
+            MentorWithClosestTimeSlot(
+                resultSet.getLong("account_id"),
+                resultSet.getString("first_name"),
+                resultSet.getString("last_name"),
+                resultSet.getLong("time_slot_id"),
+                resultSet.getTimestamp("from_time").toLocalDateTime().atZone(ZoneOffset.UTC),
+                resultSet.getTimestamp("to_time").toLocalDateTime().atZone(ZoneOffset.UTC)
+            )
+        },
+        type.name,
+        interviewTypeId,
+        status.value,
+        from.toUtcTimestamp(),
+        to.toUtcTimestamp()
+    )
+
+    companion object {
+        internal val QUERY = """
+            SELECT DISTINCT ON (mts.account_id)
+                mts.account_id, a.first_name, a.last_name, mts.id AS time_slot_id, mts.from_time, mts.to_time
+            FROM account a
+            JOIN account_role ar ON ar.account_id = a.id
+            JOIN role r ON r.id = ar.role_id
+            JOIN account_interview_type ait ON ait.account_id = a.id
+            JOIN mentor_time_slot mts ON mts.account_id = a.id
+            WHERE r.title = ?
+            AND ait.interview_type_id = ?
+            AND mts.status = ?
+            AND mts.from_time BETWEEN ? AND ?
+            ORDER BY mts.account_id, mts.from_time, mts.id
+        """.trimIndent()
+    }
+}
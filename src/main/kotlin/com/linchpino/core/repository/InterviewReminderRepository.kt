@@ -0,0 +1,120 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.ClaimedReminder
+import com.linchpino.core.dto.ReminderKey
+import com.linchpino.core.enums.ReminderRecipient
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.PreparedStatementSetter
+import org.springframework.jdbc.core.RowMapper
+import org.springframework.stereotype.Repository
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * Reminders of interviews in interview_reminder, one row per interview and offset, written when the interview is
+ * booked. A sender takes a row by setting its sent_at, so every reminder is sent at most once even with several
+ * instances firing the same reminder. Each recipient mailed is recorded on its own, so a released reminder is only
+ * sent to the recipients it did not reach.
+ */
+@Repository
+class InterviewReminderRepository(private val jdbcTemplate: JdbcTemplate) {
+
+    fun insert(interviewId: Long, dueAts: Map<Int, ZonedDateTime>) {
+        if (dueAts.isEmpty()) return
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO interview_reminder (interview_id, offset_minutes, due_at) VALUES (?, ?, ?)",
+            dueAts.entries,
+            dueAts.size
+        ) { statement, (offsetMinutes, dueAt) ->
+            statement.setLong(1, interviewId)
+            statement.setInt(2, offsetMinutes)
+            statement.setTimestamp(3, dueAt.toUtcTimestamp())
+        }
+    }
+
+    /**
+     * Unsent reminders due until [until] of interviews that have not started at [now], overdue ones included.
+     */
+    fun findDue(now: ZonedDateTime, until: ZonedDateTime): List<Pair<ReminderKey, ZonedDateTime>> = jdbcTemplate.query(
+        """
+        SELECT r.interview_id, r.offset_minutes, r.due_at
+        FROM interview_reminder r
+        JOIN interview i ON i.id = r.interview_id
+        WHERE r.sent_at IS NULL
+        AND r.due_at <= ?
+        AND i.from_time > ?
+        """.trimIndent(),
+        RowMapper { resultSet, _ ->
+            ReminderKey(resultSet.getLong(1), resultSet.getInt(2)) to
+                resultSet.getTimestamp(3).toLocalDateTime().atZone(ZoneOffset.UTC)
+        },
+        until.toUtcTimestamp(),
+        now.toUtcTimestamp()
+    )
+
+    /**
+     * Marks the unsent [reminders] of interviews that have not started at [now] as sent and returns them with the
+     * recipients already mailed. A reminder taken by another instance is not returned.
+     */
+    fun claim(reminders: List<ReminderKey>, now: ZonedDateTime): List<ClaimedReminder> {
+        if (reminders.isEmpty()) return emptyList()
+        return jdbcTemplate.query(
+            """
+            UPDATE interview_reminder r
+            SET sent_at = ?
+            FROM unnest(?::bigint[], ?::int[]) AS due(interview_id, offset_minutes), interview i
+            WHERE r.interview_id = due.interview_id
+            AND r.offset_minutes = due.offset_minutes
+            AND r.sent_at IS NULL
+            AND i.id = r.interview_id
+            AND i.from_time > ?
+            RETURNING r.interview_id, r.offset_minutes, r.job_seeker_sent_at IS NOT NULL, r.mentor_sent_at IS NOT NULL
+            """.trimIndent(),
+            PreparedStatementSetter { statement ->
+                val connection = statement.connection
+                statement.setTimestamp(1, now.toUtcTimestamp())
+                val interviewIds = reminders.map { it.interviewId }.toTypedArray()
+                val offsets = reminders.map { it.offsetMinutes }.toTypedArray()
+                statement.setArray(2, connection.createArrayOf("bigint", interviewIds))
+                statement.setArray(3, connection.createArrayOf("int4", offsets))
+                statement.setTimestamp(4, now.toUtcTimestamp())
+            },
+            RowMapper { resultSet, _ ->
+                ClaimedReminder(
+                    ReminderKey(resultSet.getLong(1), resultSet.getInt(2)),
+                    setOfNotNull(
+                        ReminderRecipient.JOB_SEEKER.takeIf { resultSet.getBoolean(3) },
+                        ReminderRecipient.MENTOR.takeIf { resultSet.getBoolean(4) }
+                    )
+                )
+            }
+        )
+    }
+
+    /**
+     * Records that the claimed [reminder] was mailed to [recipient], so a retry does not mail it again.
+     */
+    fun markDelivered(reminder: ReminderKey, recipient: ReminderRecipient, now: ZonedDateTime) {
+        val column = when (recipient) {
+            ReminderRecipient.JOB_SEEKER -> "job_seeker_sent_at"
+            ReminderRecipient.MENTOR -> "mentor_sent_at"
+        }
+        jdbcTemplate.update(
+            "UPDATE interview_reminder SET $column = ? WHERE interview_id = ? AND offset_minutes = ?",
+            now.toUtcTimestamp(),
+            reminder.interviewId,
+            reminder.offsetMinutes
+        )
+    }
+
+    /**
+     * Makes a claimed reminder unsent again, after its email could not be sent.
+     */
+    fun release(reminder: ReminderKey) {
+        jdbcTemplate.update(
+            "UPDATE interview_reminder SET sent_at = NULL WHERE interview_id = ? AND offset_minutes = ?",
+            reminder.interviewId,
+            reminder.offsetMinutes
+        )
+    }
+}
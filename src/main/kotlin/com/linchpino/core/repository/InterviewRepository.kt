@@ -1,15 +1,19 @@
 package com.linchpino.core.repository
 
+import com.linchpino.core.dto.InterviewExportRow
 import com.linchpino.core.dto.InterviewListResponse
 import com.linchpino.core.entity.Interview
 import com.linchpino.core.enums.MentorTimeSlotEnum
+import jakarta.persistence.QueryHint
+import org.hibernate.jpa.HibernateHints
 import org.springframework.data.domain.Page
 import org.springframework.data.domain.Pageable
 import org.springframework.data.jpa.repository.JpaRepository
 import org.springframework.data.jpa.repository.Query
-import org.springframework.data.repository.query.Param
+import org.springframework.data.jpa.repository.QueryHints
 import org.springframework.stereotype.Repository
 import java.time.ZonedDateTime
+import java.util.stream.Stream
 
 @Repository
 interface InterviewRepository : JpaRepository<Interview, Long> {
@@ -25,13 +29,13 @@ interface InterviewRepository : JpaRepository<Interview, Long> {
             i.interviewType.name
             )
         from Interview i
-        where i.mentorAccount.email = :email
+        where i.mentorAccount.id = :accountId
         and i.timeSlot.status = :status
-        and i.timeSlot.fromTime > CURRENT_TIMESTAMP
+        and i.fromTime > CURRENT_TIMESTAMP
     """
     )
     fun findUpcomingInterviews(
-        email: String,
+        accountId: Long,
         page: Pageable,
         status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
     ): Page<InterviewListResponse>
@@ -47,13 +51,13 @@ interface InterviewRepository : JpaRepository<Interview, Long> {
             i.interviewType.name
             )
         from Interview i
-        where i.mentorAccount.email = :email
+        where i.mentorAccount.id = :accountId
         and i.timeSlot.status = :status
-        and i.timeSlot.fromTime <= CURRENT_TIMESTAMP
+        and i.fromTime <= CURRENT_TIMESTAMP
     """
     )
     fun findPastInterviews(
-        email: String,
+        accountId: Long,
         page: Pageable,
         status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
     ): Page<InterviewListResponse>
@@ -70,13 +74,13 @@ interface InterviewRepository : JpaRepository<Interview, Long> {
             i.interviewType.name
             )
         from Interview i
-        where i.jobSeekerAccount.email = :email
+        where i.jobSeekerAccount.id = :accountId
         and i.timeSlot.status = :status
-        and i.timeSlot.fromTime > CURRENT_TIMESTAMP
+        and i.fromTime > CURRENT_TIMESTAMP
     """
     )
     fun findJobSeekerUpcomingInterviews(
-        email: String,
+        accountId: Long,
         page: Pageable,
         status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
     ): Page<InterviewListResponse>
@@ -92,28 +96,180 @@ interface InterviewRepository : JpaRepository<Interview, Long> {
             i.interviewType.name
             )
         from Interview i
-        where i.jobSeekerAccount.email = :email
+        where i.jobSeekerAccount.id = :accountId
         and i.timeSlot.status = :status
-        and i.timeSlot.fromTime <= CURRENT_TIMESTAMP
+        and i.fromTime <= CURRENT_TIMESTAMP
     """
     )
     fun findJobSeekerPastInterviews(
-        email: String,
+        accountId: Long,
         page: Pageable,
         status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
     ): Page<InterviewListResponse>
 
+    // Keyset variants of the lists above: the rows after (afterTime, afterId) in list order, upcoming ascending and
+    // past descending, without OFFSET or a count query. Only the size of limit is used.
+    @Query(
+        """
+         select NEW com.linchpino.core.dto.InterviewListResponse(
+            i.id,
+            i.jobSeekerAccount.id,
+            concat(coalesce(i.jobSeekerAccount.firstName, ''), ' ', coalesce(i.jobSeekerAccount.lastName, '')),
+            i.fromTime,
+            i.timeSlot.toTime,
+            i.interviewType.name
+            )
+        from Interview i
+        where i.mentorAccount.id = :accountId
+        and i.timeSlot.status = :status
+        and i.fromTime >= :afterTime
+        and (i.fromTime > :afterTime or i.id > :afterId)
+        order by i.fromTime, i.id
+    """
+    )
+    fun findUpcomingInterviewsAfter(
+        accountId: Long,
+        afterTime: ZonedDateTime,
+        afterId: Long,
+        limit: Pageable,
+        status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
+    ): List<InterviewListResponse>
+
+    @Query(
+        """
+         select NEW com.linchpino.core.dto.InterviewListResponse(
+            i.id,
+            i.jobSeekerAccount.id,
+            concat(coalesce(i.jobSeekerAccount.firstName, ''), ' ', coalesce(i.jobSeekerAccount.lastName, '')),
+            i.fromTime,
+            i.timeSlot.toTime,
+            i.interviewType.name
+            )
+        from Interview i
+        where i.mentorAccount.id = :accountId
+        and i.timeSlot.status = :status
+        and i.fromTime <= :afterTime
+        and (i.fromTime < :afterTime or i.id < :afterId)
+        order by i.fromTime desc, i.id desc
+    """
+    )
+    fun findPastInterviewsBefore(
+        accountId: Long,
+        afterTime: ZonedDateTime,
+        afterId: Long,
+        limit: Pageable,
+        status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
+    ): List<InterviewListResponse>
 
     @Query(
         """
-        from Interview i where i.id = :id and (i.jobSeekerAccount.email = :email or i.mentorAccount.email = :email)
+         select NEW com.linchpino.core.dto.InterviewListResponse(
+            i.id,
+            i.mentorAccount.id,
+            concat(coalesce(i.mentorAccount.firstName, ''), ' ', coalesce(i.mentorAccount.lastName, '')),
+            i.fromTime,
+            i.timeSlot.toTime,
+            i.interviewType.name
+            )
+        from Interview i
+        where i.jobSeekerAccount.id = :accountId
+        and i.timeSlot.status = :status
+        and i.fromTime >= :afterTime
+        and (i.fromTime > :afterTime or i.id > :afterId)
+        order by i.fromTime, i.id
     """
     )
-    fun findByInterviewIdAndAccountEmail(id: Long, email: String): Interview?
+    fun findJobSeekerUpcomingInterviewsAfter(
+        accountId: Long,
+        afterTime: ZonedDateTime,
+        afterId: Long,
+        limit: Pageable,
+        status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
+    ): List<InterviewListResponse>
 
-    @Query("""
-        SELECT i FROM Interview i WHERE i.timeSlot.fromTime BETWEEN :start AND :end
-    """)
-    fun findInterviewsWithin(@Param("start") start: ZonedDateTime,
-                             @Param("end") end: ZonedDateTime): List<Interview>
+    @Query(
+        """
+         select NEW com.linchpino.core.dto.InterviewListResponse(
+            i.id,
+            i.mentorAccount.id,
+            concat(coalesce(i.mentorAccount.firstName, ''), ' ', coalesce(i.mentorAccount.lastName, '')),
+            i.fromTime,
+            i.timeSlot.toTime,
+            i.interviewType.name
+            )
+        from Interview i
+        where i.jobSeekerAccount.id = :accountId
+        and i.timeSlot.status = :status
+        and i.fromTime <= :afterTime
+        and (i.fromTime < :afterTime or i.id < :afterId)
+        order by i.fromTime desc, i.id desc
+    """
+    )
+    fun findJobSeekerPastInterviewsBefore(
+        accountId: Long,
+        afterTime: ZonedDateTime,
+        afterId: Long,
+        limit: Pageable,
+        status: MentorTimeSlotEnum = MentorTimeSlotEnum.ALLOCATED
+    ): List<InterviewListResponse>
+
+
+    @Query(
+        """
+        SELECT i FROM Interview i
+        JOIN FETCH i.timeSlot
+        JOIN FETCH i.jobSeekerAccount
+        LEFT JOIN FETCH i.mentorAccount
+        WHERE i.id = :id
+    """
+    )
+    fun findForJoin(id: Long): Interview?
+
+    @Query(
+        """
+        SELECT i FROM Interview i
+        JOIN FETCH i.timeSlot
+        JOIN FETCH i.jobSeekerAccount
+        LEFT JOIN FETCH i.mentorAccount
+        WHERE i.id IN :ids
+    """
+    )
+    fun findForReminders(ids: Collection<Long>): List<Interview>
+
+    @Query(
+        """
+        SELECT i FROM Interview i
+        JOIN FETCH i.timeSlot
+        JOIN FETCH i.interviewType
+        JOIN FETCH i.jobSeekerAccount
+        LEFT JOIN FETCH i.mentorAccount
+        WHERE i.id = :id
+    """
+    )
+    fun findForProvisioning(id: Long): Interview?
+
+    /**
+     * Every interview by id, read through a server side cursor of [EXPORT_FETCH_SIZE] rows. Must be consumed and
+     * closed inside a transaction.
+     */
+    @QueryHints(QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(
+        """
+        select NEW com.linchpino.core.dto.InterviewExportRow(
+            i.id,
+            i.mentorAccount.id,
+            i.jobSeekerAccount.id,
+            i.interviewType.id,
+            i.jobPosition.id,
+            i.fromTime,
+            ts.toTime,
+            i.meetCode,
+            i.createdOn
+            )
+        from Interview i
+        join i.timeSlot ts
+        order by i.id
+    """
+    )
+    fun streamForExport(): Stream<InterviewExportRow>
 }
@@ -13,3 +13,8 @@ inline fun <reified T, ID : Serializable> JpaRepository<T, ID>.findReferenceById
         throw LinchpinException("${T::class.java.simpleName} entity with id: $id not found ", ex, ErrorCode.ENTITY_NOT_FOUND, T::class.java.simpleName)
     }
 }
+
+/**
+ * Rows Postgres sends per round trip when an export streams a table, so it is never read into memory at once.
+ */
+const val EXPORT_FETCH_SIZE = "500"
@@ -0,0 +1,114 @@
+package com.linchpino.core.repository
+
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowMapper
+import org.springframework.stereotype.Repository
+import java.time.ZonedDateTime
+
+/**
+ * Interviews whose Meet event or invitation email is not done yet, in meet_outbox. A row is written in the booking
+ * transaction; setting the meet code restarts its attempts for the invitation, and the row is deleted once the
+ * invitation is sent. A row that runs out of attempts is kept with failed_at set. Workers claim due rows with SKIP
+ * LOCKED and push their next attempt past a lease, so several instances never work on the same row and a row of a
+ * crashed worker becomes due again when the lease ends.
+ */
+@Repository
+class MeetOutboxRepository(private val jdbcTemplate: JdbcTemplate) {
+
+    fun insert(interviewId: Long, now: ZonedDateTime) {
+        jdbcTemplate.update(
+            "INSERT INTO meet_outbox (interview_id, next_attempt_at) VALUES (?, ?)",
+            interviewId,
+            now.toUtcTimestamp()
+        )
+    }
+
+    /**
+     * Claims up to [limit] rows due at [now] with fewer than [maxAttempts] attempts until [leaseUntil], counting the
+     * attempt. Returns (interview id, attempts) pairs.
+     */
+    fun claimDue(now: ZonedDateTime, leaseUntil: ZonedDateTime, maxAttempts: Int, limit: Int): List<Pair<Long, Int>> =
+        jdbcTemplate.query(
+            """
+            UPDATE meet_outbox
+            SET attempts = attempts + 1, next_attempt_at = ?
+            WHERE interview_id IN (
+                SELECT interview_id FROM meet_outbox
+                WHERE next_attempt_at <= ?
+                AND attempts < ?
+                AND failed_at IS NULL
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING interview_id, attempts
+            """.trimIndent(),
+            RowMapper { resultSet, _ -> resultSet.getLong(1) to resultSet.getInt(2) },
+            leaseUntil.toUtcTimestamp(),
+            now.toUtcTimestamp(),
+            maxAttempts,
+            limit
+        )
+
+    /**
+     * Stores the meet code of the interview and restarts the attempts of the row for the invitation in one
+     * statement, false when the row was gone.
+     */
+    fun complete(interviewId: Long, meetCode: String): Boolean = jdbcTemplate.update(
+        """
+        WITH provisioned AS (
+            UPDATE meet_outbox SET attempts = 0 WHERE interview_id = ? RETURNING interview_id
+        )
+        UPDATE interview SET meet_code = ? WHERE id IN (SELECT interview_id FROM provisioned)
+        """.trimIndent(),
+        interviewId,
+        meetCode
+    ) > 0
+
+    fun retryAt(interviewId: Long, nextAttemptAt: ZonedDateTime, error: String?) {
+        jdbcTemplate.update(
+            "UPDATE meet_outbox SET next_attempt_at = ?, last_error = ? WHERE interview_id = ?",
+            nextAttemptAt.toUtcTimestamp(),
+            error?.take(MAX_ERROR_LENGTH),
+            interviewId
+        )
+    }
+
+    /**
+     * Gives up on the row: it is never claimed again and reports as failed.
+     */
+    fun fail(interviewId: Long, now: ZonedDateTime, error: String?) {
+        jdbcTemplate.update(
+            "UPDATE meet_outbox SET failed_at = ?, last_error = ? WHERE interview_id = ?",
+            now.toUtcTimestamp(),
+            error?.take(MAX_ERROR_LENGTH),
+            interviewId
+        )
+    }
+
+    fun remove(interviewId: Long) {
+        jdbcTemplate.update("DELETE FROM meet_outbox WHERE interview_id = ?", interviewId)
+    }
+
+    /**
+     * Attempts made for the interview, null when it has no row.
+     */
+    fun attempts(interviewId: Long): Int? = jdbcTemplate.queryForList(
+        "SELECT attempts FROM meet_outbox WHERE interview_id = ?",
+        Int::class.java,
+        interviewId
+    ).firstOrNull()
+
+    /**
+     * Whether provisioning of the interview was given up, null when it has no row.
+     */
+    fun failed(interviewId: Long): Boolean? = jdbcTemplate.queryForList(
+        "SELECT failed_at IS NOT NULL FROM meet_outbox WHERE interview_id = ?",
+        Boolean::class.java,
+        interviewId
+    ).firstOrNull()
+
+    companion object {
+        private const val MAX_ERROR_LENGTH = 1024
+    }
+}
@@ -0,0 +1,77 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.TimeSlot
+import com.linchpino.core.enums.MentorTimeSlotEnum
+import org.springframework.data.domain.AuditorAware
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.PreparedStatementSetter
+import org.springframework.jdbc.core.RowMapper
+import org.springframework.stereotype.Repository
+import java.sql.Timestamp
+import java.sql.Types
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+
+/**
+ * Set-based access to mentor_time_slot for bulk ingestion. Rows are written with JDBC batches because the IDENTITY
+ * ids of [com.linchpino.core.entity.MentorTimeSlot] keep Hibernate from batching inserts. Times are stored as UTC
+ * wall time, like hibernate.jdbc.time_zone does for the entity.
+ */
+@Repository
+class MentorTimeSlotBatchRepository(
+    private val jdbcTemplate: JdbcTemplate,
+    private val auditorAware: AuditorAware<Long>
+) {
+
+    /**
+     * Positions in [slots] overlapping a time slot of the mentor, in a single query.
+     */
+    fun findOverlapping(accountId: Long, slots: List<TimeSlot>): Set<Int> {
+        if (slots.isEmpty()) return emptySet()
+        return jdbcTemplate.query(
+            """
+            SELECT DISTINCT candidate.ordinal
+            FROM unnest(?::timestamp[], ?::timestamp[]) WITH ORDINALITY AS candidate(from_time, to_time, ordinal)
+            JOIN mentor_time_slot mts
+                ON mts.account_id = ?
+                AND mts.status <> ?
+                AND mts.from_time < candidate.to_time
+                AND mts.to_time > candidate.from_time
+            """.trimIndent(),
+            PreparedStatementSetter { statement ->
+                val connection = statement.connection
+                val starts = slots.map { it.startTime.toUtcTimestamp() }.toTypedArray()
+                val ends = slots.map { it.endTime.toUtcTimestamp() }.toTypedArray()
+                statement.setArray(1, connection.createArrayOf("timestamp", starts))
+                statement.setArray(2, connection.createArrayOf("timestamp", ends))
+                statement.setLong(3, accountId)
+                statement.setInt(4, MentorTimeSlotEnum.UNKNOWN.value)
+            },
+            RowMapper { resultSet, _ -> resultSet.getInt(1) - 1 }
+        ).toSet()
+    }
+
+    fun insertAvailable(accountId: Long, slots: List<TimeSlot>) {
+        val createdBy = auditorAware.currentAuditor.orElse(null)
+        val createdOn = Timestamp.valueOf(LocalDateTime.now(ZoneOffset.UTC))
+        jdbcTemplate.batchUpdate(
+            """
+            INSERT INTO mentor_time_slot (account_id, from_time, to_time, status, created_on, created_by)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """.trimIndent(),
+            slots,
+            BATCH_SIZE
+        ) { statement, slot ->
+            statement.setLong(1, accountId)
+            statement.setTimestamp(2, slot.startTime.toUtcTimestamp())
+            statement.setTimestamp(3, slot.endTime.toUtcTimestamp())
+            statement.setInt(4, MentorTimeSlotEnum.AVAILABLE.value)
+            statement.setTimestamp(5, createdOn)
+            statement.setObject(6, createdBy, Types.BIGINT)
+        }
+    }
+
+    companion object {
+        const val BATCH_SIZE = 1000
+    }
+}
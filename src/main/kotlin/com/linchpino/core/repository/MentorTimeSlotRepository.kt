@@ -1,6 +1,8 @@
 package com.linchpino.core.repository
 
+import com.linchpino.core.dto.BookedTimeSlot
 import com.linchpino.core.entity.MentorTimeSlot
+import com.linchpino.core.enums.MentorTimeSlotEnum
 import org.springframework.data.jpa.repository.JpaRepository
 import org.springframework.data.jpa.repository.Query
 import org.springframework.data.repository.query.Param
@@ -8,34 +10,79 @@ import org.springframework.stereotype.Repository
 import java.time.LocalDate
 import java.time.ZonedDateTime
 
+/**
+ * Booked slots are ALLOCATED ones and HELD ones of a pending checkout, both make the mentor busy.
+ */
 @Repository
 interface MentorTimeSlotRepository : JpaRepository<MentorTimeSlot, Long> {
 
     @Query(
         """
-        SELECT COUNT(mts.id)
+        SELECT mts
         FROM MentorTimeSlot mts
-        WHERE mts.fromTime BETWEEN :start AND :end
-        OR mts.toTime BETWEEN :start AND :end
+        WHERE mts.account.id IN :accountIds
+        AND FUNCTION('DATE', mts.fromTime) = :date
+        AND FUNCTION('DATE', mts.toTime) = :date
     """
     )
-    fun numberOfOverlappingSlots(
-        start: ZonedDateTime,
-        end: ZonedDateTime,
-    ): Long
+    fun findByAccountIdsAndDate(
+        @Param("accountIds") accountIds: List<Long>,
+        @Param("date") date: LocalDate
+    ): List<MentorTimeSlot>
 
+    @Query(
+        """
+        SELECT mts
+        FROM MentorTimeSlot mts
+        WHERE mts.account.id = :accountId
+        AND mts.status IN :statuses
+        AND mts.fromTime < :to
+        AND mts.toTime > :from
+        ORDER BY mts.fromTime
+    """
+    )
+    fun findBookedSlotsBetween(
+        @Param("accountId") accountId: Long,
+        @Param("from") from: ZonedDateTime,
+        @Param("to") to: ZonedDateTime,
+        @Param("statuses") statuses: Collection<MentorTimeSlotEnum> = BUSY
+    ): List<MentorTimeSlot>
 
     @Query(
         """
         SELECT mts
         FROM MentorTimeSlot mts
         WHERE mts.account.id IN :accountIds
-        AND FUNCTION('DATE', mts.fromTime) = :date
-        AND FUNCTION('DATE', mts.toTime) = :date
+        AND mts.status IN :statuses
+        AND mts.fromTime < :to
+        AND mts.toTime > :from
     """
     )
-    fun findByAccountIdsAndDate(
-        @Param("accountIds") accountIds: List<Long>,
-        @Param("date") date: LocalDate
+    fun findBookedSlotsOf(
+        @Param("accountIds") accountIds: Collection<Long>,
+        @Param("from") from: ZonedDateTime,
+        @Param("to") to: ZonedDateTime,
+        @Param("statuses") statuses: Collection<MentorTimeSlotEnum> = BUSY
     ): List<MentorTimeSlot>
+
+    @Query(
+        """
+        SELECT new com.linchpino.core.dto.BookedTimeSlot(mts.id, i.id, mts.fromTime, mts.toTime)
+        FROM MentorTimeSlot mts
+        LEFT JOIN Interview i ON i.timeSlot = mts
+        WHERE mts.account.id = :accountId
+        AND mts.status IN :statuses
+        AND mts.toTime > :from
+        ORDER BY mts.fromTime
+    """
+    )
+    fun findBookedTimeSlotsAfter(
+        @Param("accountId") accountId: Long,
+        @Param("from") from: ZonedDateTime,
+        @Param("statuses") statuses: Collection<MentorTimeSlotEnum> = BUSY
+    ): List<BookedTimeSlot>
+
+    companion object {
+        val BUSY = listOf(MentorTimeSlotEnum.ALLOCATED, MentorTimeSlotEnum.HELD)
+    }
 }
@@ -1,12 +1,17 @@
 package com.linchpino.core.repository
 
+import com.linchpino.core.dto.PaymentExportRow
 import com.linchpino.core.dto.PaymentResponse
 import com.linchpino.core.entity.Payment
 import com.linchpino.core.enums.PaymentStatus
+import jakarta.persistence.QueryHint
+import org.hibernate.jpa.HibernateHints
 import org.springframework.data.domain.Page
 import org.springframework.data.domain.Pageable
 import org.springframework.data.jpa.repository.Query
+import org.springframework.data.jpa.repository.QueryHints
 import org.springframework.data.repository.CrudRepository
+import java.util.stream.Stream
 
 interface PaymentRepository : CrudRepository<Payment, Long> {
 
@@ -25,4 +30,25 @@ interface PaymentRepository : CrudRepository<Payment, Long> {
     """
     )
     fun search(status: PaymentStatus?, refNumber: String?, pageable: Pageable): Page<PaymentResponse>
+
+    /**
+     * Every payment by interview id, read through a server side cursor. Must be consumed and closed inside a
+     * transaction.
+     */
+    @QueryHints(QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(
+        """
+        select NEW com.linchpino.core.dto.PaymentExportRow(
+            p.id,
+            p.refNumber,
+            p.amount,
+            p.status,
+            p.createdOn,
+            p.modifiedOn
+        )
+        from Payment p
+        order by p.id
+    """
+    )
+    fun streamForExport(): Stream<PaymentExportRow>
 }
@@ -0,0 +1,40 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.ValidWindow
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.stereotype.Repository
+
+/**
+ * Bulk writes of schedule_occurrence. Rows are written with JDBC batches because the IDENTITY ids of
+ * [com.linchpino.core.entity.ScheduleOccurrence] keep Hibernate from batching inserts. Times are stored as UTC wall
+ * time, like hibernate.jdbc.time_zone does for the entity. New rows have no free_slots until
+ * [AvailabilityCountRepository.countOccurrences] counts them.
+ */
+@Repository
+class ScheduleOccurrenceBatchRepository(private val jdbcTemplate: JdbcTemplate) {
+
+    /**
+     * Inserts one occurrence per window and interview type of the mentor's schedule.
+     */
+    fun insert(scheduleId: Long, accountId: Long, interviewTypeIds: Collection<Long>, windows: List<ValidWindow>) {
+        val rows = windows.flatMap { window -> interviewTypeIds.map { it to window } }
+        jdbcTemplate.batchUpdate(
+            """
+            INSERT INTO schedule_occurrence (schedule_id, account_id, interview_type_id, start_time, end_time)
+            VALUES (?, ?, ?, ?, ?)
+            """.trimIndent(),
+            rows,
+            BATCH_SIZE
+        ) { statement, (interviewTypeId, window) ->
+            statement.setLong(1, scheduleId)
+            statement.setLong(2, accountId)
+            statement.setLong(3, interviewTypeId)
+            statement.setTimestamp(4, window.start.toUtcTimestamp())
+            statement.setTimestamp(5, window.end.toUtcTimestamp())
+        }
+    }
+
+    companion object {
+        const val BATCH_SIZE = 1000
+    }
+}
@@ -0,0 +1,57 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.MentorTypeOccurrence
+import com.linchpino.core.entity.ScheduleOccurrence
+import com.linchpino.core.enums.AccountTypeEnum
+import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Modifying
+import org.springframework.data.jpa.repository.Query
+import org.springframework.stereotype.Repository
+import java.time.ZonedDateTime
+
+@Repository
+interface ScheduleOccurrenceRepository : JpaRepository<ScheduleOccurrence, Long> {
+
+    /**
+     * Occurrences starting in (from, to) of mentors offering one of the interview types, with the slot length of the
+     * type, ordered by start and mentor id.
+     */
+    @Query(
+        """
+        SELECT NEW com.linchpino.core.dto.MentorTypeOccurrence(
+            t.id,
+            t.slotMinutes,
+            a.id,
+            a.firstName,
+            a.lastName,
+            a.email,
+            a.avatar,
+            o.startTime,
+            o.endTime
+        )
+        FROM ScheduleOccurrence o
+        JOIN o.interviewType t
+        JOIN o.account a
+        JOIN a.roles role
+        WHERE t.id IN :interviewTypeIds
+        AND o.startTime > :from
+        AND o.startTime < :to
+        AND role.title = :type
+        ORDER BY o.startTime, a.id
+    """
+    )
+    fun findMentorOccurrencesOfTypes(
+        interviewTypeIds: Collection<Long>,
+        from: ZonedDateTime,
+        to: ZonedDateTime,
+        type: AccountTypeEnum = AccountTypeEnum.MENTOR
+    ): List<MentorTypeOccurrence>
+
+    @Modifying
+    @Query("DELETE FROM ScheduleOccurrence o WHERE o.schedule.id = :scheduleId")
+    fun deleteByScheduleId(scheduleId: Long): Int
+
+    @Modifying
+    @Query("DELETE FROM ScheduleOccurrence o WHERE o.endTime < :time")
+    fun deleteEndedBefore(time: ZonedDateTime): Int
+}
@@ -1,6 +1,98 @@
 package com.linchpino.core.repository
 
 import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.AccountTypeEnum
+import org.springframework.data.jpa.repository.Query
 import org.springframework.data.repository.CrudRepository
+import java.time.ZonedDateTime
 
-interface ScheduleRepository : CrudRepository<Schedule, Long>
+interface ScheduleRepository : CrudRepository<Schedule, Long> {
+
+    @Query(
+        """
+        SELECT s FROM Schedule s
+        WHERE s.occurrencesUntil IS NULL
+        OR (s.occurrencesUntil < :horizon AND s.endTime > s.occurrencesUntil)
+    """
+    )
+    fun findWithOccurrencesBefore(horizon: ZonedDateTime): List<Schedule>
+
+    @Query(
+        """
+        SELECT DISTINCT s FROM Schedule s
+        JOIN FETCH s.account a
+        LEFT JOIN FETCH a.interviewTypes
+        JOIN a.roles role
+        WHERE role.title = :type
+    """
+    )
+    fun findMentorSchedules(type: AccountTypeEnum = AccountTypeEnum.MENTOR): List<Schedule>
+
+    @Query(
+        """
+        SELECT DISTINCT s FROM Schedule s
+        JOIN FETCH s.account a
+        LEFT JOIN FETCH a.interviewTypes
+        JOIN a.roles role
+        WHERE a.id = :accountId
+        AND role.title = :type
+    """
+    )
+    fun findMentorSchedule(accountId: Long, type: AccountTypeEnum = AccountTypeEnum.MENTOR): Schedule?
+
+    @Query(
+        """
+        SELECT DISTINCT s FROM Schedule s
+        JOIN FETCH s.account a
+        JOIN a.interviewTypes interviewType
+        JOIN a.roles role
+        WHERE interviewType.id = :interviewTypeId
+        AND role.title = :type
+        AND s.endTime > :from
+    """
+    )
+    fun findMentorSchedulesByInterviewType(
+        interviewTypeId: Long,
+        from: ZonedDateTime,
+        type: AccountTypeEnum = AccountTypeEnum.MENTOR
+    ): List<Schedule>
+
+    /**
+     * Mentor schedules offering one of the interview types whose occurrences are not materialized up to [to].
+     */
+    @Query(
+        """
+        SELECT DISTINCT s FROM Schedule s
+        JOIN FETCH s.account a
+        LEFT JOIN FETCH a.interviewTypes
+        JOIN a.interviewTypes interviewType
+        JOIN a.roles role
+        WHERE interviewType.id IN :interviewTypeIds
+        AND role.title = :type
+        AND s.endTime > :from
+        AND (s.occurrencesUntil IS NULL OR s.occurrencesUntil < :to)
+    """
+    )
+    fun findMentorSchedulesMaterializedBefore(
+        interviewTypeIds: Collection<Long>,
+        from: ZonedDateTime,
+        to: ZonedDateTime,
+        type: AccountTypeEnum = AccountTypeEnum.MENTOR
+    ): List<Schedule>
+
+    @Query(
+        """
+        SELECT DISTINCT s FROM Schedule s
+        JOIN FETCH s.account a
+        JOIN a.roles role
+        WHERE a.id IN :accountIds
+        AND role.title = :type
+        AND s.endTime > :from
+    """
+    )
+    fun findMentorSchedulesOf(
+        accountIds: Collection<Long>,
+        from: ZonedDateTime,
+        type: AccountTypeEnum = AccountTypeEnum.MENTOR
+    ): List<Schedule>
+}
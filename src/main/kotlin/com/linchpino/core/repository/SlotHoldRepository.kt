@@ -0,0 +1,148 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.dto.ReleasedTimeSlot
+import com.linchpino.core.dto.ValidWindow
+import com.linchpino.core.enums.MentorTimeSlotEnum
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowMapper
+import org.springframework.stereotype.Repository
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.util.UUID
+
+/**
+ * Expiry of HELD mentor time slots in slot_hold. Deleting the HELD time slot cascades to its hold, so releasing and
+ * claiming a hold are single statements that cannot both succeed for the same hold.
+ */
+@Repository
+class SlotHoldRepository(private val jdbcTemplate: JdbcTemplate) {
+
+    fun insert(id: UUID, timeSlotId: Long, ownerId: Long, expiresAt: ZonedDateTime) {
+        jdbcTemplate.update(
+            "INSERT INTO slot_hold (id, time_slot_id, owner_account_id, expires_at) VALUES (?, ?, ?, ?)",
+            id,
+            timeSlotId,
+            ownerId,
+            expiresAt.toUtcTimestamp()
+        )
+    }
+
+    /**
+     * Unexpired holds of [ownerId] at [now]. Locks the owner's account row first, so concurrent holds of one owner
+     * are counted one after the other until the caller's transaction ends.
+     */
+    fun countActive(ownerId: Long, now: ZonedDateTime): Int {
+        jdbcTemplate.queryForList("SELECT id FROM account WHERE id = ? FOR UPDATE", Long::class.java, ownerId)
+        return jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM slot_hold WHERE owner_account_id = ? AND expires_at > ?",
+            Int::class.java,
+            ownerId,
+            now.toUtcTimestamp()
+        ) ?: 0
+    }
+
+    /**
+     * Deletes the HELD time slot of the hold and returns it, null when it was already claimed or released.
+     */
+    fun release(id: UUID): ReleasedTimeSlot? = jdbcTemplate.query(
+        """
+        DELETE FROM mentor_time_slot
+        WHERE status = $HELD
+        AND id IN (SELECT time_slot_id FROM slot_hold WHERE id = ?)
+        RETURNING account_id, from_time, to_time
+        """.trimIndent(),
+        RELEASED,
+        id
+    ).firstOrNull()
+
+    /**
+     * Deletes the HELD time slot of a hold of [ownerId] and returns it, null when there is no such hold.
+     */
+    fun release(id: UUID, ownerId: Long): ReleasedTimeSlot? = jdbcTemplate.query(
+        """
+        DELETE FROM mentor_time_slot
+        WHERE status = $HELD
+        AND id IN (SELECT time_slot_id FROM slot_hold WHERE id = ? AND owner_account_id = ?)
+        RETURNING account_id, from_time, to_time
+        """.trimIndent(),
+        RELEASED,
+        id,
+        ownerId
+    ).firstOrNull()
+
+    /**
+     * Deletes and returns HELD time slots of the mentor whose hold expired before [now], so an expiry missed by a
+     * stopped instance never blocks a booking.
+     */
+    fun releaseExpired(accountId: Long, now: ZonedDateTime): List<ReleasedTimeSlot> = jdbcTemplate.query(
+        """
+        DELETE FROM mentor_time_slot
+        WHERE account_id = ?
+        AND status = $HELD
+        AND id IN (SELECT time_slot_id FROM slot_hold WHERE expires_at <= ?)
+        RETURNING account_id, from_time, to_time
+        """.trimIndent(),
+        RELEASED,
+        accountId,
+        now.toUtcTimestamp()
+    )
+
+    /**
+     * Turns the HELD time slot of an unexpired hold of [ownerId] on [window] of the mentor into an ALLOCATED one and
+     * drops the hold, returns the time slot id or null when there is no such hold.
+     */
+    fun claim(id: UUID, ownerId: Long, accountId: Long, window: ValidWindow, now: ZonedDateTime): Long? =
+        jdbcTemplate.queryForList(
+            """
+            WITH claimed AS (
+                DELETE FROM slot_hold h
+                USING mentor_time_slot mts
+                WHERE h.id = ?
+                AND h.owner_account_id = ?
+                AND h.expires_at > ?
+                AND mts.id = h.time_slot_id
+                AND mts.account_id = ?
+                AND mts.status = $HELD
+                AND mts.from_time = ?
+                AND mts.to_time = ?
+                RETURNING h.time_slot_id
+            )
+            UPDATE mentor_time_slot
+            SET status = ${MentorTimeSlotEnum.ALLOCATED.value}
+            WHERE id IN (SELECT time_slot_id FROM claimed)
+            RETURNING id
+            """.trimIndent(),
+            Long::class.java,
+            id,
+            ownerId,
+            now.toUtcTimestamp(),
+            accountId,
+            window.start.toUtcTimestamp(),
+            window.end.toUtcTimestamp()
+        ).firstOrNull()
+
+    /**
+     * Every outstanding hold as (id, expiry), expired ones included.
+     */
+    fun findAll(): List<Pair<UUID, ZonedDateTime>> = jdbcTemplate.query(
+        "SELECT id, expires_at FROM slot_hold",
+        RowMapper { resultSet, _ ->
+            resultSet.getObject(1, UUID::class.java) to
+                resultSet.getTimestamp(2).toLocalDateTime().atZone(ZoneOffset.UTC)
+        }
+    )
+
+    companion object {
+        private val HELD = MentorTimeSlotEnum.HELD.value
+
+        private val RELEASED = RowMapper { resultSet, _ ->
+            ReleasedTimeSlot(
+                resultSet.getLong(1),
+                ValidWindow(
+                    resultSet.getTimestamp(2).toLocalDateTime().atZone(ZoneOffset.UTC),
+                    resultSet.getTimestamp(3).toLocalDateTime().atZone(ZoneOffset.UTC)
+                )
+            )
+        }
+    }
+}
@@ -0,0 +1,13 @@
+@file:JvmName("Timestamps")
+
+package com.linchpino.core.repository
+
+import java.sql.Timestamp
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * The instant as the UTC wall-clock time TIMESTAMP columns hold, for queries that bind parameters through JDBC
+ * instead of Hibernate, which writes them in UTC (hibernate.jdbc.time_zone).
+ */
+fun ZonedDateTime.toUtcTimestamp(): Timestamp = Timestamp.valueOf(withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime())
@@ -57,7 +57,9 @@ class SecurityConfig(private val rsaKeys: RSAKeys) {
                 it.requestMatchers("/api/accounts/search").hasAnyAuthority("SCOPE_ADMIN")
                 it.requestMatchers("/api/admin/**").hasAnyAuthority("SCOPE_ADMIN")
                 it.requestMatchers("/api/interviews/*/validity").authenticated()
+                it.requestMatchers("/api/interviews/*/provisioning").authenticated()
                 it.requestMatchers("/api/interviews/*/feedback").hasAnyAuthority("SCOPE_JOB_SEEKER")
+                it.requestMatchers("/api/interviews/holds", "/api/interviews/holds/**").hasAnyAuthority("SCOPE_JOB_SEEKER")
                 it.requestMatchers("/api/interviews/mentors/**").hasAnyAuthority("SCOPE_MENTOR")
                 it.requestMatchers("/api/interviews/jobseekers/**").hasAnyAuthority("SCOPE_JOB_SEEKER")
                 it.requestMatchers("/api/accounts/image").authenticated()
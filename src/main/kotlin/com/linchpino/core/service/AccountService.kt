@@ -5,6 +5,9 @@ import com.linchpino.core.dto.ActivateJobSeekerAccountRequest
 import com.linchpino.core.dto.AddProfileImageResponse
 import com.linchpino.core.dto.CreateAccountRequest
 import com.linchpino.core.dto.CreateAccountResult
+import com.linchpino.core.dto.MentorScheduleOccurrence
+import com.linchpino.core.dto.MentorSearchResult
+import com.linchpino.core.dto.MentorTypeOccurrence
 import com.linchpino.core.dto.MentorWithClosestSchedule
 import com.linchpino.core.dto.MentorWithClosestTimeSlot
 import com.linchpino.core.dto.RegisterMentorRequest
@@ -17,21 +20,21 @@ import com.linchpino.core.dto.UpdateAccountRequest
 import com.linchpino.core.dto.UpdateAccountRequestByAdmin
 import com.linchpino.core.dto.UpdateProfileRequest
 import com.linchpino.core.dto.ValidWindow
-import com.linchpino.core.dto.hasOverlapWith
 import com.linchpino.core.dto.toCreateAccountResult
 import com.linchpino.core.dto.toIBAN
 import com.linchpino.core.dto.toRegisterMentorResult
 import com.linchpino.core.dto.toSummary
 import com.linchpino.core.entity.Account
-import com.linchpino.core.entity.MentorTimeSlot
 import com.linchpino.core.enums.AccountStatusEnum
 import com.linchpino.core.enums.AccountTypeEnum
 import com.linchpino.core.exception.ErrorCode
 import com.linchpino.core.exception.LinchpinException
 import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.CalendarBusyRepository
 import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.MentorTimeSlotRepository
 import com.linchpino.core.repository.RoleRepository
+import com.linchpino.core.repository.ScheduleOccurrenceRepository
 import com.linchpino.core.repository.findReferenceById
 import com.linchpino.core.security.email
 import org.springframework.dao.DataIntegrityViolationException
@@ -44,9 +47,11 @@ import org.springframework.security.oauth2.server.resource.authentication.Bearer
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
 import org.springframework.web.multipart.MultipartFile
+import java.time.LocalDate
 import java.time.LocalTime
 import java.time.ZoneOffset
 import java.time.ZonedDateTime
+import java.time.temporal.ChronoUnit
 import java.util.UUID
 
 @Service
@@ -60,7 +65,12 @@ class AccountService(
     private val storageService: StorageService,
     private val linkedInService: LinkedInService,
     private val paymentService: PaymentService,
-    private val mentorTimeSlotRepository: MentorTimeSlotRepository
+    private val mentorTimeSlotRepository: MentorTimeSlotRepository,
+    private val calendarBusyRepository: CalendarBusyRepository,
+    private val scheduleOccurrenceRepository: ScheduleOccurrenceRepository,
+    private val scheduleOccurrenceService: ScheduleOccurrenceService,
+    private val mentorScheduleSnapshot: MentorScheduleSnapshot?,
+    private val mentorSearchCache: MentorSearchCache?
 ) {
 
 
@@ -93,38 +103,167 @@ class AccountService(
             else -> date.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
         }
 
-        val accountsWithValidWindow = repository.closestMentorSchedule(selectedTime, interviewTypeId)
-            .map { it to it.schedule?.doesMatchesSelectedDay(selectedTime) }
-            .filter { it.second != null }
-
-        val accountIds = accountsWithValidWindow.map { it.first.id!! }
-        val bookedTimeSlots =
-            mentorTimeSlotRepository.findByAccountIdsAndDate(accountIds, selectedDate).groupBy { it.account?.id }
-
-        val mentors = accountsWithValidWindow
-            .filter { (account, validWindow) ->
-                accountsWithBookedTimeSlot(bookedTimeSlots[account.id] ?: emptyList(), validWindow!!)
-            }.map {
-                MentorWithClosestSchedule(
-                    it.first.id,
-                    it.first.firstName,
-                    it.first.lastName,
-                    it.second,
-                    it.first.email,
-                    it.first.avatar
+        val endOfSelectedDay = selectedTime.with(LocalTime.MIDNIGHT).plusDays(1)
+        val day = selectedTime.toLocalDate()
+
+        // the cache holds the whole UTC day, the part of today that already passed is dropped on the way out
+        val free = mentorSearchCache
+            ?.get(interviewTypeId, day) {
+                freeOccurrences(interviewTypeId, day.atStartOfDay(ZoneOffset.UTC), endOfSelectedDay)
+            }
+            ?.filter { it.start.isAfter(selectedTime) }
+            ?: freeOccurrences(interviewTypeId, selectedTime, endOfSelectedDay)
+
+        return free
+            .distinctBy { it.mentorId }
+            .map { it.toMentorWithClosestSchedule() }
+    }
+
+    /**
+     * [findMentorsWithClosestScheduleBy] for several interview types and every UTC day in [fromDay, toDay], grouped
+     * by day and type. Planned as three queries: one occurrence query over all types and days that also carries the
+     * slot length of each type (the snapshot keeps both), then one booked time slot query and one calendar busy
+     * query up to the end of the last occurrence, and a single pass over the occurrences.
+     */
+    @Transactional(readOnly = true)
+    fun searchMentors(interviewTypeIds: Set<Long>, fromDay: LocalDate, toDay: LocalDate): List<MentorSearchResult> {
+        if (fromDay.isAfter(toDay) || ChronoUnit.DAYS.between(fromDay, toDay) >= MAX_SEARCH_DAYS)
+            throw LinchpinException(
+                ErrorCode.INVALID_DATE_RANGE,
+                "from must not be after to and the range must not exceed $MAX_SEARCH_DAYS days"
+            )
+        if (interviewTypeIds.isEmpty() || interviewTypeIds.size > MAX_SEARCH_TYPES)
+            throw LinchpinException(
+                ErrorCode.INVALID_STATE,
+                "a search takes 1 to $MAX_SEARCH_TYPES interview types",
+                "search",
+                "invalid number of interview types"
+            )
+        val from = maxOf(fromDay.atStartOfDay(ZoneOffset.UTC), ZonedDateTime.now(ZoneOffset.UTC))
+        val to = toDay.plusDays(1).atStartOfDay(ZoneOffset.UTC)
+        if (!from.isBefore(to)) return emptyList()
+
+        val snapshot = mentorScheduleSnapshot
+        val typeOccurrences = if (snapshot != null) {
+            interviewTypeIds.flatMap { typeId ->
+                val slotMinutes = snapshot.slotMinutesOf(typeId)
+                snapshot.findMentorOccurrences(typeId, from, to).map { it.ofType(typeId, slotMinutes) }
+            }
+        } else {
+            mentorOccurrencesOfTypes(interviewTypeIds, from, to)
+        }
+        if (typeOccurrences.isEmpty()) return emptyList()
+        val slotMinutes = typeOccurrences.associate { it.interviewTypeId to it.slotMinutes }
+        val occurrences = typeOccurrences.map { it.interviewTypeId to it.toOccurrence() }
+
+        // an occurrence starting before to may end after it, its slots up to the end have to be checked too
+        val accountIds = occurrences.map { it.second.mentorId }.distinct()
+        val until = maxOf(to, occurrences.maxOf { it.second.end })
+        val booked = MentorIntervalIndex.of(
+            mentorTimeSlotRepository.findBookedSlotsOf(accountIds, from, until),
+            calendarBusyRepository.findBusyBetween(accountIds, from, until)
+        )
+
+        return occurrences
+            .groupBy({ it.second.start.withZoneSameInstant(ZoneOffset.UTC).toLocalDate() to it.first }, { it.second })
+            .map { (key, dayOccurrences) ->
+                MentorSearchResult(
+                    key.first,
+                    key.second,
+                    free(dayOccurrences, booked, slotMinutes[key.second])
+                        .distinctBy { it.mentorId }
+                        .map { it.toMentorWithClosestSchedule() }
                 )
             }
-        return mentors
+            .filter { it.mentors.isNotEmpty() }
+            .sortedWith(compareBy({ it.day }, { it.interviewTypeId }))
+    }
+
+    /**
+     * Materialized occurrences of the interview types in (from, to), with the ones past the horizon evaluated from
+     * the schedules, ordered by start and mentor id.
+     */
+    private fun mentorOccurrencesOfTypes(
+        interviewTypeIds: Set<Long>,
+        from: ZonedDateTime,
+        to: ZonedDateTime
+    ): List<MentorTypeOccurrence> {
+        val materialized = scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(interviewTypeIds, from, to)
+        val unmaterialized = scheduleOccurrenceService.findUnmaterializedOccurrences(interviewTypeIds, from, to)
+        if (unmaterialized.isEmpty()) return materialized
+        return (materialized + unmaterialized).sortedWith(compareBy({ it.start.toInstant() }, { it.mentorId }))
+    }
+
+    private fun MentorScheduleOccurrence.ofType(interviewTypeId: Long, slotMinutes: Int?) = MentorTypeOccurrence(
+        interviewTypeId,
+        slotMinutes,
+        mentorId,
+        mentorFirstName,
+        mentorLastName,
+        email,
+        avatar,
+        start,
+        end
+    )
+
+    private fun MentorScheduleOccurrence.toMentorWithClosestSchedule() = MentorWithClosestSchedule(
+        mentorId,
+        mentorFirstName,
+        mentorLastName,
+        ValidWindow(start, end),
+        email,
+        avatar
+    )
+
+    /**
+     * Free occurrences of the interview type in [from, to), checked against the same booked and busy time as
+     * [searchMentors]: booked slots and calendar busy time up to the end of the last occurrence.
+     */
+    private fun freeOccurrences(
+        interviewTypeId: Long,
+        from: ZonedDateTime,
+        to: ZonedDateTime
+    ): List<MentorScheduleOccurrence> {
+        val snapshot = mentorScheduleSnapshot
+        val occurrences: List<MentorScheduleOccurrence>
+        val slotMinutes: Int?
+        if (snapshot != null) {
+            occurrences = snapshot.findMentorOccurrences(interviewTypeId, from, to)
+            slotMinutes = snapshot.slotMinutesOf(interviewTypeId)
+        } else {
+            val typeOccurrences = mentorOccurrencesOfTypes(setOf(interviewTypeId), from, to)
+            occurrences = typeOccurrences.map { it.toOccurrence() }
+            slotMinutes = typeOccurrences.firstOrNull()?.slotMinutes
+        }
+
+        if (occurrences.isEmpty()) return emptyList()
+
+        val accountIds = occurrences.map { it.mentorId }.distinct()
+        val until = maxOf(to, occurrences.maxOf { it.end })
+        val bookedTimeSlots = MentorIntervalIndex.of(
+            mentorTimeSlotRepository.findBookedSlotsOf(accountIds, from, until),
+            calendarBusyRepository.findBusyBetween(accountIds, from, until)
+        )
+
+        return free(occurrences, bookedTimeSlots, slotMinutes)
     }
 
-    private fun accountsWithBookedTimeSlot(
-        bookedTimeSlots: List<MentorTimeSlot>,
-        validWindow: ValidWindow
-    ): Boolean {
-        if (bookedTimeSlots.isEmpty())
-            return true
-        return bookedTimeSlots.any { timeSlot ->
-            !ValidWindow(timeSlot.fromTime, timeSlot.toTime).hasOverlapWith(validWindow)
+    /**
+     * Occurrences nothing in [booked] overlaps, or with [slotMinutes] the free carved slots of every occurrence,
+     * so a partly booked window still offers its free slots.
+     */
+    private fun free(
+        occurrences: List<MentorScheduleOccurrence>,
+        booked: MentorIntervalIndex,
+        slotMinutes: Int?
+    ): List<MentorScheduleOccurrence> {
+        if (slotMinutes == null)
+            return occurrences.filter { !booked.overlaps(it.mentorId, it.start, it.end) }
+        return occurrences.flatMap { occurrence ->
+            CarvedWindow(ValidWindow(occurrence.start, occurrence.end), slotMinutes)
+                .occupy(booked, occurrence.mentorId)
+                .freeSlots()
+                .map { occurrence.copy(start = it.start, end = it.end) }
         }
     }
 
@@ -233,6 +372,7 @@ class AccountService(
             if (interviewTypes.isNotEmpty()) {
                 interviewTypes().forEach { removeInterviewType(it) }
                 interviewTypes.forEach { addInterviewType(it) }
+                schedule?.let { scheduleOccurrenceService.rebuild(it) }
             }
             detailsOfExpertise = request.detailsOfExpertise ?: this.detailsOfExpertise
             linkedInUrl = request.linkedInUrl ?: this.linkedInUrl
@@ -343,4 +483,9 @@ class AccountService(
         repository.save(account)
         return account.toSummary(paymentMethod)
     }
+
+    companion object {
+        const val MAX_SEARCH_DAYS = 31L
+        const val MAX_SEARCH_TYPES = 10
+    }
 }
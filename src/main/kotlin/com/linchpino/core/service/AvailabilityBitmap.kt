@@ -0,0 +1,83 @@
+package com.linchpino.core.service
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.time.LocalDate
+import java.util.Base64
+
+/**
+ * Availability of one mentor over consecutive UTC days at 15-minute granularity: 96 bits per day, kept as two
+ * longs (slots 0..63 and 64..95). Schedule windows set the slots they fully cover, booked slots clear every slot
+ * they touch with an AND-NOT, and a window is free when all the slots it touches are set.
+ */
+class AvailabilityBitmap(val firstDay: LocalDate, val days: Int) {
+
+    private val firstSecond = firstDay.toEpochDay() * SECONDS_PER_DAY
+    private val words = LongArray(days * WORDS_PER_DAY)
+    private val totalSlots = days.toLong() * SLOTS_PER_DAY
+
+    fun addAvailable(startSecond: Long, endSecond: Long) =
+        update(ceilSlot(startSecond), Math.floorDiv(endSecond - firstSecond, SECONDS_PER_SLOT), set = true)
+
+    fun removeBusy(startSecond: Long, endSecond: Long) =
+        update(Math.floorDiv(startSecond - firstSecond, SECONDS_PER_SLOT), ceilSlot(endSecond), set = false)
+
+    fun isFree(startSecond: Long, endSecond: Long): Boolean {
+        val from = Math.floorDiv(startSecond - firstSecond, SECONDS_PER_SLOT)
+        val to = ceilSlot(endSecond)
+        if (from < 0 || to > totalSlots || from >= to) return false
+        return forEachWord(from, to) { word, mask -> words[word] and mask == mask }
+    }
+
+    fun freeSlots(day: Int) =
+        java.lang.Long.bitCount(words[day * WORDS_PER_DAY]) + java.lang.Long.bitCount(words[day * WORDS_PER_DAY + 1])
+
+    /**
+     * The 96 slots of a day as 12 bytes, base64 encoded. Byte k bit j (least significant first) is slot 8k + j.
+     */
+    fun encode(day: Int): String {
+        val bytes = ByteBuffer.allocate(BYTES_PER_DAY).order(ByteOrder.LITTLE_ENDIAN)
+            .putLong(words[day * WORDS_PER_DAY])
+            .putInt(words[day * WORDS_PER_DAY + 1].toInt())
+            .array()
+        return Base64.getEncoder().encodeToString(bytes)
+    }
+
+    private fun ceilSlot(epochSecond: Long) =
+        Math.floorDiv(epochSecond - firstSecond + SECONDS_PER_SLOT - 1, SECONDS_PER_SLOT)
+
+    private fun update(from: Long, to: Long, set: Boolean) {
+        forEachWord(maxOf(from, 0L), minOf(to, totalSlots)) { word, mask ->
+            words[word] = if (set) words[word] or mask else words[word] and mask.inv()
+            true
+        }
+    }
+
+    /**
+     * Visits the slots in [from, to) as (word index, bit mask) pairs, stops when [action] returns false.
+     */
+    private inline fun forEachWord(from: Long, to: Long, action: (Int, Long) -> Boolean): Boolean {
+        var slot = from
+        while (slot < to) {
+            val day = (slot / SLOTS_PER_DAY).toInt()
+            val slotOfDay = (slot % SLOTS_PER_DAY).toInt()
+            val high = slotOfDay >= WORD_BITS
+            val bit = if (high) slotOfDay - WORD_BITS else slotOfDay
+            val length = minOf(to - slot, ((if (high) SLOTS_PER_DAY - WORD_BITS else WORD_BITS) - bit).toLong()).toInt()
+            val mask = if (length == WORD_BITS) -1L else ((1L shl length) - 1) shl bit
+            if (!action(day * WORDS_PER_DAY + if (high) 1 else 0, mask)) return false
+            slot += length
+        }
+        return true
+    }
+
+    companion object {
+        const val SLOT_MINUTES = 15
+        const val SLOTS_PER_DAY = 96
+        private const val SECONDS_PER_SLOT = SLOT_MINUTES * 60L
+        private const val SECONDS_PER_DAY = 86_400L
+        private const val WORDS_PER_DAY = 2
+        private const val WORD_BITS = 64
+        private const val BYTES_PER_DAY = 12
+    }
+}
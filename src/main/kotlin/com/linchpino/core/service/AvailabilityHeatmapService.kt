@@ -0,0 +1,52 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.AvailabilityDay
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.InterviewTypeRepository
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.slf4j.LoggerFactory
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Transactional
+import java.time.YearMonth
+
+/**
+ * Per-day free window counts of an interview type for a month, read from the incrementally maintained
+ * availability_day_count counters. The nightly rebuild recounts them from schedule_occurrence and reports
+ * drift through the availability.heatmap.drift counter.
+ */
+@Service
+@Transactional
+class AvailabilityHeatmapService(
+    private val repository: AvailabilityCountRepository,
+    private val interviewTypeRepository: InterviewTypeRepository,
+    meterRegistry: MeterRegistry
+) {
+
+    private val log = LoggerFactory.getLogger(AvailabilityHeatmapService::class.java)
+
+    private val drift = Counter.builder("availability.heatmap.drift").register(meterRegistry)
+
+    @Transactional(readOnly = true)
+    fun heatmap(interviewTypeId: Long, month: YearMonth): List<AvailabilityDay> {
+        if (!interviewTypeRepository.existsById(interviewTypeId))
+            throw LinchpinException(ErrorCode.INTERVIEW_TYPE_NOT_FOUND, "interview type not found")
+        val from = month.atDay(1)
+        val counted = repository.findDays(interviewTypeId, from, from.plusMonths(1)).associateBy { it.day }
+        return (0 until month.lengthOfMonth()).map {
+            val day = from.plusDays(it.toLong())
+            AvailabilityDay(day, counted[day]?.freeWindows ?: 0)
+        }
+    }
+
+    @Scheduled(cron = "\${availability-heatmap.rebuild-cron}")
+    fun rebuild() {
+        val drifted = repository.rebuild()
+        drift.increment(drifted.toDouble())
+        if (drifted > 0) log.warn("availability heatmap rebuilt, {} day counters had drifted", drifted)
+        else log.info("availability heatmap rebuilt without drift")
+    }
+}
@@ -0,0 +1,41 @@
+package com.linchpino.core.service
+
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * One thread of its own for a @Scheduled job that blocks on remote calls. The scheduler thread is shared by every
+ * @Scheduled method, so the job only hands its run over here and returns; a trigger while the previous run is
+ * still busy is skipped rather than queued.
+ */
+class BackgroundWorker(private val name: String) {
+
+    private val log = LoggerFactory.getLogger(BackgroundWorker::class.java)
+
+    private val running = AtomicBoolean()
+
+    private val executor: ExecutorService = Executors.newSingleThreadExecutor { Thread(it, name) }
+
+    /**
+     * Starts [task] on the worker thread and returns false without running it when the last run has not finished.
+     */
+    fun trigger(task: () -> Unit): Boolean {
+        if (!running.compareAndSet(false, true)) return false
+        executor.execute {
+            try {
+                task()
+            } catch (ex: Exception) {
+                log.error("{} run failed", name, ex)
+            } finally {
+                running.set(false)
+            }
+        }
+        return true
+    }
+
+    fun shutdown() {
+        executor.shutdown()
+    }
+}
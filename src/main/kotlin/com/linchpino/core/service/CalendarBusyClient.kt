@@ -0,0 +1,72 @@
+package com.linchpino.core.service
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException
+import com.google.api.client.util.DateTime
+import com.google.api.services.calendar.Calendar
+import com.google.api.services.calendar.model.Event
+import com.linchpino.core.dto.CalendarBusyChanges
+import com.linchpino.core.dto.CalendarBusyEvent
+import java.time.Instant
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * Reads the busy events of a calendar page by page. Without a sync token it lists the events from timeMin on,
+ * with one only the events changed since the token was issued; either way the last page carries the next token.
+ * An expired token (410 Gone) falls back to a full listing. [beforeRequest] runs before every page request.
+ */
+class CalendarBusyClient(
+    private val calendar: Calendar,
+    private val beforeRequest: () -> Unit = {}
+) {
+
+    fun changes(calendarId: String, syncToken: String?, timeMin: ZonedDateTime): CalendarBusyChanges {
+        val busy = mutableListOf<CalendarBusyEvent>()
+        val removed = mutableListOf<String>()
+        var pageToken: String? = null
+        while (true) {
+            val request = calendar.events().list(calendarId)
+                .setSingleEvents(true)
+                .setMaxResults(PAGE_SIZE)
+                .setPageToken(pageToken)
+            if (syncToken != null) request.setSyncToken(syncToken)
+            else request.setTimeMin(DateTime(timeMin.toInstant().toEpochMilli()))
+            beforeRequest()
+            val page = try {
+                request.execute()
+            } catch (ex: GoogleJsonResponseException) {
+                if (ex.statusCode == GONE && syncToken != null) return changes(calendarId, null, timeMin)
+                throw ex
+            }
+            page.items.orEmpty().forEach { event ->
+                val window = busyWindow(event)
+                if (window == null) removed.add(event.id)
+                else busy.add(CalendarBusyEvent(event.id, window.first, window.second))
+            }
+            pageToken = page.nextPageToken
+            if (pageToken == null) return CalendarBusyChanges(busy, removed, page.nextSyncToken, syncToken == null)
+        }
+    }
+
+    /**
+     * Start and end of an event that makes the mentor busy. Cancelled, free (transparent), declined and all-day
+     * events do not.
+     */
+    private fun busyWindow(event: Event): Pair<ZonedDateTime, ZonedDateTime>? {
+        if (event.status == CANCELLED || event.transparency == TRANSPARENT) return null
+        if (event.attendees.orEmpty().any { it.self == true && it.responseStatus == DECLINED }) return null
+        val start = event.start?.dateTime ?: return null
+        val end = event.end?.dateTime ?: return null
+        return utc(start) to utc(end)
+    }
+
+    private fun utc(time: DateTime) = ZonedDateTime.ofInstant(Instant.ofEpochMilli(time.value), ZoneOffset.UTC)
+
+    companion object {
+        const val PAGE_SIZE = 250
+        private const val GONE = 410
+        private const val CANCELLED = "cancelled"
+        private const val TRANSPARENT = "transparent"
+        private const val DECLINED = "declined"
+    }
+}
@@ -0,0 +1,129 @@
+package com.linchpino.core.service
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException
+import com.linchpino.core.dto.CalendarSyncTarget
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.CalendarBusyRepository
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import jakarta.annotation.PreDestroy
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * Imports busy time from the Google calendars of mentors into calendar_busy, so search, booking and the availability
+ * counters treat it like booked time. Each run syncs the calendar-sync.batch-size mentors synced longest ago with
+ * their sync tokens, so a mentor costs one request unless their calendar changed a lot. Requests are spaced to stay
+ * under calendar-sync.requests-per-second on the sync's own thread, and a quota error ends the run; the remaining
+ * mentors go first next time.
+ * Enabled with calendar-sync.enabled.
+ */
+@Service
+@ConditionalOnProperty(name = ["calendar-sync.enabled"], havingValue = "true")
+class CalendarBusySyncService(
+    private val repository: CalendarBusyRepository,
+    private val availabilityCounts: AvailabilityCountRepository,
+    private val calendarService: CalendarService,
+    private val eventPublisher: ApplicationEventPublisher,
+    meterRegistry: MeterRegistry,
+    @Value("\${calendar-sync.root-url}") private val rootUrl: String,
+    @Value("\${calendar-sync.batch-size}") private val batchSize: Int,
+    @Value("\${calendar-sync.requests-per-second}") requestsPerSecond: Double
+) {
+
+    private val log = LoggerFactory.getLogger(CalendarBusySyncService::class.java)
+
+    private val worker = BackgroundWorker("calendar-sync")
+
+    private val client by lazy { CalendarBusyClient(calendarService.client(rootUrl), ::throttle) }
+
+    private val requestIntervalMillis = (1000 / requestsPerSecond).toLong()
+
+    private var nextRequestAt = 0L
+
+    private val requests = Counter.builder("calendar.sync.requests").register(meterRegistry)
+    private val synced = Counter.builder("calendar.sync.mentors").tag("result", "synced").register(meterRegistry)
+    private val failed = Counter.builder("calendar.sync.mentors").tag("result", "failed").register(meterRegistry)
+    private val throttled = Counter.builder("calendar.sync.throttled").register(meterRegistry)
+
+    /**
+     * Syncs on [worker], since the throttle sleeps between requests and would delay every other @Scheduled job on
+     * the shared scheduler thread.
+     */
+    @Scheduled(fixedDelayString = "\${calendar-sync.fixed-delay-ms}")
+    fun poll() {
+        worker.trigger { syncBatch() }
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        worker.shutdown()
+    }
+
+    /**
+     * Syncs one batch of mentors and returns how many were synced.
+     */
+    @Synchronized
+    fun syncBatch(): Int {
+        var count = 0
+        for (target in repository.findSyncTargets(ZonedDateTime.now(ZoneOffset.UTC), batchSize)) {
+            try {
+                sync(target)
+                synced.increment()
+                count++
+            } catch (ex: GoogleJsonResponseException) {
+                if (ex.isQuotaError()) {
+                    throttled.increment()
+                    log.warn("calendar quota exhausted after {} mentors, resuming on the next run", count)
+                    break
+                }
+                failed.increment()
+                // a calendar that is not shared with us stays empty, it goes to the back of the queue
+                repository.saveSyncState(target.accountId, null, ZonedDateTime.now(ZoneOffset.UTC))
+                log.info("could not read calendar of mentor {}: {}", target.accountId, ex.statusCode)
+            } catch (ex: Exception) {
+                failed.increment()
+                log.warn("calendar sync of mentor {} failed", target.accountId, ex)
+            }
+        }
+        return count
+    }
+
+    private fun sync(target: CalendarSyncTarget) {
+        val now = ZonedDateTime.now(ZoneOffset.UTC)
+        val changes = client.changes(target.email, target.syncToken, now)
+        repository.apply(target.accountId, changes, now)
+        if (changes.fullSync || changes.busy.isNotEmpty() || changes.removedEventIds.isNotEmpty()) {
+            availabilityCounts.recount(target.accountId)
+            eventPublisher.publishEvent(CalendarBusyChanged(target.accountId))
+        }
+    }
+
+    private fun throttle() {
+        val now = System.currentTimeMillis()
+        if (nextRequestAt > now) Thread.sleep(nextRequestAt - now)
+        nextRequestAt = maxOf(now, nextRequestAt) + requestIntervalMillis
+        requests.increment()
+    }
+
+    private fun GoogleJsonResponseException.isQuotaError() =
+        statusCode == TOO_MANY_REQUESTS ||
+            (statusCode == FORBIDDEN && details?.errors.orEmpty().any { it.reason in QUOTA_REASONS })
+
+    companion object {
+        private const val TOO_MANY_REQUESTS = 429
+        private const val FORBIDDEN = 403
+        private val QUOTA_REASONS = setOf("rateLimitExceeded", "userRateLimitExceeded", "quotaExceeded")
+    }
+}
+
+/**
+ * Published when the imported calendar busy time of a mentor changed.
+ */
+data class CalendarBusyChanged(val accountId: Long)
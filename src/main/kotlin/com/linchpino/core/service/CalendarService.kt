@@ -1,6 +1,7 @@
 package com.linchpino.core.service
 
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport
+import com.google.api.client.googleapis.json.GoogleJsonResponseException
 import com.google.api.client.json.gson.GsonFactory
 import com.google.api.client.util.DateTime
 import com.google.api.services.calendar.Calendar
@@ -26,16 +27,24 @@ class CalendarService(
 ) {
 
     private fun calendar(): Calendar {
+        val calendar = client(Calendar.DEFAULT_ROOT_URL)
+        this.calendar = calendar
+        return calendar
+    }
+
+    /**
+     * A new Calendar client with the delegated credentials of this service, against [rootUrl].
+     */
+    fun client(rootUrl: String): Calendar {
         val requestInitializer = HttpCredentialsAdapter(credentials())
 
-        val calendar = Calendar.Builder(
+        return Calendar.Builder(
             GoogleNetHttpTransport.newTrustedTransport(),
             GsonFactory.getDefaultInstance(),
             requestInitializer
         ).setApplicationName("Linchpino")
+            .setRootUrl(rootUrl)
             .build()
-        this.calendar = calendar
-        return calendar
     }
 
     private fun credentials(): GoogleCredentials? {
@@ -45,9 +54,20 @@ class CalendarService(
         return credentials
     }
 
-    fun googleMeetCode(attendees: List<String>, eventTitle: String, times: Pair<ZonedDateTime, ZonedDateTime>): String {
+    /**
+     * Creates a calendar event with a Meet conference for [attendees] and returns the conference id. With an
+     * [eventId] the call is idempotent: a retry finds the event created by an earlier attempt instead of inviting
+     * the attendees twice. Event ids use the base32hex alphabet, lowercase letters a-v and digits.
+     */
+    fun googleMeetCode(
+        attendees: List<String>,
+        eventTitle: String,
+        times: Pair<ZonedDateTime, ZonedDateTime>,
+        eventId: String? = null
+    ): String {
 
         var event = Event()
+            .setId(eventId)
             .setSummary(eventTitle)
             .setStart(EventDateTime().setDateTime(DateTime(Date.from(times.first.toInstant()))).setTimeZone("UTC"))
             .setEnd(EventDateTime().setDateTime(DateTime(Date.from(times.second.toInstant()))).setTimeZone("UTC"))
@@ -61,19 +81,24 @@ class CalendarService(
 
         event.conferenceData = ConferenceData().setCreateRequest(
             CreateConferenceRequest().apply {
-                requestId = UUID.randomUUID().toString()
+                requestId = eventId ?: UUID.randomUUID().toString()
                 conferenceSolutionKey = ConferenceSolutionKey().apply {
                     type = "hangoutsMeet"
                 }
             }
         )
-        event = (calendar ?: calendar())
-            .events()
-            .insert("primary", event)
-            .setSendUpdates("all")
-            .setConferenceDataVersion(1)
-            .execute()
-        return event.conferenceData.conferenceId
+        val events = (calendar ?: calendar()).events()
+        event = try {
+            events.insert("primary", event)
+                .setSendUpdates("all")
+                .setConferenceDataVersion(1)
+                .execute()
+        } catch (ex: GoogleJsonResponseException) {
+            if (eventId == null || ex.statusCode != 409) throw ex
+            events.get("primary", eventId).execute()
+        }
+        return event.conferenceData?.conferenceId
+            ?: throw IllegalStateException("conference of event ${event.id} is not created yet")
     }
 
 }
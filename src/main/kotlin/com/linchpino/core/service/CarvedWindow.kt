@@ -0,0 +1,52 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.ValidWindow
+import java.time.Duration
+import java.util.BitSet
+
+/**
+ * An occurrence window split into back-to-back slots of one interview length, starting at the window start. A tail
+ * shorter than a slot is not bookable. Bit i of [occupied] is set when slot i overlaps booked or busy time, so one
+ * window can host several interviews and only the slots they cover are taken.
+ * Slot positions are resolved in epoch minutes, with the minute-truncated semantics of [MentorIntervalIndex].
+ */
+class CarvedWindow(val window: ValidWindow, val slotMinutes: Int) {
+
+    private val startMinute = MentorIntervalIndex.epochMinute(window.start)
+
+    val slots: Int = (Duration.between(window.start, window.end).toMinutes() / slotMinutes).toInt().coerceAtLeast(0)
+
+    val occupied = BitSet(slots)
+
+    /**
+     * Marks the slots overlapped by the intervals of [mentorId] in [booked], one index lookup per slot.
+     */
+    fun occupy(booked: MentorIntervalIndex, mentorId: Long): CarvedWindow {
+        for (index in 0 until slots) {
+            val from = startMinute + index.toLong() * slotMinutes
+            if (booked.overlaps(mentorId, from, from + slotMinutes)) occupied.set(index)
+        }
+        return this
+    }
+
+    fun slot(index: Int): ValidWindow {
+        val start = window.start.plusMinutes(index.toLong() * slotMinutes)
+        return ValidWindow(start, start.plusMinutes(slotMinutes.toLong()))
+    }
+
+    /**
+     * Index of the slot [selected] is, or -1 when it is not exactly one slot of this window.
+     */
+    fun indexOf(selected: ValidWindow): Int {
+        val selectedMinute = MentorIntervalIndex.epochMinute(selected.start)
+        val offset = selectedMinute - startMinute
+        val length = MentorIntervalIndex.epochMinute(selected.end) - selectedMinute
+        if (offset < 0 || offset % slotMinutes != 0L || length != slotMinutes.toLong()) return -1
+        val index = offset / slotMinutes
+        return if (index < slots) index.toInt() else -1
+    }
+
+    fun freeSlots(): Sequence<ValidWindow> = generateSequence(occupied.nextClearBit(0)) { occupied.nextClearBit(it + 1) }
+        .takeWhile { it < slots }
+        .map { slot(it) }
+}
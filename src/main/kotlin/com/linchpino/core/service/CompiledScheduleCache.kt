@@ -0,0 +1,41 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.entity.CompiledSchedule
+import com.linchpino.core.entity.Schedule
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.stereotype.Service
+
+/**
+ * Compiled forms of saved schedules shared by every loaded copy, so a rule is not expanded again per request.
+ * Entries are keyed by schedule id and version, so a saved change compiles again and the old form ages out. The
+ * compiled-schedule.cache.max-entries schedules used last are kept.
+ */
+@Service
+class CompiledScheduleCache(@Value("\${compiled-schedule.cache.max-entries}") private val maxEntries: Int) {
+
+    // access ordered, so the eldest entry is the one used longest ago
+    private val entries = object : LinkedHashMap<Key, CompiledSchedule>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, CompiledSchedule>) = size > maxEntries
+    }
+
+    /**
+     * [Schedule.compiled], shared with other copies of the schedule while it is saved and unchanged.
+     */
+    fun of(schedule: Schedule): CompiledSchedule? {
+        if (!schedule.shareable) return schedule.compiled()
+        val key = Key(schedule.id, schedule.version)
+        synchronized(entries) { entries[key] }?.let { return schedule.adopt(it) }
+        val compiled = schedule.compiled() ?: return null
+        synchronized(entries) { entries[key] = compiled }
+        return compiled
+    }
+
+    fun evict(scheduleId: Long) {
+        synchronized(entries) { entries.keys.removeIf { it.scheduleId == scheduleId } }
+    }
+
+    val size: Int
+        get() = synchronized(entries) { entries.size }
+
+    private data class Key(val scheduleId: Long, val version: Long)
+}
@@ -88,6 +88,27 @@ class EmailService(
     }
 
 
+    fun sendingMeetProvisioningFailedEmail(interview: Interview) {
+        val (mentorFullName, jobSeekerFullName) = interview.interviewPartiesFullName()
+        val fromTime = interview.timeSlot?.fromTime
+        listOfNotNull(
+            interview.jobSeekerAccount?.let { it.email to jobSeekerFullName },
+            interview.mentorAccount?.let { it.email to mentorFullName }
+        ).forEach { (email, fullName) ->
+            sendEmail(
+                email,
+                "Your Interview on Linchpino Has No Meeting Link",
+                "meet-provisioning-failed.html",
+                mapOf(
+                    "fullName" to fullName,
+                    "date" to fromTime?.toLocalDate(),
+                    "time" to fromTime?.toLocalTime(),
+                    "timezone" to fromTime?.zone,
+                )
+            )
+        }
+    }
+
     fun sendEmail(
         to: String,
         subject: String,
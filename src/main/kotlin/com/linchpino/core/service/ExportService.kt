@@ -0,0 +1,89 @@
+package com.linchpino.core.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.linchpino.core.dto.AccountExportRow
+import com.linchpino.core.dto.ExportRow
+import com.linchpino.core.dto.InterviewExportRow
+import com.linchpino.core.dto.PaymentExportRow
+import com.linchpino.core.enums.ExportFormat
+import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.InterviewRepository
+import com.linchpino.core.repository.PaymentRepository
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Transactional
+import java.io.OutputStream
+import java.io.Writer
+import java.time.ZonedDateTime
+import java.time.format.DateTimeFormatter
+import java.util.stream.Stream
+
+/**
+ * Writes whole tables for analytics, one row at a time from a server side cursor, as NDJSON or CSV. Rows are
+ * projections rather than entities, so nothing accumulates in the persistence context and memory stays flat
+ * however many rows are exported. Each export runs in its own read-only transaction, which the cursor needs.
+ */
+@Service
+@Transactional(readOnly = true)
+class ExportService(
+    private val interviewRepository: InterviewRepository,
+    private val paymentRepository: PaymentRepository,
+    private val accountRepository: AccountRepository,
+    private val objectMapper: ObjectMapper
+) {
+
+    fun exportInterviews(format: ExportFormat, out: OutputStream): Long =
+        write(interviewRepository.streamForExport(), InterviewExportRow.COLUMNS, format, out)
+
+    fun exportPayments(format: ExportFormat, out: OutputStream): Long =
+        write(paymentRepository.streamForExport(), PaymentExportRow.COLUMNS, format, out)
+
+    fun exportAccounts(format: ExportFormat, out: OutputStream): Long =
+        write(accountRepository.streamForExport(), AccountExportRow.COLUMNS, format, out)
+
+    /**
+     * Writes [rows] to [out] and returns how many were written. [out] is flushed but left open.
+     */
+    private fun write(rows: Stream<out ExportRow>, columns: List<String>, format: ExportFormat, out: OutputStream): Long {
+        val writer = out.bufferedWriter()
+        var count = 0L
+        if (format == ExportFormat.CSV) writer.csvLine(columns)
+        rows.use { stream ->
+            stream.forEach { row ->
+                when (format) {
+                    ExportFormat.NDJSON -> writer.write(objectMapper.writeValueAsString(row) + "\n")
+                    ExportFormat.CSV -> writer.csvLine(row.values())
+                }
+                count++
+            }
+        }
+        writer.flush()
+        return count
+    }
+
+    private fun Writer.csvLine(values: List<Any?>) {
+        write(values.joinToString(",", postfix = "\r\n") { csvCell(it) })
+    }
+
+    companion object {
+        /**
+         * RFC 4180 cell: quoted when it holds a separator, quote or line break, with quotes doubled. Text starting
+         * like a spreadsheet formula gets a leading apostrophe so it is shown instead of evaluated; numbers are
+         * left as they are, so negative amounts stay numeric.
+         */
+        fun csvCell(value: Any?): String {
+            val text = when (value) {
+                null -> return ""
+                is ZonedDateTime -> value.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+                is CharSequence -> value.toString().let { if (it.firstOrNull() in FORMULA_PREFIXES) "'$it" else it }
+                else -> value.toString()
+            }
+            return if (text.any { it == ',' || it == '"' || it == '\n' || it == '\r' }) {
+                "\"${text.replace("\"", "\"\"")}\""
+            } else {
+                text
+            }
+        }
+
+        private val FORMULA_PREFIXES = setOf('=', '+', '-', '@', '\t', '\r')
+    }
+}
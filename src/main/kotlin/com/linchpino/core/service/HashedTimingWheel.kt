@@ -0,0 +1,60 @@
+package com.linchpino.core.service
+
+/**
+ * Hashed timing wheel: a deadline lands in bucket (deadline tick mod wheel size), so scheduling and cancelling are
+ * O(1) and a tick only visits the entries of one bucket. Entries due in a later revolution stay in their bucket
+ * until their own tick. Deadlines are rounded up to whole ticks, nothing expires before its deadline.
+ */
+class HashedTimingWheel<K : Any>(private val tickMillis: Long, wheelSize: Int, startMillis: Long) {
+
+    private val buckets = Array(wheelSize) { HashMap<K, Long>() }
+    private val bucketOf = HashMap<K, Int>()
+    private var tick = Math.floorDiv(startMillis, tickMillis)
+
+    val size: Int
+        @Synchronized get() = bucketOf.size
+
+    /**
+     * Schedules [key] to expire at [deadlineMillis], replacing an earlier deadline of the same key. A deadline
+     * that already passed expires on the next tick.
+     */
+    @Synchronized
+    fun schedule(key: K, deadlineMillis: Long) {
+        cancel(key)
+        val deadlineTick = maxOf(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), tick + 1)
+        val bucket = Math.floorMod(deadlineTick, buckets.size.toLong()).toInt()
+        buckets[bucket][key] = deadlineTick
+        bucketOf[key] = bucket
+    }
+
+    @Synchronized
+    fun cancel(key: K): Boolean {
+        val bucket = bucketOf.remove(key) ?: return false
+        buckets[bucket].remove(key)
+        return true
+    }
+
+    /**
+     * Moves the wheel to [nowMillis] and returns the keys that expired on the way. After a pause longer than one
+     * revolution every bucket is visited once.
+     */
+    @Synchronized
+    fun advance(nowMillis: Long): List<K> {
+        val target = Math.floorDiv(nowMillis, tickMillis)
+        val expired = mutableListOf<K>()
+        val steps = minOf(target - tick, buckets.size.toLong())
+        for (step in 1..steps) {
+            val entries = buckets[Math.floorMod(tick + step, buckets.size.toLong()).toInt()].entries.iterator()
+            while (entries.hasNext()) {
+                val (key, deadlineTick) = entries.next()
+                if (deadlineTick <= target) {
+                    entries.remove()
+                    bucketOf.remove(key)
+                    expired.add(key)
+                }
+            }
+        }
+        tick = maxOf(tick, target)
+        return expired
+    }
+}
@@ -0,0 +1,68 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.InterviewJoinWindow
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Join windows of booked interviews by interview id, so the validity check answers from memory while participants
+ * poll it around the start of the meeting. A window is put when the interview is booked, again when its meet code
+ * is provisioned, and on a miss by the caller that loaded it; it is dropped by [evict] once the interview ended.
+ * Interviews never change participants or time slot after booking, so only a missing meet code can be stale.
+ * At most interview-join.cache.max-entries windows are kept, further ones are not cached.
+ */
+@Service
+class InterviewJoinCache(
+    meterRegistry: MeterRegistry,
+    @Value("\${interview-join.cache.max-entries}") private val maxEntries: Int
+) {
+
+    private val entries = ConcurrentHashMap<Long, InterviewJoinWindow>()
+
+    private val hits = Counter.builder("interview.join.cache.requests").tag("result", "hit").register(meterRegistry)
+    private val misses = Counter.builder("interview.join.cache.requests").tag("result", "miss").register(meterRegistry)
+
+    init {
+        Gauge.builder("interview.join.cache.size", entries) { it.size.toDouble() }.register(meterRegistry)
+    }
+
+    fun get(interviewId: Long): InterviewJoinWindow? =
+        entries[interviewId].also { if (it != null) hits.increment() else misses.increment() }
+
+    fun put(window: InterviewJoinWindow) {
+        if (!window.toTime.isAfter(ZonedDateTime.now(ZoneOffset.UTC))) return
+        if (entries.size >= maxEntries && !entries.containsKey(window.interviewId)) {
+            evict()
+            if (entries.size >= maxEntries) return
+        }
+        entries[window.interviewId] = window
+    }
+
+    /**
+     * Puts [window] once the caller's transaction commits, so a rolled back booking is not cached.
+     */
+    fun putAfterCommit(window: InterviewJoinWindow) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return put(window)
+        TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+            override fun afterCommit() = put(window)
+        })
+    }
+
+    @Scheduled(fixedDelayString = "\${interview-join.cache.evict-ms}")
+    fun evict() {
+        val now = ZonedDateTime.now(ZoneOffset.UTC)
+        entries.values.removeIf { !it.toTime.isAfter(now) }
+    }
+
+    val size: Int
+        get() = entries.size
+}
@@ -3,12 +3,25 @@ package com.linchpino.core.service
 import com.linchpino.core.entity.InterviewLog
 import com.linchpino.core.enums.InterviewLogType
 import com.linchpino.core.repository.InterviewLogRepository
+import jakarta.annotation.PreDestroy
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.scheduling.annotation.Scheduled
 import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
 import org.springframework.transaction.annotation.Transactional
+import java.util.concurrent.LinkedBlockingQueue
 
 @Service
 @Transactional
-class InterviewLogService(private val repository: InterviewLogRepository) {
+class InterviewLogService(
+    private val repository: InterviewLogRepository,
+    @Value("\${interview-log.max-buffered}") maxBuffered: Int
+) {
+
+    private val log = LoggerFactory.getLogger(InterviewLogService::class.java)
+
+    private val buffer = LinkedBlockingQueue<InterviewLog>(maxBuffered)
 
     fun save(logType: InterviewLogType, id: Long?) {
         InterviewLog().apply {
@@ -18,4 +31,36 @@ class InterviewLogService(private val repository: InterviewLogRepository) {
             repository.save(it)
         }
     }
+
+    /**
+     * Queues the log for the next [flush] instead of inserting it in the caller's request. Its created_on is the
+     * time of the flush, at most interview-log.flush-ms later. Once interview-log.max-buffered logs are waiting, the
+     * log is inserted right away instead, so callers slow down rather than the buffer growing.
+     */
+    fun saveLater(logType: InterviewLogType, id: Long?) {
+        val interviewLog = InterviewLog().apply {
+            type = logType
+            createdBy = id
+        }
+        if (!buffer.offer(interviewLog)) repository.save(interviewLog)
+    }
+
+    /**
+     * Inserts the buffered logs in one transaction of its own. When that fails they are queued again for the next
+     * flush, the ones that no longer fit into the buffer are dropped.
+     */
+    @Scheduled(fixedDelayString = "\${interview-log.flush-ms}")
+    @PreDestroy
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun flush() {
+        val logs = ArrayList<InterviewLog>()
+        buffer.drainTo(logs)
+        if (logs.isEmpty()) return
+        try {
+            repository.saveAll(logs)
+        } catch (ex: Exception) {
+            val dropped = logs.count { !buffer.offer(it) }
+            log.warn("could not insert {} interview logs, {} dropped, retrying the rest", logs.size, dropped, ex)
+        }
+    }
 }
@@ -3,12 +3,16 @@ package com.linchpino.core.service
 import com.linchpino.core.dto.CreateAccountRequest
 import com.linchpino.core.dto.CreateInterviewRequest
 import com.linchpino.core.dto.CreateInterviewResult
+import com.linchpino.core.dto.InterviewCursor
+import com.linchpino.core.dto.InterviewJoinWindow
 import com.linchpino.core.dto.InterviewListResponse
+import com.linchpino.core.dto.InterviewSlice
 import com.linchpino.core.dto.InterviewValidityResponse
+import com.linchpino.core.dto.cursor
 import com.linchpino.core.dto.toCreateInterviewResult
+import com.linchpino.core.dto.toJoinWindow
 import com.linchpino.core.entity.Account
 import com.linchpino.core.entity.Interview
-import com.linchpino.core.entity.interviewPartiesFullName
 import com.linchpino.core.enums.AccountStatusEnum
 import com.linchpino.core.enums.AccountTypeEnum
 import com.linchpino.core.enums.InterviewLogType
@@ -21,12 +25,12 @@ import com.linchpino.core.repository.JobPositionRepository
 import com.linchpino.core.repository.findReferenceById
 import com.linchpino.core.security.email
 import org.springframework.data.domain.Page
+import org.springframework.data.domain.PageRequest
 import org.springframework.data.domain.Pageable
-import org.springframework.scheduling.annotation.Scheduled
 import org.springframework.security.core.Authentication
 import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
 import org.springframework.transaction.annotation.Transactional
-import java.io.Serializable
 import java.time.ZoneOffset
 import java.time.ZonedDateTime
 
@@ -38,13 +42,19 @@ class InterviewService(
     private val jobPositionRepository: JobPositionRepository,
     private val interviewTypeRepository: InterviewTypeRepository,
     private val accountService: AccountService,
-    private val emailService: EmailService,
-    private val calendarService: CalendarService,
     private val scheduleService: ScheduleService,
-    private val interviewLogService: InterviewLogService
+    private val interviewLogService: InterviewLogService,
+    private val slotHoldService: SlotHoldService,
+    private val meetProvisioning: MeetProvisioningService,
+    private val reminders: ReminderService,
+    private val joinCache: InterviewJoinCache
 ) {
 
 
+    /**
+     * Books the time slot and queues the Meet link, which [MeetProvisioningService] creates after commit together
+     * with the invitation email, and writes its reminders.
+     */
     fun createInterview(request: CreateInterviewRequest): CreateInterviewResult {
         val jobSeekerAccount = accountRepository.findByEmailIgnoreCase(request.jobSeekerEmail)
             ?: accountRepository.findReferenceById(
@@ -62,7 +72,9 @@ class InterviewService(
 
         val interview = populateInterviewObject(request, jobSeekerAccount)
         interviewRepository.save(interview)
-        emailService.sendingInterviewInvitationEmailToJobSeeker(interview)
+        meetProvisioning.enqueue(interview)
+        reminders.schedule(interview)
+        interview.toJoinWindow()?.let { joinCache.putAfterCommit(it) }
         interviewLogService.save(InterviewLogType.CREATED,jobSeekerAccount.id)
         return interview.toCreateInterviewResult()
     }
@@ -74,13 +86,9 @@ class InterviewService(
         val position = jobPositionRepository.findReferenceById(createInterviewRequest.jobPositionId)
         val mentorAcc = accountRepository.findReferenceById(createInterviewRequest.mentorAccountId)
         val typeInterview = interviewTypeRepository.findReferenceById(createInterviewRequest.interviewTypeId)
-        val mentorTimeSlot = scheduleService.availableTimeSlot(mentorAcc, createInterviewRequest)
-
-        val googleMeetCode = calendarService.googleMeetCode(
-            listOf(mentorAcc.email, jobSeekerAcc.email),
-            "${typeInterview.name} with ${mentorAcc.firstName} and ${jobSeekerAcc.firstName ?: "jobseeker"}",
-            Pair(mentorTimeSlot.fromTime, mentorTimeSlot.toTime)
-        )
+        val mentorTimeSlot = createInterviewRequest.holdId
+            ?.let { slotHoldService.claim(it, mentorAcc, createInterviewRequest, jobSeekerAcc.id!!) }
+            ?: scheduleService.availableTimeSlot(mentorAcc, createInterviewRequest)
 
         return Interview().apply {
             jobPosition = position
@@ -88,92 +96,115 @@ class InterviewService(
             timeSlot = mentorTimeSlot
             mentorAccount = mentorAcc
             jobSeekerAccount = jobSeekerAcc
-            meetCode = googleMeetCode
         }
     }
 
     @Transactional(readOnly = true)
     fun upcomingInterviews(authentication: Authentication, page: Pageable): Page<InterviewListResponse> {
-        return interviewRepository.findUpcomingInterviews(authentication.email(), page)
+        return interviewRepository.findUpcomingInterviews(accountId(authentication), page)
     }
 
     @Transactional(readOnly = true)
     fun pastInterviews(authentication: Authentication, page: Pageable): Page<InterviewListResponse> {
-        return interviewRepository.findPastInterviews(authentication.email(), page)
+        return interviewRepository.findPastInterviews(accountId(authentication), page)
+    }
+
+    @Transactional(readOnly = true)
+    fun upcomingInterviewsAfter(authentication: Authentication, cursor: String?, size: Int): InterviewSlice {
+        val accountId = accountId(authentication)
+        val after = position(cursor)
+        return slice(size) { interviewRepository.findUpcomingInterviewsAfter(accountId, after.fromTime, after.id, it) }
     }
 
+    @Transactional(readOnly = true)
+    fun pastInterviewsBefore(authentication: Authentication, cursor: String?, size: Int): InterviewSlice {
+        val accountId = accountId(authentication)
+        val before = position(cursor)
+        return slice(size) { interviewRepository.findPastInterviewsBefore(accountId, before.fromTime, before.id, it) }
+    }
+
+    /**
+     * Answers from [InterviewJoinCache] and queues the JOINED log, so polling participants are served from memory.
+     * A window is loaded on a miss, and reloaded when the caller may join but its meet code was not provisioned yet
+     * when it was cached. An interview whose meet code is still missing then, pending or given up, is not joinable.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     fun checkValidity(id: Long, authentication: Authentication): InterviewValidityResponse {
         val start = ZonedDateTime.now().withZoneSameInstant(ZoneOffset.UTC)
         val end = start.plusMinutes(5)
         val email = authentication.email()
-        val interview = interviewRepository.findByInterviewIdAndAccountEmail(id, email) ?: throw LinchpinException(
+        val cached = joinCache.get(id) ?: loadJoinWindow(id)
+        val accountId = cached?.participantId(email)
+        if (cached == null || accountId == null) throw LinchpinException(
             ErrorCode.ENTITY_NOT_FOUND,
             "interview with $id and time range $start and $end not found",
             Interview::class.java.simpleName
         )
 
-        return interview.timeSlot.let {
-            if (it?.fromTime?.isBefore(start) == true || it?.fromTime?.isAfter(end) == true) {
-                InterviewValidityResponse(it.fromTime, it.toTime, false, "")
-            } else {
-                accountRepository.findByEmailIgnoreCase(email)?.id?.let {
-                    id -> interviewLogService.save(InterviewLogType.JOINED,id)
-                }
-                InterviewValidityResponse(
-                    it?.fromTime, it?.toTime, true, "https://meet.google.com/${interview.meetCode}"
-                )
-            }
+        if (cached.fromTime.isBefore(start) || cached.fromTime.isAfter(end)) {
+            return InterviewValidityResponse(cached.fromTime, cached.toTime, false, "")
         }
+        val window = if (cached.meetCode == null) loadJoinWindow(id) ?: cached else cached
+        if (window.meetCode == null) return InterviewValidityResponse(window.fromTime, window.toTime, false, "")
+        interviewLogService.saveLater(InterviewLogType.JOINED, accountId)
+        return InterviewValidityResponse(
+            window.fromTime, window.toTime, true, "https://meet.google.com/${window.meetCode}"
+        )
     }
 
+    private fun loadJoinWindow(id: Long): InterviewJoinWindow? =
+        interviewRepository.findForJoin(id)?.toJoinWindow()?.also { joinCache.put(it) }
+
     @Transactional(readOnly = true)
     fun jobSeekerUpcomingInterviews(authentication: Authentication, page: Pageable): Page<InterviewListResponse> {
-        return interviewRepository.findJobSeekerUpcomingInterviews(authentication.email(), page)
+        return interviewRepository.findJobSeekerUpcomingInterviews(accountId(authentication), page)
     }
 
     @Transactional(readOnly = true)
     fun jobSeekerPastInterviews(authentication: Authentication, page: Pageable): Page<InterviewListResponse> {
-        return interviewRepository.findJobSeekerPastInterviews(authentication.email(), page)
+        return interviewRepository.findJobSeekerPastInterviews(accountId(authentication), page)
     }
 
+    @Transactional(readOnly = true)
+    fun jobSeekerUpcomingInterviewsAfter(authentication: Authentication, cursor: String?, size: Int): InterviewSlice {
+        val accountId = accountId(authentication)
+        val after = position(cursor)
+        return slice(size) {
+            interviewRepository.findJobSeekerUpcomingInterviewsAfter(accountId, after.fromTime, after.id, it)
+        }
+    }
 
-    @Scheduled(fixedRate = 3600_000)
-    fun remindInterviewParties() {
-        interviewRepository
-            .findInterviewsWithin(ZonedDateTime.now(), ZonedDateTime.now().plusHours(24))
-            .map {
-                val (mentorFullName, jobSeekerFullName) = it.interviewPartiesFullName()
-
-                Reminder(
-                    it.mentorAccount!!.email to mapOf(
-                        "fullName" to mentorFullName,
-                        "intervieweeName" to jobSeekerFullName,
-                        "date" to it.timeSlot?.fromTime?.toLocalDate(),
-                        "time" to it.timeSlot?.fromTime?.toLocalTime(),
-                        "timezone" to it.timeSlot?.fromTime?.zone,
-                    ), it.jobSeekerAccount!!.email to mapOf(
-                        "fullName" to jobSeekerFullName,
-                        "date" to it.timeSlot?.fromTime?.toLocalDate(),
-                        "time" to it.timeSlot?.fromTime?.toLocalTime(),
-                        "timezone" to it.timeSlot?.fromTime?.zone,
-                    )
-                )
-            }.forEach {
-                emailService.sendEmail(
-                    it.jobSeekerData.first,
-                    "Reminder: Your Upcoming Interview on Linchpino",
-                    "interviewee-reminder.html",
-                    it.jobSeekerData.second,
-                )
-
-                emailService.sendEmail(
-                    it.mentorData.first,
-                    "Reminder: Interview Scheduled on Linchpino",
-                    "interviewer-reminder.html",
-                    it.mentorData.second,
-                )
-            }
+    @Transactional(readOnly = true)
+    fun jobSeekerPastInterviewsBefore(authentication: Authentication, cursor: String?, size: Int): InterviewSlice {
+        val accountId = accountId(authentication)
+        val before = position(cursor)
+        return slice(size) {
+            interviewRepository.findJobSeekerPastInterviewsBefore(accountId, before.fromTime, before.id, it)
+        }
+    }
+
+    private fun accountId(authentication: Authentication): Long =
+        accountRepository.findIdByEmail(authentication.email())
+            ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+
+    /**
+     * Where a list continues: after [cursor], or from now on the first page. Long.MAX_VALUE as id puts rows
+     * starting exactly now in the past list.
+     */
+    private fun position(cursor: String?): InterviewCursor =
+        cursor?.let { InterviewCursor.decode(it) } ?: InterviewCursor(ZonedDateTime.now(ZoneOffset.UTC), Long.MAX_VALUE)
+
+    /**
+     * Reads one row more than [size] to tell whether another page follows, so no count query is needed.
+     */
+    private fun slice(size: Int, query: (Pageable) -> List<InterviewListResponse>): InterviewSlice {
+        val limit = size.coerceIn(1, MAX_SLICE_SIZE)
+        val rows = query(PageRequest.ofSize(limit + 1))
+        val content = rows.take(limit)
+        return InterviewSlice(content, if (rows.size > limit) content.last().cursor().encode() else null)
     }
 
-    private data class Reminder(val mentorData:Pair<String,Map<String,Serializable?>>,val jobSeekerData:Pair<String,Map<String,Serializable?>>)
+    companion object {
+        const val MAX_SLICE_SIZE = 100
+    }
 }
@@ -11,6 +11,7 @@ import com.linchpino.core.exception.LinchpinException
 import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.JobPositionRepository
 import com.linchpino.core.repository.findReferenceById
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.data.domain.Page
 import org.springframework.data.domain.PageImpl
 import org.springframework.data.domain.Pageable
@@ -22,7 +23,8 @@ import org.springframework.transaction.annotation.Transactional
 @Transactional
 class InterviewTypeService(
     private val repository: InterviewTypeRepository,
-    private val jobPositionRepository: JobPositionRepository
+    private val jobPositionRepository: JobPositionRepository,
+    private val eventPublisher: ApplicationEventPublisher
 ) {
 
     @Transactional(readOnly = true)
@@ -43,6 +45,7 @@ class InterviewTypeService(
 
         val interviewType = InterviewType().apply {
             this.name = request.name
+            this.slotMinutes = request.slotMinutes
         }
         jobPosition.addInterviewType(interviewType)
         repository.save(interviewType)
@@ -72,6 +75,10 @@ class InterviewTypeService(
         request.name?.let {
             interviewType.name = it
         }
+        request.slotMinutes?.let {
+            if (interviewType.slotMinutes != it) eventPublisher.publishEvent(InterviewTypeChanged(id, it))
+            interviewType.slotMinutes = it
+        }
 
         request.jobPositionId?.let {
             jobPositionRepository.findByIdOrNull(it)?.let { jobPosition ->
@@ -85,3 +92,8 @@ class InterviewTypeService(
         repository.deleteById(id)
     }
 }
+
+/**
+ * Published when the slot length of an interview type changes.
+ */
+data class InterviewTypeChanged(val interviewTypeId: Long, val slotMinutes: Int?)
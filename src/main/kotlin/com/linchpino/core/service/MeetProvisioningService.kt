@@ -0,0 +1,192 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.InterviewProvisioningResponse
+import com.linchpino.core.dto.toJoinWindow
+import com.linchpino.core.entity.Interview
+import com.linchpino.core.enums.MeetProvisioningStatus
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.repository.InterviewRepository
+import com.linchpino.core.repository.MeetOutboxRepository
+import com.linchpino.core.security.email
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import jakarta.annotation.PreDestroy
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.data.repository.findByIdOrNull
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.security.core.Authentication
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * Second phase of booking. Creating an interview only commits the time slot and a meet_outbox row; this worker
+ * creates the calendar event with its Meet link, stores the meet code and sends the invitation email, so a slow
+ * or failing Calendar API no longer holds the booking transaction. Failed attempts are retried with exponential
+ * backoff up to meet-provisioning.max-attempts, and participants poll [status] for the outcome.
+ * The event id is derived from the interview id, so a retry after a lost response does not invite twice.
+ * The row outlives the meet code until the invitation is sent, so a failed invitation is retried the same way.
+ * When no meet code could be created at all, both participants are told the interview has no link.
+ * A provisioned interview is put in [InterviewJoinCache] with its meet code.
+ */
+@Service
+@Transactional
+class MeetProvisioningService(
+    private val repository: MeetOutboxRepository,
+    private val interviewRepository: InterviewRepository,
+    private val calendarService: CalendarService,
+    private val emailService: EmailService,
+    private val joinCache: InterviewJoinCache,
+    meterRegistry: MeterRegistry,
+    @Value("\${meet-provisioning.batch-size}") private val batchSize: Int,
+    @Value("\${meet-provisioning.max-attempts}") private val maxAttempts: Int,
+    @Value("\${meet-provisioning.backoff-seconds}") private val backoffSeconds: Long,
+    @Value("\${meet-provisioning.lease-seconds}") private val leaseSeconds: Long
+) {
+
+    private val log = LoggerFactory.getLogger(MeetProvisioningService::class.java)
+
+    private val worker = BackgroundWorker("meet-provisioning")
+
+    private val ready = Counter.builder("meet.provisioning").tag("result", "ready").register(meterRegistry)
+    private val retried = Counter.builder("meet.provisioning").tag("result", "retry").register(meterRegistry)
+    private val failed = Counter.builder("meet.provisioning").tag("result", "failed").register(meterRegistry)
+
+    /**
+     * Queues the Meet link of [interview] in the caller's transaction, so it is provisioned only if the booking
+     * commits.
+     */
+    fun enqueue(interview: Interview) {
+        val interviewId = interview.id ?: throw LinchpinException(
+            ErrorCode.INVALID_STATE, "interview is not saved", Interview::class.java.simpleName, "not saved"
+        )
+        repository.insert(interviewId, ZonedDateTime.now(ZoneOffset.UTC))
+    }
+
+    /**
+     * Provisioning status of an interview for one of its participants; other callers get not found. An interview
+     * with neither a meet code nor an outbox row was booked before provisioning existed and is NOT_APPLICABLE.
+     * It is FAILED only once its last attempt has failed, not while that attempt is still running.
+     */
+    @Transactional(readOnly = true)
+    fun status(interviewId: Long, authentication: Authentication): InterviewProvisioningResponse {
+        val email = authentication.email()
+        val interview = interviewRepository.findByIdOrNull(interviewId)
+            ?.takeIf { email.equals(it.jobSeekerAccount?.email, true) || email.equals(it.mentorAccount?.email, true) }
+            ?: throw LinchpinException(
+                ErrorCode.ENTITY_NOT_FOUND,
+                "interview with $interviewId not found",
+                Interview::class.java.simpleName
+            )
+        val failed = if (interview.meetCode == null) repository.failed(interviewId) else null
+        val status = when {
+            interview.meetCode != null -> MeetProvisioningStatus.READY
+            failed == null -> MeetProvisioningStatus.NOT_APPLICABLE
+            failed -> MeetProvisioningStatus.FAILED
+            else -> MeetProvisioningStatus.PENDING
+        }
+        return InterviewProvisioningResponse(interviewId, status)
+    }
+
+    /**
+     * Provisions on [worker], since Calendar API calls can block for seconds and would delay every other
+     * @Scheduled job on the shared scheduler thread.
+     */
+    @Scheduled(fixedDelayString = "\${meet-provisioning.poll-ms}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun poll() {
+        worker.trigger { provisionDue(ZonedDateTime.now(ZoneOffset.UTC)) }
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        worker.shutdown()
+    }
+
+    /**
+     * Provisions one batch of interviews due at [now], each claimed row in its own statements, and returns how
+     * many got their meet code. A claimed row whose interview has its meet code only needs the invitation.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun provisionDue(now: ZonedDateTime): Int {
+        var provisioned = 0
+        repository.claimDue(now, now.plusSeconds(leaseSeconds), maxAttempts, batchSize).forEach { (interviewId, attempts) ->
+            try {
+                if (provision(interviewId, now)) provisioned++
+            } catch (ex: Exception) {
+                if (attempts >= maxAttempts) {
+                    log.error("giving up provisioning meet of interview {} after {} attempts", interviewId, attempts, ex)
+                    failed.increment()
+                    repository.fail(interviewId, now, ex.message)
+                    notifyAbandoned(interviewId)
+                } else {
+                    log.warn("could not provision meet of interview {}, attempt {}", interviewId, attempts, ex)
+                    retried.increment()
+                    repository.retryAt(interviewId, now.plusSeconds(backoff(attempts)), ex.message)
+                }
+            }
+        }
+        return provisioned
+    }
+
+    private fun provision(interviewId: Long, now: ZonedDateTime): Boolean {
+        val interview = interviewRepository.findForProvisioning(interviewId)
+            ?: return false.also { repository.remove(interviewId) }
+        if (interview.meetCode != null) return false.also { invite(interview) }
+        val mentor = interview.mentorAccount
+        val jobSeeker = interview.jobSeekerAccount!!
+        val timeSlot = interview.timeSlot!!
+        val meetCode = calendarService.googleMeetCode(
+            listOfNotNull(mentor?.email, jobSeeker.email),
+            "${interview.interviewType?.name} with ${mentor?.firstName} and ${jobSeeker.firstName ?: "jobseeker"}",
+            Pair(timeSlot.fromTime, timeSlot.toTime),
+            eventId(interviewId)
+        )
+        if (!repository.complete(interviewId, meetCode)) return false
+        ready.increment()
+        interview.meetCode = meetCode
+        interview.toJoinWindow()?.let { joinCache.put(it) }
+        try {
+            invite(interview)
+        } catch (ex: Exception) {
+            log.warn("could not send the invitation of interview {}, retrying", interviewId, ex)
+            repository.retryAt(interviewId, now.plusSeconds(backoff(1)), ex.message)
+        }
+        return true
+    }
+
+    private fun invite(interview: Interview) {
+        emailService.sendingInterviewInvitationEmailToJobSeeker(interview)
+        repository.remove(interview.id!!)
+    }
+
+    /**
+     * Tells both participants that the interview has no Meet link. Nothing is sent when only the invitation
+     * failed, since the interview can still be joined.
+     */
+    private fun notifyAbandoned(interviewId: Long) {
+        try {
+            interviewRepository.findForProvisioning(interviewId)
+                ?.takeIf { it.meetCode == null }
+                ?.let { emailService.sendingMeetProvisioningFailedEmail(it) }
+        } catch (ex: Exception) {
+            log.error("could not tell the participants of interview {} that it has no meet link", interviewId, ex)
+        }
+    }
+
+    /**
+     * backoff-seconds doubled per failed attempt, at most a day.
+     */
+    private fun backoff(attempts: Int): Long =
+        (backoffSeconds shl (attempts - 1).coerceIn(0, 16)).coerceAtMost(MAX_BACKOFF_SECONDS)
+
+    companion object {
+        private const val MAX_BACKOFF_SECONDS = 86_400L
+
+        fun eventId(interviewId: Long) = "linchpino$interviewId"
+    }
+}
@@ -0,0 +1,88 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.dao.PessimisticLockingFailureException
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.stereotype.Service
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+
+/**
+ * Per-mentor booking lock held until the surrounding transaction completes, so bookings of one mentor wait
+ * for each other at most mentor-booking.lock.timeout-ms and then fail with MENTOR_IS_BUSY, while bookings
+ * of other mentors go ahead. `local` mode hashes mentor ids onto a fixed stripe of in-process locks,
+ * `advisory` mode takes a Postgres transaction-level advisory lock keyed by mentor id for multi-instance
+ * deployments. Overlaps themselves are still rejected by the mentor_time_slot exclusion constraint.
+ */
+@Service
+class MentorBookingLock(
+    private val jdbcTemplate: JdbcTemplate,
+    meterRegistry: MeterRegistry,
+    @Value("\${mentor-booking.lock.mode}") mode: String,
+    @Value("\${mentor-booking.lock.stripes}") stripes: Int,
+    @Value("\${mentor-booking.lock.timeout-ms}") private val timeoutMillis: Long
+) {
+
+    private val mode = Mode.valueOf(mode.uppercase())
+
+    private val stripes = Array(stripes) { ReentrantLock() }
+
+    private val acquired = Timer.builder("mentor.booking.lock.wait")
+        .tag("mode", this.mode.name.lowercase())
+        .tag("outcome", "acquired")
+        .register(meterRegistry)
+    private val timedOut = Timer.builder("mentor.booking.lock.wait")
+        .tag("mode", this.mode.name.lowercase())
+        .tag("outcome", "timeout")
+        .register(meterRegistry)
+
+    fun acquire(mentorId: Long) {
+        check(TransactionSynchronizationManager.isSynchronizationActive()) {
+            "booking lock of mentor $mentorId requires an active transaction"
+        }
+        val started = System.nanoTime()
+        val locked = when (mode) {
+            Mode.LOCAL -> lockStripe(mentorId)
+            Mode.ADVISORY -> lockAdvisory(mentorId)
+        }
+        val waited = System.nanoTime() - started
+        if (!locked) {
+            timedOut.record(waited, TimeUnit.NANOSECONDS)
+            throw LinchpinException(
+                ErrorCode.MENTOR_IS_BUSY,
+                "timed out after $timeoutMillis ms waiting for booking lock of mentor $mentorId"
+            )
+        }
+        acquired.record(waited, TimeUnit.NANOSECONDS)
+    }
+
+    private fun lockStripe(mentorId: Long): Boolean {
+        val lock = stripes[Math.floorMod(mentorId, stripes.size.toLong()).toInt()]
+        if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) return false
+        TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+            override fun afterCompletion(status: Int) = lock.unlock()
+        })
+        return true
+    }
+
+    // released by Postgres on commit or rollback, lock_timeout bounds the wait
+    private fun lockAdvisory(mentorId: Long) = try {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = $timeoutMillis")
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)::text", String::class.java, mentorId)
+        jdbcTemplate.execute("SET LOCAL lock_timeout = DEFAULT")
+        true
+    } catch (ex: PessimisticLockingFailureException) {
+        false
+    }
+
+    enum class Mode {
+        LOCAL,
+        ADVISORY
+    }
+}
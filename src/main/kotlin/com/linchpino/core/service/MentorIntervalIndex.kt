@@ -0,0 +1,107 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.CalendarBusy
+import com.linchpino.core.dto.ValidWindow
+import com.linchpino.core.entity.MentorTimeSlot
+import java.time.ZonedDateTime
+import java.util.Arrays
+
+/**
+ * Booked intervals grouped by mentor as epoch-minute start/end pairs, sorted by start.
+ * A running maximum of the ends turns an overlap check into one binary search per mentor.
+ * Overlap has the same minute-truncated semantics as [com.linchpino.core.dto.hasOverlapWith].
+ */
+class MentorIntervalIndex private constructor(
+    private val mentorIds: LongArray,
+    private val offsets: IntArray,
+    private val starts: LongArray,
+    private val maxEnds: LongArray
+) {
+
+    val size: Int
+        get() = starts.size
+
+    fun overlaps(mentorId: Long, window: ValidWindow) = overlaps(mentorId, window.start, window.end)
+
+    fun overlaps(mentorId: Long, start: ZonedDateTime, end: ZonedDateTime) =
+        overlaps(mentorId, epochMinute(start), epochMinute(end))
+
+    fun overlaps(mentorId: Long, startMinute: Long, endMinute: Long): Boolean {
+        val mentor = Arrays.binarySearch(mentorIds, mentorId)
+        if (mentor < 0) return false
+        var low = offsets[mentor]
+        var high = offsets[mentor + 1] - 1
+        var last = -1
+        while (low <= high) {
+            val middle = (low + high) ushr 1
+            if (starts[middle] < endMinute) {
+                last = middle
+                low = middle + 1
+            } else {
+                high = middle - 1
+            }
+        }
+        return last >= 0 && maxEnds[last] > startMinute
+    }
+
+    companion object {
+
+        @JvmStatic
+        fun epochMinute(time: ZonedDateTime) = Math.floorDiv(time.toEpochSecond(), 60L)
+
+        @JvmStatic
+        fun of(slots: Collection<MentorTimeSlot>): MentorIntervalIndex {
+            val booked = slots.filter { it.account?.id != null }
+            return of(
+                LongArray(booked.size) { booked[it].account!!.id!! },
+                LongArray(booked.size) { epochMinute(booked[it].fromTime) },
+                LongArray(booked.size) { epochMinute(booked[it].toTime) }
+            )
+        }
+
+        /**
+         * Booked slots and imported calendar busy time in one index.
+         */
+        @JvmStatic
+        fun of(slots: Collection<MentorTimeSlot>, busy: Collection<CalendarBusy>): MentorIntervalIndex {
+            val booked = slots.filter { it.account?.id != null }
+            val size = booked.size + busy.size
+            val mentorIds = LongArray(size)
+            val startMinutes = LongArray(size)
+            val endMinutes = LongArray(size)
+            booked.forEachIndexed { index, slot ->
+                mentorIds[index] = slot.account!!.id!!
+                startMinutes[index] = epochMinute(slot.fromTime)
+                endMinutes[index] = epochMinute(slot.toTime)
+            }
+            busy.forEachIndexed { offset, interval ->
+                val index = booked.size + offset
+                mentorIds[index] = interval.accountId
+                startMinutes[index] = epochMinute(interval.start)
+                endMinutes[index] = epochMinute(interval.end)
+            }
+            return of(mentorIds, startMinutes, endMinutes)
+        }
+
+        @JvmStatic
+        fun of(mentorIds: LongArray, startMinutes: LongArray, endMinutes: LongArray): MentorIntervalIndex {
+            val order = mentorIds.indices.sortedWith(compareBy<Int>({ mentorIds[it] }, { startMinutes[it] }))
+            val ids = order.map { mentorIds[it] }.distinct().toLongArray()
+            val offsets = IntArray(ids.size + 1)
+            val starts = LongArray(order.size)
+            val maxEnds = LongArray(order.size)
+            var mentor = -1
+            order.forEachIndexed { position, index ->
+                if (mentor < 0 || ids[mentor] != mentorIds[index]) {
+                    mentor++
+                    offsets[mentor] = position
+                }
+                starts[position] = startMinutes[index]
+                maxEnds[position] = if (position == offsets[mentor]) endMinutes[index]
+                else maxOf(maxEnds[position - 1], endMinutes[index])
+            }
+            offsets[ids.size] = order.size
+            return MentorIntervalIndex(ids, offsets, starts, maxEnds)
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.entity.CompiledSchedule
+import java.util.PriorityQueue
+
+/**
+ * K-way merge of the occurrence streams of many mentors. Every mentor contributes one lazy cursor positioned on
+ * its next occurrence, a min-heap ordered by (start, mentor id) yields the globally earliest one. Occurrences
+ * rejected by the booked check only advance their own cursor, so finding the first K mentors costs
+ * O((M + K + skipped) log M) next-occurrence lookups instead of expanding every schedule over every day.
+ */
+class MentorOccurrenceMerge(
+    private val schedules: Map<Long, CompiledSchedule>,
+    private val booked: MentorIntervalIndex
+) {
+
+    /**
+     * Earliest free occurrence of up to [limit] mentors, starting at or after [fromSecond] and not after
+     * [toSecond], as (mentor id, start epoch second) pairs in start order.
+     */
+    fun earliest(fromSecond: Long, toSecond: Long, limit: Int): List<Pair<Long, Long>> {
+        val heap = PriorityQueue(
+            maxOf(schedules.size, 1),
+            compareBy<Cursor>({ it.start }, { it.mentorId })
+        )
+        schedules.forEach { (mentorId, schedule) ->
+            Cursor(mentorId, schedule).takeIf { it.seek(fromSecond, toSecond) }?.let { heap.add(it) }
+        }
+        val found = mutableListOf<Pair<Long, Long>>()
+        while (found.size < limit) {
+            val cursor = heap.poll() ?: break
+            if (cursor.isBooked()) {
+                if (cursor.seek(cursor.start + 1, toSecond)) heap.add(cursor)
+            } else {
+                found.add(cursor.mentorId to cursor.start)
+            }
+        }
+        return found
+    }
+
+    private inner class Cursor(val mentorId: Long, val schedule: CompiledSchedule) {
+        var start = CompiledSchedule.NO_WINDOW
+
+        fun seek(epochSecond: Long, toSecond: Long): Boolean {
+            start = schedule.nextOccurrenceStart(epochSecond, 0, toSecond)
+            return start != CompiledSchedule.NO_WINDOW && start <= toSecond
+        }
+
+        fun isBooked() = booked.overlaps(
+            mentorId,
+            Math.floorDiv(start, 60L),
+            Math.floorDiv(start + schedule.durationSeconds, 60L)
+        )
+    }
+}
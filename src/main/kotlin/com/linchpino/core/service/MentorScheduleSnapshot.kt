@@ -0,0 +1,287 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.MentorScheduleOccurrence
+import com.linchpino.core.entity.CompiledSchedule
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.repository.ScheduleRepository
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import org.slf4j.LoggerFactory
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.context.event.ApplicationReadyEvent
+import org.springframework.context.event.EventListener
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.event.TransactionalEventListener
+import java.time.ZonedDateTime
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * In-memory copy of every mentor schedule, one row per mentor, so mentor search can find the occurrences of a day
+ * without querying schedule_occurrence. Enabled with mentor-search.snapshot.enabled, otherwise search stays on the
+ * database path. A mentor is reloaded after each committed [MentorScheduleChanged], the whole snapshot nightly.
+ * It also keeps the slot length of every interview type a mentor offers, updated by [InterviewTypeChanged].
+ *
+ * A reload rewrites the row of its mentor in place and the interview type index of the types it gained or lost,
+ * so it does not copy the other mentors. Reloads are applied one at a time; a mentor reloaded while a full rebuild
+ * was reading the schedules is reloaded again after the rebuild is swapped in, so the older rows it read do not
+ * win.
+ */
+@Service
+@ConditionalOnProperty(name = ["mentor-search.snapshot.enabled"], havingValue = "true")
+class MentorScheduleSnapshot(
+    private val scheduleRepository: ScheduleRepository,
+    meterRegistry: MeterRegistry
+) {
+
+    private val log = LoggerFactory.getLogger(MentorScheduleSnapshot::class.java)
+
+    // held while a change is applied to columns, readers never take it
+    private val lock = Any()
+
+    // held for a whole rebuild, so two rebuilds do not interleave
+    private val rebuildLock = Any()
+
+    // mentors reloaded while a rebuild reads the schedules, null when no rebuild is running
+    private var reloadedDuringRebuild: MutableSet<Long>? = null
+
+    private val slotMinutes = ConcurrentHashMap<Long, Int>()
+
+    @Volatile
+    private var columns = Columns.of(emptyList())
+
+    private val fullRebuild = Timer.builder("mentor.search.snapshot.rebuild")
+        .tag("type", "full")
+        .register(meterRegistry)
+    private val incrementalRebuild = Timer.builder("mentor.search.snapshot.rebuild")
+        .tag("type", "incremental")
+        .register(meterRegistry)
+
+    init {
+        Gauge.builder("mentor.search.snapshot.size", this) { it.size().toDouble() }.register(meterRegistry)
+    }
+
+    fun size() = columns.size
+
+    @EventListener(ApplicationReadyEvent::class)
+    @Scheduled(cron = "\${mentor-search.snapshot.rebuild-cron}")
+    @Transactional(readOnly = true)
+    fun rebuild() {
+        fullRebuild.record(Runnable {
+            synchronized(rebuildLock) {
+                synchronized(lock) { reloadedDuringRebuild = HashSet() }
+                val reloaded = try {
+                    val schedules = scheduleRepository.findMentorSchedules().mapNotNull { Entry.of(it) }
+                    synchronized(lock) {
+                        columns = Columns.of(schedules)
+                        slotMinutes.clear()
+                        schedules.forEach { putSlotMinutes(it) }
+                        reloadedDuringRebuild.orEmpty()
+                    }
+                } finally {
+                    synchronized(lock) { reloadedDuringRebuild = null }
+                }
+                reloaded.forEach { reload(it) }
+            }
+        })
+        log.info("mentor schedule snapshot rebuilt with {} mentors", size())
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    fun refresh(event: MentorScheduleChanged) {
+        incrementalRebuild.record(Runnable { reload(event.accountId) })
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    fun interviewTypeChanged(event: InterviewTypeChanged) {
+        if (event.slotMinutes == null) slotMinutes.remove(event.interviewTypeId)
+        else slotMinutes[event.interviewTypeId] = event.slotMinutes
+    }
+
+    /**
+     * Slot length of an interview type offered by a mentor in the snapshot, null when the type has none.
+     */
+    fun slotMinutesOf(interviewTypeId: Long): Int? = slotMinutes[interviewTypeId]
+
+    // loads under the lock too, so of two reloads of one mentor the later one reads the later schedule
+    private fun reload(accountId: Long) {
+        synchronized(lock) {
+            val entry = scheduleRepository.findMentorSchedule(accountId)?.let { Entry.of(it) }
+            if (entry == null) {
+                columns.remove(accountId)
+            } else {
+                columns = columns.put(entry)
+                putSlotMinutes(entry)
+            }
+            reloadedDuringRebuild?.add(accountId)
+        }
+    }
+
+    private fun putSlotMinutes(entry: Entry) {
+        entry.slotMinutes.forEach { (typeId, minutes) ->
+            if (minutes == null) slotMinutes.remove(typeId) else slotMinutes[typeId] = minutes
+        }
+    }
+
+    /**
+     * Same rows as ScheduleOccurrenceRepository.findMentorOccurrencesOfTypes for one type: occurrences starting in
+     * (from, to) of mentors offering the interview type, ordered by start and mentor id.
+     */
+    fun findMentorOccurrences(
+        interviewTypeId: Long,
+        from: ZonedDateTime,
+        to: ZonedDateTime
+    ): List<MentorScheduleOccurrence> {
+        val columns = this.columns
+        val indices = columns.mentorsByInterviewType[interviewTypeId] ?: return emptyList()
+        val fromSecond = from.toEpochSecond()
+        val toSecond = to.toEpochSecond()
+        val found = mutableListOf<MentorScheduleOccurrence>()
+        for (index in indices) {
+            if (columns.endSeconds[index] < fromSecond || columns.startSeconds[index] > toSecond) continue
+            // the bounds may belong to a row rewritten since, the entry read here decides
+            val entry = columns.entries.get(index) ?: continue
+            if (interviewTypeId !in entry.interviewTypeIds) continue
+            val schedule = entry.schedule
+            if (schedule.endEpochSecond < fromSecond || schedule.startEpochSecond > toSecond) continue
+            var day = maxOf(schedule.localDay(fromSecond), schedule.firstDay)
+            val lastDay = schedule.localDay(toSecond)
+            while (day <= lastDay) {
+                val start = schedule.occurrenceStart(day)
+                if (start != CompiledSchedule.NO_WINDOW &&
+                    isAfter(start, schedule.startNano, fromSecond, from.nano) &&
+                    isAfter(toSecond, to.nano, start, schedule.startNano)
+                ) {
+                    val window = schedule.window(start)
+                    found.add(
+                        MentorScheduleOccurrence(
+                            entry.mentorId,
+                            entry.firstName,
+                            entry.lastName,
+                            entry.email,
+                            entry.avatar,
+                            window.start,
+                            window.end
+                        )
+                    )
+                }
+                day++
+            }
+        }
+        found.sortWith(compareBy<MentorScheduleOccurrence>({ it.start.toInstant() }, { it.mentorId }))
+        return found
+    }
+
+    private fun isAfter(epochSecond: Long, nano: Int, otherEpochSecond: Long, otherNano: Int) =
+        epochSecond > otherEpochSecond || (epochSecond == otherEpochSecond && nano > otherNano)
+
+    private class Entry(
+        val mentorId: Long,
+        val firstName: String?,
+        val lastName: String?,
+        val email: String,
+        val avatar: String?,
+        val interviewTypeIds: List<Long>,
+        val slotMinutes: Map<Long, Int?>,
+        val schedule: CompiledSchedule
+    ) {
+        companion object {
+            fun of(schedule: Schedule): Entry? {
+                val account = schedule.account ?: return null
+                val compiled = CompiledSchedule.of(schedule) ?: return null
+                return Entry(
+                    account.id ?: return null,
+                    account.firstName,
+                    account.lastName,
+                    account.email,
+                    account.avatar,
+                    account.interviewTypeIDs(),
+                    account.interviewTypes().associate { it.id!! to it.slotMinutes },
+                    compiled
+                )
+            }
+        }
+    }
+
+    /**
+     * One row per mentor: the bounds of its schedule in two primitive arrays, so rows out of the searched range are
+     * skipped without loading their entry, and the entry with the mentor and its [CompiledSchedule]. Interview types
+     * map to the row numbers of the mentors offering them through a ConcurrentHashMap of IntArray; a search looks
+     * up one type and then only walks primitive arrays. Readers scan without locking, so a row is changed by writing
+     * its bounds first and publishing its entry last. Only the writer holding the lock touches [rowOf], [freeRows]
+     * and [used].
+     */
+    private class Columns(capacity: Int) {
+        val startSeconds = LongArray(capacity)
+        val endSeconds = LongArray(capacity)
+        val entries = AtomicReferenceArray<Entry?>(capacity)
+        val mentorsByInterviewType = ConcurrentHashMap<Long, IntArray>()
+        private val rowOf = HashMap<Long, Int>()
+        private val freeRows = ArrayDeque<Int>()
+        private var used = 0
+
+        @Volatile
+        var size = 0
+            private set
+
+        /**
+         * Writes [entry] into the row of its mentor, or a free one. Returns the columns to publish, which are new
+         * ones of twice the capacity when every row is taken.
+         */
+        fun put(entry: Entry): Columns {
+            val row = rowOf[entry.mentorId] ?: freeRows.removeFirstOrNull() ?: used
+            if (row == entries.length()) return grown().put(entry)
+            if (row == used) used++
+            val previous = entries.get(row)
+            startSeconds[row] = entry.schedule.startEpochSecond
+            endSeconds[row] = entry.schedule.endEpochSecond
+            entries.set(row, entry)
+            rowOf[entry.mentorId] = row
+            if (previous == null) size++
+            val before = previous?.interviewTypeIds.orEmpty().toSet()
+            val after = entry.interviewTypeIds.toSet()
+            (before - after).forEach { unindex(it, row) }
+            (after - before).forEach { index(it, row) }
+            return this
+        }
+
+        fun remove(mentorId: Long) {
+            val row = rowOf.remove(mentorId) ?: return
+            val previous = entries.getAndSet(row, null) ?: return
+            previous.interviewTypeIds.forEach { unindex(it, row) }
+            freeRows.addLast(row)
+            size--
+        }
+
+        private fun index(interviewTypeId: Long, row: Int) {
+            mentorsByInterviewType.merge(interviewTypeId, intArrayOf(row)) { rows, added -> rows + added }
+        }
+
+        private fun unindex(interviewTypeId: Long, row: Int) {
+            mentorsByInterviewType.computeIfPresent(interviewTypeId) { _, rows ->
+                rows.filter { it != row }.toIntArray().takeIf { it.isNotEmpty() }
+            }
+        }
+
+        private fun grown(): Columns {
+            val grown = Columns(maxOf(entries.length() * 2, MIN_CAPACITY))
+            for (row in 0 until used) entries.get(row)?.let { grown.put(it) }
+            return grown
+        }
+
+        companion object {
+            private const val MIN_CAPACITY = 16
+
+            fun of(entries: Collection<Entry>): Columns {
+                val columns = Columns(maxOf(entries.size, MIN_CAPACITY))
+                entries.forEach { columns.put(it) }
+                return columns
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.MentorScheduleOccurrence
+import com.linchpino.core.repository.AccountRepository
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.data.repository.findByIdOrNull
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.event.TransactionalEventListener
+import java.time.LocalDate
+import java.time.ZoneOffset
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Free occurrences of one interview type on one UTC day, as found by mentor search, kept for
+ * mentor-search.cache.ttl-seconds. Concurrent misses of a key wait for the first caller's load instead of loading
+ * again. Entries are dropped after a committed [MentorScheduleChanged] for the interview types of the mentor,
+ * after a committed [MentorTimeSlotReserved] for the days of the slot whose entry offered that mentor, after a
+ * committed [MentorTimeSlotReleased] for the days of the slot of the mentor's interview types, after a
+ * [CalendarBusyChanged] for every entry offering the mentor, and after a committed [InterviewTypeChanged] for every
+ * entry of the type. Enabled with mentor-search.cache.enabled.
+ */
+@Service
+@ConditionalOnProperty(name = ["mentor-search.cache.enabled"], havingValue = "true")
+class MentorSearchCache(
+    private val accountRepository: AccountRepository,
+    meterRegistry: MeterRegistry,
+    @Value("\${mentor-search.cache.ttl-seconds}") ttlSeconds: Long,
+    @Value("\${mentor-search.cache.max-entries}") private val maxEntries: Int
+) {
+
+    private val ttlMillis = ttlSeconds * 1000
+
+    private val entries = ConcurrentHashMap<Key, Entry>()
+
+    private val hits = Counter.builder("mentor.search.cache.requests").tag("result", "hit").register(meterRegistry)
+    private val misses = Counter.builder("mentor.search.cache.requests").tag("result", "miss").register(meterRegistry)
+    private val loads = Timer.builder("mentor.search.cache.load").register(meterRegistry)
+    private val invalidations = Counter.builder("mentor.search.cache.invalidations").register(meterRegistry)
+
+    init {
+        Gauge.builder("mentor.search.cache.size", entries) { it.size.toDouble() }.register(meterRegistry)
+    }
+
+    /**
+     * Cached occurrences of the key, loaded by [loader] on a miss. A failed load is not cached, every caller
+     * waiting for it gets its exception.
+     */
+    fun get(
+        interviewTypeId: Long,
+        day: LocalDate,
+        loader: () -> List<MentorScheduleOccurrence>
+    ): List<MentorScheduleOccurrence> {
+        val key = Key(interviewTypeId, day)
+        val now = System.currentTimeMillis()
+        entries[key]?.let { if (it.expiresAt > now) return await(it) else entries.remove(key, it) }
+        if (entries.size >= maxEntries) {
+            entries.values.removeIf { it.expiresAt <= now }
+            if (entries.size >= maxEntries) {
+                misses.increment()
+                return loads.recordCallable { loader() }!!
+            }
+        }
+        val entry = Entry(now + ttlMillis)
+        val current = entries.putIfAbsent(key, entry)
+        if (current != null) return await(current)
+        misses.increment()
+        try {
+            entry.result.complete(loads.recordCallable { loader() }!!)
+        } catch (ex: Exception) {
+            entries.remove(key, entry)
+            entry.result.completeExceptionally(ex)
+            throw ex
+        }
+        return entry.result.join()
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    fun scheduleChanged(event: MentorScheduleChanged) {
+        val interviewTypeIds = accountRepository.findByIdOrNull(event.accountId)?.interviewTypeIDs().orEmpty().toSet()
+        // an entry offering the mentor may belong to an interview type the mentor no longer has
+        invalidate { key, entry -> key.interviewTypeId in interviewTypeIds || entry.offers(event.accountId) }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    fun timeSlotReserved(event: MentorTimeSlotReserved) {
+        val firstDay = event.from.withZoneSameInstant(ZoneOffset.UTC).toLocalDate()
+        val lastDay = event.to.withZoneSameInstant(ZoneOffset.UTC).toLocalDate()
+        invalidate { key, entry -> key.day in firstDay..lastDay && entry.offers(event.accountId) }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    fun timeSlotReleased(event: MentorTimeSlotReleased) {
+        val firstDay = event.from.withZoneSameInstant(ZoneOffset.UTC).toLocalDate()
+        val lastDay = event.to.withZoneSameInstant(ZoneOffset.UTC).toLocalDate()
+        val interviewTypeIds = accountRepository.findByIdOrNull(event.accountId)?.interviewTypeIDs().orEmpty().toSet()
+        // the entries left the mentor out while the slot was busy, so they are found by interview type
+        invalidate { key, entry ->
+            key.day in firstDay..lastDay && (key.interviewTypeId in interviewTypeIds || entry.offers(event.accountId))
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    fun calendarBusyChanged(event: CalendarBusyChanged) {
+        invalidate { _, entry -> entry.offers(event.accountId) }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    fun interviewTypeChanged(event: InterviewTypeChanged) {
+        invalidate { key, _ -> key.interviewTypeId == event.interviewTypeId }
+    }
+
+    private fun invalidate(predicate: (Key, Entry) -> Boolean) {
+        entries.forEach { (key, entry) ->
+            if (predicate(key, entry) && entries.remove(key, entry)) invalidations.increment()
+        }
+    }
+
+    private fun await(entry: Entry): List<MentorScheduleOccurrence> {
+        hits.increment()
+        try {
+            return entry.result.join()
+        } catch (ex: CompletionException) {
+            throw ex.cause ?: ex
+        }
+    }
+
+    private data class Key(val interviewTypeId: Long, val day: LocalDate)
+
+    private class Entry(val expiresAt: Long) {
+        val result = CompletableFuture<List<MentorScheduleOccurrence>>()
+
+        // a load still in flight may or may not see the change, so it counts as offering every mentor
+        fun offers(mentorId: Long) =
+            !result.isDone || result.isCompletedExceptionally || result.join().any { it.mentorId == mentorId }
+    }
+}
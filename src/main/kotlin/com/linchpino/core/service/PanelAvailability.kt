@@ -0,0 +1,96 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.CalendarBusy
+import com.linchpino.core.entity.CompiledSchedule
+import com.linchpino.core.entity.MentorTimeSlot
+
+/**
+ * Windows in [fromSecond, toSecond) in which all [panelSize] mentors of a panel are free. Every mentor's occurrences
+ * minus its booked slots become one sorted list of disjoint [start, end) epoch-second intervals, and one sweep over
+ * the start and end events of all lists keeps the stretches covered by [panelSize] of them. A mentor that was never
+ * added has no free time, so the panel has none either.
+ */
+class PanelAvailability(
+    private val fromSecond: Long,
+    private val toSecond: Long,
+    private val panelSize: Int
+) {
+
+    private val free = mutableListOf<LongArray>()
+
+    /**
+     * Adds one mentor whose booked slots and calendar busy time are both taken out of its occurrences.
+     */
+    fun add(schedule: CompiledSchedule, booked: List<MentorTimeSlot>, calendarBusy: List<CalendarBusy> = emptyList()) {
+        val busy = (booked.map { it.fromTime.toEpochSecond() to it.toTime.toEpochSecond() } +
+            calendarBusy.map { it.start.toEpochSecond() to it.end.toEpochSecond() })
+            .sortedBy { it.first }
+        add(schedule, LongArray(busy.size) { busy[it].first }, LongArray(busy.size) { busy[it].second })
+    }
+
+    /**
+     * Adds one mentor, [busyStarts] must be ascending, busy intervals may overlap each other.
+     */
+    fun add(schedule: CompiledSchedule, busyStarts: LongArray, busyEnds: LongArray) {
+        val intervals = ArrayList<Long>()
+        var first = 0
+        // occurrences longer than the recurrence period overlap, each one only contributes past the previous end
+        var visited = fromSecond
+        var occurrence = schedule.nextOccurrenceStart(fromSecond - schedule.durationSeconds, 0, toSecond)
+        while (occurrence != CompiledSchedule.NO_WINDOW && occurrence < toSecond) {
+            var cursor = maxOf(occurrence, visited)
+            val end = minOf(occurrence + schedule.durationSeconds, toSecond)
+            visited = maxOf(visited, end)
+            while (first < busyStarts.size && busyEnds[first] <= cursor) first++
+            var index = first
+            while (index < busyStarts.size && busyStarts[index] < end) {
+                if (busyStarts[index] > cursor) {
+                    intervals.add(cursor)
+                    intervals.add(busyStarts[index])
+                }
+                cursor = maxOf(cursor, busyEnds[index])
+                index++
+            }
+            if (end > cursor) {
+                intervals.add(cursor)
+                intervals.add(end)
+            }
+            occurrence = schedule.nextOccurrenceStart(occurrence + 1, 0, toSecond)
+        }
+        free.add(intervals.toLongArray())
+    }
+
+    /**
+     * Common free intervals as (start, end) epoch-second pairs in start order, touching intervals are joined.
+     */
+    fun common(): List<Pair<Long, Long>> {
+        if (free.size < panelSize) return emptyList()
+        // time * 2 + 1 for a start, time * 2 for an end, so an end sorts before a start at the same second
+        val events = LongArray(free.sumOf { it.size })
+        var position = 0
+        free.forEach { intervals ->
+            for (index in intervals.indices step 2) {
+                events[position++] = intervals[index] * 2 + 1
+                events[position++] = intervals[index + 1] * 2
+            }
+        }
+        events.sort()
+        val common = mutableListOf<Pair<Long, Long>>()
+        var covered = 0
+        var openedAt = 0L
+        for (event in events) {
+            val time = event shr 1
+            if (event and 1L == 1L) {
+                if (++covered == panelSize) openedAt = time
+            } else {
+                if (covered-- == panelSize && time > openedAt) {
+                    // back-to-back intervals of one mentor end and start on the same second, join them again
+                    val last = common.lastOrNull()
+                    if (last != null && last.second == openedAt) common[common.lastIndex] = last.first to time
+                    else common.add(openedAt to time)
+                }
+            }
+        }
+        return common
+    }
+}
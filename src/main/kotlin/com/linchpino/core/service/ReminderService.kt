@@ -0,0 +1,192 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.ClaimedReminder
+import com.linchpino.core.dto.ReminderKey
+import com.linchpino.core.entity.Interview
+import com.linchpino.core.entity.interviewPartiesFullName
+import com.linchpino.core.enums.ReminderRecipient
+import com.linchpino.core.repository.InterviewReminderRepository
+import com.linchpino.core.repository.InterviewRepository
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import jakarta.annotation.PreDestroy
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.context.event.ApplicationReadyEvent
+import org.springframework.context.event.EventListener
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Sends the reminder emails of an interview reminder.offsets-minutes before it starts. The reminders are written
+ * to interview_reminder when the interview is booked; the ones due within reminder.horizon-minutes are kept in a
+ * hashed timing wheel and fire on the tick of their due time. The wheel is refilled from the table on startup and
+ * every reminder.refill-ms, so reminders of other instances and of restarts are picked up too. A fired reminder is
+ * claimed in the table first, so it is sent once, and the claimed interviews are loaded in one query and mailed on
+ * at most reminder.concurrency threads. An interview booked after some of its offsets passed gets one catch-up
+ * reminder right away instead, and a reminder that failed for one party is retried for that party only.
+ */
+@Service
+@Transactional
+class ReminderService(
+    private val repository: InterviewReminderRepository,
+    private val interviewRepository: InterviewRepository,
+    private val emailService: EmailService,
+    meterRegistry: MeterRegistry,
+    @Value("\${reminder.offsets-minutes}") private val offsetsMinutes: List<Int>,
+    @Value("\${reminder.horizon-minutes}") private val horizonMinutes: Long,
+    @Value("\${reminder.tick-ms}") tickMillis: Long,
+    @Value("\${reminder.wheel-size}") wheelSize: Int,
+    @Value("\${reminder.concurrency}") concurrency: Int
+) {
+
+    private val log = LoggerFactory.getLogger(ReminderService::class.java)
+
+    private val wheel = HashedTimingWheel<ReminderKey>(tickMillis, wheelSize, System.currentTimeMillis())
+
+    private val executor: ExecutorService = Executors.newFixedThreadPool(concurrency)
+
+    private val worker = BackgroundWorker("reminder")
+
+    private val sent = Counter.builder("interview.reminder").tag("result", "sent").register(meterRegistry)
+    private val failed = Counter.builder("interview.reminder").tag("result", "failed").register(meterRegistry)
+
+    init {
+        Gauge.builder("interview.reminder.pending", wheel) { it.size.toDouble() }.register(meterRegistry)
+    }
+
+    /**
+     * Writes the reminders of [interview] that are still ahead, in the caller's transaction, and queues the ones
+     * within the horizon after commit. The offsets that already passed are folded into one reminder due now, under
+     * the nearest of them.
+     */
+    fun schedule(interview: Interview) {
+        val interviewId = interview.id ?: return
+        val startsAt = interview.timeSlot?.fromTime ?: return
+        val now = ZonedDateTime.now(ZoneOffset.UTC)
+        if (!startsAt.isAfter(now)) return
+        val (ahead, passed) = offsetsMinutes.distinct()
+            .associateWith { startsAt.minusMinutes(it.toLong()) }
+            .entries
+            .partition { it.value.isAfter(now) }
+        val dueAts = ahead.associate { it.key to it.value } +
+            passed.map { it.key }.minOrNull()?.let { mapOf(it to now) }.orEmpty()
+        repository.insert(interviewId, dueAts)
+        val horizon = now.plusMinutes(horizonMinutes)
+        afterCommit {
+            dueAts.filterValues { !it.isAfter(horizon) }.forEach { (offsetMinutes, dueAt) ->
+                wheel.schedule(ReminderKey(interviewId, offsetMinutes), dueAt.toInstant().toEpochMilli())
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent::class)
+    @Scheduled(fixedDelayString = "\${reminder.refill-ms}", initialDelayString = "\${reminder.refill-ms}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun refill() {
+        val now = ZonedDateTime.now(ZoneOffset.UTC)
+        val due = repository.findDue(now, now.plusMinutes(horizonMinutes))
+        due.forEach { (reminder, dueAt) -> wheel.schedule(reminder, dueAt.toInstant().toEpochMilli()) }
+        log.debug("queued {} interview reminders", due.size)
+    }
+
+    /**
+     * Fires on [worker], since a tick waits for its emails and would delay every other @Scheduled job on the shared
+     * scheduler thread. A tick while the last one is still sending is skipped, the next one fires what it missed.
+     */
+    @Scheduled(fixedRateString = "\${reminder.tick-ms}")
+    fun tick() {
+        worker.trigger { fireDue(System.currentTimeMillis()) }
+    }
+
+    /**
+     * Sends the reminders whose due time passed by [nowMillis] and returns how many were sent.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun fireDue(nowMillis: Long): Int {
+        val due = wheel.advance(nowMillis)
+        if (due.isEmpty()) return 0
+        val now = ZonedDateTime.now(ZoneOffset.UTC)
+        val claimed = repository.claim(due, now)
+        if (claimed.isEmpty()) return 0
+        val interviews = interviewRepository.findForReminders(claimed.map { it.key.interviewId }.toSet())
+            .associateBy { it.id }
+        val sends = claimed.mapNotNull { reminder ->
+            interviews[reminder.key.interviewId]?.let { interview -> Callable { send(reminder, interview) } }
+        }
+        return executor.invokeAll(sends).count { it.get() }
+    }
+
+    private fun send(reminder: ClaimedReminder, interview: Interview): Boolean = try {
+        remind(reminder, interview)
+        sent.increment()
+        true
+    } catch (ex: Exception) {
+        log.warn("could not send reminder {}, retrying on the next refill", reminder.key, ex)
+        failed.increment()
+        repository.release(reminder.key)
+        false
+    }
+
+    private fun remind(reminder: ClaimedReminder, interview: Interview) {
+        val (mentorFullName, jobSeekerFullName) = interview.interviewPartiesFullName()
+        val fromTime = interview.timeSlot?.fromTime
+        deliver(reminder, ReminderRecipient.JOB_SEEKER) {
+            emailService.sendEmail(
+                interview.jobSeekerAccount!!.email,
+                "Reminder: Your Upcoming Interview on Linchpino",
+                "interviewee-reminder.html",
+                mapOf(
+                    "fullName" to jobSeekerFullName,
+                    "date" to fromTime?.toLocalDate(),
+                    "time" to fromTime?.toLocalTime(),
+                    "timezone" to fromTime?.zone,
+                )
+            )
+        }
+        val mentor = interview.mentorAccount ?: return
+        deliver(reminder, ReminderRecipient.MENTOR) {
+            emailService.sendEmail(
+                mentor.email,
+                "Reminder: Interview Scheduled on Linchpino",
+                "interviewer-reminder.html",
+                mapOf(
+                    "fullName" to mentorFullName,
+                    "intervieweeName" to jobSeekerFullName,
+                    "date" to fromTime?.toLocalDate(),
+                    "time" to fromTime?.toLocalTime(),
+                    "timezone" to fromTime?.zone,
+                )
+            )
+        }
+    }
+
+    private fun deliver(reminder: ClaimedReminder, recipient: ReminderRecipient, email: () -> Unit) {
+        if (recipient in reminder.delivered) return
+        email()
+        repository.markDelivered(reminder.key, recipient, ZonedDateTime.now(ZoneOffset.UTC))
+    }
+
+    @PreDestroy
+    fun shutdown() {
+        worker.shutdown()
+        executor.shutdown()
+    }
+
+    private fun afterCommit(action: () -> Unit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return action()
+        TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+            override fun afterCommit() = action()
+        })
+    }
+}
@@ -0,0 +1,131 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.MentorTypeOccurrence
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.ScheduleOccurrenceBatchRepository
+import com.linchpino.core.repository.ScheduleOccurrenceRepository
+import com.linchpino.core.repository.ScheduleRepository
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Transactional
+import java.time.LocalTime
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+/**
+ * Keeps the schedule_occurrence table in sync with mentor schedules, so mentor search
+ * is a single range scan over (interview type, start time) instead of evaluating every schedule.
+ * Occurrences are materialized horizon-days ahead; a search beyond that evaluates the schedules instead.
+ * The availability heatmap counters move with the occurrences they count.
+ */
+@Service
+@Transactional
+class ScheduleOccurrenceService(
+    private val repository: ScheduleOccurrenceRepository,
+    private val batchRepository: ScheduleOccurrenceBatchRepository,
+    private val scheduleRepository: ScheduleRepository,
+    private val eventPublisher: ApplicationEventPublisher,
+    private val availabilityCounts: AvailabilityCountRepository,
+    @Value("\${schedule.occurrence.horizon-days}") private val horizonDays: Long
+) {
+
+    fun rebuild(schedule: Schedule) {
+        val from = horizonStart()
+        rebuild(schedule, from, horizonEnd(from))
+    }
+
+    fun rebuild(schedule: Schedule, from: ZonedDateTime, to: ZonedDateTime) {
+        availabilityCounts.removeOccurrences(schedule.id)
+        repository.deleteByScheduleId(schedule.id)
+        materialize(schedule, from, to)
+        availabilityCounts.countOccurrences(schedule.id, from)
+        publishChange(schedule)
+    }
+
+    fun remove(schedule: Schedule) {
+        availabilityCounts.removeOccurrences(schedule.id)
+        repository.deleteByScheduleId(schedule.id)
+        schedule.occurrencesUntil = null
+        publishChange(schedule)
+    }
+
+    @Scheduled(cron = "\${schedule.occurrence.extend-cron}")
+    fun extendHorizon() {
+        val from = horizonStart()
+        val to = horizonEnd(from)
+        repository.deleteEndedBefore(from)
+        availabilityCounts.deleteBefore(from.toLocalDate())
+        scheduleRepository.findWithOccurrencesBefore(to).forEach { schedule ->
+            val materializedUntil = schedule.occurrencesUntil
+            val extendFrom = if (materializedUntil == null || materializedUntil.isBefore(from)) from else materializedUntil
+            materialize(schedule, extendFrom, to)
+            availabilityCounts.countOccurrences(schedule.id, extendFrom)
+        }
+    }
+
+    /**
+     * Occurrences starting in (from, to) that are not materialized, of mentors offering one of the interview types,
+     * like ScheduleOccurrenceRepository.findMentorOccurrencesOfTypes returns the materialized ones. A search reaching
+     * past the horizon evaluates the schedules from where their occurrences end. Nothing is queried while [to] is
+     * inside the horizon.
+     */
+    @Transactional(readOnly = true)
+    fun findUnmaterializedOccurrences(
+        interviewTypeIds: Collection<Long>,
+        from: ZonedDateTime,
+        to: ZonedDateTime
+    ): List<MentorTypeOccurrence> {
+        // the horizon is only extended by the nightly job, so it may still end a day early
+        if (!to.isAfter(horizonEnd(horizonStart()).minusDays(1))) return emptyList()
+        return scheduleRepository.findMentorSchedulesMaterializedBefore(interviewTypeIds, from, to)
+            .flatMap { schedule ->
+                val account = schedule.account ?: return@flatMap emptyList()
+                val mentorId = account.id ?: return@flatMap emptyList()
+                val interviewTypes = account.interviewTypes().filter { it.id in interviewTypeIds }
+                val materializedUntil = schedule.occurrencesUntil
+                val evaluateFrom =
+                    if (materializedUntil == null || materializedUntil.isBefore(from)) from else materializedUntil
+                schedule.occurrences(evaluateFrom, to)
+                    .filter { !it.start.isBefore(evaluateFrom) && it.start.isAfter(from) && it.start.isBefore(to) }
+                    .flatMap { window ->
+                        interviewTypes.asSequence().map { type ->
+                            MentorTypeOccurrence(
+                                type.id!!,
+                                type.slotMinutes,
+                                mentorId,
+                                account.firstName,
+                                account.lastName,
+                                account.email,
+                                account.avatar,
+                                window.start,
+                                window.end
+                            )
+                        }
+                    }.toList()
+            }
+    }
+
+    private fun materialize(schedule: Schedule, from: ZonedDateTime, to: ZonedDateTime) {
+        val account = schedule.account ?: return
+        val accountId = account.id ?: return
+        val windows = schedule.occurrences(from, to).filter { !it.start.isBefore(from) }.toList()
+        batchRepository.insert(schedule.id, accountId, account.interviewTypeIDs(), windows)
+        schedule.occurrencesUntil = to
+    }
+
+    private fun publishChange(schedule: Schedule) {
+        schedule.account?.id?.let { eventPublisher.publishEvent(MentorScheduleChanged(it)) }
+    }
+
+    private fun horizonStart(): ZonedDateTime = ZonedDateTime.now(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+
+    private fun horizonEnd(from: ZonedDateTime): ZonedDateTime = from.plusDays(horizonDays)
+}
+
+/**
+ * Published whenever a mentor's schedule or the interview types it is offered for change.
+ */
+data class MentorScheduleChanged(val accountId: Long)
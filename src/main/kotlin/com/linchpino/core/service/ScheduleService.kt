@@ -1,31 +1,58 @@
 package com.linchpino.core.service
 
+import com.linchpino.core.dto.AvailabilityBitmapResponse
 import com.linchpino.core.dto.CreateInterviewRequest
+import com.linchpino.core.dto.MentorWithClosestSchedule
 import com.linchpino.core.dto.ScheduleRequest
 import com.linchpino.core.dto.ScheduleResponse
 import com.linchpino.core.dto.ScheduleUpdateRequest
+import com.linchpino.core.dto.ValidWindow
+import com.linchpino.core.dto.notCoveredBy
 import com.linchpino.core.dto.toResponse
 import com.linchpino.core.dto.toSchedule
+import com.linchpino.core.dto.without
 import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.CompiledSchedule
 import com.linchpino.core.entity.MentorTimeSlot
+import com.linchpino.core.entity.Schedule
 import com.linchpino.core.enums.MentorTimeSlotEnum
 import com.linchpino.core.exception.ErrorCode
 import com.linchpino.core.exception.LinchpinException
 import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.CalendarBusyRepository
+import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.MentorTimeSlotRepository
 import com.linchpino.core.repository.ScheduleRepository
+import com.linchpino.core.repository.SlotHoldRepository
 import com.linchpino.core.security.email
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.data.repository.findByIdOrNull
 import org.springframework.security.core.Authentication
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
+import java.sql.SQLException
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDate
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
 
 @Service
 @Transactional
 class ScheduleService(
     private val scheduleRepository: ScheduleRepository,
     private val accountRepository: AccountRepository,
-    private val mentorTimeSlotRepository: MentorTimeSlotRepository
+    private val mentorTimeSlotRepository: MentorTimeSlotRepository,
+    private val scheduleOccurrenceService: ScheduleOccurrenceService,
+    private val mentorBookingLock: MentorBookingLock,
+    private val availabilityCounts: AvailabilityCountRepository,
+    private val slotHolds: SlotHoldRepository,
+    private val eventPublisher: ApplicationEventPublisher,
+    private val calendarBusy: CalendarBusyRepository,
+    private val interviewTypeRepository: InterviewTypeRepository,
+    private val compiledSchedules: CompiledScheduleCache
 ) {
 
 
@@ -37,31 +64,254 @@ class ScheduleService(
         try {
             val schedule = request.toSchedule(account)
             scheduleRepository.save(schedule)
+            scheduleOccurrenceService.rebuild(schedule)
             return schedule.toResponse()
         } catch (ex: DataIntegrityViolationException) {
             throw LinchpinException(ErrorCode.DUPLICATE_SCHEDULE, "account already has schedule")
         }
     }
 
-    fun availableTimeSlot(account: Account, request: CreateInterviewRequest): MentorTimeSlot {
-        val validWindow = account.schedule?.timeSlot(request.startTime, request.endTime)
+    /**
+     * Books the requested window with a single insert. Overlapping ALLOCATED or HELD slots of the same mentor are
+     * rejected by the database exclusion constraint, so concurrent bookings of one mentor cannot both succeed. The
+     * mentor's booking lock is taken first, so competing bookings wait a bounded time instead of blocking on the insert.
+     */
+    fun availableTimeSlot(account: Account, request: CreateInterviewRequest): MentorTimeSlot =
+        reserve(account, request.startTime, request.endTime, request.interviewTypeId, MentorTimeSlotEnum.ALLOCATED)
+
+    /**
+     * Reserves the window as a HELD time slot, which blocks bookings and other holds like an ALLOCATED one. The
+     * interview type carves the window like a booking does, so the hold covers exactly the slot its claim books.
+     */
+    fun heldTimeSlot(
+        account: Account,
+        startTime: ZonedDateTime,
+        endTime: ZonedDateTime,
+        interviewTypeId: Long
+    ): MentorTimeSlot =
+        reserve(account, startTime, endTime, interviewTypeId, MentorTimeSlotEnum.HELD)
+
+    /**
+     * The window a booking of [startTime, endTime] takes: the whole occurrence of the mentor's schedule, or the one
+     * carved slot it selects when the interview type has a slot length.
+     */
+    fun bookableWindow(
+        account: Account,
+        startTime: ZonedDateTime,
+        endTime: ZonedDateTime,
+        interviewTypeId: Long?
+    ): ValidWindow {
+        val occurrence = account.schedule?.let { compiledSchedules.of(it) }?.timeSlot(startTime, endTime)
             ?: throw LinchpinException(ErrorCode.INVALID_TIMESLOT, "mentor has no valid window for selected time")
-        val timeSlots = mentorTimeSlotRepository.numberOfOverlappingSlots(validWindow.start, validWindow.end)
-        if (timeSlots > 0) {
-            throw LinchpinException(ErrorCode.TIMESLOT_IS_BOOKED, "there is an active time-slot in $validWindow")
+        val slotMinutes = slotMinutesOf(interviewTypeId) ?: return occurrence
+        val carved = CarvedWindow(occurrence, slotMinutes)
+        val index = carved.indexOf(ValidWindow(startTime, endTime))
+        if (index < 0)
+            throw LinchpinException(
+                ErrorCode.INVALID_TIMESLOT,
+                "selected time is not a $slotMinutes minute slot of the mentor's window $occurrence"
+            )
+        return carved.slot(index)
+    }
+
+    private fun slotMinutesOf(interviewTypeId: Long?) =
+        interviewTypeId?.let { interviewTypeRepository.findByIdOrNull(it) }?.slotMinutes
+
+    private fun reserve(
+        account: Account,
+        startTime: ZonedDateTime,
+        endTime: ZonedDateTime,
+        interviewTypeId: Long?,
+        status: MentorTimeSlotEnum
+    ): MentorTimeSlot {
+        val validWindow = bookableWindow(account, startTime, endTime, interviewTypeId)
+        val accountId = account.id ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+        mentorBookingLock.acquire(accountId)
+        slotHolds.releaseExpired(accountId, ZonedDateTime.now(ZoneOffset.UTC)).forEach {
+            availabilityCounts.recount(accountId, it.window.start, it.window.end)
+            eventPublisher.publishEvent(MentorTimeSlotReleased(accountId, it.window.start, it.window.end))
         }
+        if (calendarBusy.overlaps(accountId, validWindow.start, validWindow.end))
+            throw LinchpinException(ErrorCode.TIMESLOT_IS_BOOKED, "mentor's calendar is busy in $validWindow")
 
-        return MentorTimeSlot().apply {
+        val timeSlot = MentorTimeSlot().apply {
             this.account = account
             this.fromTime = validWindow.start
             this.toTime = validWindow.end
-            this.status = MentorTimeSlotEnum.ALLOCATED
-        }.let {
-            mentorTimeSlotRepository.save(it)
+            this.status = status
+        }
+        val saved = try {
+            mentorTimeSlotRepository.saveAndFlush(timeSlot)
+        } catch (ex: DataIntegrityViolationException) {
+            if (!ex.isExclusionViolation()) throw ex
+            throw LinchpinException(ErrorCode.TIMESLOT_IS_BOOKED, "there is an active time-slot in $validWindow")
+        }
+        availabilityCounts.recount(accountId, validWindow.start, validWindow.end)
+        eventPublisher.publishEvent(MentorTimeSlotReserved(accountId, validWindow.start, validWindow.end))
+        return saved
+    }
+
+    private fun DataIntegrityViolationException.isExclusionViolation() =
+        generateSequence<Throwable>(this) { it.cause }
+            .filterIsInstance<SQLException>()
+            .any { it.sqlState == EXCLUSION_VIOLATION }
+
+
+    /**
+     * Free windows of the mentor's schedule in [from, to], booked time slots are subtracted with one query.
+     */
+    @Transactional(readOnly = true)
+    fun freeWindows(mentorId: Long, from: ZonedDateTime, to: ZonedDateTime): List<ValidWindow> {
+        validateRange(from, to)
+        val account = accountRepository.findByIdOrNull(mentorId)
+            ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+        val schedule = account.schedule ?: return emptyList()
+        val zone = schedule.startTime?.zone ?: return emptyList()
+        val start = from.withZoneSameInstant(zone)
+        val end = to.withZoneSameInstant(zone)
+        val booked = mentorTimeSlotRepository.findBookedSlotsBetween(mentorId, from, to)
+            .map { ValidWindow(it.fromTime, it.toTime) }
+            .plus(calendarBusy.findBusyBetween(listOf(mentorId), from, to).map { ValidWindow(it.start, it.end) })
+            .sortedBy { it.start.toInstant() }
+        return schedule.occurrences(start, end)
+            .map { ValidWindow(maxOf(it.start, start), minOf(it.end, end)) }
+            .without(booked)
+            .toList()
+    }
+
+    /**
+     * Free slots of the mentor for an interview type in [from, to]. Each occurrence is carved into slots of the
+     * type's length and booked time slots and calendar busy time of the range, loaded with one query each, mark the
+     * slots they overlap. Types without a slot length offer whole occurrences that nothing overlaps.
+     */
+    @Transactional(readOnly = true)
+    fun bookableSlots(mentorId: Long, interviewTypeId: Long, from: ZonedDateTime, to: ZonedDateTime): List<ValidWindow> {
+        validateRange(from, to)
+        val account = accountRepository.findByIdOrNull(mentorId)
+            ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+        val interviewType = interviewTypeRepository.findByIdOrNull(interviewTypeId)
+            ?: throw LinchpinException(ErrorCode.INTERVIEW_TYPE_NOT_FOUND, "interview type not found")
+        val schedule = account.schedule ?: return emptyList()
+        val booked = MentorIntervalIndex.of(
+            mentorTimeSlotRepository.findBookedSlotsBetween(mentorId, from, to),
+            calendarBusy.findBusyBetween(listOf(mentorId), from, to)
+        )
+        val slotMinutes = interviewType.slotMinutes
+        val free = if (slotMinutes == null) schedule.occurrences(from, to).filter { !booked.overlaps(mentorId, it) }
+        else schedule.occurrences(from, to).flatMap { CarvedWindow(it, slotMinutes).occupy(booked, mentorId).freeSlots() }
+        return free
+            .filter { !it.start.isBefore(from) && !it.end.isAfter(to) }
+            .toList()
+    }
+
+    /**
+     * Windows in [from, to] in which every mentor of the panel is free, in UTC. Schedules, booked time slots and
+     * calendar busy time of all mentors are loaded with one query each, whatever the panel size, and intersected in
+     * one sweep.
+     */
+    @Transactional(readOnly = true)
+    fun commonFreeWindows(mentorIds: Collection<Long>, from: ZonedDateTime, to: ZonedDateTime): List<ValidWindow> {
+        validateRange(from, to)
+        val panel = mentorIds.toSet()
+        if (panel.isEmpty() || panel.size > MAX_PANEL_SIZE)
+            throw LinchpinException(
+                ErrorCode.INVALID_STATE,
+                "a panel has between 1 and $MAX_PANEL_SIZE mentors",
+                "panel",
+                "it must have between 1 and $MAX_PANEL_SIZE mentors"
+            )
+        val schedules = scheduleRepository.findMentorSchedulesOf(panel, from)
+        if (schedules.size < panel.size) return emptyList()
+        val booked = mentorTimeSlotRepository.findBookedSlotsOf(panel, from, to).groupBy { it.account?.id }
+        val busy = calendarBusy.findBusyBetween(panel, from, to).groupBy { it.accountId }
+        val availability = PanelAvailability(from.toEpochSecond(), to.toEpochSecond(), panel.size)
+        schedules.forEach { schedule ->
+            val mentorId = schedule.account?.id
+            compiledSchedules.of(schedule)
+                ?.let { availability.add(it, booked[mentorId].orEmpty(), busy[mentorId].orEmpty()) }
+        }
+        return availability.common().map { (start, end) ->
+            ValidWindow(
+                ZonedDateTime.ofInstant(Instant.ofEpochSecond(start), ZoneOffset.UTC),
+                ZonedDateTime.ofInstant(Instant.ofEpochSecond(end), ZoneOffset.UTC)
+            )
         }
+    }
 
+    /**
+     * Free 15-minute slots of the mentor for [days] UTC days from [from] as one bitmap per day. Occurrences set the
+     * slots they fully cover, and booked time slots and calendar busy time clear the slots they touch, without
+     * building windows.
+     */
+    @Transactional(readOnly = true)
+    fun availabilityBitmap(mentorId: Long, from: LocalDate, days: Int): AvailabilityBitmapResponse {
+        if (days < 1 || days > MAX_AVAILABILITY_DAYS)
+            throw LinchpinException(
+                ErrorCode.INVALID_DATE_RANGE,
+                "days must be between 1 and $MAX_AVAILABILITY_DAYS"
+            )
+        val account = accountRepository.findByIdOrNull(mentorId)
+            ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+        val bitmap = AvailabilityBitmap(from, days)
+        val start = from.atStartOfDay(ZoneOffset.UTC)
+        val end = start.plusDays(days.toLong())
+        val toSecond = end.toEpochSecond()
+        account.schedule?.let { compiledSchedules.of(it) }?.let { schedule ->
+            var occurrence = schedule.nextOccurrenceStart(start.toEpochSecond() - schedule.durationSeconds, 0, toSecond)
+            while (occurrence != CompiledSchedule.NO_WINDOW && occurrence < toSecond) {
+                bitmap.addAvailable(occurrence, occurrence + schedule.durationSeconds)
+                occurrence = schedule.nextOccurrenceStart(occurrence + 1, 0, toSecond)
+            }
+            mentorTimeSlotRepository.findBookedSlotsBetween(mentorId, start, end).forEach {
+                bitmap.removeBusy(it.fromTime.toEpochSecond(), it.toTime.toEpochSecond())
+            }
+            calendarBusy.findBusyBetween(listOf(mentorId), start, end).forEach {
+                bitmap.removeBusy(it.start.toEpochSecond(), it.end.toEpochSecond())
+            }
+        }
+        return AvailabilityBitmapResponse(
+            mentorId,
+            from,
+            AvailabilityBitmap.SLOT_MINUTES,
+            (0 until days).map { bitmap.encode(it) }
+        )
     }
 
+    /**
+     * Earliest free window of up to [limit] mentors offering the interview type, starting at or after [from] and
+     * within [MAX_AVAILABILITY_DAYS] days, ordered by start. [limit] is capped at [MAX_NEXT_AVAILABLE]. Occurrence
+     * streams of all mentors are merged lazily, so the work grows with [limit] instead of with mentors times days.
+     * Booked time slots and calendar busy time are skipped, so every suggested window can be booked.
+     */
+    @Transactional(readOnly = true)
+    fun nextAvailableMentors(interviewTypeId: Long, from: ZonedDateTime, limit: Int): List<MentorWithClosestSchedule> {
+        val to = from.plusDays(MAX_AVAILABILITY_DAYS)
+        val schedules = scheduleRepository.findMentorSchedulesByInterviewType(interviewTypeId, from)
+            .mapNotNull { schedule ->
+                val account = schedule.account ?: return@mapNotNull null
+                val compiled = compiledSchedules.of(schedule) ?: return@mapNotNull null
+                account.id?.let { it to (account to compiled) }
+            }
+            .toMap()
+        if (schedules.isEmpty()) return emptyList()
+        val booked = MentorIntervalIndex.of(
+            mentorTimeSlotRepository.findBookedSlotsOf(schedules.keys, from, to),
+            calendarBusy.findBusyBetween(schedules.keys, from, to)
+        )
+        return MentorOccurrenceMerge(schedules.mapValues { it.value.second }, booked)
+            .earliest(from.toEpochSecond(), to.toEpochSecond(), limit.coerceIn(1, MAX_NEXT_AVAILABLE))
+            .map { (mentorId, start) ->
+                val (account, compiled) = schedules.getValue(mentorId)
+                MentorWithClosestSchedule(
+                    mentorId,
+                    account.firstName,
+                    account.lastName,
+                    compiled.window(start),
+                    account.email,
+                    account.avatar
+                )
+            }
+    }
 
     fun updateSchedule(authentication: Authentication, request: ScheduleUpdateRequest): ScheduleResponse {
         val account = accountRepository.findByEmailIgnoreCase(authentication.email())
@@ -69,16 +319,70 @@ class ScheduleService(
 
         val schedule = account.schedule?.update(request)
             ?: throw LinchpinException(ErrorCode.ENTITY_NOT_FOUND, "schedule not found for account: ${account.id}")
+        rejectConflicts(
+            account.id ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found"),
+            schedule
+        )
+        scheduleOccurrenceService.rebuild(schedule)
         return schedule.toResponse()
     }
 
 
+    /**
+     * Rejects a schedule change that leaves future booked slots outside the new schedule. The mentor's booking lock
+     * is taken first, so no booking can commit between the check and the change. The bookings are loaded in one
+     * query and swept against the schedule's occurrences up to the last of them; the exception rolls back the
+     * change.
+     */
+    private fun rejectConflicts(accountId: Long, schedule: Schedule) {
+        mentorBookingLock.acquire(accountId)
+        val booked = mentorTimeSlotRepository.findBookedTimeSlotsAfter(accountId, ZonedDateTime.now(ZoneOffset.UTC))
+        if (booked.isEmpty()) return
+        val conflicts = booked.notCoveredBy(
+            schedule.occurrences(booked.minOf { it.start }, booked.maxOf { it.end })
+        )
+        if (conflicts.isNotEmpty())
+            throw LinchpinException(
+                ErrorCode.SCHEDULE_CONFLICT,
+                "schedule change conflicts with ${conflicts.size} booked time slots",
+                conflicts.size,
+                conflicts.mapNotNull { it.interviewId }.joinToString()
+            )
+    }
+
     fun deleteSchedule(authentication: Authentication) {
         val account = accountRepository.findByEmailIgnoreCase(authentication.email())
             ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
         account.schedule?.let {
+            scheduleOccurrenceService.remove(it)
             scheduleRepository.deleteById(it.id)
+            compiledSchedules.evict(it.id)
             account.schedule = null
         }
     }
+
+    private fun validateRange(from: ZonedDateTime, to: ZonedDateTime) {
+        if (!from.isBefore(to) || Duration.between(from, to).toDays() > MAX_AVAILABILITY_DAYS)
+            throw LinchpinException(
+                ErrorCode.INVALID_DATE_RANGE,
+                "from must be before to and the range must not exceed $MAX_AVAILABILITY_DAYS days"
+            )
+    }
+
+    companion object {
+        const val MAX_AVAILABILITY_DAYS = 92L
+        const val MAX_NEXT_AVAILABLE = 50
+        const val MAX_PANEL_SIZE = 10
+        private const val EXCLUSION_VIOLATION = "23P01"
+    }
 }
+
+/**
+ * Published when a time slot of the mentor is allocated or held, so the mentor is no longer free in [from, to).
+ */
+data class MentorTimeSlotReserved(val accountId: Long, val from: ZonedDateTime, val to: ZonedDateTime)
+
+/**
+ * Published when an allocated or held time slot of the mentor is freed, so the mentor may be free in [from, to) again.
+ */
+data class MentorTimeSlotReleased(val accountId: Long, val from: ZonedDateTime, val to: ZonedDateTime)
@@ -0,0 +1,177 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.CreateInterviewRequest
+import com.linchpino.core.dto.ReleasedTimeSlot
+import com.linchpino.core.dto.SlotHoldRequest
+import com.linchpino.core.dto.SlotHoldResponse
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.MentorTimeSlot
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.MentorTimeSlotRepository
+import com.linchpino.core.repository.SlotHoldRepository
+import com.linchpino.core.repository.findReferenceById
+import com.linchpino.core.security.email
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.slf4j.LoggerFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.context.event.ApplicationReadyEvent
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.context.event.EventListener
+import org.springframework.data.repository.findByIdOrNull
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.security.core.Authentication
+import org.springframework.stereotype.Service
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.util.UUID
+
+/**
+ * Holds reserve a mentor window for a few minutes between picking it and creating the interview. A hold is a HELD
+ * time slot, so search already treats it as busy and the exclusion constraint keeps bookings and other holds off it.
+ * Expiries are tracked in memory by a hashed timing wheel and released when their tick passes, slot_hold mirrors
+ * them for the other instances: each instance adopts every outstanding hold on startup, and an expired hold is
+ * released by the next booking of its mentor even if the instance that created it is gone.
+ * A hold belongs to the job seeker who placed it: only they can release it or book with it.
+ */
+@Service
+@Transactional
+class SlotHoldService(
+    private val repository: SlotHoldRepository,
+    private val accountRepository: AccountRepository,
+    private val mentorTimeSlotRepository: MentorTimeSlotRepository,
+    private val availabilityCounts: AvailabilityCountRepository,
+    private val scheduleService: ScheduleService,
+    private val eventPublisher: ApplicationEventPublisher,
+    meterRegistry: MeterRegistry,
+    @Value("\${slot-hold.ttl-minutes}") private val ttlMinutes: Long,
+    @Value("\${slot-hold.max-ttl-minutes}") private val maxTtlMinutes: Long,
+    @Value("\${slot-hold.max-active}") private val maxActive: Int,
+    @Value("\${slot-hold.tick-ms}") tickMillis: Long,
+    @Value("\${slot-hold.wheel-size}") wheelSize: Int
+) {
+
+    private val log = LoggerFactory.getLogger(SlotHoldService::class.java)
+
+    private val wheel = HashedTimingWheel<UUID>(tickMillis, wheelSize, System.currentTimeMillis())
+
+    private val expired = Counter.builder("slot.hold.expired").register(meterRegistry)
+
+    init {
+        Gauge.builder("slot.hold.pending", wheel) { it.size.toDouble() }.register(meterRegistry)
+    }
+
+    /**
+     * Holds the window for the signed in job seeker, who may have at most slot-hold.max-active unexpired holds.
+     */
+    fun hold(request: SlotHoldRequest, authentication: Authentication): SlotHoldResponse {
+        val ownerId = ownerId(authentication)
+        val now = ZonedDateTime.now(ZoneOffset.UTC)
+        if (repository.countActive(ownerId, now) >= maxActive)
+            throw LinchpinException(ErrorCode.TOO_MANY_HOLDS, "account $ownerId holds $maxActive time slots", maxActive)
+        val account = accountRepository.findByIdOrNull(request.mentorAccountId)
+            ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+        val timeSlot = scheduleService.heldTimeSlot(account, request.startTime, request.endTime, request.interviewTypeId)
+        val expiresAt = now.plusMinutes((request.minutes ?: ttlMinutes).coerceIn(1, maxTtlMinutes))
+        val holdId = UUID.randomUUID()
+        repository.insert(holdId, timeSlot.id!!, ownerId, expiresAt)
+        afterCommit { wheel.schedule(holdId, expiresAt.toInstant().toEpochMilli()) }
+        return SlotHoldResponse(
+            holdId,
+            timeSlot.id,
+            request.mentorAccountId,
+            timeSlot.fromTime,
+            timeSlot.toTime,
+            expiresAt
+        )
+    }
+
+    /**
+     * Releases a hold of the signed in job seeker, holds of others are not found.
+     */
+    fun release(holdId: UUID, authentication: Authentication) {
+        val released = repository.release(holdId, ownerId(authentication))
+            ?: throw LinchpinException(ErrorCode.ENTITY_NOT_FOUND, "hold $holdId not found", "SlotHold")
+        freed(released)
+        afterCommit { wheel.cancel(holdId) }
+    }
+
+    /**
+     * Turns the hold of [ownerId] into the ALLOCATED time slot of the interview. The hold already excludes
+     * overlapping slots, so this is one update instead of another overlap check.
+     */
+    fun claim(holdId: UUID, account: Account, request: CreateInterviewRequest, ownerId: Long): MentorTimeSlot {
+        val validWindow =
+            scheduleService.bookableWindow(account, request.startTime, request.endTime, request.interviewTypeId)
+        val accountId = account.id ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+        val timeSlotId = repository.claim(holdId, ownerId, accountId, validWindow, ZonedDateTime.now(ZoneOffset.UTC))
+            ?: throw LinchpinException(
+                ErrorCode.INVALID_TIMESLOT,
+                "hold $holdId of account $ownerId is expired or does not cover $validWindow of mentor $accountId"
+            )
+        afterCommit { wheel.cancel(holdId) }
+        availabilityCounts.recount(accountId, validWindow.start, validWindow.end)
+        return mentorTimeSlotRepository.findReferenceById(timeSlotId)
+    }
+
+    @EventListener(ApplicationReadyEvent::class)
+    @Transactional(readOnly = true)
+    fun adoptHolds() {
+        val holds = repository.findAll()
+        holds.forEach { (id, expiresAt) -> wheel.schedule(id, expiresAt.toInstant().toEpochMilli()) }
+        log.info("adopted {} outstanding slot holds", holds.size)
+    }
+
+    @Scheduled(fixedRateString = "\${slot-hold.tick-ms}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun tick() {
+        expireDue(System.currentTimeMillis())
+    }
+
+    /**
+     * Releases the holds whose deadline passed by [nowMillis], each in its own statements. The availability
+     * counters are recounted right after each release, which ends on the right value even if it runs on its own.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun expireDue(nowMillis: Long): Int {
+        var released = 0
+        wheel.advance(nowMillis).forEach { holdId ->
+            try {
+                repository.release(holdId)?.let {
+                    freed(it)
+                    released++
+                }
+            } catch (ex: Exception) {
+                log.warn("could not release slot hold {}, retrying on a later tick", holdId, ex)
+                wheel.schedule(holdId, nowMillis)
+            }
+        }
+        expired.increment(released.toDouble())
+        return released
+    }
+
+    private fun freed(released: ReleasedTimeSlot) {
+        val (accountId, window) = released
+        availabilityCounts.recount(accountId, window.start, window.end)
+        eventPublisher.publishEvent(MentorTimeSlotReleased(accountId, window.start, window.end))
+    }
+
+    private fun ownerId(authentication: Authentication): Long =
+        accountRepository.findIdByEmail(authentication.email())
+            ?: throw LinchpinException(ErrorCode.ACCOUNT_NOT_FOUND, "account not found")
+
+    private fun afterCommit(action: () -> Unit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return action()
+        TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+            override fun afterCommit() = action()
+        })
+    }
+}
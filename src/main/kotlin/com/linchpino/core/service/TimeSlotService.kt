@@ -1,15 +1,20 @@
 package com.linchpino.core.service
 
 import com.linchpino.core.dto.AddTimeSlotsRequest
-import com.linchpino.core.dto.toAvailableMentorTimeSlot
+import com.linchpino.core.dto.TimeSlotResult
+import com.linchpino.core.dto.validateBatch
 import com.linchpino.core.entity.MentorTimeSlot
 import com.linchpino.core.enums.AccountTypeEnum
 import com.linchpino.core.enums.MentorTimeSlotEnum
+import com.linchpino.core.enums.TimeSlotResultStatus
 import com.linchpino.core.exception.ErrorCode
 import com.linchpino.core.exception.LinchpinException
 import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.MentorTimeSlotBatchRepository
 import com.linchpino.core.repository.MentorTimeSlotRepository
 import com.linchpino.core.repository.findReferenceById
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
 
@@ -18,26 +23,55 @@ import org.springframework.transaction.annotation.Transactional
 @Transactional
 class TimeSlotService(
     private val accountRepository: AccountRepository,
-    private val repository: MentorTimeSlotRepository,
-    private val mentorTimeSlotRepository: MentorTimeSlotRepository
+    private val mentorTimeSlotRepository: MentorTimeSlotRepository,
+    private val batchRepository: MentorTimeSlotBatchRepository,
+    private val mentorBookingLock: MentorBookingLock,
+    private val availabilityCounts: AvailabilityCountRepository,
+    private val eventPublisher: ApplicationEventPublisher
 ) {
 
 
-    fun addTimeSlots(request: AddTimeSlotsRequest) {
+    /**
+     * Bulk ingestion: the request is validated in one pass, overlaps with the mentor's existing time slots are found
+     * with one query and the accepted slots are inserted as JDBC batches. Returns one result per requested slot.
+     */
+    fun addTimeSlots(request: AddTimeSlotsRequest): List<TimeSlotResult> {
         val account = accountRepository.findReferenceById(request.mentorId)
         account.roles()
             .firstOrNull { it.title == AccountTypeEnum.MENTOR }
             ?: throw LinchpinException(ErrorCode.INVALID_ACCOUNT_ROLE, "account does not have mentor role")
+        // concurrent imports and bookings of this mentor would miss each other's rows in the overlap check
+        mentorBookingLock.acquire(request.mentorId)
 
-        val mentorTimeSlots = request.timeSlots
-            .onEach { it.validate() }
-            .map { it.toAvailableMentorTimeSlot(account) }
-        repository.saveAll(mentorTimeSlots)
+        val timeSlots = request.timeSlots
+        val statuses = timeSlots.validateBatch()
+        val candidates = timeSlots.indices.filter { statuses[it] == null }
+        val overlapping = batchRepository.findOverlapping(request.mentorId, candidates.map { timeSlots[it] })
+        candidates.forEachIndexed { position, index ->
+            statuses[index] = if (position in overlapping) TimeSlotResultStatus.OVERLAPS_EXISTING
+            else TimeSlotResultStatus.CREATED
+        }
+        batchRepository.insertAvailable(
+            request.mentorId,
+            timeSlots.filterIndexed { index, _ -> statuses[index] == TimeSlotResultStatus.CREATED }
+        )
+        return timeSlots.mapIndexed { index, slot ->
+            TimeSlotResult(index, slot.startTime, slot.endTime, statuses[index]!!)
+        }
     }
 
+    /**
+     * Changes the status of a time slot and recounts the availability counters of its window when it becomes or
+     * stops being busy, ALLOCATED or HELD. A slot that stops being busy is published as released.
+     */
     fun updateTimeSlotStatus(timeSlot: MentorTimeSlot, mentorTimeSlotEnum: MentorTimeSlotEnum) {
-
+        val wasBusy = timeSlot.status in MentorTimeSlotRepository.BUSY
+        val busy = mentorTimeSlotEnum in MentorTimeSlotRepository.BUSY
         timeSlot.status = mentorTimeSlotEnum
-        mentorTimeSlotRepository.save(timeSlot)
+        val saved = mentorTimeSlotRepository.saveAndFlush(timeSlot)
+        val accountId = saved.account?.id
+        if (wasBusy == busy || accountId == null) return
+        availabilityCounts.recount(accountId, saved.fromTime, saved.toTime)
+        if (wasBusy) eventPublisher.publishEvent(MentorTimeSlotReleased(accountId, saved.fromTime, saved.toTime))
     }
 }
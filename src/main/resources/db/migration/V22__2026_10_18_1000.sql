@@ -0,0 +1,25 @@
+CREATE TABLE schedule_occurrence
+(
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    schedule_id       BIGINT                                  NOT NULL,
+    account_id        BIGINT                                  NOT NULL,
+    interview_type_id BIGINT                                  NOT NULL,
+    start_time        TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    end_time          TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    CONSTRAINT pk_schedule_occurrence PRIMARY KEY (id)
+);
+
+ALTER TABLE schedule_occurrence
+    ADD CONSTRAINT FK_SCHEDULE_OCCURRENCE_ON_SCHEDULE FOREIGN KEY (schedule_id) REFERENCES schedule (id) ON DELETE CASCADE;
+
+ALTER TABLE schedule_occurrence
+    ADD CONSTRAINT FK_SCHEDULE_OCCURRENCE_ON_ACCOUNT FOREIGN KEY (account_id) REFERENCES account (id);
+
+ALTER TABLE schedule_occurrence
+    ADD CONSTRAINT FK_SCHEDULE_OCCURRENCE_ON_INTERVIEW_TYPE FOREIGN KEY (interview_type_id) REFERENCES interview_type (id);
+
+CREATE INDEX idx_schedule_occurrence_type_start ON schedule_occurrence (interview_type_id, start_time);
+CREATE INDEX idx_schedule_occurrence_schedule ON schedule_occurrence (schedule_id);
+
+-- upper bound of materialized occurrences, NULL means the schedule was never expanded
+ALTER TABLE schedule ADD COLUMN occurrences_until TIMESTAMP WITHOUT TIME ZONE;
@@ -0,0 +1,32 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- from_time/to_time hold UTC wall time, so the range is a tsrange over the same values; NULL for unusable rows
+ALTER TABLE mentor_time_slot
+    ADD COLUMN time_range TSRANGE GENERATED ALWAYS AS (
+        CASE WHEN from_time < to_time THEN tsrange(from_time, to_time, '[)') END
+        ) STORED;
+
+-- overlapping ALLOCATED (3) slots are double bookings that need a manual decision, so stop and list them
+DO
+$$
+    DECLARE
+        conflicts TEXT;
+    BEGIN
+        SELECT string_agg(format('account %s: slots %s and %s', mts.account_id, other.id, mts.id), E'\n')
+        INTO conflicts
+        FROM mentor_time_slot mts
+                 JOIN mentor_time_slot other
+                      ON other.account_id = mts.account_id
+                          AND other.status = 3
+                          AND other.id < mts.id
+                          AND other.time_range && mts.time_range
+        WHERE mts.status = 3;
+        IF conflicts IS NOT NULL THEN
+            RAISE EXCEPTION E'overlapping ALLOCATED mentor time slots, resolve them before migrating:\n%', conflicts;
+        END IF;
+    END
+$$;
+
+ALTER TABLE mentor_time_slot
+    ADD CONSTRAINT EX_MENTOR_TIME_SLOT_ALLOCATED_OVERLAP
+        EXCLUDE USING gist (account_id WITH =, time_range WITH &&) WHERE (status = 3);
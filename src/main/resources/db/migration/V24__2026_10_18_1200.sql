@@ -0,0 +1,11 @@
+-- RFC 5545 recurrence rule, NULL keeps the recurrence_type/interval/side table schedule
+ALTER TABLE schedule ADD COLUMN rrule VARCHAR(512);
+
+CREATE TABLE schedule_excluded_dates
+(
+    schedule_id   BIGINT NOT NULL,
+    excluded_date DATE   NOT NULL
+);
+
+ALTER TABLE schedule_excluded_dates
+    ADD CONSTRAINT fk_schedule_excluded_dates_on_schedule FOREIGN KEY (schedule_id) REFERENCES schedule (id);
@@ -0,0 +1,23 @@
+-- free schedule occurrences per interview type and UTC day, maintained incrementally by ScheduleOccurrenceService
+-- and ScheduleService, rebuilt nightly by AvailabilityHeatmapService
+CREATE TABLE availability_day_count
+(
+    interview_type_id BIGINT  NOT NULL,
+    day               DATE    NOT NULL,
+    free_windows      INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT pk_availability_day_count PRIMARY KEY (interview_type_id, day)
+);
+
+ALTER TABLE availability_day_count
+    ADD CONSTRAINT FK_AVAILABILITY_DAY_COUNT_ON_INTERVIEW_TYPE FOREIGN KEY (interview_type_id) REFERENCES interview_type (id) ON DELETE CASCADE;
+
+INSERT INTO availability_day_count (interview_type_id, day, free_windows)
+SELECT o.interview_type_id, CAST(o.start_time AS DATE), COUNT(*)
+FROM schedule_occurrence o
+WHERE NOT EXISTS (SELECT 1
+                  FROM mentor_time_slot mts
+                  WHERE mts.account_id = o.account_id
+                    AND mts.status = 3
+                    AND mts.from_time < o.end_time
+                    AND mts.to_time > o.start_time)
+GROUP BY o.interview_type_id, CAST(o.start_time AS DATE);
@@ -0,0 +1,21 @@
+-- a hold is a HELD (5) mentor_time_slot, so it takes part in the overlap constraint like an ALLOCATED (3) one
+ALTER TABLE mentor_time_slot DROP CONSTRAINT EX_MENTOR_TIME_SLOT_ALLOCATED_OVERLAP;
+
+ALTER TABLE mentor_time_slot
+    ADD CONSTRAINT EX_MENTOR_TIME_SLOT_ALLOCATED_OVERLAP
+        EXCLUDE USING gist (account_id WITH =, time_range WITH &&) WHERE (status IN (3, 5));
+
+-- expiry of HELD time slots, expires_at is UTC wall time like mentor_time_slot
+CREATE TABLE slot_hold
+(
+    id           UUID      NOT NULL,
+    time_slot_id BIGINT    NOT NULL,
+    expires_at   TIMESTAMP NOT NULL,
+    CONSTRAINT pk_slot_hold PRIMARY KEY (id),
+    CONSTRAINT uc_slot_hold_time_slot UNIQUE (time_slot_id)
+);
+
+ALTER TABLE slot_hold
+    ADD CONSTRAINT FK_SLOT_HOLD_ON_TIME_SLOT FOREIGN KEY (time_slot_id) REFERENCES mentor_time_slot (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_slot_hold_expires_at ON slot_hold (expires_at);
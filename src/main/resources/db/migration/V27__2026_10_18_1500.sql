@@ -0,0 +1,2 @@
+-- closest time slot of a mentor: equality on account and status, range and order on from_time
+CREATE INDEX idx_mentor_time_slot_account_status_from ON mentor_time_slot (account_id, status, from_time);
@@ -0,0 +1,28 @@
+-- busy time imported from mentors' Google calendars, UTC wall time like mentor_time_slot
+CREATE TABLE calendar_busy
+(
+    account_id BIGINT        NOT NULL,
+    event_id   VARCHAR(1024) NOT NULL,
+    from_time  TIMESTAMP     NOT NULL,
+    to_time    TIMESTAMP     NOT NULL,
+    CONSTRAINT pk_calendar_busy PRIMARY KEY (account_id, event_id)
+);
+
+ALTER TABLE calendar_busy
+    ADD CONSTRAINT FK_CALENDAR_BUSY_ON_ACCOUNT FOREIGN KEY (account_id) REFERENCES account (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_calendar_busy_account_from ON calendar_busy (account_id, from_time);
+
+-- sync token of the last import per mentor, mentors synced longest ago go first
+CREATE TABLE calendar_sync
+(
+    account_id BIGINT        NOT NULL,
+    sync_token VARCHAR(1024),
+    synced_at  TIMESTAMP     NOT NULL,
+    CONSTRAINT pk_calendar_sync PRIMARY KEY (account_id)
+);
+
+ALTER TABLE calendar_sync
+    ADD CONSTRAINT FK_CALENDAR_SYNC_ON_ACCOUNT FOREIGN KEY (account_id) REFERENCES account (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_calendar_sync_synced_at ON calendar_sync (synced_at);
@@ -0,0 +1,2 @@
+-- interviews of a set of time slots, used when checking a schedule change against future bookings
+CREATE INDEX idx_interview_time_slot ON interview (time_slot_id);
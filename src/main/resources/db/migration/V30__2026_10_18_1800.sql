@@ -0,0 +1,3 @@
+-- length of the bookable slots schedule windows are carved into for an interview type, NULL books whole windows
+ALTER TABLE interview_type
+    ADD COLUMN slot_minutes INT CHECK (slot_minutes > 0);
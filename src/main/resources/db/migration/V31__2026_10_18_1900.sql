@@ -0,0 +1,14 @@
+-- interviews waiting for their Google Meet event and invitation email, written in the booking transaction
+CREATE TABLE meet_outbox
+(
+    interview_id    BIGINT    NOT NULL,
+    attempts        INT       NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error      VARCHAR(1024),
+    CONSTRAINT pk_meet_outbox PRIMARY KEY (interview_id)
+);
+
+ALTER TABLE meet_outbox
+    ADD CONSTRAINT FK_MEET_OUTBOX_ON_INTERVIEW FOREIGN KEY (interview_id) REFERENCES interview (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_meet_outbox_next_attempt_at ON meet_outbox (next_attempt_at);
@@ -0,0 +1,16 @@
+-- start time of the interview's time slot, so interview lists seek on one index instead of sorting joined rows
+ALTER TABLE interview ADD COLUMN from_time TIMESTAMP WITHOUT TIME ZONE;
+
+UPDATE interview i
+SET from_time = mts.from_time
+FROM mentor_time_slot mts
+WHERE mts.id = i.time_slot_id;
+
+ALTER TABLE interview ALTER COLUMN from_time SET NOT NULL;
+
+-- interview lists of one party: equality on the account, range and order on (from_time, id)
+CREATE INDEX idx_interview_mentor_from_time ON interview (mentor_account_id, from_time, id);
+CREATE INDEX idx_interview_job_seeker_from_time ON interview (job_seeker_account_id, from_time, id);
+
+-- interviews of all mentors starting within a range, for reminders
+CREATE INDEX idx_mentor_time_slot_from_time ON mentor_time_slot (from_time);
@@ -0,0 +1,21 @@
+-- reminder emails of an interview, one row per offset before its start; sent_at marks the row taken by a sender
+CREATE TABLE interview_reminder
+(
+    interview_id   BIGINT    NOT NULL,
+    offset_minutes INT       NOT NULL,
+    due_at         TIMESTAMP NOT NULL,
+    sent_at        TIMESTAMP,
+    CONSTRAINT pk_interview_reminder PRIMARY KEY (interview_id, offset_minutes)
+);
+
+ALTER TABLE interview_reminder
+    ADD CONSTRAINT FK_INTERVIEW_REMINDER_ON_INTERVIEW FOREIGN KEY (interview_id) REFERENCES interview (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_interview_reminder_due_at ON interview_reminder (due_at) WHERE sent_at IS NULL;
+
+-- reminders still ahead for booked interviews, with the default offsets of reminder.offsets-minutes
+INSERT INTO interview_reminder (interview_id, offset_minutes, due_at)
+SELECT i.id, o.offset_minutes, i.from_time - o.offset_minutes * INTERVAL '1 minute'
+FROM interview i
+CROSS JOIN (VALUES (1440), (60)) AS o(offset_minutes)
+WHERE i.from_time - o.offset_minutes * INTERVAL '1 minute' > (now() AT TIME ZONE 'UTC');
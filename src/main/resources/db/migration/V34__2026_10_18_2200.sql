@@ -0,0 +1,9 @@
+-- the job seeker who placed a hold; only they can claim or release it. Holds placed before are left without owner
+-- and simply expire
+ALTER TABLE slot_hold
+    ADD COLUMN owner_account_id BIGINT;
+
+ALTER TABLE slot_hold
+    ADD CONSTRAINT FK_SLOT_HOLD_ON_OWNER_ACCOUNT FOREIGN KEY (owner_account_id) REFERENCES account (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_slot_hold_owner_account_id ON slot_hold (owner_account_id, expires_at);
@@ -0,0 +1,9 @@
+-- recipients a reminder was already mailed to, so the retry of a partly failed send only mails the others
+ALTER TABLE interview_reminder
+    ADD COLUMN job_seeker_sent_at TIMESTAMP,
+    ADD COLUMN mentor_sent_at     TIMESTAMP;
+
+UPDATE interview_reminder
+SET job_seeker_sent_at = sent_at,
+    mentor_sent_at     = sent_at
+WHERE sent_at IS NOT NULL;
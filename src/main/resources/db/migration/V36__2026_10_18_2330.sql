@@ -0,0 +1,3 @@
+-- a provisioned row now stays until the invitation is mailed, and a row out of attempts is marked failed
+ALTER TABLE meet_outbox
+    ADD COLUMN failed_at TIMESTAMP;
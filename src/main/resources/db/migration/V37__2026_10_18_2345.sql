@@ -0,0 +1,50 @@
+-- free windows of each occurrence as mentor search counts them: the whole occurrence when nothing busy overlaps it,
+-- or each free carved slot when the interview type has a slot length; busy is an ALLOCATED or HELD time slot or
+-- calendar busy time. The day counters become the sums of these, maintained by AvailabilityCountRepository
+ALTER TABLE schedule_occurrence
+    ADD COLUMN free_slots INTEGER NOT NULL DEFAULT 0;
+
+UPDATE schedule_occurrence o
+SET free_slots = CASE
+    WHEN t.slot_minutes IS NULL THEN
+        CASE
+            WHEN EXISTS (SELECT 1
+                         FROM mentor_time_slot mts
+                         WHERE mts.account_id = o.account_id
+                           AND mts.status IN (3, 5)
+                           AND mts.from_time < o.end_time
+                           AND mts.to_time > o.start_time)
+                OR EXISTS (SELECT 1
+                           FROM calendar_busy cb
+                           WHERE cb.account_id = o.account_id
+                             AND cb.from_time < o.end_time
+                             AND cb.to_time > o.start_time) THEN 0
+            ELSE 1
+        END
+    ELSE (SELECT COUNT(*)
+          FROM generate_series(
+                   0,
+                   CAST(FLOOR(EXTRACT(EPOCH FROM o.end_time - o.start_time) / 60) AS INTEGER) / t.slot_minutes - 1
+               ) AS slot(n)
+          WHERE NOT EXISTS (SELECT 1
+                            FROM mentor_time_slot mts
+                            WHERE mts.account_id = o.account_id
+                              AND mts.status IN (3, 5)
+                              AND mts.from_time < o.start_time + make_interval(mins => (slot.n + 1) * t.slot_minutes)
+                              AND mts.to_time > o.start_time + make_interval(mins => slot.n * t.slot_minutes))
+            AND NOT EXISTS (SELECT 1
+                            FROM calendar_busy cb
+                            WHERE cb.account_id = o.account_id
+                              AND cb.from_time < o.start_time + make_interval(mins => (slot.n + 1) * t.slot_minutes)
+                              AND cb.to_time > o.start_time + make_interval(mins => slot.n * t.slot_minutes)))
+END
+FROM interview_type t
+WHERE t.id = o.interview_type_id;
+
+DELETE FROM availability_day_count;
+
+INSERT INTO availability_day_count (interview_type_id, day, free_windows)
+SELECT o.interview_type_id, CAST(o.start_time AS DATE), SUM(o.free_slots)
+FROM schedule_occurrence o
+GROUP BY o.interview_type_id, CAST(o.start_time AS DATE)
+HAVING SUM(o.free_slots) > 0;
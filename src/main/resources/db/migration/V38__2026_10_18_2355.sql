@@ -0,0 +1,3 @@
+-- optimistic lock version of a schedule, also identifies its contents in CompiledScheduleCache
+ALTER TABLE schedule
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -432,4 +432,19 @@ class AccountControllerTest {
         // Then
         verify(scheduleService, times(1)).deleteSchedule(authentication)
     }
+
+    @Test
+    fun `test mentor availability calls service with provided arguments`() {
+        // Given
+        val from = ZonedDateTime.parse("2024-09-01T00:00:00Z")
+        val to = from.plusDays(30)
+        val windows = listOf(ValidWindow(from.plusHours(9), from.plusHours(10)))
+        `when`(scheduleService.freeWindows(1, from, to)).thenReturn(windows)
+
+        // When
+        val result = accountController.mentorAvailability(1, from, to)
+
+        // Then
+        assertThat(result).isEqualTo(windows)
+    }
 }
@@ -31,6 +31,7 @@ import com.linchpino.core.security.WithMockBearerToken
 import com.linchpino.core.security.WithMockJwt
 import com.linchpino.core.service.EmailService
 import com.linchpino.core.service.LinkedInService
+import com.linchpino.core.service.ScheduleOccurrenceService
 import jakarta.persistence.EntityManager
 import jakarta.persistence.PersistenceContext
 import org.assertj.core.api.Assertions.assertThat
@@ -93,6 +94,9 @@ class AccountControllerTestIT {
     @Autowired
     private lateinit var interviewTypeRepository: InterviewTypeRepository
 
+    @Autowired
+    private lateinit var scheduleOccurrenceService: ScheduleOccurrenceService
+
     @PersistenceContext
     lateinit var entityManager: EntityManager
 
@@ -309,6 +313,28 @@ class AccountControllerTestIT {
     }
 
 
+    @Test
+    fun `test next available mentors returns mentors ordered by their earliest free window`() {
+        saveFakeMentorsWithSchedule()
+        val id = entityManager.createQuery(
+            "select id from InterviewType where name = 'System Design'",
+            Long::class.java
+        ).singleResult
+
+        // john's every-other-day schedule is free on the 11th, josh's next biweekly friday is the 13th
+        mockMvc.perform(
+            get("/api/accounts/mentors/next-available")
+                .param("interviewTypeId", id.toString())
+                .param("from", "2024-09-10T00:00:00+00:00")
+                .param("limit", "5")
+                .contentType(MediaType.APPLICATION_JSON)
+        )
+            .andExpect(status().isOk)
+            .andExpect(jsonPath("$").value(hasSize<Int>(2)))
+            .andExpect(jsonPath("$.[0].mentorFirstName").value("john"))
+            .andExpect(jsonPath("$.[1].mentorFirstName").value("josh"))
+    }
+
     @Test
     fun `test search for mentors by date and interviewType returns bad request when interviewTypeId not provided`() {
 
@@ -552,6 +578,50 @@ class AccountControllerTestIT {
             .andExpect(status().isCreated)
     }
 
+    @Test
+    fun `test add timeslots for mentor returns per slot results and rejects overlaps`() {
+        // Given
+        val mentor = entityManager.find(Role::class.java, AccountTypeEnum.MENTOR.value)
+        val account = Account().apply {
+            email = "john.doe@example.com"
+        }
+        account.addRole(mentor)
+        val saved = accountRepository.save(account)
+        entityManager.persist(MentorTimeSlot().apply {
+            this.account = saved
+            fromTime = ZonedDateTime.parse("2024-05-10T09:00:00Z")
+            toTime = ZonedDateTime.parse("2024-05-10T10:00:00Z")
+            status = MentorTimeSlotEnum.ALLOCATED
+        })
+        entityManager.flush()
+
+        val timeSlots = listOf(
+            TimeSlot(ZonedDateTime.parse("2024-05-09T09:00:00Z"), ZonedDateTime.parse("2024-05-09T10:00:00Z")),
+            TimeSlot(ZonedDateTime.parse("2024-05-09T09:30:00Z"), ZonedDateTime.parse("2024-05-09T10:30:00Z")),
+            TimeSlot(ZonedDateTime.parse("2024-05-10T11:30:00+02:00"), ZonedDateTime.parse("2024-05-10T12:30:00+02:00")),
+            TimeSlot(ZonedDateTime.parse("2024-05-11T10:00:00Z"), ZonedDateTime.parse("2024-05-11T09:00:00Z")),
+        )
+        val request = AddTimeSlotsRequest(saved.id!!, timeSlots)
+
+        // When & Then
+        mockMvc.perform(
+            post("/api/accounts/mentors/timeslots")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ObjectMapper().registerModule(JavaTimeModule()).writeValueAsString(request))
+        )
+            .andExpect(status().isCreated)
+            .andExpect(jsonPath("$.[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.[1].status").value("OVERLAPS_REQUEST"))
+            .andExpect(jsonPath("$.[2].status").value("OVERLAPS_EXISTING"))
+            .andExpect(jsonPath("$.[3].status").value("INVALID"))
+
+        val created = entityManager.createQuery(
+            "select count(m) from MentorTimeSlot m where m.account.id = :id and m.status = :status",
+            Long::class.java
+        ).setParameter("id", saved.id).setParameter("status", MentorTimeSlotEnum.AVAILABLE).singleResult
+        assertThat(created).isEqualTo(1)
+    }
+
     @Test
     fun `test add timeslots for mentor fails if there is no mentor with provided id in database`() {
         // Given
@@ -1312,6 +1382,12 @@ class AccountControllerTestIT {
             entityManager.persist(schedule3)
             it.schedule = schedule3
         }
+
+        // schedules are persisted directly, so the occurrence index has to be expanded by hand
+        val horizonStart = ZonedDateTime.parse("2024-09-01T00:00:00Z")
+        listOf(schedule1, schedule2, schedule3).forEach {
+            scheduleOccurrenceService.rebuild(it, horizonStart, horizonStart.plusMonths(1))
+        }
     }
 
     private fun saveFakeMentorsWithInterviewTypeAndTimeSlots() {
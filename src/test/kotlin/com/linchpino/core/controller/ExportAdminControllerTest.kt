@@ -0,0 +1,102 @@
+package com.linchpino.core.controller
+
+import com.linchpino.core.enums.ExportFormat
+import com.linchpino.core.service.ExportService
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.eq
+import org.mockito.Mock
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.verify
+import org.mockito.junit.jupiter.MockitoExtension
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
+import org.springframework.mock.web.MockHttpServletRequest
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.OutputStream
+import java.util.zip.GZIPInputStream
+
+@ExtendWith(MockitoExtension::class)
+class ExportAdminControllerTest {
+
+    @Mock
+    private lateinit var exportService: ExportService
+
+    private lateinit var controller: ExportAdminController
+
+    @BeforeEach
+    fun setUp() {
+        controller = ExportAdminController(exportService, 900_000)
+    }
+
+    @Test
+    fun `test export streams the service output as an attachment`() {
+        // Given
+        doAnswer { it.getArgument<OutputStream>(1).write("{\"id\":1}\n".toByteArray()); 1L }
+            .`when`(exportService).exportInterviews(eq(ExportFormat.NDJSON), any())
+        val out = ByteArrayOutputStream()
+
+        // When
+        val response = controller.exportInterviews(ExportFormat.NDJSON, null, MockHttpServletRequest())
+        response.body!!.writeTo(out)
+
+        // Then
+        assertThat(response.statusCode).isEqualTo(HttpStatus.OK)
+        assertThat(response.headers.contentType.toString()).isEqualTo("application/x-ndjson")
+        assertThat(response.headers.getFirst(HttpHeaders.CONTENT_DISPOSITION))
+            .isEqualTo("attachment; filename=\"interviews.ndjson\"")
+        assertThat(response.headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isNull()
+        assertThat(out.toString(Charsets.UTF_8)).isEqualTo("{\"id\":1}\n")
+    }
+
+    @Test
+    fun `test export is gzip encoded when the client accepts it`() {
+        // Given
+        doAnswer { it.getArgument<OutputStream>(1).write("interviewId\r\n".toByteArray()); 0L }
+            .`when`(exportService).exportPayments(eq(ExportFormat.CSV), any())
+        val out = ByteArrayOutputStream()
+
+        // When
+        val response = controller.exportPayments(ExportFormat.CSV, "deflate, gzip;q=0.9", MockHttpServletRequest())
+        response.body!!.writeTo(out)
+
+        // Then
+        assertThat(response.headers.contentType.toString()).isEqualTo("text/csv")
+        assertThat(response.headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip")
+        val unzipped = GZIPInputStream(ByteArrayInputStream(out.toByteArray())).readBytes()
+        assertThat(String(unzipped)).isEqualTo("interviewId\r\n")
+        verify(exportService).exportPayments(eq(ExportFormat.CSV), any())
+    }
+
+    @Test
+    fun `test export timeout is raised on the async context of the export only`() {
+        // Given
+        val request = MockHttpServletRequest().apply { isAsyncSupported = true }
+        request.startAsync().timeout = 30_000
+        val out = ByteArrayOutputStream()
+
+        // When
+        controller.exportAccounts(ExportFormat.NDJSON, null, request).body!!.writeTo(out)
+
+        // Then
+        assertThat(request.asyncContext.timeout).isEqualTo(900_000)
+    }
+
+    @Test
+    fun `test gzip is accepted only with a positive q-value`() {
+        assertThat(ExportAdminController.acceptsGzip("gzip")).isTrue()
+        assertThat(ExportAdminController.acceptsGzip("br;q=1.0, gzip;q=0.8")).isTrue()
+        assertThat(ExportAdminController.acceptsGzip("GZIP ; Q=0.5")).isTrue()
+        assertThat(ExportAdminController.acceptsGzip("*")).isTrue()
+        assertThat(ExportAdminController.acceptsGzip("gzip;q=0")).isFalse()
+        assertThat(ExportAdminController.acceptsGzip("gzip;q=0.000, *")).isFalse()
+        assertThat(ExportAdminController.acceptsGzip("*;q=0")).isFalse()
+        assertThat(ExportAdminController.acceptsGzip("deflate, identity")).isFalse()
+        assertThat(ExportAdminController.acceptsGzip("gzip;q=abc")).isFalse()
+        assertThat(ExportAdminController.acceptsGzip(null)).isFalse()
+    }
+}
@@ -0,0 +1,79 @@
+package com.linchpino.core.controller
+
+import com.linchpino.core.PostgresContainerConfig
+import com.linchpino.core.enums.AccountTypeEnum
+import com.linchpino.core.security.WithMockJwt
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import org.springframework.http.HttpHeaders
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.header
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.request
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import java.io.ByteArrayInputStream
+import java.util.zip.GZIPInputStream
+
+/**
+ * Not transactional: the export body is written on an async thread in its own transaction, so it only sees
+ * committed rows. It reads the admin account created on startup.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Import(PostgresContainerConfig::class)
+class ExportAdminControllerTestIT {
+
+    @Autowired
+    private lateinit var mockMvc: MockMvc
+
+    @Test
+    @WithMockJwt(username = "admin@example.com", roles = [AccountTypeEnum.ADMIN])
+    fun `test accounts are exported as ndjson`() {
+        // When
+        val started = mockMvc.perform(get("/api/admin/exports/accounts"))
+            .andExpect(request().asyncStarted())
+            .andReturn()
+        val result = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk)
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+            .andReturn()
+
+        // Then
+        val lines = result.response.contentAsString.lines().filter { it.isNotEmpty() }
+        assertThat(lines).isNotEmpty
+        assertThat(lines).anyMatch { it.contains("\"email\":\"admin@example.com\"") }
+        assertThat(lines).noneMatch { it.contains("password") }
+    }
+
+    @Test
+    @WithMockJwt(username = "admin@example.com", roles = [AccountTypeEnum.ADMIN])
+    fun `test accounts are exported as gzip encoded csv`() {
+        // When
+        val started = mockMvc.perform(
+            get("/api/admin/exports/accounts").param("format", "CSV").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        )
+            .andExpect(request().asyncStarted())
+            .andReturn()
+        val result = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk)
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+
+        // Then
+        val csv = String(GZIPInputStream(ByteArrayInputStream(result.response.contentAsByteArray)).readBytes())
+        assertThat(csv).startsWith("id,email,firstName,lastName,status,createdOn\r\n")
+        assertThat(csv).contains(",admin@example.com,admin,admin,ACTIVATED,")
+    }
+
+    @Test
+    @WithMockJwt(username = "john.doe@example.com", roles = [AccountTypeEnum.MENTOR])
+    fun `test export is forbidden for non admins`() {
+        mockMvc.perform(get("/api/admin/exports/payments"))
+            .andExpect(status().isForbidden)
+    }
+}
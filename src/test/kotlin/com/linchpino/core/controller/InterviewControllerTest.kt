@@ -5,9 +5,12 @@ import com.linchpino.core.dto.CreateInterviewResult
 import com.linchpino.core.dto.InterviewFeedBackRequest
 import com.linchpino.core.dto.InterviewListResponse
 import com.linchpino.core.dto.InterviewValidityResponse
+import com.linchpino.core.dto.SlotHoldRequest
+import com.linchpino.core.dto.SlotHoldResponse
 import com.linchpino.core.security.WithMockJwt
 import com.linchpino.core.service.FeedbackService
 import com.linchpino.core.service.InterviewService
+import com.linchpino.core.service.SlotHoldService
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
@@ -24,6 +27,7 @@ import org.springframework.security.oauth2.jwt.Jwt
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken
 import java.time.Instant
 import java.time.ZonedDateTime
+import java.util.UUID
 
 @ExtendWith(MockitoExtension::class)
 class InterviewControllerTest {
@@ -36,6 +40,9 @@ class InterviewControllerTest {
     @Mock
     private lateinit var feedbackService: FeedbackService
 
+    @Mock
+    private lateinit var slotHoldService: SlotHoldService
+
     @Test
     fun `test create new interview`() {
         val startTime = ZonedDateTime.now()
@@ -58,6 +65,23 @@ class InterviewControllerTest {
         assertThat(result.body).isEqualTo(expectedResponse)
     }
 
+    @Test
+    fun `test hold time slot`() {
+        val startTime = ZonedDateTime.now()
+        val endTime = startTime.plusMinutes(45)
+        val request = SlotHoldRequest(1, startTime, endTime, 1)
+        val expectedResponse = SlotHoldResponse(UUID.randomUUID(), 7, 1, startTime, endTime, ZonedDateTime.now().plusMinutes(10))
+
+        val authentication = WithMockJwt.mockAuthentication("jane.smith@example.com")
+
+        `when`(slotHoldService.hold(request, authentication)).thenReturn(expectedResponse)
+
+        val result = controller.holdTimeSlot(request, authentication)
+
+        assertThat(result.statusCode).isEqualTo(HttpStatus.CREATED)
+        assertThat(result.body).isEqualTo(expectedResponse)
+    }
+
     @Test
     fun `test upcoming interviews calls service with correct arguments`() {
         // Given
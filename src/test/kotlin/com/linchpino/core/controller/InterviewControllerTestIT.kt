@@ -6,6 +6,7 @@ import com.linchpino.core.PostgresContainerConfig
 import com.linchpino.core.captureNonNullable
 import com.linchpino.core.dto.CreateInterviewRequest
 import com.linchpino.core.dto.InterviewFeedBackRequest
+import com.linchpino.core.dto.SlotHoldRequest
 import com.linchpino.core.entity.Account
 import com.linchpino.core.entity.Interview
 import com.linchpino.core.entity.InterviewType
@@ -21,21 +22,24 @@ import com.linchpino.core.repository.AccountRepository
 import com.linchpino.core.repository.InterviewLogRepository
 import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.JobPositionRepository
+import com.linchpino.core.repository.MeetOutboxRepository
 import com.linchpino.core.repository.MentorTimeSlotRepository
 import com.linchpino.core.repository.ScheduleRepository
 import com.linchpino.core.security.WithMockJwt
 import com.linchpino.core.service.CalendarService
 import com.linchpino.core.service.EmailService
+import com.linchpino.core.service.InterviewLogService
 import jakarta.persistence.EntityManager
 import jakarta.persistence.PersistenceContext
 import java.time.DayOfWeek
 import java.time.ZonedDateTime
 import java.time.format.DateTimeFormatter
+import java.util.UUID
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.mockito.ArgumentCaptor
-import org.mockito.Mockito.times
+import org.mockito.Mockito.never
 import org.mockito.Mockito.verify
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc
@@ -43,6 +47,7 @@ import org.springframework.boot.test.context.SpringBootTest
 import org.springframework.boot.test.mock.mockito.MockBean
 import org.springframework.context.annotation.Import
 import org.springframework.http.MediaType
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt
 import org.springframework.test.web.servlet.MockMvc
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
@@ -51,7 +56,10 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPat
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
 import org.springframework.transaction.annotation.Transactional
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = ["interview-log.flush-ms=3600000"]
+)
 @AutoConfigureMockMvc
 @Transactional
 @Import(PostgresContainerConfig::class)
@@ -89,6 +97,12 @@ class InterviewControllerTestIT {
     @Autowired
     private lateinit var logRepository: InterviewLogRepository
 
+    @Autowired
+    private lateinit var interviewLogService: InterviewLogService
+
+    @Autowired
+    private lateinit var meetOutboxRepository: MeetOutboxRepository
+
 
     @BeforeEach
     fun init() {
@@ -199,13 +213,11 @@ class InterviewControllerTestIT {
             .andExpect(jsonPath("$.interviewId").exists())
             .andExpect(jsonPath("$.interviewId").isNumber)
 
-        verify(
-            mailService,
-            times(1)
-        ).sendingInterviewInvitationEmailToJobSeeker(interviewCaptor.captureNonNullable())
+        verify(mailService, never()).sendingInterviewInvitationEmailToJobSeeker(interviewCaptor.captureNonNullable())
 
-        val interview = interviewCaptor.value
-        assertThat(interview.id).isNotNull()
+        val interview = entityManager.createQuery("select i from Interview i", Interview::class.java).singleResult
+        assertThat(interview.meetCode).isNull()
+        assertThat(meetOutboxRepository.attempts(interview.id!!)).isEqualTo(0)
         assertThat(interview.jobSeekerAccount?.email).isEqualTo("john.doe@example.com")
         assertThat(interview.mentorAccount?.email).isEqualTo("john.smith@example.com")
         assertThat(interview.jobPosition?.title).isEqualTo("Test Job")
@@ -214,6 +226,16 @@ class InterviewControllerTestIT {
         val logs = logRepository.findAll()
         assertThat(logs.count()).isEqualTo(1)
         assertThat(logs[0].type).isEqualTo(InterviewLogType.CREATED)
+
+        mockMvc.perform(get("/api/interviews/${interview.id}/provisioning"))
+            .andExpect(status().isUnauthorized)
+        mockMvc.perform(
+            get("/api/interviews/${interview.id}/provisioning")
+                .with(jwt().jwt { it.subject("john.doe@example.com") })
+        )
+            .andExpect(status().isOk)
+            .andExpect(jsonPath("$.interviewId").value(interview.id))
+            .andExpect(jsonPath("$.status").value("PENDING"))
     }
 
     @Test
@@ -323,6 +345,78 @@ class InterviewControllerTestIT {
 
 
 
+    @Test
+    fun `test holding a time slot requires an authenticated job seeker`() {
+        val startTime = ZonedDateTime.parse("2024-09-18T12:00:00.000+03:30")
+        val mentor = mentorAccRepo.findAll()
+            .first { it.roles().map { role -> role.title }.contains(AccountTypeEnum.MENTOR) }
+
+        mockMvc.perform(
+            post("/api/interviews/holds").contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    ObjectMapper().registerModules(JavaTimeModule())
+                        .writeValueAsString(SlotHoldRequest(mentor.id!!, startTime, startTime.plusMinutes(60), 1))
+                )
+        ).andExpect(status().isUnauthorized)
+    }
+
+    @Test
+    @WithMockJwt(username = "john.doe@example.com", roles = [AccountTypeEnum.JOB_SEEKER])
+    fun `test held time slot is busy and is converted by creating the interview`() {
+        val startTime = ZonedDateTime.parse("2024-09-18T12:00:00.000+03:30") // WEDNESDAY
+        val endTime = startTime.plusMinutes(60)
+        val mentor = mentorAccRepo.findAll()
+            .first { it.roles().map { role -> role.title }.contains(AccountTypeEnum.MENTOR) }
+        val objectMapper = ObjectMapper().registerModules(JavaTimeModule())
+        val interviewTypeId = interviewTypeRepo.findAll().first().id!!
+
+        val holdRequest = SlotHoldRequest(mentor.id!!, startTime, endTime, interviewTypeId, 5)
+
+        val hold = mockMvc.perform(
+            post("/api/interviews/holds").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(holdRequest))
+        ).andExpect(status().isCreated)
+            .andExpect(jsonPath("$.holdId").isString)
+            .andExpect(jsonPath("$.expiresAt").exists())
+            .andReturn().response.contentAsString.let { objectMapper.readTree(it) }
+        val holdId = UUID.fromString(hold["holdId"].asText())
+
+        val request = CreateInterviewRequest(
+            jobPositionRepo.findAll().first().id!!,
+            interviewTypeId,
+            startTime,
+            endTime,
+            mentor.id!!,
+            "john.doe@example.com"
+        )
+        assertThat(timeSlotRepo.findBookedSlotsBetween(mentor.id!!, startTime, endTime).map { it.status })
+            .containsExactly(MentorTimeSlotEnum.HELD)
+        mockMvc.perform(
+            post("/api/interviews").contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        request.copy(holdId = holdId, jobSeekerEmail = "jane.smith@example.com")
+                    )
+                )
+        ).andExpect(status().isBadRequest)
+            .andExpect(jsonPath("$.error").value("Timeslot is invalid"))
+
+        mockMvc.perform(
+            post("/api/interviews").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request.copy(holdId = holdId)))
+        ).andExpect(status().isCreated)
+            .andExpect(jsonPath("$.timeSlotId").value(hold["timeSlotId"].asLong()))
+
+        entityManager.clear()
+        assertThat(timeSlotRepo.findById(hold["timeSlotId"].asLong()).get().status)
+            .isEqualTo(MentorTimeSlotEnum.ALLOCATED)
+        mockMvc.perform(
+            post("/api/interviews").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request.copy(holdId = holdId)))
+        ).andExpect(status().isBadRequest)
+            .andExpect(jsonPath("$.error").value("Timeslot is invalid"))
+    }
+
     @Test
     fun `test with not exist email address result in creating a silent account for job seeker`() {
 
@@ -357,13 +451,11 @@ class InterviewControllerTestIT {
             .andExpect(jsonPath("$.interviewId").exists())
             .andExpect(jsonPath("$.interviewId").isNumber)
 
-        verify(
-            mailService,
-            times(1)
-        ).sendingInterviewInvitationEmailToJobSeeker(interviewCaptor.captureNonNullable())
+        verify(mailService, never()).sendingInterviewInvitationEmailToJobSeeker(interviewCaptor.captureNonNullable())
 
-        val interview = interviewCaptor.value
-        assertThat(interview.id).isNotNull()
+        val interview = entityManager.createQuery("select i from Interview i", Interview::class.java).singleResult
+        assertThat(interview.meetCode).isNull()
+        assertThat(meetOutboxRepository.attempts(interview.id!!)).isEqualTo(0)
         assertThat(interview.jobSeekerAccount?.email).isEqualTo(request.jobSeekerEmail)
         assertThat(interview.mentorAccount?.email).isEqualTo("john.smith@example.com")
         assertThat(interview.jobPosition?.title).isEqualTo("Test Job")
@@ -413,6 +505,47 @@ class InterviewControllerTestIT {
 
     }
 
+    @Test
+    @WithMockJwt(username = "john.smith@example.com", roles = [AccountTypeEnum.MENTOR])
+    fun `test upcoming interviews are paged with a cursor in start time order`() {
+        // get required data set in before each
+        val interviews = saveInterviewData()
+
+        // When & Then
+        val first = mockMvc.perform(
+            get("/api/interviews/mentors/upcoming")
+                .param("cursor", "")
+                .param("size", "1")
+        )
+            .andExpect(status().isOk)
+            .andExpect(jsonPath("$.content.size()").value(1))
+            .andExpect(jsonPath("$.content[0].id").value(interviews[2].id))
+            .andExpect(jsonPath("$.hasNext").value(true))
+            .andReturn()
+        val cursor = ObjectMapper().readTree(first.response.contentAsString).get("nextCursor").asText()
+
+        mockMvc.perform(
+            get("/api/interviews/mentors/upcoming")
+                .param("cursor", cursor)
+                .param("size", "1")
+        )
+            .andExpect(status().isOk)
+            .andExpect(jsonPath("$.content.size()").value(1))
+            .andExpect(jsonPath("$.content[0].id").value(interviews[1].id))
+            .andExpect(jsonPath("$.hasNext").value(false))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist())
+    }
+
+    @Test
+    @WithMockJwt(username = "john.smith@example.com", roles = [AccountTypeEnum.MENTOR])
+    fun `test upcoming interviews with a malformed cursor returns bad request`() {
+        mockMvc.perform(
+            get("/api/interviews/mentors/upcoming")
+                .param("cursor", "bm90LWEtY3Vyc29y")
+        )
+            .andExpect(status().isBadRequest)
+    }
+
     @Test
     @WithMockJwt(
         username = "john.smith@example.com",
@@ -510,6 +643,7 @@ class InterviewControllerTestIT {
             .andExpect(jsonPath("$.verifyStatus").value(true))
             .andExpect(jsonPath("$.link").value("https://meet.google.com/abc-efg-hij"))
 
+        interviewLogService.flush()
         val logs = logRepository.findAll()
         assertThat(logs.count()).isEqualTo(1)
         assertThat(logs[0].type).isEqualTo(InterviewLogType.JOINED)
@@ -1,9 +1,11 @@
 package com.linchpino.core.controller
 
 import com.linchpino.core.captureNonNullable
+import com.linchpino.core.dto.AvailabilityDay
 import com.linchpino.core.dto.InterviewTypeResponse
 import com.linchpino.core.dto.InterviewTypeSearchResponse
 import com.linchpino.core.dto.JobPositionSearchResponse
+import com.linchpino.core.service.AvailabilityHeatmapService
 import com.linchpino.core.service.InterviewTypeService
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
@@ -17,6 +19,8 @@ import org.mockito.Mockito.`when`
 import org.mockito.junit.jupiter.MockitoExtension
 import org.springframework.data.domain.PageImpl
 import org.springframework.data.domain.Pageable
+import java.time.LocalDate
+import java.time.YearMonth
 
 @ExtendWith(MockitoExtension::class)
 class InterviewTypeControllerTest{
@@ -27,6 +31,9 @@ class InterviewTypeControllerTest{
     @Mock
     private lateinit var service:InterviewTypeService
 
+    @Mock
+    private lateinit var heatmapService: AvailabilityHeatmapService
+
 
     @Test
     fun `test search calls service with provided arguments`(){
@@ -60,4 +67,17 @@ class InterviewTypeControllerTest{
         assertThat(result).isEqualTo(page)
 
     }
+
+    @Test
+    fun `test availability heatmap returns days of service`() {
+        // Given
+        val days = listOf(AvailabilityDay(LocalDate.parse("2024-10-01"), 3))
+        `when`(heatmapService.heatmap(1, YearMonth.parse("2024-10"))).thenReturn(days)
+
+        // When
+        val result = controller.availabilityHeatmap(1, YearMonth.parse("2024-10"))
+
+        // Then
+        assertThat(result).isEqualTo(days)
+    }
 }
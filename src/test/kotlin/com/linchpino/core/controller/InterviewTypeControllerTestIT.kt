@@ -1,10 +1,24 @@
 package com.linchpino.core.controller
 
 import com.linchpino.core.PostgresContainerConfig
+import com.linchpino.core.dto.CreateInterviewRequest
+import com.linchpino.core.entity.Account
 import com.linchpino.core.entity.InterviewType
 import com.linchpino.core.entity.JobPosition
+import com.linchpino.core.entity.Role
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.AccountTypeEnum
+import com.linchpino.core.enums.MentorTimeSlotEnum
+import com.linchpino.core.enums.RecurrenceType
+import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.AvailabilityCountRepository
 import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.JobPositionRepository
+import com.linchpino.core.service.ScheduleOccurrenceService
+import com.linchpino.core.service.ScheduleService
+import com.linchpino.core.service.TimeSlotService
+import jakarta.persistence.EntityManager
+import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.springframework.beans.factory.annotation.Autowired
@@ -16,6 +30,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
 import org.springframework.transaction.annotation.Transactional
+import java.time.ZonedDateTime
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -33,6 +48,24 @@ class InterviewTypeControllerTestIT {
     @Autowired
     private lateinit var jobPositionRepository: JobPositionRepository
 
+    @Autowired
+    private lateinit var accountRepository: AccountRepository
+
+    @Autowired
+    private lateinit var scheduleOccurrenceService: ScheduleOccurrenceService
+
+    @Autowired
+    private lateinit var scheduleService: ScheduleService
+
+    @Autowired
+    private lateinit var timeSlotService: TimeSlotService
+
+    @Autowired
+    private lateinit var availabilityCountRepository: AvailabilityCountRepository
+
+    @Autowired
+    private lateinit var entityManager: EntityManager
+
     @BeforeEach
     fun setUp() {
         val interviewType1 = InterviewType().apply { name = "Mock Interview" }
@@ -121,4 +154,73 @@ class InterviewTypeControllerTestIT {
             .andExpect(jsonPath("$.content[0].title").value("Resume Review"))
             .andExpect(jsonPath("$.content[0].jobPosition.title").value("job1"))
     }
+
+    @Test
+    fun `test availability heatmap counts free windows per day and drops booked ones`() {
+        // Given
+        val mockInterview = repository.findAll().first { it.name == "Mock Interview" }
+        val mentor = Account().apply {
+            firstName = "john"
+            lastName = "doe"
+            email = "john.doe.heatmap@example.com"
+        }
+        mentor.addInterviewType(mockInterview)
+        mentor.addRole(entityManager.find(Role::class.java, AccountTypeEnum.MENTOR.value))
+        val schedule = Schedule().apply {
+            startTime = ZonedDateTime.parse("2024-10-01T10:00:00Z")
+            endTime = ZonedDateTime.parse("2024-10-31T11:00:00Z")
+            interval = 1
+            duration = 60
+            recurrenceType = RecurrenceType.DAILY
+        }
+        accountRepository.save(mentor).also {
+            schedule.account = it
+            entityManager.persist(schedule)
+            it.schedule = schedule
+        }
+        entityManager.flush()
+        val horizonStart = ZonedDateTime.parse("2024-10-01T00:00:00Z")
+        scheduleOccurrenceService.rebuild(schedule, horizonStart, horizonStart.plusMonths(1))
+
+        // When Then
+        mockMvc.perform(get("/api/interviewtypes/${mockInterview.id}/availability?month=2024-10"))
+            .andExpect(status().isOk)
+            .andExpect(jsonPath("$.length()").value(31))
+            .andExpect(jsonPath("$[0].day").value("2024-10-01"))
+            .andExpect(jsonPath("$[0].freeWindows").value(1))
+            .andExpect(jsonPath("$[14].freeWindows").value(1))
+
+        val booked = scheduleService.availableTimeSlot(
+            mentor,
+            CreateInterviewRequest(
+                1,
+                mockInterview.id!!,
+                ZonedDateTime.parse("2024-10-15T10:00:00Z"),
+                ZonedDateTime.parse("2024-10-15T11:00:00Z"),
+                mentor.id!!,
+                "jane.smith@example.com"
+            )
+        )
+
+        mockMvc.perform(get("/api/interviewtypes/${mockInterview.id}/availability?month=2024-10"))
+            .andExpect(status().isOk)
+            .andExpect(jsonPath("$[13].freeWindows").value(1))
+            .andExpect(jsonPath("$[14].freeWindows").value(0))
+        // incremental counters agree with a full recount
+        assertThat(availabilityCountRepository.rebuild()).isEqualTo(0)
+
+        timeSlotService.updateTimeSlotStatus(booked, MentorTimeSlotEnum.AVAILABLE)
+        entityManager.flush()
+
+        mockMvc.perform(get("/api/interviewtypes/${mockInterview.id}/availability?month=2024-10"))
+            .andExpect(status().isOk)
+            .andExpect(jsonPath("$[14].freeWindows").value(1))
+        assertThat(availabilityCountRepository.rebuild()).isEqualTo(0)
+    }
+
+    @Test
+    fun `test availability heatmap of unknown interview type returns not found`() {
+        mockMvc.perform(get("/api/interviewtypes/-1/availability?month=2024-10"))
+            .andExpect(status().isNotFound)
+    }
 }
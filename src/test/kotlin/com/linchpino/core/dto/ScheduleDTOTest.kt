@@ -0,0 +1,69 @@
+package com.linchpino.core.dto
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.ZonedDateTime
+import kotlin.random.Random
+
+class ScheduleDTOTest {
+
+    private val base = ZonedDateTime.parse("2030-01-07T00:00:00Z")
+
+    @Test
+    fun `test booked slots inside occurrences are not conflicts`() {
+        // Given
+        val occurrences = sequenceOf(window(60, 120), window(1500, 1560))
+        val booked = listOf(slot(1, 60, 90), slot(2, 90, 120), slot(3, 1500, 1560))
+
+        // When
+        val conflicts = booked.notCoveredBy(occurrences)
+
+        // Then
+        assertThat(conflicts).isEmpty()
+    }
+
+    @Test
+    fun `test booked slots sticking out of or between occurrences are conflicts`() {
+        // Given
+        val occurrences = sequenceOf(window(60, 120), window(1500, 1560))
+        val booked = listOf(slot(3, 1490, 1520), slot(1, 90, 150), slot(2, 600, 660), slot(4, 2000, 2060))
+
+        // When
+        val conflicts = booked.notCoveredBy(occurrences)
+
+        // Then
+        assertThat(conflicts.map { it.timeSlotId }).containsExactly(1, 2, 3, 4)
+    }
+
+    @Test
+    fun `test sweep matches a containment check against every occurrence`() {
+        val random = Random(7)
+        repeat(200) {
+            // Given
+            val occurrences = generateSequence(random.nextInt(0, 60)) { it + 60 + random.nextInt(0, 600) }
+                .take(30)
+                .map { window(it, it + 60) }
+                .toList()
+            var start = 0
+            val booked = List(40) { index ->
+                start += random.nextInt(0, 300)
+                val end = start + 15 * random.nextInt(1, 5)
+                slot(index.toLong(), start, end).also { start = end }
+            }.shuffled(random)
+
+            // When
+            val conflicts = booked.notCoveredBy(occurrences.asSequence())
+
+            // Then
+            val expected = booked.filter { slot ->
+                occurrences.none { !it.start.isAfter(slot.start) && !it.end.isBefore(slot.end) }
+            }
+            assertThat(conflicts).containsExactlyInAnyOrderElementsOf(expected)
+        }
+    }
+
+    private fun window(from: Int, to: Int) = ValidWindow(base.plusMinutes(from.toLong()), base.plusMinutes(to.toLong()))
+
+    private fun slot(id: Long, from: Int, to: Int) =
+        BookedTimeSlot(id, id * 10, base.plusMinutes(from.toLong()), base.plusMinutes(to.toLong()))
+}
@@ -0,0 +1,178 @@
+package com.linchpino.core.entity
+
+import com.linchpino.core.dto.ScheduleUpdateRequest
+import com.linchpino.core.enums.RecurrenceType
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.DayOfWeek
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import kotlin.random.Random
+
+class CompiledScheduleTest {
+
+    private val zones = listOf(
+        ZoneOffset.UTC,
+        ZoneOffset.ofHoursMinutes(3, 30),
+        ZoneId.of("Europe/Berlin"),
+        ZoneId.of("America/New_York")
+    )
+
+    @Test
+    fun `test compiled schedule matches entity for random schedules and targets`() {
+        val random = Random(42)
+        repeat(300) {
+            // Given
+            val schedule = randomSchedule(random)
+            val compiled = CompiledSchedule.of(schedule)!!
+
+            repeat(100) {
+                val from = randomTarget(random, schedule.startTime!!.zone)
+                val to = from.plusMinutes(random.nextLong(0, 180))
+
+                // When Then
+                assertThat(compiled.doesMatchesSelectedDay(from))
+                    .`as`("selected day %s for %s", from, schedule.describe())
+                    .isEqualTo(schedule.doesMatchesSelectedDay(from))
+                assertThat(compiled.timeSlot(from, to))
+                    .`as`("time slot %s - %s for %s", from, to, schedule.describe())
+                    .isEqualTo(schedule.timeSlot(from, to))
+            }
+        }
+    }
+
+    @Test
+    fun `test compiled occurrences match entity occurrences`() {
+        val random = Random(11)
+        repeat(300) {
+            // Given
+            val schedule = randomSchedule(random)
+            val compiled = CompiledSchedule.of(schedule)!!
+            val from = randomTarget(random, schedule.startTime!!.zone)
+            val to = from.plusDays(random.nextLong(1, 40))
+
+            // When
+            val spannedDays = schedule.duration / (24 * 60L) + 1
+            val result = (compiled.localDay(from.toEpochSecond()) - spannedDays..compiled.localDay(to.toEpochSecond()))
+                .map { compiled.occurrenceStart(it) }
+                .filter { it != CompiledSchedule.NO_WINDOW }
+                .map { compiled.window(it) }
+                .filter { it.end.isAfter(from) && it.start.isBefore(to) }
+
+            // Then
+            assertThat(result).`as`("occurrences %s - %s for %s", from, to, schedule.describe())
+                .isEqualTo(schedule.occurrences(from, to).toList())
+        }
+    }
+
+    @Test
+    fun `test compiled schedule keeps local start time across daylight saving change`() {
+        // Given
+        val schedule = Schedule().apply {
+            startTime = ZonedDateTime.parse("2024-10-20T09:00:00+02:00[Europe/Berlin]")
+            endTime = ZonedDateTime.parse("2024-12-30T09:00:00+01:00[Europe/Berlin]")
+            interval = 1
+            duration = 60
+            recurrenceType = RecurrenceType.DAILY
+        }
+        val target = ZonedDateTime.parse("2024-10-28T00:00:00Z")
+
+        // When
+        val window = schedule.compiled()?.doesMatchesSelectedDay(target)
+
+        // Then
+        assertThat(window).isEqualTo(schedule.doesMatchesSelectedDay(target))
+        assertThat(window?.start).isEqualTo(ZonedDateTime.parse("2024-10-28T09:00:00+01:00[Europe/Berlin]"))
+    }
+
+    @Test
+    fun `test compiled schedule resolves occurrence in spring forward gap like the entity`() {
+        // Given
+        val schedule = Schedule().apply {
+            startTime = ZonedDateTime.of(2024, 3, 24, 2, 30, 0, 0, ZoneId.of("Europe/Berlin"))
+            endTime = ZonedDateTime.parse("2024-05-30T09:00:00+02:00[Europe/Berlin]")
+            interval = 1
+            duration = 30
+            recurrenceType = RecurrenceType.WEEKLY
+            weekDays = mutableListOf(DayOfWeek.SUNDAY)
+        }
+        val target = ZonedDateTime.parse("2024-03-31T00:00:00+01:00[Europe/Berlin]")
+
+        // When
+        val window = schedule.compiled()?.doesMatchesSelectedDay(target)
+
+        // Then
+        assertThat(window).isNotNull
+        assertThat(window).isEqualTo(schedule.doesMatchesSelectedDay(target))
+    }
+
+    @Test
+    fun `test compiled schedule returns null without recurrence type`() {
+        // Given
+        val schedule = Schedule().apply {
+            startTime = ZonedDateTime.parse("2024-08-28T12:30:00+03:00")
+            endTime = ZonedDateTime.parse("2024-12-30T13:30:00+03:00")
+        }
+
+        // When
+        val compiled = schedule.compiled()
+
+        // Then
+        assertThat(compiled).isNull()
+    }
+
+    @Test
+    fun `test compiled schedule is rebuilt after update`() {
+        // Given
+        val schedule = Schedule().apply {
+            startTime = ZonedDateTime.parse("2024-08-28T12:30:00+03:00")
+            endTime = ZonedDateTime.parse("2024-12-30T13:30:00+03:00")
+            interval = 1
+            duration = 60
+            recurrenceType = RecurrenceType.DAILY
+        }
+        val before = schedule.compiled()
+
+        // When
+        schedule.update(ScheduleUpdateRequest(null, 30, null, null, null))
+
+        // Then
+        assertThat(schedule.compiled()).isNotSameAs(before)
+        assertThat(schedule.compiled()?.durationSeconds).isEqualTo(1800L)
+    }
+
+    private fun randomSchedule(random: Random): Schedule {
+        val zone = zones[random.nextInt(zones.size)]
+        val start = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, zone)
+            .plusDays(random.nextLong(0, 200))
+            .plusMinutes(random.nextLong(0, 24 * 60L) / 15 * 15)
+        val type = RecurrenceType.values()[random.nextInt(RecurrenceType.values().size)]
+        return Schedule().apply {
+            startTime = start
+            endTime = start.plusDays(random.nextLong(1, 365)).plusMinutes(random.nextLong(0, 24 * 60L))
+            duration = random.nextInt(15, 600)
+            interval = random.nextInt(1, 4)
+            recurrenceType = type
+            if (type == RecurrenceType.WEEKLY)
+                weekDays = DayOfWeek.values().filter { random.nextBoolean() }.ifEmpty { listOf(DayOfWeek.MONDAY) }
+                    .toMutableList()
+            if (type == RecurrenceType.MONTHLY)
+                monthDays = (1..31).filter { random.nextInt(4) == 0 }.ifEmpty { listOf(1) }.toMutableList()
+        }
+    }
+
+    private fun randomTarget(random: Random, scheduleZone: ZoneId): ZonedDateTime {
+        val targetZone = when (random.nextInt(3)) {
+            0 -> scheduleZone
+            1 -> ZoneOffset.UTC
+            else -> ZoneOffset.ofHours(random.nextInt(-10, 11))
+        }
+        return ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)
+            .plusMinutes(random.nextLong(0, 600 * 24 * 60L) / 5 * 5)
+            .withZoneSameInstant(targetZone)
+    }
+
+    private fun Schedule.describe() =
+        "$recurrenceType/$interval start=$startTime end=$endTime duration=$duration week=$weekDays month=$monthDays"
+}
@@ -0,0 +1,245 @@
+package com.linchpino.core.entity
+
+import com.linchpino.core.dto.ScheduleRequest
+import com.linchpino.core.dto.ScheduleUpdateRequest
+import com.linchpino.core.dto.toSchedule
+import com.linchpino.core.enums.RecurrenceType
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import java.time.DayOfWeek
+import java.time.LocalDate
+import java.time.ZonedDateTime
+import kotlin.random.Random
+
+class RecurrenceRuleTest {
+
+    private val start = ZonedDateTime.parse("2024-09-03T10:00:00+02:00[Europe/Berlin]")
+    private val end = ZonedDateTime.parse("2025-03-31T11:00:00+02:00[Europe/Berlin]")
+
+    @Test
+    fun `test every second tuesday of the month`() {
+        // Given
+        val schedule = ruleSchedule("FREQ=MONTHLY;BYDAY=2TU")
+
+        // When
+        val days = schedule.occurrences(start, start.plusMonths(4)).map { it.start.toLocalDate() }.toList()
+
+        // Then
+        assertThat(days).containsExactly(
+            LocalDate.parse("2024-09-10"),
+            LocalDate.parse("2024-10-08"),
+            LocalDate.parse("2024-11-12"),
+            LocalDate.parse("2024-12-10")
+        )
+        assertThat(schedule.recurrenceType).isEqualTo(RecurrenceType.MONTHLY)
+    }
+
+    @Test
+    fun `test last friday and negative month day`() {
+        // Given
+        val lastFriday = ruleSchedule("RRULE:FREQ=MONTHLY;BYDAY=-1FR")
+        val lastDay = ruleSchedule("FREQ=MONTHLY;BYMONTHDAY=-1")
+
+        // When
+        val fridays = lastFriday.occurrences(start, start.plusMonths(3)).map { it.start.toLocalDate() }.toList()
+        val lastDays = lastDay.occurrences(start, start.plusMonths(3)).map { it.start.toLocalDate() }.toList()
+
+        // Then
+        assertThat(fridays).containsExactly(
+            LocalDate.parse("2024-09-27"),
+            LocalDate.parse("2024-10-25"),
+            LocalDate.parse("2024-11-29")
+        )
+        assertThat(lastDays).containsExactly(
+            LocalDate.parse("2024-09-30"),
+            LocalDate.parse("2024-10-31"),
+            LocalDate.parse("2024-11-30")
+        )
+    }
+
+    @Test
+    fun `test excluded dates are removed and still count towards COUNT`() {
+        // Given
+        val schedule = ruleSchedule(
+            "FREQ=WEEKLY;BYDAY=TU,TH;COUNT=4",
+            listOf(LocalDate.parse("2024-09-05"))
+        )
+
+        // When
+        val days = schedule.occurrences(start, end).map { it.start.toLocalDate() }.toList()
+
+        // Then
+        assertThat(days).containsExactly(
+            LocalDate.parse("2024-09-03"),
+            LocalDate.parse("2024-09-10"),
+            LocalDate.parse("2024-09-12")
+        )
+    }
+
+    @Test
+    fun `test UNTIL stops the rule before the schedule end`() {
+        // Given
+        val schedule = ruleSchedule("FREQ=DAILY;INTERVAL=3;UNTIL=20240912T080000Z")
+
+        // When
+        val days = schedule.occurrences(start, end).map { it.start.toLocalDate() }.toList()
+
+        // Then
+        assertThat(days).containsExactly(
+            LocalDate.parse("2024-09-03"),
+            LocalDate.parse("2024-09-06"),
+            LocalDate.parse("2024-09-09"),
+            LocalDate.parse("2024-09-12")
+        )
+    }
+
+    @Test
+    fun `test rule schedule answers timeSlot doesMatchesSelectedDay and next occurrence`() {
+        // Given
+        val schedule = ruleSchedule("FREQ=MONTHLY;BYDAY=2TU", listOf(LocalDate.parse("2024-11-12")))
+        val compiled = schedule.compiled()!!
+
+        // When
+        val slot = schedule.timeSlot(
+            ZonedDateTime.parse("2024-10-08T08:15:00Z"),
+            ZonedDateTime.parse("2024-10-08T08:45:00Z")
+        )
+        val otherDay = schedule.timeSlot(
+            ZonedDateTime.parse("2024-10-09T08:15:00Z"),
+            ZonedDateTime.parse("2024-10-09T08:45:00Z")
+        )
+        val selectedDay = schedule.doesMatchesSelectedDay(ZonedDateTime.parse("2024-10-08T00:00:00+02:00"))
+        val next = compiled.nextOccurrenceStart(ZonedDateTime.parse("2024-10-08T09:00:00Z").toEpochSecond(), 0)
+
+        // Then
+        assertThat(slot?.start).isEqualTo(ZonedDateTime.parse("2024-10-08T10:00:00+02:00[Europe/Berlin]"))
+        assertThat(otherDay).isNull()
+        assertThat(selectedDay).isEqualTo(slot)
+        // November is excluded, so the next occurrence is in December
+        assertThat(compiled.window(next).start)
+            .isEqualTo(ZonedDateTime.parse("2024-12-10T10:00:00+01:00[Europe/Berlin]"))
+    }
+
+    @Test
+    fun `test rule schedules match the enum based schedules they replace`() {
+        val random = Random(7)
+        repeat(200) {
+            // Given
+            val interval = random.nextInt(1, 4)
+            val weekDays = DayOfWeek.values().filter { random.nextBoolean() }.ifEmpty { listOf(DayOfWeek.MONDAY) }
+            val monthDays = (1..31).filter { random.nextInt(5) == 0 }.ifEmpty { listOf(31) }
+            val legacy = when (random.nextInt(3)) {
+                0 -> legacySchedule(RecurrenceType.DAILY, interval)
+                1 -> legacySchedule(RecurrenceType.WEEKLY, interval).apply { this.weekDays = weekDays.toMutableList() }
+                else -> legacySchedule(RecurrenceType.MONTHLY, interval).apply { this.monthDays = monthDays.toMutableList() }
+            }
+            val rule = when (legacy.recurrenceType) {
+                RecurrenceType.DAILY -> "FREQ=DAILY;INTERVAL=$interval"
+                RecurrenceType.WEEKLY ->
+                    "FREQ=WEEKLY;INTERVAL=$interval;BYDAY=${weekDays.joinToString(",") { it.name.take(2) }}"
+
+                else -> "FREQ=MONTHLY;INTERVAL=$interval;BYMONTHDAY=${monthDays.joinToString(",")}"
+            }
+            val ruleSchedule = ruleSchedule(rule)
+            val from = start.plusDays(random.nextLong(-10, 200))
+            val to = from.plusDays(random.nextLong(1, 60))
+
+            // When Then
+            assertThat(ruleSchedule.occurrences(from, to).toList()).`as`(rule)
+                .isEqualTo(legacy.occurrences(from, to).toList())
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = [
+            "FREQ=YEARLY",
+            "FREQ=WEEKLY;BYDAY=2TU",
+            "FREQ=DAILY;INTERVAL=0",
+            "FREQ=MONTHLY;BYMONTHDAY=32",
+            "FREQ=DAILY;COUNT=3;UNTIL=20241231",
+            "FREQ=DAILY;UNTIL=tomorrow",
+            "FREQ=DAILY;BYHOUR=10",
+            "FREQ"
+        ]
+    )
+    fun `test invalid or unsupported rules are rejected`(rule: String) {
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            ruleSchedule(rule)
+        }
+
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_STATE)
+    }
+
+    @Test
+    fun `test update switches a rule schedule back to recurrence type`() {
+        // Given
+        val schedule = ruleSchedule("FREQ=MONTHLY;BYDAY=2TU", listOf(LocalDate.parse("2024-11-12")))
+
+        // When
+        schedule.update(ScheduleUpdateRequest(null, null, RecurrenceType.DAILY, 1, null))
+
+        // Then
+        assertThat(schedule.rrule).isNull()
+        assertThat(schedule.excludedDates).isEmpty()
+        assertThat(schedule.doesMatchesSelectedDay(ZonedDateTime.parse("2024-10-09T00:00:00+02:00"))).isNotNull
+    }
+
+    @Test
+    fun `test update rejects interval alone on a rule schedule`() {
+        // Given
+        val schedule = ruleSchedule("FREQ=WEEKLY;BYDAY=TU")
+
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            schedule.update(ScheduleUpdateRequest(null, null, null, 2, null))
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_STATE)
+        assertThat(schedule.interval).isEqualTo(1)
+    }
+
+    @Test
+    fun `test excluded dates without a rule are rejected`() {
+        // Given
+        val schedule = legacySchedule(RecurrenceType.DAILY, 1)
+        val excluded = listOf(LocalDate.parse("2024-11-12"))
+
+        // When
+        val onUpdate = Assertions.assertThrows(LinchpinException::class.java) {
+            schedule.update(ScheduleUpdateRequest(null, null, null, null, null, excludedDates = excluded))
+        }
+        val onSwitch = Assertions.assertThrows(LinchpinException::class.java) {
+            ruleSchedule("FREQ=DAILY")
+                .update(ScheduleUpdateRequest(null, null, RecurrenceType.DAILY, 1, null, excludedDates = excluded))
+        }
+        val onCreate = Assertions.assertThrows(LinchpinException::class.java) {
+            ScheduleRequest(start, 60, RecurrenceType.DAILY, 1, end, excludedDates = excluded).toSchedule(Account())
+        }
+
+        // Then
+        assertThat(listOf(onUpdate, onSwitch, onCreate).map { it.errorCode }).containsOnly(ErrorCode.INVALID_STATE)
+        assertThat(schedule.excludedDates).isEmpty()
+    }
+
+    private fun ruleSchedule(rule: String, excluded: List<LocalDate> = listOf()) = Schedule().apply {
+        startTime = this@RecurrenceRuleTest.start
+        endTime = this@RecurrenceRuleTest.end
+        duration = 60
+        applyRule(rule, excluded)
+    }
+
+    private fun legacySchedule(type: RecurrenceType, interval: Int) = Schedule().apply {
+        startTime = this@RecurrenceRuleTest.start
+        endTime = this@RecurrenceRuleTest.end
+        duration = 60
+        recurrenceType = type
+        this.interval = interval
+    }
+}
@@ -708,6 +708,71 @@ class ScheduleTest {
     }
 
 
+    @Test
+    fun `test occurrences expands daily schedule respecting the interval`() {
+        val schedule = dummySchedule()
+
+        val windows = schedule.occurrences(
+            ZonedDateTime.parse("2024-09-01T00:00:00+03:00"),
+            ZonedDateTime.parse("2024-09-08T00:00:00+03:00")
+        ).toList()
+
+        assertThat(windows.map { it.start.dayOfMonth }).containsExactly(1, 3, 5, 7)
+        assertThat(windows).allMatch { it.start.hour == 12 && it.start.minute == 30 }
+        assertThat(windows).allMatch { it.end == it.start.plusMinutes(60) }
+    }
+
+    @Test
+    fun `test occurrences of weekly and monthly schedules match selected day evaluation`() {
+        val weekly = dummySchedule().apply {
+            recurrenceType = RecurrenceType.WEEKLY
+            weekDays = mutableListOf(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)
+        }
+        val monthly = dummySchedule().apply {
+            recurrenceType = RecurrenceType.MONTHLY
+            interval = 1
+            monthDays = mutableListOf(15, 25)
+        }
+        val from = ZonedDateTime.parse("2024-09-01T00:00:00+03:00")
+        val to = ZonedDateTime.parse("2024-11-01T00:00:00+03:00")
+
+        listOf(weekly, monthly).forEach { schedule ->
+            val expected = generateSequence(from) { it.plusDays(1) }
+                .takeWhile { it.isBefore(to) }
+                .mapNotNull { schedule.doesMatchesSelectedDay(it) }
+                .toList()
+
+            assertThat(schedule.occurrences(from, to).toList()).isEqualTo(expected)
+        }
+    }
+
+    @Test
+    fun `test occurrences include window overlapping range start and stop at schedule end`() {
+        val schedule = dummySchedule().apply {
+            interval = 1
+            endTime = ZonedDateTime.parse("2024-09-03T13:30:00+03:00")
+        }
+
+        val windows = schedule.occurrences(
+            ZonedDateTime.parse("2024-09-01T13:00:00+03:00"),
+            ZonedDateTime.parse("2024-09-10T00:00:00+03:00")
+        ).toList()
+
+        assertThat(windows.map { it.start.dayOfMonth }).containsExactly(1, 2, 3)
+    }
+
+    @Test
+    fun `test occurrences is empty before schedule start`() {
+        val schedule = dummySchedule()
+
+        val windows = schedule.occurrences(
+            ZonedDateTime.parse("2024-08-01T00:00:00+03:00"),
+            ZonedDateTime.parse("2024-08-28T00:00:00+03:00")
+        ).toList()
+
+        assertThat(windows).isEmpty()
+    }
+
     private fun dummySchedule(): Schedule {
         val start = ZonedDateTime.parse("2024-08-28T12:30:00+03:00")
         val end = ZonedDateTime.parse("2024-12-30T13:30:00+03:00")
@@ -0,0 +1,130 @@
+package com.linchpino.core.repository
+
+import com.linchpino.core.PostgresContainerConfig
+import com.linchpino.core.entity.InterviewType
+import com.linchpino.core.enums.AccountTypeEnum
+import com.linchpino.core.enums.MentorTimeSlotEnum
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterAll
+import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInstance
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.annotation.Transactional
+import java.time.ZonedDateTime
+
+/**
+ * The dataset is committed once for the class in [setUp] and removed in [tearDown], the tests only read it.
+ */
+@SpringBootTest
+@Transactional
+@Import(PostgresContainerConfig::class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClosestMentorTimeSlotsTestIT {
+
+    @Autowired
+    private lateinit var accountRepository: AccountRepository
+
+    @Autowired
+    private lateinit var interviewTypeRepository: InterviewTypeRepository
+
+    @Autowired
+    private lateinit var jdbcTemplate: JdbcTemplate
+
+    private val base = ZonedDateTime.parse("2024-09-01T00:00:00Z")
+
+    private var interviewTypeId = 0L
+
+    // 2000 mentors with 500 hourly slots each, every fourth one AVAILABLE, 20 of the mentors offer the interview type
+    @BeforeAll
+    fun setUp() {
+        interviewTypeId = interviewTypeRepository.saveAndFlush(InterviewType().apply { name = "Explain" }).id!!
+        jdbcTemplate.update(
+            """
+            INSERT INTO account (created_on, first_name, last_name, email)
+            SELECT now(), 'mentor', 'number ' || g, 'explain-' || g || '@example.com'
+            FROM generate_series(1, 2000) g
+            """.trimIndent()
+        )
+        jdbcTemplate.update(
+            """
+            INSERT INTO account_role (account_id, role_id)
+            SELECT id, ${AccountTypeEnum.MENTOR.value} FROM account WHERE email LIKE 'explain-%'
+            """.trimIndent()
+        )
+        jdbcTemplate.update(
+            """
+            INSERT INTO account_interview_type (account_id, interview_type_id)
+            SELECT id, ? FROM account WHERE email LIKE 'explain-%' ORDER BY id LIMIT 20
+            """.trimIndent(),
+            interviewTypeId
+        )
+        jdbcTemplate.update(
+            """
+            INSERT INTO mentor_time_slot (created_on, account_id, from_time, to_time, status)
+            SELECT now(),
+                   a.id,
+                   CAST(? AS TIMESTAMP) + make_interval(hours => s),
+                   CAST(? AS TIMESTAMP) + make_interval(hours => s + 1),
+                   CASE WHEN s % 4 = 0 THEN ${MentorTimeSlotEnum.AVAILABLE.value} ELSE ${MentorTimeSlotEnum.DRAFT.value} END
+            FROM account a
+            CROSS JOIN generate_series(0, 499) s
+            WHERE a.email LIKE 'explain-%'
+            """.trimIndent(),
+            base.toUtcTimestamp(),
+            base.toUtcTimestamp()
+        )
+        jdbcTemplate.execute("ANALYZE account, account_role, account_interview_type, mentor_time_slot")
+    }
+
+    @AfterAll
+    fun tearDown() {
+        val mentors = "SELECT id FROM account WHERE email LIKE 'explain-%'"
+        jdbcTemplate.update("DELETE FROM mentor_time_slot WHERE account_id IN ($mentors)")
+        jdbcTemplate.update("DELETE FROM account_interview_type WHERE account_id IN ($mentors)")
+        jdbcTemplate.update("DELETE FROM account_role WHERE account_id IN ($mentors)")
+        jdbcTemplate.update("DELETE FROM account WHERE email LIKE 'explain-%'")
+        interviewTypeRepository.deleteById(interviewTypeId)
+    }
+
+    @Test
+    fun `test closest time slots uses the account status from_time index`() {
+        // Given
+        val from = base.plusHours(10)
+
+        // When
+        val plan = jdbcTemplate.queryForList(
+            "EXPLAIN ${ClosestMentorTimeSlotsImpl.QUERY}",
+            String::class.java,
+            AccountTypeEnum.MENTOR.name,
+            interviewTypeId,
+            MentorTimeSlotEnum.AVAILABLE.value,
+            from.toUtcTimestamp(),
+            from.plusHours(24).toUtcTimestamp()
+        ).joinToString("\n")
+
+        // Then
+        assertThat(plan).contains("idx_mentor_time_slot_account_status_from")
+        assertThat(plan).doesNotContain("Seq Scan on mentor_time_slot")
+    }
+
+    @Test
+    fun `test closest time slots returns the earliest available slot of each mentor of the interview type`() {
+        // Given
+        val from = base.plusHours(10)
+
+        // When
+        val result = accountRepository.closestMentorTimeSlots(from, from.plusHours(24), interviewTypeId)
+
+        // Then
+        assertThat(result).hasSize(20)
+        assertThat(result.map { it.mentorId }).doesNotHaveDuplicates()
+        assertThat(result).allSatisfy {
+            assertThat(it.from).isEqualTo(base.plusHours(12))
+            assertThat(it.to).isEqualTo(base.plusHours(13))
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.linchpino.core.service
 
 import com.linchpino.core.captureNonNullable
 import com.linchpino.core.dto.ActivateJobSeekerAccountRequest
+import com.linchpino.core.dto.CalendarBusy
 import com.linchpino.core.dto.CreateAccountRequest
 import com.linchpino.core.dto.CreateAccountResult
 import com.linchpino.core.dto.LinkedInUserInfoResponse
+import com.linchpino.core.dto.MentorScheduleOccurrence
+import com.linchpino.core.dto.MentorTypeOccurrence
 import com.linchpino.core.dto.MentorWithClosestSchedule
 import com.linchpino.core.dto.PaymentMethodRequest
 import com.linchpino.core.dto.PaymentMethodResponse
@@ -20,18 +23,18 @@ import com.linchpino.core.entity.InterviewType
 import com.linchpino.core.entity.MentorTimeSlot
 import com.linchpino.core.entity.PaymentMethod
 import com.linchpino.core.entity.Role
-import com.linchpino.core.entity.Schedule
 import com.linchpino.core.enums.AccountStatusEnum
 import com.linchpino.core.enums.AccountTypeEnum
 import com.linchpino.core.enums.MentorTimeSlotEnum
 import com.linchpino.core.enums.PaymentMethodType
-import com.linchpino.core.enums.RecurrenceType
 import com.linchpino.core.exception.ErrorCode
 import com.linchpino.core.exception.LinchpinException
 import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.CalendarBusyRepository
 import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.MentorTimeSlotRepository
 import com.linchpino.core.repository.RoleRepository
+import com.linchpino.core.repository.ScheduleOccurrenceRepository
 import com.linchpino.core.repository.findReferenceById
 import com.linchpino.core.security.WithMockJwt
 import com.linchpino.core.security.email
@@ -47,6 +50,7 @@ import org.mockito.Mockito.doAnswer
 import org.mockito.Mockito.mock
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
+import org.mockito.Mockito.verifyNoInteractions
 import org.mockito.Mockito.`when`
 import org.mockito.junit.jupiter.MockitoExtension
 import org.springframework.data.domain.PageImpl
@@ -57,7 +61,7 @@ import org.springframework.security.oauth2.core.OAuth2AccessToken
 import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication
 import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal
 import org.springframework.web.multipart.MultipartFile
-import java.time.DayOfWeek
+import java.time.LocalDate
 import java.time.LocalTime
 import java.time.ZoneOffset
 import java.time.ZonedDateTime
@@ -97,6 +101,15 @@ class AccountServiceTest {
     @Mock
     private lateinit var mentorTimeSlotRepository: MentorTimeSlotRepository
 
+    @Mock
+    private lateinit var calendarBusyRepository: CalendarBusyRepository
+
+    @Mock
+    private lateinit var scheduleOccurrenceRepository: ScheduleOccurrenceRepository
+
+    @Mock
+    private lateinit var scheduleOccurrenceService: ScheduleOccurrenceService
+
     @Test
     fun `test creating account`() {
         // Given
@@ -475,240 +488,281 @@ class AccountServiceTest {
 
     @Test
     fun `mentors with closest schedule must return list of mentors`() {
-        val start = ZonedDateTime.parse("2024-08-28T12:30:00+03:00")
-        val end = ZonedDateTime.parse("2024-12-30T13:30:00+03:00")
-        val schedule1 = Schedule().apply {
-            startTime = start
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.DAILY
-        }
+        val selectedDay = ZonedDateTime.parse("2024-09-09T10:00:00+03:00")
+        val interviewTypeId = 1L
+        val from = selectedDay.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+        val windowStart = ZonedDateTime.parse("2024-09-09T12:30:00+03:00")
+        val occurrence1 = MentorScheduleOccurrence(
+            1, "john", "doe", "account1@example.com", "avatar1.png", windowStart, windowStart.plusMinutes(60)
+        )
+        val occurrence2 = MentorScheduleOccurrence(
+            2, "josh", "long", "account2@example.com", "avatar2.png", windowStart, windowStart.plusMinutes(60)
+        )
 
-        val schedule2 = Schedule().apply {
-            startTime = start
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.WEEKLY
-            weekDays = mutableListOf(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)
-        }
+        val expected1 = MentorWithClosestSchedule(
+            1,
+            "john",
+            "doe",
+            ValidWindow(windowStart, windowStart.plusMinutes(60)),
+            "account1@example.com",
+            "avatar1.png"
+        )
+        val expected2 = MentorWithClosestSchedule(
+            2,
+            "josh",
+            "long",
+            ValidWindow(windowStart, windowStart.plusMinutes(60)),
+            "account2@example.com",
+            "avatar2.png"
+        )
+        `when`(
+            scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(interviewTypeId), from, from.plusDays(1))
+        ).thenReturn(listOf(occurrence1, occurrence2).map { it.ofType(interviewTypeId) })
 
-        val schedule3 = Schedule().apply {
-            startTime = start
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.MONTHLY
-            monthDays = mutableListOf(15, 25)
-        }
+        val result = accountService.findMentorsWithClosestScheduleBy(selectedDay, interviewTypeId)
 
-        val schedule4 = Schedule().apply {
-            startTime = start.plusDays(7)
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.DAILY
-        }
+        assertThat(result).containsExactly(expected1, expected2)
+    }
+
+    @Test
+    fun `mentors with closest schedule must return earliest occurrence once per mentor`() {
         val selectedDay = ZonedDateTime.parse("2024-09-09T10:00:00+03:00")
         val interviewTypeId = 1L
-        val account1 = Account().apply {
-            id = 1
-            firstName = "john"
-            lastName = "doe"
-            schedule = schedule1
-            email = "account1@example.com"
-            avatar = "avatar1.png"
-        }
+        val from = selectedDay.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+        val firstStart = ZonedDateTime.parse("2024-09-09T01:00:00Z")
+        val secondStart = ZonedDateTime.parse("2024-09-09T23:30:00Z")
 
-        val account2 = Account().apply {
-            id = 2
-            firstName = "josh"
-            lastName = "long"
-            schedule = schedule2
-            email = "account2@example.com"
-            avatar = "avatar2.png"
-        }
+        `when`(
+            scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(interviewTypeId), from, from.plusDays(1))
+        ).thenReturn(
+            listOf(
+                MentorScheduleOccurrence(1, "john", "doe", "a@example.com", null, firstStart, firstStart.plusMinutes(30)),
+                MentorScheduleOccurrence(1, "john", "doe", "a@example.com", null, secondStart, secondStart.plusMinutes(30))
+            ).map { it.ofType(interviewTypeId) }
+        )
 
-        val account3 = Account().apply {
-            id = 3
-            firstName = "jane"
-            lastName = "smith"
-            schedule = schedule3
-            email = "account3@example.com"
-            avatar = "avatar3.png"
-        }
+        val result = accountService.findMentorsWithClosestScheduleBy(selectedDay, interviewTypeId)
 
-        val account4 = Account().apply {
-            id = 4
-            firstName = "kent"
-            lastName = "beck"
-            schedule = schedule4
-            email = "account4@example.com"
-            avatar = "avatar4.png"
-        }
+        assertThat(result).hasSize(1)
+        assertThat(result[0].validWindow).isEqualTo(ValidWindow(firstStart, firstStart.plusMinutes(30)))
+    }
 
-        val expected1 = MentorWithClosestSchedule(
-            account1.id,
-            account1.firstName,
-            account1.lastName,
-            ValidWindow(
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00"),
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00").plusMinutes(60)
-            ),
-            account1.email,
-            account1.avatar
+    @Test
+    fun `mentors with closest schedule must return list of mentors and exclude already booked time slots`() {
+        val selectedDay = ZonedDateTime.parse("2024-09-09T10:00:00+03:00")
+        val interviewTypeId = 1L
+        val from = selectedDay.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+        val windowStart = ZonedDateTime.parse("2024-09-09T12:30:00+03:00")
+        val occurrence1 = MentorScheduleOccurrence(
+            1, "john", "doe", "account1@example.com", "avatar1.png", windowStart, windowStart.plusMinutes(60)
         )
-        val expected2 = MentorWithClosestSchedule(
-            account2.id,
-            account2.firstName,
-            account2.lastName,
-            ValidWindow(
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00"),
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00").plusMinutes(60)
-            ),
-            account2.email,
-            account2.avatar
+        val occurrence2 = MentorScheduleOccurrence(
+            2, "josh", "long", "account2@example.com", "avatar2.png", windowStart, windowStart.plusMinutes(60)
+        )
+
+        val expected1 = MentorWithClosestSchedule(
+            1,
+            "john",
+            "doe",
+            ValidWindow(windowStart, windowStart.plusMinutes(60)),
+            "account1@example.com",
+            "avatar1.png"
         )
+        val timeSlots = listOf(MentorTimeSlot().apply {
+            account = Account().apply { id = 2 }
+            fromTime = windowStart
+            toTime = windowStart.plusMinutes(60)
+        })
+
         `when`(
-            mentorTimeSlotRepository.findByAccountIdsAndDate(
-                listOf(account1, account2).map { it.id!! },
-                selectedDay.toLocalDate()
-            )
-        ).thenReturn(emptyList())
+            mentorTimeSlotRepository.findBookedSlotsOf(listOf(1L, 2L), from, from.plusDays(1))
+        ).thenReturn(timeSlots)
         `when`(
-            repository.closestMentorSchedule(
-                selectedDay.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT),
-                interviewTypeId
-            )
-        ).thenReturn(listOf(account1, account2, account3, account4))
+            scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(interviewTypeId), from, from.plusDays(1))
+        ).thenReturn(listOf(occurrence1, occurrence2).map { it.ofType(interviewTypeId) })
 
         val result = accountService.findMentorsWithClosestScheduleBy(selectedDay, interviewTypeId)
 
-        assertThat(result).containsExactly(expected1, expected2)
+        assertThat(result).containsExactly(expected1)
     }
 
     @Test
-    fun `mentors with closest schedule must return list of mentors and exclude already booked time slots`() {
-        val start = ZonedDateTime.parse("2024-08-28T12:30:00+03:00")
-        val end = ZonedDateTime.parse("2024-12-30T13:30:00+03:00")
-        val schedule1 = Schedule().apply {
-            startTime = start
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.DAILY
-        }
+    fun `mentors with closest schedule must exclude mentors busy in their calendar`() {
+        val selectedDay = ZonedDateTime.parse("2024-09-09T10:00:00+03:00")
+        val interviewTypeId = 1L
+        val from = selectedDay.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+        val windowStart = ZonedDateTime.parse("2024-09-09T12:30:00+03:00")
+        val occurrence1 = MentorScheduleOccurrence(
+            1, "john", "doe", "account1@example.com", "avatar1.png", windowStart, windowStart.plusMinutes(60)
+        )
+        val occurrence2 = MentorScheduleOccurrence(
+            2, "josh", "long", "account2@example.com", "avatar2.png", windowStart, windowStart.plusMinutes(60)
+        )
 
-        val schedule2 = Schedule().apply {
-            startTime = start
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.WEEKLY
-            weekDays = mutableListOf(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)
-        }
+        `when`(
+            scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(interviewTypeId), from, from.plusDays(1))
+        ).thenReturn(listOf(occurrence1, occurrence2).map { it.ofType(interviewTypeId) })
+        `when`(
+            calendarBusyRepository.findBusyBetween(listOf(1L, 2L), from, from.plusDays(1))
+        ).thenReturn(listOf(CalendarBusy(1, windowStart.plusMinutes(30), windowStart.plusMinutes(90))))
 
-        val schedule3 = Schedule().apply {
-            startTime = start
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.MONTHLY
-            monthDays = mutableListOf(15, 25)
-        }
+        val result = accountService.findMentorsWithClosestScheduleBy(selectedDay, interviewTypeId)
 
-        val schedule4 = Schedule().apply {
-            startTime = start.plusDays(7)
-            endTime = end
-            interval = 2
-            duration = 60
-            recurrenceType = RecurrenceType.DAILY
-        }
+        assertThat(result.map { it.mentorId }).containsExactly(2)
+    }
+
+    @Test
+    fun `mentors with closest schedule must offer the free slots of partly busy windows`() {
         val selectedDay = ZonedDateTime.parse("2024-09-09T10:00:00+03:00")
         val interviewTypeId = 1L
-        val account1 = Account().apply {
-            id = 1
-            firstName = "john"
-            lastName = "doe"
-            schedule = schedule1
-            email = "account1@example.com"
-            avatar = "avatar1.png"
-        }
+        val from = selectedDay.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+        val windowStart = ZonedDateTime.parse("2024-09-09T12:00:00+03:00")
+        val occurrence = MentorScheduleOccurrence(
+            1, "john", "doe", "account1@example.com", "avatar1.png", windowStart, windowStart.plusMinutes(180)
+        )
 
-        val account2 = Account().apply {
-            id = 2
-            firstName = "josh"
-            lastName = "long"
-            schedule = schedule2
-            email = "account2@example.com"
-            avatar = "avatar2.png"
-        }
+        `when`(
+            scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(interviewTypeId), from, from.plusDays(1))
+        ).thenReturn(listOf(occurrence.ofType(interviewTypeId, 60)))
+        `when`(
+            calendarBusyRepository.findBusyBetween(listOf(1L), from, from.plusDays(1))
+        ).thenReturn(listOf(CalendarBusy(1, windowStart, windowStart.plusMinutes(60))))
+
+        val result = accountService.findMentorsWithClosestScheduleBy(selectedDay, interviewTypeId)
+
+        assertThat(result.map { it.mentorId }).containsExactly(1)
+        assertThat(result[0].validWindow).isEqualTo(ValidWindow(windowStart.plusMinutes(60), windowStart.plusMinutes(120)))
+    }
 
-        val account3 = Account().apply {
-            id = 3
-            firstName = "jane"
-            lastName = "smith"
-            schedule = schedule3
-            email = "account3@example.com"
-            avatar = "avatar3.png"
+    @Test
+    fun `search mentors groups free windows by day and interview type with one query each`() {
+        val fromDay = LocalDate.parse("2030-01-07")
+        val toDay = LocalDate.parse("2030-01-08")
+        val from = fromDay.atStartOfDay(ZoneOffset.UTC)
+        val to = toDay.plusDays(1).atStartOfDay(ZoneOffset.UTC)
+        val monday = ZonedDateTime.parse("2030-01-07T10:00:00Z")
+        val tuesday = ZonedDateTime.parse("2030-01-08T10:00:00Z")
+        fun occurrence(typeId: Long, mentorId: Long, start: ZonedDateTime) = MentorTypeOccurrence(
+            typeId, null, mentorId, "john", "doe", "account$mentorId@example.com", null, start, start.plusMinutes(60)
+        )
+        val bookedSlot = MentorTimeSlot().apply {
+            account = Account().apply { id = 2 }
+            fromTime = tuesday
+            toTime = tuesday.plusMinutes(60)
+            status = MentorTimeSlotEnum.ALLOCATED
         }
 
-        val account4 = Account().apply {
-            id = 4
-            firstName = "kent"
-            lastName = "beck"
-            schedule = schedule4
-            email = "account4@example.com"
-            avatar = "avatar4.png"
+        `when`(scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(1L, 2L), from, to)).thenReturn(
+            listOf(
+                occurrence(1, 1, monday),
+                occurrence(2, 1, monday),
+                occurrence(1, 2, monday.plusHours(2)),
+                occurrence(1, 1, tuesday),
+                occurrence(1, 2, tuesday)
+            )
+        )
+        `when`(mentorTimeSlotRepository.findBookedSlotsOf(listOf(1L, 2L), from, to)).thenReturn(listOf(bookedSlot))
+
+        val result = accountService.searchMentors(setOf(1L, 2L), fromDay, toDay)
+
+        assertThat(result.map { Triple(it.day, it.interviewTypeId, it.mentors.map { mentor -> mentor.mentorId }) })
+            .containsExactly(
+                Triple(fromDay, 1L, listOf(1L, 2L)),
+                Triple(fromDay, 2L, listOf(1L)),
+                Triple(toDay, 1L, listOf(1L))
+            )
+        verify(calendarBusyRepository, times(1)).findBusyBetween(listOf(1L, 2L), from, to)
+        verifyNoInteractions(interviewTypeRepository)
+    }
+
+    @Test
+    fun `search mentors loads booked slots up to the end of the last occurrence`() {
+        val day = LocalDate.parse("2030-01-07")
+        val from = day.atStartOfDay(ZoneOffset.UTC)
+        val to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC)
+        val lateStart = ZonedDateTime.parse("2030-01-07T23:00:00Z")
+        val lateEnd = lateStart.plusMinutes(120)
+        val bookedSlot = MentorTimeSlot().apply {
+            account = Account().apply { id = 1 }
+            fromTime = to
+            toTime = lateEnd
+            status = MentorTimeSlotEnum.ALLOCATED
         }
 
-        val expected1 = MentorWithClosestSchedule(
-            account1.id,
-            account1.firstName,
-            account1.lastName,
-            ValidWindow(
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00"),
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00").plusMinutes(60)
-            ),
-            account1.email,
-            account1.avatar
+        `when`(scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(1L), from, to)).thenReturn(
+            listOf(MentorTypeOccurrence(1, 60, 1, "john", "doe", "john.doe@example.com", null, lateStart, lateEnd))
         )
-        val expected2 = MentorWithClosestSchedule(
-            account2.id,
-            account2.firstName,
-            account2.lastName,
-            ValidWindow(
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00"),
-                ZonedDateTime.parse("2024-09-09T12:30:00+03:00").plusMinutes(60)
-            ),
-            account2.email,
-            account2.avatar
+        `when`(mentorTimeSlotRepository.findBookedSlotsOf(listOf(1L), from, lateEnd)).thenReturn(listOf(bookedSlot))
+
+        val result = accountService.searchMentors(setOf(1L), day, day)
+
+        assertThat(result).hasSize(1)
+        assertThat(result[0].mentors.map { it.validWindow }).containsExactly(ValidWindow(lateStart, to))
+        verify(calendarBusyRepository, times(1)).findBusyBetween(listOf(1L), from, lateEnd)
+    }
+
+    @Test
+    fun `search past the occurrence horizon adds the occurrences evaluated from schedules in start order`() {
+        val day = LocalDate.parse("2030-01-07")
+        val from = day.atStartOfDay(ZoneOffset.UTC)
+        val to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC)
+        val morning = ZonedDateTime.parse("2030-01-07T10:00:00Z")
+        val noon = ZonedDateTime.parse("2030-01-07T12:00:00Z")
+        fun occurrence(mentorId: Long, start: ZonedDateTime) = MentorTypeOccurrence(
+            1, null, mentorId, "john", "doe", "account$mentorId@example.com", null, start, start.plusMinutes(60)
         )
-        val timeSlots = listOf(MentorTimeSlot().apply {
-            account = account2
-            fromTime = ZonedDateTime.parse("2024-09-09T12:30:00+03:00")
-            toTime = ZonedDateTime.parse("2024-09-09T12:30:00+03:00").plusMinutes(60)
-        })
 
-        `when`(
-            mentorTimeSlotRepository.findByAccountIdsAndDate(
-                listOf(account1, account2).map { it.id!! },
-                selectedDay.toLocalDate()
-            )
-        ).thenReturn(timeSlots)
-        `when`(
-            repository.closestMentorSchedule(
-                selectedDay.withZoneSameInstant(ZoneOffset.UTC).with(LocalTime.MIDNIGHT),
-                interviewTypeId
+        `when`(scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(1L), from, to))
+            .thenReturn(listOf(occurrence(2, noon)))
+        `when`(scheduleOccurrenceService.findUnmaterializedOccurrences(setOf(1L), from, to))
+            .thenReturn(listOf(occurrence(1, morning)))
+
+        val result = accountService.findMentorsWithClosestScheduleBy(from, 1)
+
+        assertThat(result.map { it.mentorId }).containsExactly(1, 2)
+        verify(mentorTimeSlotRepository, times(1)).findBookedSlotsOf(listOf(1L, 2L), from, to)
+    }
+
+    @Test
+    fun `single day search and batch search find the same free mentors`() {
+        val day = LocalDate.parse("2030-01-07")
+        val from = day.atStartOfDay(ZoneOffset.UTC)
+        val to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC)
+        val morning = ZonedDateTime.parse("2030-01-07T10:00:00Z")
+        val morningEnd = morning.plusMinutes(60)
+        val lateStart = ZonedDateTime.parse("2030-01-07T23:00:00Z")
+        val lateEnd = lateStart.plusMinutes(120)
+        // crosses midnight and blocks both carved slots of the late window
+        val bookedSlot = MentorTimeSlot().apply {
+            account = Account().apply { id = 2 }
+            fromTime = lateStart.plusMinutes(30)
+            toTime = lateStart.plusMinutes(90)
+            status = MentorTimeSlotEnum.ALLOCATED
+        }
+
+        `when`(scheduleOccurrenceRepository.findMentorOccurrencesOfTypes(setOf(1L), from, to)).thenReturn(
+            listOf(
+                MentorTypeOccurrence(1, 60, 1, "john", "doe", "john.doe@example.com", null, morning, morningEnd),
+                MentorTypeOccurrence(1, 60, 2, "josh", "long", "josh.long@example.com", null, lateStart, lateEnd)
             )
-        ).thenReturn(listOf(account1, account2, account3, account4))
+        )
+        `when`(mentorTimeSlotRepository.findBookedSlotsOf(listOf(1L, 2L), from, lateEnd)).thenReturn(listOf(bookedSlot))
 
-        val result = accountService.findMentorsWithClosestScheduleBy(selectedDay, interviewTypeId)
+        val single = accountService.findMentorsWithClosestScheduleBy(from, 1)
+        val batch = accountService.searchMentors(setOf(1L), day, day)
 
-        assertThat(result).containsExactly(expected1)
+        assertThat(single.map { it.mentorId }).containsExactly(1)
+        assertThat(batch.single().mentors).isEqualTo(single)
     }
 
+    @Test
+    fun `search mentors rejects ranges longer than the maximum`() {
+        val ex = assertThrows(LinchpinException::class.java) {
+            accountService.searchMentors(setOf(1L), LocalDate.parse("2030-01-01"), LocalDate.parse("2030-02-01"))
+        }
+
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_DATE_RANGE)
+    }
 
     @Test
     fun `reset password update account password`() {
@@ -1031,4 +1085,8 @@ class AccountServiceTest {
 
         return window1FromTruncated.isBefore(window2ToTruncated) && window2FromTruncated.isBefore(window1ToTruncated)
     }
+
+    private fun MentorScheduleOccurrence.ofType(interviewTypeId: Long, slotMinutes: Int? = null) = MentorTypeOccurrence(
+        interviewTypeId, slotMinutes, mentorId, mentorFirstName, mentorLastName, email, avatar, start, end
+    )
 }
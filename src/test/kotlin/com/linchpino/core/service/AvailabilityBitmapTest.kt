@@ -0,0 +1,134 @@
+package com.linchpino.core.service
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.LocalDate
+import java.time.ZonedDateTime
+import java.util.Base64
+import kotlin.random.Random
+
+class AvailabilityBitmapTest {
+
+    private val firstDay = LocalDate.parse("2024-09-02")
+
+    @Test
+    fun `test available window minus booked slot leaves the rest of the window free`() {
+        // Given
+        val bitmap = AvailabilityBitmap(firstDay, 2)
+        bitmap.addAvailable(second("2024-09-02T09:00:00Z"), second("2024-09-02T11:00:00Z"))
+
+        // When
+        bitmap.removeBusy(second("2024-09-02T09:30:00Z"), second("2024-09-02T10:00:00Z"))
+
+        // Then
+        assertThat(bitmap.freeSlots(0)).isEqualTo(6)
+        assertThat(bitmap.freeSlots(1)).isEqualTo(0)
+        assertThat(bitmap.isFree(second("2024-09-02T09:00:00Z"), second("2024-09-02T09:30:00Z"))).isTrue()
+        assertThat(bitmap.isFree(second("2024-09-02T09:15:00Z"), second("2024-09-02T09:45:00Z"))).isFalse()
+        assertThat(bitmap.isFree(second("2024-09-02T10:00:00Z"), second("2024-09-02T11:00:00Z"))).isTrue()
+        assertThat(bitmap.isFree(second("2024-09-02T10:00:00Z"), second("2024-09-02T11:15:00Z"))).isFalse()
+    }
+
+    @Test
+    fun `test partial slots are not available but are busy`() {
+        // Given
+        val bitmap = AvailabilityBitmap(firstDay, 1)
+
+        // When
+        bitmap.addAvailable(second("2024-09-02T09:10:00Z"), second("2024-09-02T10:20:00Z"))
+        bitmap.removeBusy(second("2024-09-02T09:59:00Z"), second("2024-09-02T10:01:00Z"))
+
+        // Then
+        // 09:15 to 10:15 is covered, 09:45 and 10:00 are touched by the booking
+        assertThat(bitmap.freeSlots(0)).isEqualTo(2)
+        assertThat(bitmap.isFree(second("2024-09-02T09:15:00Z"), second("2024-09-02T09:45:00Z"))).isTrue()
+    }
+
+    @Test
+    fun `test window across midnight spans both words and both days`() {
+        // Given
+        val bitmap = AvailabilityBitmap(firstDay, 3)
+
+        // When
+        bitmap.addAvailable(second("2024-09-02T12:00:00Z"), second("2024-09-03T20:00:00Z"))
+
+        // Then
+        assertThat(bitmap.freeSlots(0)).isEqualTo(48)
+        assertThat(bitmap.freeSlots(1)).isEqualTo(80)
+        assertThat(bitmap.freeSlots(2)).isEqualTo(0)
+        assertThat(bitmap.isFree(second("2024-09-02T23:00:00Z"), second("2024-09-03T01:00:00Z"))).isTrue()
+    }
+
+    @Test
+    fun `test windows outside the covered days are clamped`() {
+        // Given
+        val bitmap = AvailabilityBitmap(firstDay, 1)
+
+        // When
+        bitmap.addAvailable(second("2024-09-01T22:00:00Z"), second("2024-09-02T01:00:00Z"))
+        bitmap.addAvailable(second("2024-09-02T23:00:00Z"), second("2024-09-03T02:00:00Z"))
+
+        // Then
+        assertThat(bitmap.freeSlots(0)).isEqualTo(8)
+        assertThat(bitmap.isFree(second("2024-09-01T23:00:00Z"), second("2024-09-02T00:30:00Z"))).isFalse()
+        assertThat(bitmap.isFree(second("2024-09-02T23:30:00Z"), second("2024-09-03T00:15:00Z"))).isFalse()
+    }
+
+    @Test
+    fun `test encoded day is 12 bytes with slot 8k + j at byte k bit j`() {
+        // Given
+        val bitmap = AvailabilityBitmap(firstDay, 1)
+        bitmap.addAvailable(second("2024-09-02T00:00:00Z"), second("2024-09-02T00:15:00Z"))
+        bitmap.addAvailable(second("2024-09-02T23:45:00Z"), second("2024-09-03T00:00:00Z"))
+
+        // When
+        val encoded = bitmap.encode(0)
+
+        // Then
+        val bytes = Base64.getDecoder().decode(encoded)
+        assertThat(encoded).hasSize(16)
+        assertThat(bytes).hasSize(12)
+        assertThat(bytes[0]).isEqualTo(1.toByte())
+        assertThat(bytes[11]).isEqualTo(0x80.toByte())
+        assertThat(bytes.slice(1..10).all { it == 0.toByte() }).isTrue()
+    }
+
+    @Test
+    fun `test bitmap matches slot by slot evaluation`() {
+        val random = Random(5)
+        repeat(200) {
+            // Given
+            val days = random.nextInt(1, 5)
+            val bitmap = AvailabilityBitmap(firstDay, days)
+            val expected = BooleanArray(days * 96)
+            val base = second("2024-09-02T00:00:00Z")
+            repeat(random.nextInt(1, 6)) {
+                val start = base + random.nextLong(-3600, days * 86_400L)
+                val end = start + random.nextLong(60, 20_000)
+                bitmap.addAvailable(start, end)
+                expected.indices.filter { slot -> base + slot * 900 >= start && base + (slot + 1) * 900 <= end }
+                    .forEach { slot -> expected[slot] = true }
+            }
+            repeat(random.nextInt(0, 6)) {
+                val start = base + random.nextLong(-3600, days * 86_400L)
+                val end = start + random.nextLong(60, 10_000)
+                bitmap.removeBusy(start, end)
+                expected.indices.filter { slot -> base + slot * 900 < end && base + (slot + 1) * 900 > start }
+                    .forEach { slot -> expected[slot] = false }
+            }
+
+            // When Then
+            (0 until days).forEach { day ->
+                assertThat(bitmap.freeSlots(day)).isEqualTo((0 until 96).count { expected[day * 96 + it] })
+            }
+            repeat(20) {
+                val from = random.nextInt(0, days * 96)
+                val to = random.nextInt(from + 1, days * 96 + 1)
+                assertThat(bitmap.isFree(base + from * 900L, base + to * 900L))
+                    .isEqualTo((from until to).all { expected[it] })
+            }
+        }
+    }
+
+    private fun second(time: String) = ZonedDateTime.parse(time).toEpochSecond()
+}
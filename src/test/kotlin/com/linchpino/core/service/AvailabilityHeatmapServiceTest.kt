@@ -0,0 +1,88 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.AvailabilityDay
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.InterviewTypeRepository
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import java.time.LocalDate
+import java.time.YearMonth
+
+class AvailabilityHeatmapServiceTest {
+
+    @Mock
+    private lateinit var repository: AvailabilityCountRepository
+
+    @Mock
+    private lateinit var interviewTypeRepository: InterviewTypeRepository
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var service: AvailabilityHeatmapService
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        meterRegistry = SimpleMeterRegistry()
+        service = AvailabilityHeatmapService(repository, interviewTypeRepository, meterRegistry)
+    }
+
+    @Test
+    fun `test heatmap returns every day of the month with zero for days without counter`() {
+        // Given
+        `when`(interviewTypeRepository.existsById(3)).thenReturn(true)
+        `when`(repository.findDays(3, LocalDate.parse("2024-02-01"), LocalDate.parse("2024-03-01"))).thenReturn(
+            listOf(
+                AvailabilityDay(LocalDate.parse("2024-02-05"), 4),
+                AvailabilityDay(LocalDate.parse("2024-02-29"), 2)
+            )
+        )
+
+        // When
+        val result = service.heatmap(3, YearMonth.parse("2024-02"))
+
+        // Then
+        assertThat(result).hasSize(29)
+        assertThat(result.first()).isEqualTo(AvailabilityDay(LocalDate.parse("2024-02-01"), 0))
+        assertThat(result[4]).isEqualTo(AvailabilityDay(LocalDate.parse("2024-02-05"), 4))
+        assertThat(result.last()).isEqualTo(AvailabilityDay(LocalDate.parse("2024-02-29"), 2))
+        assertThat(result.sumOf { it.freeWindows }).isEqualTo(6)
+    }
+
+    @Test
+    fun `test heatmap of unknown interview type throws exception`() {
+        // Given
+        `when`(interviewTypeRepository.existsById(3)).thenReturn(false)
+
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            service.heatmap(3, YearMonth.parse("2024-02"))
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INTERVIEW_TYPE_NOT_FOUND)
+        verify(repository, never()).findDays(3, LocalDate.parse("2024-02-01"), LocalDate.parse("2024-03-01"))
+    }
+
+    @Test
+    fun `test rebuild reports drifted counters`() {
+        // Given
+        `when`(repository.rebuild()).thenReturn(5)
+
+        // When
+        service.rebuild()
+
+        // Then
+        assertThat(meterRegistry.get("availability.heatmap.drift").counter().count()).isEqualTo(5.0)
+    }
+}
@@ -0,0 +1,65 @@
+package com.linchpino.core.service
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class BackgroundWorkerTest {
+
+    private val worker = BackgroundWorker("test-worker")
+
+    @AfterEach
+    fun tearDown() {
+        worker.shutdown()
+    }
+
+    @Test
+    fun `test task runs on the worker thread`() {
+        // Given
+        val done = CountDownLatch(1)
+        var threadName: String? = null
+
+        // When
+        val started = worker.trigger {
+            threadName = Thread.currentThread().name
+            done.countDown()
+        }
+
+        // Then
+        assertThat(started).isTrue()
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(threadName).isEqualTo("test-worker")
+    }
+
+    @Test
+    fun `test trigger is skipped while the previous run is busy`() {
+        // Given
+        val release = CountDownLatch(1)
+        worker.trigger { release.await() }
+
+        // When
+        val skipped = worker.trigger { }
+        release.countDown()
+
+        // Then
+        assertThat(skipped).isFalse()
+    }
+
+    @Test
+    fun `test failed run does not block the next trigger`() {
+        // Given
+        worker.trigger { throw IllegalStateException("boom") }
+        val done = CountDownLatch(1)
+
+        // When
+        var started = false
+        val deadline = System.currentTimeMillis() + 5_000
+        while (!started && System.currentTimeMillis() < deadline) started = worker.trigger { done.countDown() }
+
+        // Then
+        assertThat(started).isTrue()
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue()
+    }
+}
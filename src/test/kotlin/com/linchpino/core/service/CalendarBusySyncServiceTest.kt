@@ -0,0 +1,222 @@
+package com.linchpino.core.service
+
+import com.google.api.client.http.javanet.NetHttpTransport
+import com.google.api.client.json.gson.GsonFactory
+import com.google.api.services.calendar.Calendar
+import com.linchpino.core.captureNonNullable
+import com.linchpino.core.dto.CalendarBusyChanges
+import com.linchpino.core.dto.CalendarSyncTarget
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.CalendarBusyRepository
+import com.sun.net.httpserver.HttpServer
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.ArgumentMatchers.anyLong
+import org.mockito.ArgumentMatchers.eq
+import org.mockito.Mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import org.springframework.context.ApplicationEventPublisher
+import java.net.InetSocketAddress
+import java.net.URLDecoder
+import java.time.ZonedDateTime
+
+class CalendarBusySyncServiceTest {
+
+    @Mock
+    private lateinit var repository: CalendarBusyRepository
+
+    @Mock
+    private lateinit var availabilityCounts: AvailabilityCountRepository
+
+    @Mock
+    private lateinit var calendarService: CalendarService
+
+    @Mock
+    private lateinit var eventPublisher: ApplicationEventPublisher
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var service: CalendarBusySyncService
+
+    // fake Calendar API: answers requests in order and records their path and query
+    private lateinit var server: HttpServer
+    private val requests = mutableListOf<String>()
+    private val responses = ArrayDeque<Pair<Int, String>>()
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        server = HttpServer.create(InetSocketAddress("localhost", 0), 0)
+        server.createContext("/") { exchange ->
+            requests.add(URLDecoder.decode(exchange.requestURI.rawPath + "?" + exchange.requestURI.rawQuery, "UTF-8"))
+            val (status, body) = responses.removeFirst()
+            val bytes = body.toByteArray()
+            exchange.responseHeaders.add("Content-Type", "application/json")
+            exchange.sendResponseHeaders(status, bytes.size.toLong())
+            exchange.responseBody.use { it.write(bytes) }
+        }
+        server.start()
+        val rootUrl = "http://localhost:${server.address.port}/"
+        val calendar = Calendar.Builder(NetHttpTransport(), GsonFactory.getDefaultInstance(), null)
+            .setApplicationName("test")
+            .setRootUrl(rootUrl)
+            .build()
+        `when`(calendarService.client(rootUrl)).thenReturn(calendar)
+        meterRegistry = SimpleMeterRegistry()
+        service = CalendarBusySyncService(
+            repository,
+            availabilityCounts,
+            calendarService,
+            eventPublisher,
+            meterRegistry,
+            rootUrl,
+            10,
+            1000.0
+        )
+    }
+
+    @AfterEach
+    fun tearDown() {
+        server.stop(0)
+    }
+
+    @Test
+    fun `test first sync lists busy events page by page and stores the sync token`() {
+        // Given
+        `when`(repository.findSyncTargets(any(), anyInt())).thenReturn(listOf(CalendarSyncTarget(1, "john@example.com", null)))
+        responses.add(200 to page(listOf(event("e1"), event("e2", transparency = "transparent")), nextPageToken = "p2"))
+        responses.add(200 to page(listOf(allDayEvent("e3")), nextSyncToken = "s1"))
+
+        // When
+        val synced = service.syncBatch()
+
+        // Then
+        assertThat(synced).isEqualTo(1)
+        val changes = appliedChanges()
+        assertThat(changes.busy.map { it.eventId }).containsExactly("e1")
+        assertThat(changes.busy[0].start).isEqualTo(ZonedDateTime.parse("2024-09-09T10:00:00Z"))
+        assertThat(changes.busy[0].end).isEqualTo(ZonedDateTime.parse("2024-09-09T11:00:00Z"))
+        assertThat(changes.removedEventIds).containsExactly("e2", "e3")
+        assertThat(changes.syncToken).isEqualTo("s1")
+        assertThat(changes.fullSync).isTrue()
+        assertThat(requests).hasSize(2)
+        assertThat(requests[0]).contains("/calendar/v3/calendars/john@example.com/events", "singleEvents=true", "timeMin=")
+        assertThat(requests[1]).contains("pageToken=p2")
+        verify(availabilityCounts).recount(1)
+        verify(eventPublisher).publishEvent(CalendarBusyChanged(1))
+    }
+
+    @Test
+    fun `test incremental sync sends the sync token and removes cancelled events`() {
+        // Given
+        `when`(repository.findSyncTargets(any(), anyInt())).thenReturn(listOf(CalendarSyncTarget(1, "john@example.com", "s1")))
+        responses.add(200 to page(listOf(event("e1", status = "cancelled")), nextSyncToken = "s2"))
+
+        // When
+        service.syncBatch()
+
+        // Then
+        val changes = appliedChanges()
+        assertThat(changes.busy).isEmpty()
+        assertThat(changes.removedEventIds).containsExactly("e1")
+        assertThat(changes.syncToken).isEqualTo("s2")
+        assertThat(changes.fullSync).isFalse()
+        assertThat(requests.single()).contains("syncToken=s1").doesNotContain("timeMin=")
+    }
+
+    @Test
+    fun `test expired sync token falls back to a full sync`() {
+        // Given
+        `when`(repository.findSyncTargets(any(), anyInt())).thenReturn(listOf(CalendarSyncTarget(1, "john@example.com", "s1")))
+        responses.add(410 to error(410, "fullSyncRequired"))
+        responses.add(200 to page(listOf(event("e1")), nextSyncToken = "s3"))
+
+        // When
+        service.syncBatch()
+
+        // Then
+        val changes = appliedChanges()
+        assertThat(changes.fullSync).isTrue()
+        assertThat(changes.busy.map { it.eventId }).containsExactly("e1")
+        assertThat(changes.syncToken).isEqualTo("s3")
+        assertThat(requests[1]).contains("timeMin=").doesNotContain("syncToken=")
+    }
+
+    @Test
+    fun `test quota error ends the batch`() {
+        // Given
+        `when`(repository.findSyncTargets(any(), anyInt())).thenReturn(
+            listOf(CalendarSyncTarget(1, "john@example.com", "s1"), CalendarSyncTarget(2, "jane@example.com", "s1"))
+        )
+        responses.add(403 to error(403, "rateLimitExceeded"))
+
+        // When
+        val synced = service.syncBatch()
+
+        // Then
+        assertThat(synced).isEqualTo(0)
+        assertThat(requests).hasSize(1)
+        verify(repository, never()).saveSyncState(anyLong(), any(), any())
+        assertThat(meterRegistry.get("calendar.sync.throttled").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test calendar that is not shared is moved to the back of the queue`() {
+        // Given
+        `when`(repository.findSyncTargets(any(), anyInt())).thenReturn(
+            listOf(CalendarSyncTarget(1, "john@example.com", null), CalendarSyncTarget(2, "jane@example.com", null))
+        )
+        responses.add(404 to error(404, "notFound"))
+        responses.add(200 to page(emptyList(), nextSyncToken = "s1"))
+
+        // When
+        val synced = service.syncBatch()
+
+        // Then
+        assertThat(synced).isEqualTo(1)
+        verify(repository).saveSyncState(eq(1L), eq<String?>(null), any())
+        verify(repository).apply(eq(2L), any(), any())
+    }
+
+    private fun appliedChanges(): CalendarBusyChanges {
+        val captor: ArgumentCaptor<CalendarBusyChanges> = ArgumentCaptor.forClass(CalendarBusyChanges::class.java)
+        verify(repository).apply(eq(1L), captor.captureNonNullable(), any())
+        return captor.value
+    }
+
+    private fun page(items: List<String>, nextPageToken: String? = null, nextSyncToken: String? = null) =
+        """
+        {
+          "kind": "calendar#events",
+          "items": [${items.joinToString(",")}]
+          ${nextPageToken?.let { ""","nextPageToken": "$it"""" } ?: ""}
+          ${nextSyncToken?.let { ""","nextSyncToken": "$it"""" } ?: ""}
+        }
+        """.trimIndent()
+
+    private fun event(id: String, status: String = "confirmed", transparency: String = "opaque") =
+        """
+        {
+          "id": "$id",
+          "status": "$status",
+          "transparency": "$transparency",
+          "start": {"dateTime": "2024-09-09T10:00:00Z"},
+          "end": {"dateTime": "2024-09-09T11:00:00Z"}
+        }
+        """.trimIndent()
+
+    private fun allDayEvent(id: String) =
+        """{"id": "$id", "status": "confirmed", "start": {"date": "2024-09-10"}, "end": {"date": "2024-09-11"}}"""
+
+    private fun error(code: Int, reason: String) =
+        """{"error": {"code": $code, "message": "$reason", "errors": [{"domain": "calendar", "reason": "$reason", "message": "$reason"}]}}"""
+}
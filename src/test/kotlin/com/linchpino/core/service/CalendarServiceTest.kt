@@ -1,5 +1,8 @@
 package com.linchpino.core.service
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException
+import com.google.api.client.http.HttpHeaders
+import com.google.api.client.http.HttpResponseException
 import com.google.api.services.calendar.Calendar
 import com.google.api.services.calendar.model.ConferenceData
 import com.google.api.services.calendar.model.Event
@@ -35,6 +38,8 @@ class CalendarServiceTest {
     private lateinit var events: Calendar.Events
     @Mock
     private lateinit var insert: Calendar.Events.Insert
+    @Mock
+    private lateinit var get: Calendar.Events.Get
 
     @BeforeEach
     fun setUp() {
@@ -69,4 +74,32 @@ class CalendarServiceTest {
         assertThat(capturedEvent.summary).isEqualTo(eventTitle)
         assertThat(capturedEvent.attendees.map { it.email }).isEqualTo(attendees)
     }
+
+    @Test
+    fun `test googleMeetCode with an event id reads the existing event when it was created before`() {
+        // Given
+        `when`(calendar.events()).thenReturn(events)
+        `when`(events.insert(anyString(), any(Event::class.java))).thenReturn(insert)
+        `when`(insert.setSendUpdates(anyString())).thenReturn(insert)
+        `when`(insert.setConferenceDataVersion(anyInt())).thenReturn(insert)
+        `when`(insert.execute()).thenThrow(
+            GoogleJsonResponseException(HttpResponseException.Builder(409, "Conflict", HttpHeaders()), null)
+        )
+        `when`(events.get("primary", "linchpino42")).thenReturn(get)
+        `when`(get.execute()).thenReturn(Event().setConferenceData(ConferenceData().setConferenceId("existing-id")))
+
+        // When
+        val resultConferenceId = calendarService.googleMeetCode(
+            listOf("attendee1@example.com"),
+            "Test Event",
+            ZonedDateTime.now() to ZonedDateTime.now().plusHours(1),
+            "linchpino42"
+        )
+
+        // Then
+        verify(calendar.events()).insert(eq("primary"), eventCaptor.capture())
+        assertThat(eventCaptor.value.id).isEqualTo("linchpino42")
+        assertThat(eventCaptor.value.conferenceData.createRequest.requestId).isEqualTo("linchpino42")
+        assertThat(resultConferenceId).isEqualTo("existing-id")
+    }
 }
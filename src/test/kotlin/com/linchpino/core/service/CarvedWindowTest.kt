@@ -0,0 +1,58 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.ValidWindow
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.ZonedDateTime
+
+class CarvedWindowTest {
+
+    private val start = ZonedDateTime.parse("2024-09-09T09:00:00Z")
+
+    @Test
+    fun `test window is split into back to back slots and the short tail is dropped`() {
+        // When
+        val carved = CarvedWindow(ValidWindow(start, start.plusMinutes(100)), 30)
+
+        // Then
+        assertThat(carved.slots).isEqualTo(3)
+        assertThat(carved.freeSlots().toList()).containsExactly(
+            ValidWindow(start, start.plusMinutes(30)),
+            ValidWindow(start.plusMinutes(30), start.plusMinutes(60)),
+            ValidWindow(start.plusMinutes(60), start.plusMinutes(90))
+        )
+    }
+
+    @Test
+    fun `test booked intervals occupy every slot they overlap`() {
+        // Given
+        val booked = MentorIntervalIndex.of(
+            longArrayOf(1, 1, 2),
+            longArrayOf(minute(40), minute(150), minute(0)),
+            longArrayOf(minute(70), minute(160), minute(240))
+        )
+
+        // When
+        val carved = CarvedWindow(ValidWindow(start, start.plusMinutes(240)), 30).occupy(booked, 1)
+
+        // Then
+        assertThat(carved.occupied.stream().toArray()).containsExactly(1, 2, 5)
+        assertThat(carved.freeSlots().map { it.start }.toList())
+            .containsExactly(start, start.plusMinutes(90), start.plusMinutes(120), start.plusMinutes(180), start.plusMinutes(210))
+    }
+
+    @Test
+    fun `test index of a selection is found only for exact slots`() {
+        // Given
+        val carved = CarvedWindow(ValidWindow(start, start.plusMinutes(120)), 30)
+
+        // Then
+        assertThat(carved.indexOf(ValidWindow(start.plusMinutes(60), start.plusMinutes(90)))).isEqualTo(2)
+        assertThat(carved.indexOf(ValidWindow(start.plusMinutes(45), start.plusMinutes(75)))).isEqualTo(-1)
+        assertThat(carved.indexOf(ValidWindow(start.plusMinutes(60), start.plusMinutes(120)))).isEqualTo(-1)
+        assertThat(carved.indexOf(ValidWindow(start.plusMinutes(120), start.plusMinutes(150)))).isEqualTo(-1)
+        assertThat(carved.indexOf(ValidWindow(start.minusMinutes(30), start))).isEqualTo(-1)
+    }
+
+    private fun minute(offset: Long) = MentorIntervalIndex.epochMinute(start) + offset
+}
@@ -0,0 +1,93 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.ScheduleUpdateRequest
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.RecurrenceType
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.time.DayOfWeek
+import java.time.ZonedDateTime
+
+class CompiledScheduleCacheTest {
+
+    private lateinit var cache: CompiledScheduleCache
+
+    @BeforeEach
+    fun setUp() {
+        cache = CompiledScheduleCache(2)
+    }
+
+    @Test
+    fun `test loaded copies of a saved schedule share the compiled form until its version changes`() {
+        // Given
+        val first = cache.of(loaded(1))
+
+        // When
+        val second = cache.of(loaded(1))
+        val saved = cache.of(loaded(1, version = 1))
+
+        // Then
+        assertThat(second).isSameAs(first)
+        assertThat(saved).isNotSameAs(first)
+    }
+
+    @Test
+    fun `test changed or unsaved schedules are not shared`() {
+        // Given
+        val shared = cache.of(loaded(1))
+        val changed = loaded(1).update(ScheduleUpdateRequest(null, 30, null, null, null))
+        val unsaved = loaded(0)
+
+        // When
+        val compiled = cache.of(changed)
+        cache.of(unsaved)
+
+        // Then
+        assertThat(compiled).isNotSameAs(shared)
+        assertThat(compiled?.durationSeconds).isEqualTo(1800L)
+        assertThat(cache.of(loaded(1))).isSameAs(shared)
+        assertThat(cache.size).isEqualTo(1)
+    }
+
+    @Test
+    fun `test the schedule used longest ago is dropped beyond the maximum`() {
+        // Given
+        val first = cache.of(loaded(1))
+        val second = cache.of(loaded(2))
+        cache.of(loaded(1))
+
+        // When
+        cache.of(loaded(3))
+
+        // Then
+        assertThat(cache.size).isEqualTo(2)
+        assertThat(cache.of(loaded(1))).isSameAs(first)
+        assertThat(cache.of(loaded(2))).isNotSameAs(second)
+    }
+
+    @Test
+    fun `test evict drops every version of the schedule`() {
+        // Given
+        val first = cache.of(loaded(1))
+        cache.of(loaded(1, version = 1))
+
+        // When
+        cache.evict(1)
+
+        // Then
+        assertThat(cache.size).isZero()
+        assertThat(cache.of(loaded(1))).isNotSameAs(first)
+    }
+
+    private fun loaded(id: Long, version: Long = 0) = Schedule().apply {
+        this.id = id
+        this.version = version
+        startTime = ZonedDateTime.parse("2024-08-28T12:30:00+03:00")
+        endTime = ZonedDateTime.parse("2024-12-30T13:30:00+03:00")
+        duration = 60
+        interval = 1
+        recurrenceType = RecurrenceType.WEEKLY
+        weekDays = mutableListOf(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)
+    }
+}
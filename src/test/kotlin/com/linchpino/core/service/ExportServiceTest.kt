@@ -0,0 +1,142 @@
+package com.linchpino.core.service
+
+import com.fasterxml.jackson.databind.SerializationFeature
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import com.fasterxml.jackson.module.kotlin.jacksonObjectMapper
+import com.linchpino.core.dto.AccountExportRow
+import com.linchpino.core.dto.PaymentExportRow
+import com.linchpino.core.enums.AccountStatusEnum
+import com.linchpino.core.enums.ExportFormat
+import com.linchpino.core.enums.PaymentStatus
+import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.InterviewRepository
+import com.linchpino.core.repository.PaymentRepository
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mock
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import java.io.ByteArrayOutputStream
+import java.math.BigDecimal
+import java.time.ZonedDateTime
+import java.util.stream.Stream
+
+class ExportServiceTest {
+
+    @Mock
+    private lateinit var interviewRepository: InterviewRepository
+
+    @Mock
+    private lateinit var paymentRepository: PaymentRepository
+
+    @Mock
+    private lateinit var accountRepository: AccountRepository
+
+    private lateinit var service: ExportService
+
+    private val objectMapper = jacksonObjectMapper().registerModule(JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+
+    private val createdOn = ZonedDateTime.parse("2024-09-18T12:00:00Z")
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        service = ExportService(interviewRepository, paymentRepository, accountRepository, objectMapper)
+    }
+
+    @Test
+    fun `test ndjson export writes one object per line and closes the cursor`() {
+        // Given
+        var closed = false
+        val rows = Stream.of(
+            PaymentExportRow(1, "ref_1", BigDecimal("12.50"), PaymentStatus.PENDING, createdOn, null),
+            PaymentExportRow(2, "ref_2", BigDecimal("13.50"), PaymentStatus.VERIFIED, createdOn, createdOn)
+        ).onClose { closed = true }
+        `when`(paymentRepository.streamForExport()).thenReturn(rows)
+        val out = ByteArrayOutputStream()
+
+        // When
+        val count = service.exportPayments(ExportFormat.NDJSON, out)
+
+        // Then
+        assertThat(count).isEqualTo(2)
+        assertThat(closed).isTrue()
+        val lines = out.toString(Charsets.UTF_8).split("\n")
+        assertThat(lines).hasSize(3)
+        assertThat(lines[2]).isEmpty()
+        val first = objectMapper.readTree(lines[0])
+        assertThat(first["interviewId"].asLong()).isEqualTo(1)
+        assertThat(first["amount"].asText()).isEqualTo("12.50")
+        assertThat(first["status"].asText()).isEqualTo("PENDING")
+        assertThat(first["createdOn"].asText()).isEqualTo("2024-09-18T12:00:00Z")
+        assertThat(first["modifiedOn"].isNull).isTrue()
+        assertThat(objectMapper.readTree(lines[1])["refNumber"].asText()).isEqualTo("ref_2")
+    }
+
+    @Test
+    fun `test csv export writes a header and quotes cells that need it`() {
+        // Given
+        `when`(accountRepository.streamForExport()).thenReturn(
+            Stream.of(
+                AccountExportRow(1, "john.doe@example.com", "John", "Doe, Jr.", AccountStatusEnum.ACTIVATED, createdOn),
+                AccountExportRow(2, "jane@example.com", "Jane \"JJ\"", null, AccountStatusEnum.DEACTIVATED, null)
+            )
+        )
+        val out = ByteArrayOutputStream()
+
+        // When
+        val count = service.exportAccounts(ExportFormat.CSV, out)
+
+        // Then
+        assertThat(count).isEqualTo(2)
+        assertThat(out.toString(Charsets.UTF_8)).isEqualTo(
+            "id,email,firstName,lastName,status,createdOn\r\n" +
+                "1,john.doe@example.com,John,\"Doe, Jr.\",ACTIVATED,2024-09-18T12:00:00Z\r\n" +
+                "2,jane@example.com,\"Jane \"\"JJ\"\"\",,DEACTIVATED,\r\n"
+        )
+    }
+
+    @Test
+    fun `test csv export neutralizes cells that start like a formula`() {
+        // Given
+        `when`(accountRepository.streamForExport()).thenReturn(
+            Stream.of(
+                AccountExportRow(1, "@evil.example.com", "=HYPERLINK(\"http://x\")", "+1", AccountStatusEnum.ACTIVATED, null),
+                AccountExportRow(2, "-2+3@example.com", "\tTab", "\rCr", AccountStatusEnum.ACTIVATED, null)
+            )
+        )
+        val out = ByteArrayOutputStream()
+
+        // When
+        service.exportAccounts(ExportFormat.CSV, out)
+
+        // Then
+        assertThat(out.toString(Charsets.UTF_8).split("\r\n").drop(1).take(2)).containsExactly(
+            "1,'@evil.example.com,\"'=HYPERLINK(\"\"http://x\"\")\",'+1,ACTIVATED,",
+            "2,'-2+3@example.com,'\tTab,\"'\rCr\",ACTIVATED,"
+        )
+    }
+
+    @Test
+    fun `test csv cell keeps negative numbers numeric`() {
+        assertThat(ExportService.csvCell(BigDecimal("-12.50"))).isEqualTo("-12.50")
+        assertThat(ExportService.csvCell(-3L)).isEqualTo("-3")
+    }
+
+    @Test
+    fun `test csv export of an empty table is only the header`() {
+        // Given
+        `when`(interviewRepository.streamForExport()).thenReturn(Stream.empty())
+        val out = ByteArrayOutputStream()
+
+        // When
+        val count = service.exportInterviews(ExportFormat.CSV, out)
+
+        // Then
+        assertThat(count).isEqualTo(0)
+        assertThat(out.toString(Charsets.UTF_8))
+            .isEqualTo("id,mentorAccountId,jobSeekerAccountId,interviewTypeId,jobPositionId,fromTime,toTime,meetCode,createdOn\r\n")
+    }
+}
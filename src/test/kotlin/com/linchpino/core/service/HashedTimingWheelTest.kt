@@ -0,0 +1,102 @@
+package com.linchpino.core.service
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class HashedTimingWheelTest {
+
+    @Test
+    fun `test key expires on the first tick at or after its deadline`() {
+        // Given
+        val wheel = HashedTimingWheel<String>(100, 8, 0)
+        wheel.schedule("hold", 250)
+
+        // When
+        val early = wheel.advance(299)
+        val due = wheel.advance(300)
+
+        // Then
+        assertThat(early).isEmpty()
+        assertThat(due).containsExactly("hold")
+        assertThat(wheel.size).isZero()
+    }
+
+    @Test
+    fun `test key due in a later revolution stays until its own tick`() {
+        // Given
+        val wheel = HashedTimingWheel<String>(100, 8, 0)
+        wheel.schedule("late", 2_000)
+        wheel.schedule("soon", 400)
+
+        // When
+        val firstRevolution = wheel.advance(800)
+        val secondRevolution = wheel.advance(1_900)
+        val third = wheel.advance(2_000)
+
+        // Then
+        assertThat(firstRevolution).containsExactly("soon")
+        assertThat(secondRevolution).isEmpty()
+        assertThat(third).containsExactly("late")
+    }
+
+    @Test
+    fun `test cancelled key never expires`() {
+        // Given
+        val wheel = HashedTimingWheel<String>(100, 8, 0)
+        wheel.schedule("hold", 300)
+
+        // When
+        val cancelled = wheel.cancel("hold")
+        val expired = wheel.advance(1_000)
+
+        // Then
+        assertThat(cancelled).isTrue()
+        assertThat(expired).isEmpty()
+        assertThat(wheel.cancel("hold")).isFalse()
+    }
+
+    @Test
+    fun `test rescheduling a key replaces its deadline`() {
+        // Given
+        val wheel = HashedTimingWheel<String>(100, 8, 0)
+        wheel.schedule("hold", 300)
+
+        // When
+        wheel.schedule("hold", 600)
+
+        // Then
+        assertThat(wheel.advance(500)).isEmpty()
+        assertThat(wheel.advance(600)).containsExactly("hold")
+    }
+
+    @Test
+    fun `test deadline in the past expires on the next tick`() {
+        // Given
+        val wheel = HashedTimingWheel<String>(100, 8, 1_000)
+
+        // When
+        wheel.schedule("hold", 200)
+
+        // Then
+        assertThat(wheel.advance(1_099)).isEmpty()
+        assertThat(wheel.advance(1_100)).containsExactly("hold")
+    }
+
+    @Test
+    fun `test advancing after a long pause expires every due key once`() {
+        // Given
+        val wheel = HashedTimingWheel<Int>(10, 16, 0)
+        val random = Random(7)
+        val deadlines = (0 until 500).associateWith { random.nextLong(0, 5_000) }
+        deadlines.forEach { (key, deadline) -> wheel.schedule(key, deadline) }
+
+        // When
+        val expired = wheel.advance(2_500)
+
+        // Then
+        assertThat(expired).containsExactlyInAnyOrderElementsOf(deadlines.filterValues { it <= 2_500 }.keys)
+        assertThat(wheel.size).isEqualTo(deadlines.count { it.value > 2_500 })
+        assertThat(wheel.advance(5_000)).containsExactlyInAnyOrderElementsOf(deadlines.filterValues { it > 2_500 }.keys)
+    }
+}
@@ -0,0 +1,78 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.InterviewJoinWindow
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+class InterviewJoinCacheTest {
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var cache: InterviewJoinCache
+
+    private val now = ZonedDateTime.now(ZoneOffset.UTC)
+
+    @BeforeEach
+    fun setUp() {
+        meterRegistry = SimpleMeterRegistry()
+        cache = InterviewJoinCache(meterRegistry, 2)
+    }
+
+    @Test
+    fun `test window is served until the interview ended`() {
+        // Given
+        val ongoing = window(1, now.minusMinutes(30))
+        val ended = window(2, now.minusMinutes(90))
+
+        // When
+        cache.put(ongoing)
+        cache.put(ended)
+
+        // Then
+        assertThat(cache.get(1)).isEqualTo(ongoing)
+        assertThat(cache.get(2)).isNull()
+        assertThat(meterRegistry.get("interview.join.cache.requests").tag("result", "hit").counter().count())
+            .isEqualTo(1.0)
+        assertThat(meterRegistry.get("interview.join.cache.requests").tag("result", "miss").counter().count())
+            .isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test evict drops windows of ended interviews`() {
+        // Given
+        val endsSoon = window(1, now.minusMinutes(59).minusSeconds(59))
+        cache.put(endsSoon)
+        cache.put(window(2, now))
+        Thread.sleep(1100)
+
+        // When
+        cache.evict()
+
+        // Then
+        assertThat(cache.get(1)).isNull()
+        assertThat(cache.size).isEqualTo(1)
+    }
+
+    @Test
+    fun `test no window is added beyond max entries but a cached one is replaced`() {
+        // Given
+        cache.put(window(1, now))
+        cache.put(window(2, now))
+
+        // When
+        cache.put(window(3, now))
+        cache.put(window(2, now).copy(meetCode = "abc-efg-hij"))
+
+        // Then
+        assertThat(cache.get(3)).isNull()
+        assertThat(cache.get(2)?.meetCode).isEqualTo("abc-efg-hij")
+    }
+
+    private fun window(id: Long, fromTime: ZonedDateTime) = InterviewJoinWindow(
+        id, 1, "john.doe@example.com", 2, "mentor@example.com", fromTime, fromTime.plusMinutes(60), null
+    )
+}
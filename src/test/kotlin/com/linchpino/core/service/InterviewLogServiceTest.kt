@@ -5,24 +5,31 @@ import com.linchpino.core.entity.InterviewLog
 import com.linchpino.core.enums.InterviewLogType
 import com.linchpino.core.repository.InterviewLogRepository
 import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
 import org.mockito.ArgumentCaptor
-import org.mockito.InjectMocks
 import org.mockito.Mock
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyList
+import org.mockito.Mockito.never
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
 import org.mockito.junit.jupiter.MockitoExtension
 
 @ExtendWith(MockitoExtension::class)
 class InterviewLogServiceTest{
 
-    @InjectMocks
-    private lateinit var service: InterviewLogService
-
     @Mock
     lateinit var interviewLogRepository: InterviewLogRepository
 
+    private lateinit var service: InterviewLogService
+
+    @BeforeEach
+    fun setUp() {
+        service = InterviewLogService(interviewLogRepository, 2)
+    }
 
     @Test
     fun `test save logs`(){
@@ -40,4 +47,57 @@ class InterviewLogServiceTest{
         assertThat(interviewLog.createdBy).isEqualTo(1)
 
     }
+
+    @Test
+    fun `test logs saved later are inserted together on flush`() {
+        // Given
+        val captor: ArgumentCaptor<List<InterviewLog>> =
+            ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<InterviewLog>>
+        service.saveLater(InterviewLogType.JOINED, 1)
+        service.saveLater(InterviewLogType.JOINED, 2)
+        verify(interviewLogRepository, never()).save(any())
+
+        // When
+        service.flush()
+        service.flush()
+
+        // Then
+        verify(interviewLogRepository, times(1)).saveAll(captor.captureNonNullable())
+        assertThat(captor.value.map { it.createdBy }).containsExactly(1L, 2L)
+        assertThat(captor.value.map { it.type }).containsOnly(InterviewLogType.JOINED)
+    }
+
+    @Test
+    fun `test log is inserted right away when the buffer is full`() {
+        // Given
+        val captor: ArgumentCaptor<InterviewLog> = ArgumentCaptor.forClass(InterviewLog::class.java)
+        service.saveLater(InterviewLogType.JOINED, 1)
+        service.saveLater(InterviewLogType.JOINED, 2)
+
+        // When
+        service.saveLater(InterviewLogType.JOINED, 3)
+
+        // Then
+        verify(interviewLogRepository, times(1)).save(captor.captureNonNullable())
+        assertThat(captor.value.createdBy).isEqualTo(3)
+    }
+
+    @Test
+    fun `test failed flush queues the logs again`() {
+        // Given
+        val captor: ArgumentCaptor<List<InterviewLog>> =
+            ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<InterviewLog>>
+        service.saveLater(InterviewLogType.JOINED, 1)
+        `when`(interviewLogRepository.saveAll(anyList<InterviewLog>()))
+            .thenThrow(IllegalStateException("database is down"))
+            .thenAnswer { it.getArgument(0) }
+
+        // When
+        service.flush()
+        service.flush()
+
+        // Then
+        verify(interviewLogRepository, times(2)).saveAll(captor.captureNonNullable())
+        assertThat(captor.allValues.map { logs -> logs.map { it.createdBy } }).containsExactly(listOf(1L), listOf(1L))
+    }
 }
@@ -5,7 +5,9 @@ import com.linchpino.core.dto.CreateAccountRequest
 import com.linchpino.core.dto.CreateAccountResult
 import com.linchpino.core.dto.CreateInterviewRequest
 import com.linchpino.core.dto.CreateInterviewResult
+import com.linchpino.core.dto.InterviewCursor
 import com.linchpino.core.dto.InterviewListResponse
+import com.linchpino.core.dto.toJoinWindow
 import com.linchpino.core.entity.Account
 import com.linchpino.core.entity.Interview
 import com.linchpino.core.entity.InterviewType
@@ -26,28 +28,32 @@ import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.JobPositionRepository
 import com.linchpino.core.repository.findReferenceById
 import com.linchpino.core.security.WithMockJwt
-import com.linchpino.core.security.email
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Assertions
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
 import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.any
 import org.mockito.ArgumentMatchers.anyLong
 import org.mockito.ArgumentMatchers.anyString
+import org.mockito.ArgumentMatchers.eq
 import org.mockito.InjectMocks
 import org.mockito.Mock
+import org.mockito.Mockito.never
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.`when`
 import org.mockito.junit.jupiter.MockitoExtension
 import org.springframework.data.domain.PageImpl
+import org.springframework.data.domain.PageRequest
 import org.springframework.data.domain.Pageable
 import org.springframework.security.oauth2.jwt.Jwt
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken
 import java.time.DayOfWeek
 import java.time.Instant
 import java.time.ZonedDateTime
+import java.util.UUID
 
 @ExtendWith(MockitoExtension::class)
 class InterviewServiceTest {
@@ -71,10 +77,10 @@ class InterviewServiceTest {
     private lateinit var accountService: AccountService
 
     @Mock
-    private lateinit var emailService: EmailService
+    private lateinit var reminders: ReminderService
 
     @Mock
-    private lateinit var calendarService: CalendarService
+    private lateinit var meetProvisioning: MeetProvisioningService
 
     @Mock
     private lateinit var scheduleService: ScheduleService
@@ -85,6 +91,12 @@ class InterviewServiceTest {
     @Mock
     private lateinit var interviewLogService: InterviewLogService
 
+    @Mock
+    private lateinit var slotHoldService: SlotHoldService
+
+    @Mock
+    private lateinit var joinCache: InterviewJoinCache
+
     @Test
     fun `test create new interview when account exists`() {
         val jobSeekerAccount = Account().apply {
@@ -150,12 +162,6 @@ class InterviewServiceTest {
 
         val interviewCaptor: ArgumentCaptor<Interview> = ArgumentCaptor.forClass(Interview::class.java)
 
-        val attendeeCaptor: ArgumentCaptor<List<String>> =
-            ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<String>>
-        val titleCaptor: ArgumentCaptor<String> = ArgumentCaptor.forClass(String::class.java)
-        val timeCaptor: ArgumentCaptor<Pair<ZonedDateTime, ZonedDateTime>> =
-            ArgumentCaptor.forClass(Pair::class.java) as ArgumentCaptor<Pair<ZonedDateTime, ZonedDateTime>>
-
         val logTypeCaptor: ArgumentCaptor<InterviewLogType> = ArgumentCaptor.forClass(InterviewLogType::class.java)
         val idCaptor: ArgumentCaptor<Long> = ArgumentCaptor.forClass(Long::class.java)
 
@@ -164,19 +170,13 @@ class InterviewServiceTest {
         `when`(jobPositionRepository.getReferenceById(1)).thenReturn(position)
         `when`(interviewTypeRepository.getReferenceById(1)).thenReturn(typeInterview)
         `when`(scheduleService.availableTimeSlot(mentorAccount, createInterviewRequest)).thenReturn(mentorTimeSlot)
-        `when`(
-            calendarService.googleMeetCode(
-                attendeeCaptor.captureNonNullable(),
-                titleCaptor.captureNonNullable(),
-                timeCaptor.captureNonNullable()
-            )
-        ).thenReturn("fake-meet-code")
 
         val result = service.createInterview(createInterviewRequest)
 
         verify(interviewRepository, times(1)).save(interviewCaptor.capture())
 
-        verify(emailService, times(1)).sendingInterviewInvitationEmailToJobSeeker(interviewCaptor.value)
+        verify(meetProvisioning, times(1)).enqueue(interviewCaptor.value)
+        verify(reminders, times(1)).schedule(interviewCaptor.value)
         verify(interviewLogService, times(1)).save(logTypeCaptor.captureNonNullable(), idCaptor.captureNonNullable())
 
         assertEquals(createInterviewResult, result)
@@ -185,17 +185,7 @@ class InterviewServiceTest {
         assertEquals("Mentor.Mentoriii@example.com", savedInterview.mentorAccount?.email)
         assertEquals(AccountStatusEnum.ACTIVATED, savedInterview.jobSeekerAccount?.status)
 
-        assertThat(savedInterview.meetCode).isEqualTo("fake-meet-code")
-
-        val attendees = attendeeCaptor.value
-        assertThat(attendees).isEqualTo(listOf(mentorAccount.email, jobSeekerAccount.email))
-
-        val meetTitle = titleCaptor.value
-        assertThat(meetTitle).isEqualTo("${typeInterview.name} with ${mentorAccount.firstName} and ${jobSeekerAccount.firstName}")
-
-        val times = timeCaptor.value
-        assertThat(times).isEqualTo(Pair(mentorTimeSlot.fromTime, mentorTimeSlot.toTime))
-        assertThat(times).isEqualTo(Pair(mentorTimeSlot.fromTime, mentorTimeSlot.toTime))
+        assertThat(savedInterview.meetCode).isNull()
 
         val id = idCaptor.value
         val logType = logTypeCaptor.value
@@ -242,11 +232,6 @@ class InterviewServiceTest {
         val createAccountRequestCaptor: ArgumentCaptor<CreateAccountRequest> =
             ArgumentCaptor.forClass(CreateAccountRequest::class.java)
 
-        val attendeeCaptor: ArgumentCaptor<List<String>> =
-            ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<String>>
-        val titleCaptor: ArgumentCaptor<String> = ArgumentCaptor.forClass(String::class.java)
-        val timeCaptor: ArgumentCaptor<Pair<ZonedDateTime, ZonedDateTime>> =
-            ArgumentCaptor.forClass(Pair::class.java) as ArgumentCaptor<Pair<ZonedDateTime, ZonedDateTime>>
         val logTypeCaptor: ArgumentCaptor<InterviewLogType> = ArgumentCaptor.forClass(InterviewLogType::class.java)
         val idCaptor: ArgumentCaptor<Long> = ArgumentCaptor.forClass(Long::class.java)
         val createInterviewRequest = CreateInterviewRequest(
@@ -276,18 +261,12 @@ class InterviewServiceTest {
                 listOf()
             )
         )
-        `when`(
-            calendarService.googleMeetCode(
-                attendeeCaptor.captureNonNullable(),
-                titleCaptor.captureNonNullable(),
-                timeCaptor.captureNonNullable()
-            )
-        ).thenReturn("fake-meet-code")
 
         service.createInterview(createInterviewRequest)
 
         verify(interviewRepository, times(1)).save(interviewCaptor.capture())
-        verify(emailService, times(1)).sendingInterviewInvitationEmailToJobSeeker(interviewCaptor.value)
+        verify(meetProvisioning, times(1)).enqueue(interviewCaptor.value)
+        verify(reminders, times(1)).schedule(interviewCaptor.value)
         verify(interviewLogService, times(1)).save(logTypeCaptor.captureNonNullable(), idCaptor.captureNonNullable())
 
         val newAccount = createAccountRequestCaptor.value
@@ -300,17 +279,8 @@ class InterviewServiceTest {
         assertThat(interview.mentorAccount).isEqualTo(mentorAccount)
         assertThat(interview.timeSlot).isEqualTo(mentorTimeSlot)
         assertThat(interview.jobPosition).isEqualTo(position)
-        assertThat(interview.meetCode).isEqualTo("fake-meet-code")
-
-
-        val attendees = attendeeCaptor.value
-        assertThat(attendees).isEqualTo(listOf(mentorAccount.email, jobSeekerAccount.email))
+        assertThat(interview.meetCode).isNull()
 
-        val meetTitle = titleCaptor.value
-        assertThat(meetTitle).isEqualTo("${typeInterview.name} with ${mentorAccount.firstName} and jobseeker")
-
-        val times = timeCaptor.value
-        assertThat(times).isEqualTo(Pair(mentorTimeSlot.fromTime, mentorTimeSlot.toTime))
         val id = idCaptor.value
         val logType = logTypeCaptor.value
 
@@ -336,20 +306,21 @@ class InterviewServiceTest {
             )
         )
         val authentication = JwtAuthenticationToken(jwt)
-        val emailCaptor: ArgumentCaptor<String> = ArgumentCaptor.forClass(String::class.java)
+        val accountIdCaptor: ArgumentCaptor<Long> = ArgumentCaptor.forClass(Long::class.java)
         val pageCaptor: ArgumentCaptor<Pageable> = ArgumentCaptor.forClass(Pageable::class.java)
         val mentorTimeSlotCaptor: ArgumentCaptor<MentorTimeSlotEnum> =
             ArgumentCaptor.forClass(MentorTimeSlotEnum::class.java)
+        `when`(accountRepository.findIdByEmail("john.doe@example.com")).thenReturn(1)
         `when`(service.upcomingInterviews(authentication, Pageable.unpaged())).thenReturn(expected)
 
         val response = service.upcomingInterviews(authentication, Pageable.unpaged())
 
         verify(interviewRepository, times(1)).findUpcomingInterviews(
-            emailCaptor.captureNonNullable(),
+            accountIdCaptor.captureNonNullable(),
             pageCaptor.captureNonNullable(),
             mentorTimeSlotCaptor.captureNonNullable()
         )
-        assertThat(emailCaptor.value).isEqualTo("john.doe@example.com")
+        assertThat(accountIdCaptor.value).isEqualTo(1)
         assertThat(mentorTimeSlotCaptor.value).isEqualTo(MentorTimeSlotEnum.ALLOCATED)
         assertThat(response).isEqualTo(expected)
     }
@@ -412,6 +383,51 @@ class InterviewServiceTest {
         assertThat(exception.errorCode).isEqualTo(ErrorCode.TIMESLOT_IS_BOOKED)
     }
 
+    @Test
+    fun `test create interview with hold claims the held time slot`() {
+        // Given
+        val jobSeekerAccount = Account().apply {
+            id = 1
+            firstName = "John"
+            email = "john.doe@example.com"
+        }
+        val mentorAcc = Account().apply {
+            id = 2
+            firstName = "Mentor"
+            email = "Mentor.Mentoriii@example.com"
+        }
+        val position = JobPosition().apply {
+            id = 1
+            title = "Test Job"
+        }
+        val typeInterview = InterviewType().apply {
+            id = 1
+            name = "Test Interview Type"
+        }
+        val mentorTimeSlot = MentorTimeSlot().apply {
+            id = 5
+            account = mentorAcc
+            fromTime = startTime
+            toTime = endTime
+            status = MentorTimeSlotEnum.ALLOCATED
+        }
+        val holdId = UUID.randomUUID()
+        val createInterviewRequest = CreateInterviewRequest(1, 1, startTime, endTime, 2, "john.doe@example.com", holdId)
+
+        `when`(accountRepository.findByEmailIgnoreCase(jobSeekerAccount.email)).thenReturn(jobSeekerAccount)
+        `when`(accountRepository.findReferenceById(2)).thenReturn(mentorAcc)
+        `when`(jobPositionRepository.findReferenceById(1)).thenReturn(position)
+        `when`(interviewTypeRepository.findReferenceById(1)).thenReturn(typeInterview)
+        `when`(slotHoldService.claim(holdId, mentorAcc, createInterviewRequest, 1)).thenReturn(mentorTimeSlot)
+
+        // When
+        val result = service.createInterview(createInterviewRequest)
+
+        // Then
+        assertThat(result.timeSlotId).isEqualTo(5)
+        verify(scheduleService, never()).availableTimeSlot(mentorAcc, createInterviewRequest)
+    }
+
     @Test
     fun `test past interviews`() {
         // Given
@@ -431,20 +447,21 @@ class InterviewServiceTest {
             )
         )
         val authentication = JwtAuthenticationToken(jwt)
-        val emailCaptor: ArgumentCaptor<String> = ArgumentCaptor.forClass(String::class.java)
+        val accountIdCaptor: ArgumentCaptor<Long> = ArgumentCaptor.forClass(Long::class.java)
         val pageCaptor: ArgumentCaptor<Pageable> = ArgumentCaptor.forClass(Pageable::class.java)
         val mentorTimeSlotCaptor: ArgumentCaptor<MentorTimeSlotEnum> =
             ArgumentCaptor.forClass(MentorTimeSlotEnum::class.java)
+        `when`(accountRepository.findIdByEmail("john.doe@example.com")).thenReturn(1)
         `when`(service.pastInterviews(authentication, Pageable.unpaged())).thenReturn(expected)
         // When
         val response = service.pastInterviews(authentication, Pageable.unpaged())
 
         verify(interviewRepository, times(1)).findPastInterviews(
-            emailCaptor.captureNonNullable(),
+            accountIdCaptor.captureNonNullable(),
             pageCaptor.captureNonNullable(),
             mentorTimeSlotCaptor.captureNonNullable()
         )
-        assertThat(emailCaptor.value).isEqualTo("john.doe@example.com")
+        assertThat(accountIdCaptor.value).isEqualTo(1)
         assertThat(mentorTimeSlotCaptor.value).isEqualTo(MentorTimeSlotEnum.ALLOCATED)
         assertThat(response).isEqualTo(expected)
     }
@@ -454,7 +471,7 @@ class InterviewServiceTest {
         // Given
         val authentication = WithMockJwt.mockAuthentication()
 
-        `when`(interviewRepository.findByInterviewIdAndAccountEmail(anyLong(), anyString())).thenReturn(null)
+        `when`(interviewRepository.findForJoin(anyLong())).thenReturn(null)
 
         val exception = Assertions.assertThrows(LinchpinException::class.java) {
             service.checkValidity(5, authentication)
@@ -463,33 +480,32 @@ class InterviewServiceTest {
         assertThat(exception.errorCode).isEqualTo(ErrorCode.ENTITY_NOT_FOUND)
     }
 
+    @Test
+    fun `test interview validity throws not found exception if the account is not a participant`() {
+        // Given
+        val authentication = WithMockJwt.mockAuthentication("jane.smith@example.com")
+        `when`(interviewRepository.findForJoin(1)).thenReturn(joinableInterview(ZonedDateTime.now().plusMinutes(2)))
+
+        // When
+        val exception = Assertions.assertThrows(LinchpinException::class.java) {
+            service.checkValidity(1, authentication)
+        }
+
+        // Then
+        assertThat(exception.errorCode).isEqualTo(ErrorCode.ENTITY_NOT_FOUND)
+        verify(interviewLogService, never()).saveLater(any(), any())
+    }
+
     @Test
     fun `test interview validity returns status true and google meet link, also a log for join event is saved`() {
 
         // Given
-        val account = Account().apply {
-            id = 1
-            email = "john.doe@example.com"
-            firstName = "John"
-            lastName = "Doe"
-        }
         val id = 1L
         val email = "john.doe@example.com"
         val meetCode = "abc-efg-hij"
         val authentication = WithMockJwt.mockAuthentication(email)
-
-        val timeSlot = MentorTimeSlot().apply {
-            fromTime = ZonedDateTime.now().plusMinutes(2)
-            toTime = ZonedDateTime.now().plusMinutes(60)
-            status = MentorTimeSlotEnum.ALLOCATED
-        }
-
-        val interview = Interview().apply {
-            this.timeSlot = timeSlot
-            this.meetCode = meetCode
-        }
-        `when`(accountRepository.findByEmailIgnoreCase(authentication.email())).thenReturn(account)
-        `when`(interviewRepository.findByInterviewIdAndAccountEmail(id, email)).thenReturn(interview)
+        val interview = joinableInterview(ZonedDateTime.now().plusMinutes(2))
+        `when`(interviewRepository.findForJoin(id)).thenReturn(interview)
 
         // When
         val response = service.checkValidity(id, authentication)
@@ -500,7 +516,58 @@ class InterviewServiceTest {
         assertThat(response.verifyStatus).isEqualTo(true)
         assertThat(response.link).isEqualTo("https://meet.google.com/$meetCode")
 
-        verify(interviewLogService, times(1)).save(InterviewLogType.JOINED, account.id)
+        verify(interviewLogService, times(1)).saveLater(InterviewLogType.JOINED, 1)
+        verify(joinCache, times(1)).put(interview.toJoinWindow()!!)
+    }
+
+    @Test
+    fun `test interview validity is answered from the join cache without loading the interview`() {
+        // Given
+        val authentication = WithMockJwt.mockAuthentication("john.doe@example.com")
+        val window = joinableInterview(ZonedDateTime.now().plusMinutes(2)).toJoinWindow()!!
+        `when`(joinCache.get(1)).thenReturn(window)
+
+        // When
+        val response = service.checkValidity(1, authentication)
+
+        // Then
+        assertThat(response.verifyStatus).isEqualTo(true)
+        assertThat(response.link).isEqualTo("https://meet.google.com/abc-efg-hij")
+        verify(interviewRepository, never()).findForJoin(anyLong())
+        verify(accountRepository, never()).findByEmailIgnoreCase(anyString())
+        verify(interviewLogService, times(1)).saveLater(InterviewLogType.JOINED, 1)
+    }
+
+    @Test
+    fun `test cached join window without meet code is reloaded when the interview can be joined`() {
+        // Given
+        val authentication = WithMockJwt.mockAuthentication("mentor@example.com")
+        val interview = joinableInterview(ZonedDateTime.now().plusMinutes(2))
+        `when`(joinCache.get(1)).thenReturn(interview.toJoinWindow()!!.copy(meetCode = null))
+        `when`(interviewRepository.findForJoin(1)).thenReturn(interview)
+
+        // When
+        val response = service.checkValidity(1, authentication)
+
+        // Then
+        assertThat(response.link).isEqualTo("https://meet.google.com/abc-efg-hij")
+        verify(interviewLogService, times(1)).saveLater(InterviewLogType.JOINED, 2)
+    }
+
+    @Test
+    fun `test interview without meet code is not joinable`() {
+        // Given
+        val authentication = WithMockJwt.mockAuthentication("john.doe@example.com")
+        val interview = joinableInterview(ZonedDateTime.now().plusMinutes(2)).apply { meetCode = null }
+        `when`(interviewRepository.findForJoin(1)).thenReturn(interview)
+
+        // When
+        val response = service.checkValidity(1, authentication)
+
+        // Then
+        assertThat(response.verifyStatus).isEqualTo(false)
+        assertThat(response.link).isEqualTo("")
+        verify(interviewLogService, never()).saveLater(any(), any())
     }
 
     @Test
@@ -509,20 +576,9 @@ class InterviewServiceTest {
         // Given
         val id = 1L
         val email = "john.doe@example.com"
-        val meetCode = "abc-efg-hij"
         val authentication = WithMockJwt.mockAuthentication(email)
-
-        val timeSlot = MentorTimeSlot().apply {
-            fromTime = ZonedDateTime.now().plusMinutes(6)
-            toTime = ZonedDateTime.now().plusMinutes(60)
-            status = MentorTimeSlotEnum.ALLOCATED
-        }
-
-        val interview = Interview().apply {
-            this.timeSlot = timeSlot
-            this.meetCode = meetCode
-        }
-        `when`(interviewRepository.findByInterviewIdAndAccountEmail(id, email)).thenReturn(interview)
+        val interview = joinableInterview(ZonedDateTime.now().plusMinutes(6))
+        `when`(interviewRepository.findForJoin(id)).thenReturn(interview)
 
         // When
         val response = service.checkValidity(id, authentication)
@@ -532,6 +588,27 @@ class InterviewServiceTest {
         assertThat(response.interviewDateTimeEnd).isEqualTo(interview.timeSlot?.toTime)
         assertThat(response.verifyStatus).isEqualTo(false)
         assertThat(response.link).isEqualTo("")
+        verify(interviewLogService, never()).saveLater(any(), any())
+    }
+
+    private fun joinableInterview(fromTime: ZonedDateTime) = Interview().apply {
+        id = 1
+        meetCode = "abc-efg-hij"
+        jobSeekerAccount = Account().apply {
+            id = 1
+            email = "john.doe@example.com"
+            firstName = "John"
+            lastName = "Doe"
+        }
+        mentorAccount = Account().apply {
+            id = 2
+            email = "mentor@example.com"
+        }
+        timeSlot = MentorTimeSlot().apply {
+            this.fromTime = fromTime
+            toTime = fromTime.plusMinutes(60)
+            status = MentorTimeSlotEnum.ALLOCATED
+        }
     }
 
     @Test
@@ -552,20 +629,21 @@ class InterviewServiceTest {
             )
         )
         val authentication = JwtAuthenticationToken(jwt)
-        val emailCaptor: ArgumentCaptor<String> = ArgumentCaptor.forClass(String::class.java)
+        val accountIdCaptor: ArgumentCaptor<Long> = ArgumentCaptor.forClass(Long::class.java)
         val pageCaptor: ArgumentCaptor<Pageable> = ArgumentCaptor.forClass(Pageable::class.java)
         val mentorTimeSlotCaptor: ArgumentCaptor<MentorTimeSlotEnum> =
             ArgumentCaptor.forClass(MentorTimeSlotEnum::class.java)
+        `when`(accountRepository.findIdByEmail("john.doe@example.com")).thenReturn(1)
         `when`(service.jobSeekerUpcomingInterviews(authentication, Pageable.unpaged())).thenReturn(expected)
 
         val response = service.jobSeekerUpcomingInterviews(authentication, Pageable.unpaged())
 
         verify(interviewRepository, times(1)).findJobSeekerUpcomingInterviews(
-            emailCaptor.captureNonNullable(),
+            accountIdCaptor.captureNonNullable(),
             pageCaptor.captureNonNullable(),
             mentorTimeSlotCaptor.captureNonNullable()
         )
-        assertThat(emailCaptor.value).isEqualTo("john.doe@example.com")
+        assertThat(accountIdCaptor.value).isEqualTo(1)
         assertThat(mentorTimeSlotCaptor.value).isEqualTo(MentorTimeSlotEnum.ALLOCATED)
         assertThat(response).isEqualTo(expected)
     }
@@ -589,82 +667,104 @@ class InterviewServiceTest {
             )
         )
         val authentication = JwtAuthenticationToken(jwt)
-        val emailCaptor: ArgumentCaptor<String> = ArgumentCaptor.forClass(String::class.java)
+        val accountIdCaptor: ArgumentCaptor<Long> = ArgumentCaptor.forClass(Long::class.java)
         val pageCaptor: ArgumentCaptor<Pageable> = ArgumentCaptor.forClass(Pageable::class.java)
         val mentorTimeSlotCaptor: ArgumentCaptor<MentorTimeSlotEnum> =
             ArgumentCaptor.forClass(MentorTimeSlotEnum::class.java)
+        `when`(accountRepository.findIdByEmail("john.doe@example.com")).thenReturn(1)
         `when`(service.jobSeekerPastInterviews(authentication, Pageable.unpaged())).thenReturn(expected)
         // When
         val response = service.jobSeekerPastInterviews(authentication, Pageable.unpaged())
 
         verify(interviewRepository, times(1)).findJobSeekerPastInterviews(
-            emailCaptor.captureNonNullable(),
+            accountIdCaptor.captureNonNullable(),
             pageCaptor.captureNonNullable(),
             mentorTimeSlotCaptor.captureNonNullable()
         )
-        assertThat(emailCaptor.value).isEqualTo("john.doe@example.com")
+        assertThat(accountIdCaptor.value).isEqualTo(1)
         assertThat(mentorTimeSlotCaptor.value).isEqualTo(MentorTimeSlotEnum.ALLOCATED)
         assertThat(response).isEqualTo(expected)
     }
 
     @Test
-    fun `test reminder`() {
-        val fromCaptor: ArgumentCaptor<ZonedDateTime> = ArgumentCaptor.forClass(ZonedDateTime::class.java)
-        val toCaptor: ArgumentCaptor<ZonedDateTime> = ArgumentCaptor.forClass(ZonedDateTime::class.java)
-
-        val from = ZonedDateTime.now()
-        val to = from.plusMinutes(30)
-        `when`(
-            interviewRepository.findInterviewsWithin(
-                fromCaptor.captureNonNullable(),
-                toCaptor.captureNonNullable()
+    fun `test upcoming interviews after a cursor read one extra row to build the next cursor`() {
+        // Given
+        val authentication = JwtAuthenticationToken(
+            Jwt(
+                "token",
+                Instant.now(),
+                Instant.now().plusSeconds(3600),
+                mapOf("alg" to "none"),
+                mapOf("sub" to "john.doe@example.com", "scope" to "MENTOR")
             )
-        ).thenReturn(
-            listOf(Interview().apply {
-                mentorAccount = Account().apply {
-                    firstName = "john"
-                    lastName = "doe"
-                    email = "john.doe@example.com"
-                }
-                jobSeekerAccount = Account().apply {
-                    firstName = "jane"
-                    lastName = "smith"
-                    email = "jane.smith@example.com"
-                }
-                timeSlot = MentorTimeSlot().apply {
-                    fromTime = from
-                    toTime = to
-                }
-            })
         )
+        val cursor = InterviewCursor(ZonedDateTime.parse("2024-09-18T10:00:00Z"), 5)
+        val rows = (6L..8L).map {
+            val from = cursor.fromTime.plusHours(it)
+            InterviewListResponse(it, 1L, "John Doe", from, from.plusHours(1), "InterviewType")
+        }
+        `when`(accountRepository.findIdByEmail("john.doe@example.com")).thenReturn(1)
+        `when`(
+            interviewRepository.findUpcomingInterviewsAfter(
+                1,
+                cursor.fromTime,
+                5,
+                PageRequest.ofSize(3),
+                MentorTimeSlotEnum.ALLOCATED
+            )
+        ).thenReturn(rows)
 
-        service.remindInterviewParties()
+        // When
+        val slice = service.upcomingInterviewsAfter(authentication, cursor.encode(), 2)
 
-        verify(emailService, times(1)).sendEmail(
-            "jane.smith@example.com",
-            "Reminder: Your Upcoming Interview on Linchpino",
-            "interviewee-reminder.html",
-            mapOf(
-                "fullName" to "jane smith",
-                "date" to from.toLocalDate(),
-                "time" to from.toLocalTime(),
-                "timezone" to from.zone,
+        // Then
+        assertThat(slice.content).isEqualTo(rows.take(2))
+        assertThat(slice.hasNext).isTrue()
+        assertThat(InterviewCursor.decode(slice.nextCursor!!)).isEqualTo(InterviewCursor(rows[1].fromTime, 7))
+    }
+
+    @Test
+    fun `test last slice has no next cursor`() {
+        // Given
+        val authentication = JwtAuthenticationToken(
+            Jwt(
+                "token",
+                Instant.now(),
+                Instant.now().plusSeconds(3600),
+                mapOf("alg" to "none"),
+                mapOf("sub" to "john.doe@example.com", "scope" to "JOB_SEEKER")
             )
         )
+        val from = ZonedDateTime.parse("2024-09-18T10:00:00Z")
+        val row = InterviewListResponse(3L, 2L, "Mentor", from, from.plusHours(1), "InterviewType")
+        `when`(accountRepository.findIdByEmail("john.doe@example.com")).thenReturn(1)
+        `when`(
+            interviewRepository.findJobSeekerPastInterviewsBefore(
+                anyLong(),
+                any(ZonedDateTime::class.java),
+                eq(Long.MAX_VALUE),
+                eq(PageRequest.ofSize(11)),
+                eq(MentorTimeSlotEnum.ALLOCATED)
+            )
+        ).thenReturn(listOf(row))
 
+        // When
+        val slice = service.jobSeekerPastInterviewsBefore(authentication, null, 10)
 
-        verify(emailService, times(1)).sendEmail(
-            "john.doe@example.com",
-            "Reminder: Interview Scheduled on Linchpino",
-            "interviewer-reminder.html",
-            mapOf(
-                "fullName" to "john doe",
-                "intervieweeName" to "jane smith",
-                "date" to from.toLocalDate(),
-                "time" to from.toLocalTime(),
-                "timezone" to from.zone,
-            )
-        )
+        // Then
+        assertThat(slice.content).containsExactly(row)
+        assertThat(slice.nextCursor).isNull()
+        assertThat(slice.hasNext).isFalse()
+    }
+
+    @Test
+    fun `test malformed cursor is rejected`() {
+        // When
+        val exception = Assertions.assertThrows(LinchpinException::class.java) {
+            InterviewCursor.decode("not-a-cursor")
+        }
 
+        // Then
+        assertThat(exception.errorCode).isEqualTo(ErrorCode.INVALID_CURSOR)
     }
 }
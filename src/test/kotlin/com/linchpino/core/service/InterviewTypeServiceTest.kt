@@ -24,8 +24,10 @@ import org.mockito.InjectMocks
 import org.mockito.Mock
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
+import org.mockito.Mockito.verifyNoInteractions
 import org.mockito.Mockito.`when`
 import org.mockito.junit.jupiter.MockitoExtension
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.dao.DataIntegrityViolationException
 import org.springframework.data.domain.PageImpl
 import org.springframework.data.domain.Pageable
@@ -42,6 +44,8 @@ class InterviewTypeServiceTest {
     @Mock
     private lateinit var jobPositionRepository: JobPositionRepository
 
+    @Mock
+    private lateinit var eventPublisher: ApplicationEventPublisher
 
     @Test
     fun `test search calls repository with provided arguments`() {
@@ -186,6 +190,25 @@ class InterviewTypeServiceTest {
         verify(repository, times(1)).findById(1)
         assertThat(interviewType.name).isEqualTo("newName")
         assertThat(interviewType.jobPositions.first()).isEqualTo(jobPosition2)
+        verifyNoInteractions(eventPublisher)
+    }
+
+    @Test
+    fun `test update interview type publishes a changed slot length`() {
+        // Given
+        val interviewType = InterviewType().apply {
+            id = 1
+            name = "Mock Interview"
+            slotMinutes = 30
+        }
+        `when`(repository.findById(1)).thenReturn(Optional.of(interviewType))
+
+        // When
+        service.updateInterviewType(1, InterviewTypeUpdateRequest(null, null, 60))
+
+        // Then
+        assertThat(interviewType.slotMinutes).isEqualTo(60)
+        verify(eventPublisher, times(1)).publishEvent(InterviewTypeChanged(1, 60))
     }
 
     @Test
@@ -0,0 +1,226 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.toJoinWindow
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.Interview
+import com.linchpino.core.entity.InterviewType
+import com.linchpino.core.entity.MentorTimeSlot
+import com.linchpino.core.enums.MeetProvisioningStatus
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.repository.InterviewRepository
+import com.linchpino.core.repository.MeetOutboxRepository
+import com.linchpino.core.security.WithMockJwt
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyList
+import org.mockito.ArgumentMatchers.anyLong
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mock
+import org.mockito.Mockito.doThrow
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import java.time.ZonedDateTime
+import java.util.Optional
+
+class MeetProvisioningServiceTest {
+
+    @Mock
+    private lateinit var repository: MeetOutboxRepository
+
+    @Mock
+    private lateinit var interviewRepository: InterviewRepository
+
+    @Mock
+    private lateinit var calendarService: CalendarService
+
+    @Mock
+    private lateinit var emailService: EmailService
+
+    @Mock
+    private lateinit var joinCache: InterviewJoinCache
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var service: MeetProvisioningService
+
+    private val now = ZonedDateTime.parse("2024-09-18T12:00:00Z")
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        meterRegistry = SimpleMeterRegistry()
+        service = MeetProvisioningService(repository, interviewRepository, calendarService, emailService, joinCache, meterRegistry, 20, 3, 30, 120)
+    }
+
+    @Test
+    fun `test due interview gets its meet code and invitation`() {
+        // Given
+        val interview = interview()
+        `when`(repository.claimDue(now, now.plusSeconds(120), 3, 20)).thenReturn(listOf(7L to 1))
+        `when`(interviewRepository.findForProvisioning(7)).thenReturn(interview)
+        `when`(
+            calendarService.googleMeetCode(
+                listOf("mentor@example.com", "john.doe@example.com"),
+                "Backend with Mentor and John",
+                interview.timeSlot!!.fromTime to interview.timeSlot!!.toTime,
+                "linchpino7"
+            )
+        ).thenReturn("abc-defg-hij")
+        `when`(repository.complete(7, "abc-defg-hij")).thenReturn(true)
+
+        // When
+        val provisioned = service.provisionDue(now)
+
+        // Then
+        assertThat(provisioned).isEqualTo(1)
+        assertThat(interview.meetCode).isEqualTo("abc-defg-hij")
+        verify(emailService).sendingInterviewInvitationEmailToJobSeeker(interview)
+        verify(repository).remove(7)
+        verify(joinCache).put(interview.toJoinWindow()!!)
+        verify(repository, never()).retryAt(anyLong(), any(), any())
+        assertThat(meterRegistry.get("meet.provisioning").tag("result", "ready").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test failed attempt is retried with exponential backoff`() {
+        // Given
+        `when`(repository.claimDue(now, now.plusSeconds(120), 3, 20)).thenReturn(listOf(7L to 2))
+        `when`(interviewRepository.findForProvisioning(7)).thenReturn(interview())
+        `when`(calendarService.googleMeetCode(anyList(), anyString(), any(), anyString()))
+            .thenThrow(IllegalStateException("quota"))
+
+        // When
+        val provisioned = service.provisionDue(now)
+
+        // Then
+        assertThat(provisioned).isEqualTo(0)
+        verify(repository).retryAt(7, now.plusSeconds(60), "quota")
+        verify(repository, never()).complete(anyLong(), anyString())
+        verify(emailService, never()).sendingInterviewInvitationEmailToJobSeeker(any())
+        assertThat(meterRegistry.get("meet.provisioning").tag("result", "retry").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test failed invitation keeps the row and is retried`() {
+        // Given
+        val interview = interview()
+        `when`(repository.claimDue(now, now.plusSeconds(120), 3, 20)).thenReturn(listOf(7L to 3))
+        `when`(interviewRepository.findForProvisioning(7)).thenReturn(interview)
+        `when`(calendarService.googleMeetCode(anyList(), anyString(), any(), anyString())).thenReturn("abc-defg-hij")
+        `when`(repository.complete(7, "abc-defg-hij")).thenReturn(true)
+        doThrow(IllegalStateException("smtp")).`when`(emailService)
+            .sendingInterviewInvitationEmailToJobSeeker(interview)
+
+        // When
+        val provisioned = service.provisionDue(now)
+
+        // Then
+        assertThat(provisioned).isEqualTo(1)
+        verify(repository).retryAt(7, now.plusSeconds(30), "smtp")
+        verify(repository, never()).remove(anyLong())
+        verify(repository, never()).fail(anyLong(), any(), any())
+    }
+
+    @Test
+    fun `test row of a provisioned interview only sends the invitation`() {
+        // Given
+        val interview = interview().apply { meetCode = "abc-defg-hij" }
+        `when`(repository.claimDue(now, now.plusSeconds(120), 3, 20)).thenReturn(listOf(7L to 1))
+        `when`(interviewRepository.findForProvisioning(7)).thenReturn(interview)
+
+        // When
+        val provisioned = service.provisionDue(now)
+
+        // Then
+        assertThat(provisioned).isEqualTo(0)
+        verify(emailService).sendingInterviewInvitationEmailToJobSeeker(interview)
+        verify(repository).remove(7)
+        verify(calendarService, never()).googleMeetCode(anyList(), anyString(), any(), anyString())
+    }
+
+    @Test
+    fun `test last failed attempt marks the row failed and tells the participants`() {
+        // Given
+        val interview = interview()
+        `when`(repository.claimDue(now, now.plusSeconds(120), 3, 20)).thenReturn(listOf(7L to 3))
+        `when`(interviewRepository.findForProvisioning(7)).thenReturn(interview)
+        `when`(calendarService.googleMeetCode(anyList(), anyString(), any(), anyString()))
+            .thenThrow(IllegalStateException("quota"))
+
+        // When
+        service.provisionDue(now)
+
+        // Then
+        verify(repository).fail(7, now, "quota")
+        verify(repository, never()).retryAt(anyLong(), any(), any())
+        verify(emailService).sendingMeetProvisioningFailedEmail(interview)
+        assertThat(meterRegistry.get("meet.provisioning").tag("result", "failed").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test status is pending until the meet code is stored and failed once the last attempt failed`() {
+        // Given
+        val interview = interview()
+        val jobSeeker = WithMockJwt.mockAuthentication("john.doe@example.com")
+        `when`(interviewRepository.findById(7)).thenReturn(Optional.of(interview))
+        `when`(repository.failed(7)).thenReturn(false, true)
+
+        // Then
+        assertThat(service.status(7, jobSeeker).status).isEqualTo(MeetProvisioningStatus.PENDING)
+        assertThat(service.status(7, jobSeeker).status).isEqualTo(MeetProvisioningStatus.FAILED)
+        interview.meetCode = "abc-defg-hij"
+        assertThat(service.status(7, jobSeeker).status).isEqualTo(MeetProvisioningStatus.READY)
+    }
+
+    @Test
+    fun `test status of an interview booked before provisioning is not applicable`() {
+        // Given
+        `when`(interviewRepository.findById(7)).thenReturn(Optional.of(interview()))
+        `when`(repository.failed(7)).thenReturn(null)
+
+        // When
+        val result = service.status(7, WithMockJwt.mockAuthentication("Mentor@Example.com"))
+
+        // Then
+        assertThat(result.status).isEqualTo(MeetProvisioningStatus.NOT_APPLICABLE)
+    }
+
+    @Test
+    fun `test status is not found for accounts that are not participants`() {
+        // Given
+        `when`(interviewRepository.findById(7)).thenReturn(Optional.of(interview()))
+
+        // When & Then
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            service.status(7, WithMockJwt.mockAuthentication("someone@example.com"))
+        }
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.ENTITY_NOT_FOUND)
+        verify(repository, never()).failed(7)
+    }
+
+    private fun interview() = Interview().apply {
+        id = 7
+        interviewType = InterviewType().apply { name = "Backend" }
+        mentorAccount = Account().apply {
+            id = 1
+            firstName = "Mentor"
+            email = "mentor@example.com"
+        }
+        jobSeekerAccount = Account().apply {
+            id = 2
+            firstName = "John"
+            email = "john.doe@example.com"
+        }
+        timeSlot = MentorTimeSlot().apply {
+            fromTime = now.plusDays(1)
+            toTime = now.plusDays(1).plusHours(1)
+        }
+    }
+}
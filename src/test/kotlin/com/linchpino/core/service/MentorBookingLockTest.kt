@@ -0,0 +1,114 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mock
+import org.mockito.MockitoAnnotations
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class MentorBookingLockTest {
+
+    @Mock
+    private lateinit var jdbcTemplate: JdbcTemplate
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var mentorBookingLock: MentorBookingLock
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        meterRegistry = SimpleMeterRegistry()
+        mentorBookingLock = MentorBookingLock(jdbcTemplate, meterRegistry, "local", 16, 50)
+    }
+
+    @AfterEach
+    fun tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) completeTransaction()
+    }
+
+    @Test
+    fun `test second booking of same mentor fails fast while first transaction holds the lock`() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization()
+        mentorBookingLock.acquire(1)
+
+        // When
+        val result = acquireInOtherTransaction(1)
+
+        // Then
+        assertThat(result).isInstanceOf(LinchpinException::class.java)
+        assertThat((result as LinchpinException).errorCode).isEqualTo(ErrorCode.MENTOR_IS_BUSY)
+        assertThat(meterRegistry.get("mentor.booking.lock.wait").tag("outcome", "timeout").timer().count())
+            .isEqualTo(1)
+    }
+
+    @Test
+    fun `test bookings of other mentors do not wait for a held lock`() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization()
+        mentorBookingLock.acquire(1)
+
+        // When
+        val result = acquireInOtherTransaction(2)
+
+        // Then
+        assertThat(result).isNull()
+        assertThat(meterRegistry.get("mentor.booking.lock.wait").tag("outcome", "acquired").timer().count())
+            .isEqualTo(2)
+    }
+
+    @Test
+    fun `test lock is released when transaction completes`() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization()
+        mentorBookingLock.acquire(1)
+
+        // When
+        completeTransaction()
+        val result = acquireInOtherTransaction(1)
+
+        // Then
+        assertThat(result).isNull()
+    }
+
+    @Test
+    fun `test acquire outside a transaction throws exception`() {
+        Assertions.assertThrows(IllegalStateException::class.java) {
+            mentorBookingLock.acquire(1)
+        }
+    }
+
+    private fun acquireInOtherTransaction(mentorId: Long): Throwable? {
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            return executor.submit(Callable {
+                TransactionSynchronizationManager.initSynchronization()
+                try {
+                    runCatching { mentorBookingLock.acquire(mentorId) }.exceptionOrNull()
+                } finally {
+                    completeTransaction()
+                }
+            }).get(5, TimeUnit.SECONDS)
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    private fun completeTransaction() {
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach { it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED) }
+        TransactionSynchronizationManager.clearSynchronization()
+    }
+}
@@ -0,0 +1,114 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.ValidWindow
+import com.linchpino.core.dto.hasOverlapWith
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.MentorTimeSlot
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.CsvSource
+import java.time.ZonedDateTime
+import kotlin.random.Random
+
+class MentorIntervalIndexTest {
+
+    private val base = ZonedDateTime.parse("2024-09-09T10:00:00Z")
+
+    @ParameterizedTest
+    @CsvSource(
+        // booked slot is 60..120 minutes after base
+        "0, 60, false",
+        "0, 61, true",
+        "30, 90, true",
+        "60, 120, true",
+        "70, 80, true",
+        "50, 130, true",
+        "119, 180, true",
+        "120, 180, false",
+        "150, 180, false"
+    )
+    fun `test overlap against a single booked slot`(startMinute: Long, endMinute: Long, expected: Boolean) {
+        // Given
+        val index = MentorIntervalIndex.of(listOf(slot(1, 60, 120)))
+
+        // When
+        val result = index.overlaps(1, base.plusMinutes(startMinute), base.plusMinutes(endMinute))
+
+        // Then
+        assertThat(result).isEqualTo(expected)
+    }
+
+    @Test
+    fun `test long slot is found behind later short slots`() {
+        // Given
+        val index = MentorIntervalIndex.of(listOf(slot(1, 0, 600), slot(1, 10, 20), slot(1, 30, 40)))
+
+        // When
+        val result = index.overlaps(1, base.plusMinutes(300), base.plusMinutes(310))
+
+        // Then
+        assertThat(result).isTrue()
+    }
+
+    @Test
+    fun `test slots of other mentors are ignored`() {
+        // Given
+        val index = MentorIntervalIndex.of(listOf(slot(2, 0, 60), slot(3, 0, 60)))
+
+        // When
+        val result = index.overlaps(1, base, base.plusMinutes(60))
+
+        // Then
+        assertThat(result).isFalse()
+        assertThat(index.overlaps(3, base, base.plusMinutes(60))).isTrue()
+        assertThat(index.size).isEqualTo(2)
+    }
+
+    @Test
+    fun `test seconds are truncated like hasOverlapWith`() {
+        // Given
+        val index = MentorIntervalIndex.of(listOf(slot(1, 60, 120)))
+        val window = ValidWindow(base.plusMinutes(120).plusSeconds(30), base.plusMinutes(150))
+
+        // When
+        val result = index.overlaps(1, window)
+
+        // Then
+        assertThat(result).isFalse()
+    }
+
+    @Test
+    fun `test index agrees with hasOverlapWith for random slots`() {
+        val random = Random(7)
+        repeat(50) {
+            // Given
+            val slots = (0 until random.nextInt(0, 40)).map {
+                val start = random.nextLong(0, 24 * 60L)
+                slot(random.nextLong(1, 6), start, start + random.nextLong(1, 180))
+            }
+            val index = MentorIntervalIndex.of(slots)
+
+            repeat(200) {
+                val mentorId = random.nextLong(1, 7)
+                val start = base.plusSeconds(random.nextLong(0, 24 * 3600L))
+                val window = ValidWindow(start, start.plusMinutes(random.nextLong(1, 120)))
+
+                // When
+                val result = index.overlaps(mentorId, window)
+
+                // Then
+                val expected = slots.any {
+                    it.account?.id == mentorId && ValidWindow(it.fromTime, it.toTime).hasOverlapWith(window)
+                }
+                assertThat(result).`as`("mentor %s window %s", mentorId, window).isEqualTo(expected)
+            }
+        }
+    }
+
+    private fun slot(mentorId: Long, startMinute: Long, endMinute: Long) = MentorTimeSlot().apply {
+        account = Account().apply { id = mentorId }
+        fromTime = base.plusMinutes(startMinute)
+        toTime = base.plusMinutes(endMinute)
+    }
+}
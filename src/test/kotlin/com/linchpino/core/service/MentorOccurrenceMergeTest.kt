@@ -0,0 +1,121 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.entity.CompiledSchedule
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.RecurrenceType
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.DayOfWeek
+import java.time.ZonedDateTime
+import kotlin.random.Random
+
+class MentorOccurrenceMergeTest {
+
+    private val from = ZonedDateTime.parse("2024-09-09T00:00:00Z")
+    private val to = from.plusDays(30)
+
+    @Test
+    fun `test merge returns earliest occurrence of each mentor in start order`() {
+        // Given
+        val schedules = mapOf(
+            1L to daily("2024-09-01T15:00:00Z", 1),
+            2L to daily("2024-09-02T09:00:00Z", 2),
+            3L to daily("2024-09-01T09:00:00Z", 1)
+        )
+
+        // When
+        val result = MentorOccurrenceMerge(schedules, MentorIntervalIndex.of(listOf()))
+            .earliest(from.toEpochSecond(), to.toEpochSecond(), 10)
+
+        // Then
+        assertThat(result.map { it.first }).containsExactly(3, 1, 2)
+        assertThat(result.map { ZonedDateTime.parse("1970-01-01T00:00:00Z").plusSeconds(it.second) }).containsExactly(
+            ZonedDateTime.parse("2024-09-09T09:00:00Z"),
+            ZonedDateTime.parse("2024-09-09T15:00:00Z"),
+            ZonedDateTime.parse("2024-09-10T09:00:00Z")
+        )
+    }
+
+    @Test
+    fun `test merge skips booked occurrences and stops at limit`() {
+        // Given
+        val schedules = mapOf(
+            1L to daily("2024-09-01T09:00:00Z", 1),
+            2L to daily("2024-09-01T10:00:00Z", 1),
+            3L to daily("2024-09-01T11:00:00Z", 1)
+        )
+        // mentor 1 is booked on the 9th and 10th
+        val booked = MentorIntervalIndex.of(
+            longArrayOf(1, 1),
+            longArrayOf(minute("2024-09-09T09:00:00Z"), minute("2024-09-10T09:00:00Z")),
+            longArrayOf(minute("2024-09-09T10:00:00Z"), minute("2024-09-10T10:00:00Z"))
+        )
+
+        // When
+        val result = MentorOccurrenceMerge(schedules, booked).earliest(from.toEpochSecond(), to.toEpochSecond(), 2)
+
+        // Then
+        assertThat(result.map { it.first }).containsExactly(2, 3)
+    }
+
+    @Test
+    fun `test merge ignores occurrences after the search window`() {
+        // Given
+        val schedules = mapOf(1L to daily("2024-11-01T09:00:00Z", 1))
+
+        // When
+        val result = MentorOccurrenceMerge(schedules, MentorIntervalIndex.of(listOf()))
+            .earliest(from.toEpochSecond(), to.toEpochSecond(), 10)
+
+        // Then
+        assertThat(result).isEmpty()
+    }
+
+    @Test
+    fun `test merge matches expanding every schedule`() {
+        val random = Random(11)
+        repeat(50) {
+            // Given
+            val schedules = (1L..40L).associateWith {
+                val start = from.minusDays(random.nextLong(0, 20)).plusMinutes(random.nextLong(0, 96) * 15)
+                CompiledSchedule.of(Schedule().apply {
+                    startTime = start
+                    endTime = start.plusDays(random.nextLong(1, 60))
+                    duration = 60
+                    interval = random.nextInt(1, 4)
+                    recurrenceType = RecurrenceType.WEEKLY
+                    weekDays = DayOfWeek.values().filter { random.nextInt(3) == 0 }.toMutableList()
+                })!!
+            }
+            val bookedMentors = LongArray(60) { random.nextLong(1, 41) }
+            val bookedStarts = LongArray(60) { minute(from.plusMinutes(random.nextLong(0, 30L * 24 * 4) * 15)) }
+            val booked = MentorIntervalIndex.of(bookedMentors, bookedStarts, LongArray(60) { bookedStarts[it] + 90 })
+            val limit = random.nextInt(1, 20)
+
+            // When
+            val result = MentorOccurrenceMerge(schedules, booked).earliest(from.toEpochSecond(), to.toEpochSecond(), limit)
+
+            // Then
+            val expected = schedules.mapNotNull { (mentorId, schedule) ->
+                schedule.occurrences(from, to)
+                    .map { it.start.toEpochSecond() }
+                    .filter { it >= from.toEpochSecond() && it <= to.toEpochSecond() }
+                    .firstOrNull { !booked.overlaps(mentorId, Math.floorDiv(it, 60L), Math.floorDiv(it + 3600, 60L)) }
+                    ?.let { mentorId to it }
+            }.sortedWith(compareBy({ it.second }, { it.first })).take(limit)
+            assertThat(result).isEqualTo(expected)
+        }
+    }
+
+    private fun daily(start: String, interval: Int) = CompiledSchedule.of(Schedule().apply {
+        startTime = ZonedDateTime.parse(start)
+        endTime = ZonedDateTime.parse(start).plusMonths(2)
+        duration = 60
+        this.interval = interval
+        recurrenceType = RecurrenceType.DAILY
+    })!!
+
+    private fun minute(time: String) = minute(ZonedDateTime.parse(time))
+
+    private fun minute(time: ZonedDateTime) = MentorIntervalIndex.epochMinute(time)
+}
@@ -0,0 +1,205 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.InterviewType
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.RecurrenceType
+import com.linchpino.core.repository.ScheduleRepository
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mock
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import java.time.DayOfWeek
+import java.time.ZonedDateTime
+
+class MentorScheduleSnapshotTest {
+
+    @Mock
+    private lateinit var scheduleRepository: ScheduleRepository
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var snapshot: MentorScheduleSnapshot
+
+    private val from = ZonedDateTime.parse("2024-09-09T00:00:00Z")
+    private val to = from.plusDays(1)
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        meterRegistry = SimpleMeterRegistry()
+        snapshot = MentorScheduleSnapshot(scheduleRepository, meterRegistry)
+    }
+
+    @Test
+    fun `test rebuild loads mentor schedules and finds occurrences of the day by interview type`() {
+        // Given
+        val daily = schedule(mentor(1, 10), "2024-09-01T15:00:00Z", RecurrenceType.DAILY)
+        val weekly = schedule(mentor(2, 10, 20), "2024-09-02T09:00:00Z", RecurrenceType.WEEKLY).apply {
+            weekDays = mutableListOf(DayOfWeek.MONDAY)
+        }
+        val otherDay = schedule(mentor(3, 10), "2024-09-03T09:00:00Z", RecurrenceType.WEEKLY).apply {
+            weekDays = mutableListOf(DayOfWeek.TUESDAY)
+        }
+        `when`(scheduleRepository.findMentorSchedules()).thenReturn(listOf(daily, weekly, otherDay))
+
+        // When
+        snapshot.rebuild()
+        val result = snapshot.findMentorOccurrences(10, from, to)
+
+        // Then
+        assertThat(snapshot.size()).isEqualTo(3)
+        assertThat(result.map { it.mentorId }).containsExactly(2, 1)
+        assertThat(result[0].start.toInstant()).isEqualTo(ZonedDateTime.parse("2024-09-09T09:00:00Z").toInstant())
+        assertThat(result[0].end.toInstant()).isEqualTo(ZonedDateTime.parse("2024-09-09T10:00:00Z").toInstant())
+        assertThat(result[1].email).isEqualTo("mentor1@example.com")
+        assertThat(snapshot.findMentorOccurrences(20, from, to).map { it.mentorId }).containsExactly(2)
+        assertThat(snapshot.findMentorOccurrences(30, from, to)).isEmpty()
+        assertThat(meterRegistry.get("mentor.search.snapshot.size").gauge().value()).isEqualTo(3.0)
+        assertThat(meterRegistry.get("mentor.search.snapshot.rebuild").tag("type", "full").timer().count())
+            .isEqualTo(1)
+    }
+
+    @Test
+    fun `test occurrences at the range bounds are excluded`() {
+        // Given
+        val midnight = schedule(mentor(1, 10), "2024-09-01T00:00:00Z", RecurrenceType.DAILY)
+        `when`(scheduleRepository.findMentorSchedules()).thenReturn(listOf(midnight))
+
+        // When
+        snapshot.rebuild()
+        val result = snapshot.findMentorOccurrences(10, from, to)
+
+        // Then
+        assertThat(result).isEmpty()
+    }
+
+    @Test
+    fun `test refresh replaces and removes a single mentor`() {
+        // Given
+        val first = schedule(mentor(1, 10), "2024-09-01T15:00:00Z", RecurrenceType.DAILY)
+        val second = schedule(mentor(2, 10), "2024-09-01T16:00:00Z", RecurrenceType.DAILY)
+        `when`(scheduleRepository.findMentorSchedules()).thenReturn(listOf(first, second))
+        snapshot.rebuild()
+        val moved = schedule(mentor(1, 10), "2024-09-01T08:00:00Z", RecurrenceType.DAILY)
+        `when`(scheduleRepository.findMentorSchedule(1)).thenReturn(moved)
+        `when`(scheduleRepository.findMentorSchedule(2)).thenReturn(null)
+
+        // When
+        snapshot.refresh(MentorScheduleChanged(1))
+        snapshot.refresh(MentorScheduleChanged(2))
+        val result = snapshot.findMentorOccurrences(10, from, to)
+
+        // Then
+        assertThat(snapshot.size()).isEqualTo(1)
+        assertThat(result).hasSize(1)
+        assertThat(result[0].start.hour).isEqualTo(8)
+        assertThat(meterRegistry.get("mentor.search.snapshot.rebuild").tag("type", "incremental").timer().count())
+            .isEqualTo(2)
+    }
+
+    @Test
+    fun `test refresh moves a mentor between interview types and reuses removed rows`() {
+        // Given
+        val first = schedule(mentor(1, 10), "2024-09-01T15:00:00Z", RecurrenceType.DAILY)
+        val second = schedule(mentor(2, 10), "2024-09-01T16:00:00Z", RecurrenceType.DAILY)
+        `when`(scheduleRepository.findMentorSchedules()).thenReturn(listOf(first, second))
+        snapshot.rebuild()
+        `when`(scheduleRepository.findMentorSchedule(1))
+            .thenReturn(schedule(mentor(1, 20), "2024-09-01T15:00:00Z", RecurrenceType.DAILY))
+        `when`(scheduleRepository.findMentorSchedule(2)).thenReturn(null)
+        `when`(scheduleRepository.findMentorSchedule(3))
+            .thenReturn(schedule(mentor(3, 20), "2024-09-01T09:00:00Z", RecurrenceType.DAILY))
+
+        // When
+        snapshot.refresh(MentorScheduleChanged(2))
+        snapshot.refresh(MentorScheduleChanged(3))
+        snapshot.refresh(MentorScheduleChanged(1))
+
+        // Then
+        assertThat(snapshot.size()).isEqualTo(2)
+        assertThat(snapshot.findMentorOccurrences(10, from, to)).isEmpty()
+        assertThat(snapshot.findMentorOccurrences(20, from, to).map { it.mentorId }).containsExactly(3, 1)
+    }
+
+    @Test
+    fun `test refresh grows the snapshot past its capacity`() {
+        // Given
+        `when`(scheduleRepository.findMentorSchedules()).thenReturn(emptyList())
+        snapshot.rebuild()
+        (1L..40L).forEach {
+            `when`(scheduleRepository.findMentorSchedule(it))
+                .thenReturn(schedule(mentor(it, 10), "2024-09-01T15:00:00Z", RecurrenceType.DAILY))
+        }
+
+        // When
+        (1L..40L).forEach { snapshot.refresh(MentorScheduleChanged(it)) }
+
+        // Then
+        assertThat(snapshot.size()).isEqualTo(40)
+        assertThat(snapshot.findMentorOccurrences(10, from, to).map { it.mentorId }).containsExactlyElementsOf(1L..40L)
+    }
+
+    @Test
+    fun `test mentor refreshed while a rebuild reads the schedules is reloaded after it`() {
+        // Given
+        val stale = schedule(mentor(1, 10), "2024-09-01T15:00:00Z", RecurrenceType.DAILY)
+        val moved = schedule(mentor(1, 10), "2024-09-01T08:00:00Z", RecurrenceType.DAILY)
+        `when`(scheduleRepository.findMentorSchedule(1)).thenReturn(moved)
+        `when`(scheduleRepository.findMentorSchedules()).thenAnswer {
+            // the change commits and is refreshed after the rebuild read the schedule
+            snapshot.refresh(MentorScheduleChanged(1))
+            listOf(stale)
+        }
+
+        // When
+        snapshot.rebuild()
+        val result = snapshot.findMentorOccurrences(10, from, to)
+
+        // Then
+        assertThat(result).hasSize(1)
+        assertThat(result[0].start.hour).isEqualTo(8)
+        verify(scheduleRepository, times(2)).findMentorSchedule(1)
+    }
+
+    @Test
+    fun `test slot lengths of offered interview types follow interview type changes`() {
+        // Given
+        val mentor = mentor(1, 10, 20).apply {
+            interviewTypes().first { it.id == 10L }.slotMinutes = 30
+        }
+        `when`(scheduleRepository.findMentorSchedules())
+            .thenReturn(listOf(schedule(mentor, "2024-09-01T15:00:00Z", RecurrenceType.DAILY)))
+        snapshot.rebuild()
+
+        // When
+        val before = listOf(snapshot.slotMinutesOf(10), snapshot.slotMinutesOf(20))
+        snapshot.interviewTypeChanged(InterviewTypeChanged(20, 45))
+
+        // Then
+        assertThat(before).containsExactly(30, null)
+        assertThat(snapshot.slotMinutesOf(20)).isEqualTo(45)
+    }
+
+    private fun mentor(id: Long, vararg interviewTypeIds: Long) = Account().apply {
+        this.id = id
+        email = "mentor$id@example.com"
+        firstName = "mentor"
+        lastName = "$id"
+        interviewTypeIds.forEach { addInterviewType(InterviewType().apply { this.id = it; name = "type $it" }) }
+    }
+
+    private fun schedule(mentor: Account, start: String, type: RecurrenceType) = Schedule().apply {
+        account = mentor
+        startTime = ZonedDateTime.parse(start)
+        endTime = startTime!!.plusDays(60)
+        duration = 60
+        interval = 1
+        recurrenceType = type
+    }
+}
@@ -0,0 +1,209 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.MentorScheduleOccurrence
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.InterviewType
+import com.linchpino.core.repository.AccountRepository
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mock
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import java.time.LocalDate
+import java.time.ZonedDateTime
+import java.util.Optional
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class MentorSearchCacheTest {
+
+    @Mock
+    private lateinit var accountRepository: AccountRepository
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var cache: MentorSearchCache
+
+    private val day = LocalDate.parse("2024-09-09")
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        meterRegistry = SimpleMeterRegistry()
+        cache = MentorSearchCache(accountRepository, meterRegistry, 300, 100)
+    }
+
+    @Test
+    fun `test second search of a key is served from the cache`() {
+        // Given
+        val loads = AtomicInteger()
+
+        // When
+        cache.get(10, day) { loads.incrementAndGet(); listOf(occurrence(1)) }
+        val result = cache.get(10, day) { loads.incrementAndGet(); emptyList() }
+
+        // Then
+        assertThat(result.map { it.mentorId }).containsExactly(1)
+        assertThat(loads.get()).isEqualTo(1)
+        assertThat(requests("hit")).isEqualTo(1.0)
+        assertThat(requests("miss")).isEqualTo(1.0)
+        assertThat(meterRegistry.get("mentor.search.cache.load").timer().count()).isEqualTo(1)
+    }
+
+    @Test
+    fun `test concurrent misses of a key share one load`() {
+        // Given
+        val loads = AtomicInteger()
+        val loading = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val executor = Executors.newFixedThreadPool(8)
+
+        // When
+        val first = executor.submit<List<MentorScheduleOccurrence>> {
+            cache.get(10, day) {
+                loads.incrementAndGet()
+                loading.countDown()
+                release.await(5, TimeUnit.SECONDS)
+                listOf(occurrence(1))
+            }
+        }
+        loading.await(5, TimeUnit.SECONDS)
+        val others = List(7) {
+            executor.submit<List<MentorScheduleOccurrence>> {
+                cache.get(10, day) { loads.incrementAndGet(); emptyList() }
+            }
+        }
+        release.countDown()
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS).map { it.mentorId }).containsExactly(1)
+        others.forEach { assertThat(it.get(5, TimeUnit.SECONDS).map { occurrence -> occurrence.mentorId }).containsExactly(1) }
+        assertThat(loads.get()).isEqualTo(1)
+        executor.shutdown()
+    }
+
+    @Test
+    fun `test failed load is not cached`() {
+        // When
+        Assertions.assertThrows(IllegalStateException::class.java) {
+            cache.get(10, day) { throw IllegalStateException("database is down") }
+        }
+        val result = cache.get(10, day) { listOf(occurrence(1)) }
+
+        // Then
+        assertThat(result).hasSize(1)
+    }
+
+    @Test
+    fun `test reserved time slot invalidates only entries of its day offering the mentor`() {
+        // Given
+        cache.get(10, day) { listOf(occurrence(1)) }
+        cache.get(20, day) { listOf(occurrence(2)) }
+        cache.get(10, day.plusDays(1)) { listOf(occurrence(1)) }
+
+        // When
+        cache.timeSlotReserved(
+            MentorTimeSlotReserved(
+                1,
+                ZonedDateTime.parse("2024-09-09T10:00:00+03:00"),
+                ZonedDateTime.parse("2024-09-09T11:00:00+03:00")
+            )
+        )
+
+        // Then
+        assertThat(cache.get(10, day) { emptyList() }).isEmpty()
+        assertThat(cache.get(20, day) { emptyList() }).hasSize(1)
+        assertThat(cache.get(10, day.plusDays(1)) { emptyList() }).hasSize(1)
+        assertThat(meterRegistry.get("mentor.search.cache.invalidations").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test released time slot invalidates entries of its day for the mentor's interview types`() {
+        // Given
+        val mentor = Account().apply {
+            id = 1
+            addInterviewType(InterviewType().apply { id = 20; name = "Kotlin" })
+        }
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(mentor))
+        cache.get(20, day) { emptyList() }
+        cache.get(30, day) { listOf(occurrence(2)) }
+        cache.get(20, day.plusDays(1)) { emptyList() }
+
+        // When
+        cache.timeSlotReleased(
+            MentorTimeSlotReleased(
+                1,
+                ZonedDateTime.parse("2024-09-09T10:00:00+03:00"),
+                ZonedDateTime.parse("2024-09-09T11:00:00+03:00")
+            )
+        )
+
+        // Then
+        assertThat(cache.get(20, day) { listOf(occurrence(1)) }).hasSize(1)
+        assertThat(cache.get(30, day) { emptyList() }).hasSize(1)
+        assertThat(cache.get(20, day.plusDays(1)) { listOf(occurrence(1)) }).isEmpty()
+    }
+
+    @Test
+    fun `test schedule change invalidates entries of the mentor's interview types and entries offering the mentor`() {
+        // Given
+        val mentor = Account().apply {
+            id = 1
+            addInterviewType(InterviewType().apply { id = 20; name = "Kotlin" })
+        }
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(mentor))
+        cache.get(10, day) { listOf(occurrence(1)) }
+        cache.get(20, day) { emptyList() }
+        cache.get(30, day) { listOf(occurrence(2)) }
+
+        // When
+        cache.scheduleChanged(MentorScheduleChanged(1))
+
+        // Then
+        assertThat(cache.get(10, day) { emptyList() }).isEmpty()
+        assertThat(cache.get(20, day) { listOf(occurrence(1)) }).hasSize(1)
+        assertThat(cache.get(30, day) { emptyList() }).hasSize(1)
+    }
+
+    @Test
+    fun `test interview type change invalidates every entry of the type`() {
+        // Given
+        cache.get(10, day) { listOf(occurrence(1)) }
+        cache.get(10, day.plusDays(1)) { listOf(occurrence(2)) }
+        cache.get(20, day) { listOf(occurrence(1)) }
+
+        // When
+        cache.interviewTypeChanged(InterviewTypeChanged(10, 30))
+
+        // Then
+        assertThat(cache.get(10, day) { emptyList() }).isEmpty()
+        assertThat(cache.get(10, day.plusDays(1)) { emptyList() }).isEmpty()
+        assertThat(cache.get(20, day) { emptyList() }).hasSize(1)
+    }
+
+    @Test
+    fun `test expired entries are loaded again`() {
+        // Given
+        cache = MentorSearchCache(accountRepository, meterRegistry, 0, 100)
+        val loads = AtomicInteger()
+
+        // When
+        repeat(2) { cache.get(10, day) { loads.incrementAndGet(); emptyList() } }
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2)
+    }
+
+    private fun requests(result: String) =
+        meterRegistry.get("mentor.search.cache.requests").tag("result", result).counter().count()
+
+    private fun occurrence(mentorId: Long): MentorScheduleOccurrence {
+        val start = ZonedDateTime.parse("2024-09-09T09:00:00Z")
+        return MentorScheduleOccurrence(mentorId, "john", "doe", "john@example.com", null, start, start.plusHours(1))
+    }
+}
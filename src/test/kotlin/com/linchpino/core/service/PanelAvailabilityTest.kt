@@ -0,0 +1,145 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.entity.CompiledSchedule
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.RecurrenceType
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.DayOfWeek
+import java.time.ZonedDateTime
+import kotlin.random.Random
+
+class PanelAvailabilityTest {
+
+    private val from = ZonedDateTime.parse("2024-09-09T00:00:00Z")
+    private val to = from.plusDays(3)
+
+    @Test
+    fun `test common windows are the overlap of every mentor's occurrences`() {
+        // Given
+        val availability = PanelAvailability(from.toEpochSecond(), to.toEpochSecond(), 2)
+        availability.add(daily("2024-09-01T09:00:00Z", 60), longArrayOf(), longArrayOf())
+        availability.add(daily("2024-09-01T09:30:00Z", 60), longArrayOf(), longArrayOf())
+
+        // When
+        val result = availability.common()
+
+        // Then
+        assertThat(result).containsExactly(
+            second("2024-09-09T09:30:00Z") to second("2024-09-09T10:00:00Z"),
+            second("2024-09-10T09:30:00Z") to second("2024-09-10T10:00:00Z"),
+            second("2024-09-11T09:30:00Z") to second("2024-09-11T10:00:00Z")
+        )
+    }
+
+    @Test
+    fun `test booked time of one mentor is removed from the common windows`() {
+        // Given
+        val availability = PanelAvailability(from.toEpochSecond(), to.toEpochSecond(), 2)
+        availability.add(
+            daily("2024-09-01T09:00:00Z", 60),
+            longArrayOf(second("2024-09-09T09:40:00Z"), second("2024-09-10T08:00:00Z")),
+            longArrayOf(second("2024-09-09T09:50:00Z"), second("2024-09-10T12:00:00Z"))
+        )
+        availability.add(daily("2024-09-01T09:30:00Z", 60), longArrayOf(), longArrayOf())
+
+        // When
+        val result = availability.common()
+
+        // Then
+        assertThat(result).containsExactly(
+            second("2024-09-09T09:30:00Z") to second("2024-09-09T09:40:00Z"),
+            second("2024-09-09T09:50:00Z") to second("2024-09-09T10:00:00Z"),
+            second("2024-09-11T09:30:00Z") to second("2024-09-11T10:00:00Z")
+        )
+    }
+
+    @Test
+    fun `test panel with a mentor that was not added has no common windows`() {
+        // Given
+        val availability = PanelAvailability(from.toEpochSecond(), to.toEpochSecond(), 2)
+        availability.add(daily("2024-09-01T09:00:00Z", 60), longArrayOf(), longArrayOf())
+
+        // When
+        val result = availability.common()
+
+        // Then
+        assertThat(result).isEmpty()
+    }
+
+    @Test
+    fun `test back to back occurrences are joined into one window`() {
+        // Given
+        val availability = PanelAvailability(from.toEpochSecond(), to.toEpochSecond(), 1)
+        availability.add(daily("2024-09-01T00:00:00Z", 24 * 60), longArrayOf(), longArrayOf())
+
+        // When
+        val result = availability.common()
+
+        // Then
+        assertThat(result).containsExactly(from.toEpochSecond() to to.toEpochSecond())
+    }
+
+    @Test
+    fun `test common windows match intersecting every minute`() {
+        val random = Random(5)
+        val start = from.plusMinutes(7)
+        val end = start.plusDays(14)
+        val minutes = ((end.toEpochSecond() - start.toEpochSecond()) / 60).toInt()
+        repeat(50) {
+            // Given
+            val panelSize = random.nextInt(1, 4)
+            val availability = PanelAvailability(start.toEpochSecond(), end.toEpochSecond(), panelSize)
+            val expected = BooleanArray(minutes) { true }
+            repeat(panelSize) {
+                val scheduleStart = from.minusDays(random.nextLong(0, 10)).plusMinutes(random.nextLong(0, 96) * 15)
+                val schedule = CompiledSchedule.of(Schedule().apply {
+                    startTime = scheduleStart
+                    endTime = scheduleStart.plusDays(random.nextLong(1, 30))
+                    duration = random.nextInt(1, 9) * 30
+                    interval = 1
+                    recurrenceType = RecurrenceType.WEEKLY
+                    weekDays = DayOfWeek.values().filter { random.nextInt(2) == 0 }.toMutableList()
+                })!!
+                val busyStarts = LongArray(20) { start.toEpochSecond() + random.nextLong(0, minutes.toLong()) * 60 }.sortedArray()
+                val busyEnds = LongArray(20) { busyStarts[it] + random.nextLong(1, 240) * 60 }
+                availability.add(schedule, busyStarts, busyEnds)
+
+                val free = BooleanArray(minutes)
+                schedule.occurrences(start, end).forEach { window ->
+                    for (minute in minuteOf(window.start, start)..<minuteOf(window.end, start))
+                        if (minute in 0..<minutes) free[minute] = true
+                }
+                busyStarts.indices.forEach { index ->
+                    for (minute in ((busyStarts[index] - start.toEpochSecond()) / 60)..<((busyEnds[index] - start.toEpochSecond()) / 60))
+                        if (minute in 0..<minutes) free[minute.toInt()] = false
+                }
+                free.indices.forEach { expected[it] = expected[it] && free[it] }
+            }
+
+            // When
+            val result = availability.common()
+
+            // Then
+            val actual = BooleanArray(minutes)
+            result.forEach { (windowStart, windowEnd) ->
+                for (minute in (windowStart - start.toEpochSecond()) / 60..<(windowEnd - start.toEpochSecond()) / 60)
+                    actual[minute.toInt()] = true
+            }
+            assertThat(actual).isEqualTo(expected)
+            assertThat(result.zipWithNext().all { (previous, next) -> previous.second < next.first }).isTrue()
+        }
+    }
+
+    private fun daily(start: String, duration: Int) = CompiledSchedule.of(Schedule().apply {
+        startTime = ZonedDateTime.parse(start)
+        endTime = ZonedDateTime.parse(start).plusMonths(2)
+        this.duration = duration
+        interval = 1
+        recurrenceType = RecurrenceType.DAILY
+    })!!
+
+    private fun minuteOf(time: ZonedDateTime, start: ZonedDateTime) = ((time.toEpochSecond() - start.toEpochSecond()) / 60).toInt()
+
+    private fun second(time: String) = ZonedDateTime.parse(time).toEpochSecond()
+}
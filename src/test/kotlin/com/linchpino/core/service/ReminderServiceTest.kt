@@ -0,0 +1,258 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.ClaimedReminder
+import com.linchpino.core.dto.ReminderKey
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.Interview
+import com.linchpino.core.entity.MentorTimeSlot
+import com.linchpino.core.enums.ReminderRecipient
+import com.linchpino.core.repository.InterviewReminderRepository
+import com.linchpino.core.repository.InterviewRepository
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.entry
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.ArgumentMatchers.eq
+import org.mockito.Mock
+import org.mockito.Mockito.doThrow
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+class ReminderServiceTest {
+
+    @Mock
+    private lateinit var repository: InterviewReminderRepository
+
+    @Mock
+    private lateinit var interviewRepository: InterviewRepository
+
+    @Mock
+    private lateinit var emailService: EmailService
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var service: ReminderService
+
+    private val startsAt = ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(30)
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        meterRegistry = SimpleMeterRegistry()
+        service = ReminderService(
+            repository,
+            interviewRepository,
+            emailService,
+            meterRegistry,
+            listOf(1440, 10),
+            60,
+            1000,
+            64,
+            2
+        )
+    }
+
+    @AfterEach
+    fun tearDown() {
+        service.shutdown()
+    }
+
+    @Test
+    fun `test schedule writes the reminders still ahead and one catch-up for the passed ones`() {
+        // Given
+        val captor: ArgumentCaptor<Map<Int, ZonedDateTime>> =
+            ArgumentCaptor.forClass(Map::class.java) as ArgumentCaptor<Map<Int, ZonedDateTime>>
+        val before = ZonedDateTime.now(ZoneOffset.UTC)
+
+        // When
+        service.schedule(interview())
+
+        // Then
+        verify(repository).insert(eq(7L), captor.capture())
+        assertThat(captor.value).containsOnlyKeys(10, 1440)
+        assertThat(captor.value).contains(entry(10, startsAt.minusMinutes(10)))
+        assertThat(captor.value[1440]).isBetween(before, ZonedDateTime.now(ZoneOffset.UTC))
+    }
+
+    @Test
+    fun `test catch-up reminder of a late booking is sent right away`() {
+        // Given
+        val interview = interview()
+        val catchUp = ReminderKey(7, 1440)
+        service.schedule(interview)
+        `when`(repository.claim(eq(listOf(catchUp)), any())).thenReturn(listOf(ClaimedReminder(catchUp)))
+        `when`(interviewRepository.findForReminders(setOf(7L))).thenReturn(listOf(interview))
+
+        // When
+        val sent = service.fireDue(System.currentTimeMillis() + 1000)
+
+        // Then
+        assertThat(sent).isEqualTo(1)
+        verify(emailService).sendEmail(eq("jane.smith@example.com"), anyString(), anyString(), any(), any())
+    }
+
+    @Test
+    fun `test due reminder is claimed and mailed to both parties at its offset`() {
+        // Given
+        val interview = interview()
+        val reminder = ReminderKey(7, 10)
+        service.schedule(interview)
+        `when`(repository.claim(eq(listOf(reminder)), any())).thenReturn(listOf(ClaimedReminder(reminder)))
+        `when`(interviewRepository.findForReminders(setOf(7L))).thenReturn(listOf(interview))
+
+        // When
+        val early = service.fireDue(millis(startsAt.minusMinutes(11)))
+        val sent = service.fireDue(millis(startsAt.minusMinutes(10)) + 1000)
+
+        // Then
+        assertThat(early).isEqualTo(0)
+        assertThat(sent).isEqualTo(1)
+        verify(emailService).sendEmail(
+            "jane.smith@example.com",
+            "Reminder: Your Upcoming Interview on Linchpino",
+            "interviewee-reminder.html",
+            mapOf(
+                "fullName" to "jane smith",
+                "date" to startsAt.toLocalDate(),
+                "time" to startsAt.toLocalTime(),
+                "timezone" to startsAt.zone,
+            )
+        )
+        verify(emailService).sendEmail(
+            "john.doe@example.com",
+            "Reminder: Interview Scheduled on Linchpino",
+            "interviewer-reminder.html",
+            mapOf(
+                "fullName" to "john doe",
+                "intervieweeName" to "jane smith",
+                "date" to startsAt.toLocalDate(),
+                "time" to startsAt.toLocalTime(),
+                "timezone" to startsAt.zone,
+            )
+        )
+        verify(repository).markDelivered(eq(reminder), eq(ReminderRecipient.JOB_SEEKER), any())
+        verify(repository).markDelivered(eq(reminder), eq(ReminderRecipient.MENTOR), any())
+        assertThat(meterRegistry.get("interview.reminder").tag("result", "sent").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test reminder claimed by another instance is not sent again`() {
+        // Given
+        service.schedule(interview())
+        `when`(repository.claim(any(), any())).thenReturn(emptyList())
+
+        // When
+        val sent = service.fireDue(millis(startsAt))
+
+        // Then
+        assertThat(sent).isEqualTo(0)
+        verify(interviewRepository, never()).findForReminders(any())
+        verify(emailService, never()).sendEmail(anyString(), anyString(), anyString(), any(), any())
+    }
+
+    @Test
+    fun `test reminder that could not be mailed is released for the next refill`() {
+        // Given
+        val interview = interview()
+        val reminder = ReminderKey(7, 10)
+        service.schedule(interview)
+        `when`(repository.claim(any(), any())).thenReturn(listOf(ClaimedReminder(reminder)))
+        `when`(interviewRepository.findForReminders(setOf(7L))).thenReturn(listOf(interview))
+        doThrow(IllegalStateException("smtp down")).`when`(emailService)
+            .sendEmail(anyString(), anyString(), anyString(), any(), any())
+
+        // When
+        val sent = service.fireDue(millis(startsAt))
+
+        // Then
+        assertThat(sent).isEqualTo(0)
+        verify(repository).release(reminder)
+        verify(repository, never()).markDelivered(any(), any(), any())
+        assertThat(meterRegistry.get("interview.reminder").tag("result", "failed").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test failed mentor email keeps the job seeker delivery`() {
+        // Given
+        val interview = interview()
+        val reminder = ReminderKey(7, 10)
+        service.schedule(interview)
+        `when`(repository.claim(any(), any())).thenReturn(listOf(ClaimedReminder(reminder)))
+        `when`(interviewRepository.findForReminders(setOf(7L))).thenReturn(listOf(interview))
+        doThrow(IllegalStateException("smtp down")).`when`(emailService)
+            .sendEmail(eq("john.doe@example.com"), anyString(), anyString(), any(), any())
+
+        // When
+        val sent = service.fireDue(millis(startsAt))
+
+        // Then
+        assertThat(sent).isEqualTo(0)
+        verify(repository).markDelivered(eq(reminder), eq(ReminderRecipient.JOB_SEEKER), any())
+        verify(repository, never()).markDelivered(eq(reminder), eq(ReminderRecipient.MENTOR), any())
+        verify(repository).release(reminder)
+    }
+
+    @Test
+    fun `test retried reminder is only mailed to the recipients it did not reach`() {
+        // Given
+        val interview = interview()
+        val reminder = ReminderKey(7, 10)
+        service.schedule(interview)
+        `when`(repository.claim(any(), any()))
+            .thenReturn(listOf(ClaimedReminder(reminder, setOf(ReminderRecipient.JOB_SEEKER))))
+        `when`(interviewRepository.findForReminders(setOf(7L))).thenReturn(listOf(interview))
+
+        // When
+        val sent = service.fireDue(millis(startsAt))
+
+        // Then
+        assertThat(sent).isEqualTo(1)
+        verify(emailService, never()).sendEmail(eq("jane.smith@example.com"), anyString(), anyString(), any(), any())
+        verify(emailService).sendEmail(eq("john.doe@example.com"), anyString(), anyString(), any(), any())
+        verify(repository).markDelivered(eq(reminder), eq(ReminderRecipient.MENTOR), any())
+    }
+
+    @Test
+    fun `test refill queues reminders written by other instances`() {
+        // Given
+        val reminder = ReminderKey(8, 10)
+        `when`(repository.findDue(any(), any())).thenReturn(listOf(reminder to startsAt.minusMinutes(10)))
+        `when`(repository.claim(eq(listOf(reminder)), any())).thenReturn(emptyList())
+
+        // When
+        service.refill()
+        service.fireDue(millis(startsAt))
+
+        // Then
+        verify(repository).claim(eq(listOf(reminder)), any())
+    }
+
+    private fun interview() = Interview().apply {
+        id = 7
+        mentorAccount = Account().apply {
+            firstName = "john"
+            lastName = "doe"
+            email = "john.doe@example.com"
+        }
+        jobSeekerAccount = Account().apply {
+            firstName = "jane"
+            lastName = "smith"
+            email = "jane.smith@example.com"
+        }
+        timeSlot = MentorTimeSlot().apply {
+            fromTime = startsAt
+            toTime = startsAt.plusHours(1)
+        }
+    }
+
+    private fun millis(time: ZonedDateTime) = time.toInstant().toEpochMilli()
+}
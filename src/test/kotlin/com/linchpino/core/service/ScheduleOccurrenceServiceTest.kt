@@ -0,0 +1,205 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.captureNonNullable
+import com.linchpino.core.dto.ValidWindow
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.InterviewType
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.RecurrenceType
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.ScheduleOccurrenceBatchRepository
+import com.linchpino.core.repository.ScheduleOccurrenceRepository
+import com.linchpino.core.repository.ScheduleRepository
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.eq
+import org.mockito.Mock
+import org.mockito.Mockito.inOrder
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.verifyNoInteractions
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import org.springframework.context.ApplicationEventPublisher
+import java.time.DayOfWeek
+import java.time.LocalTime
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+class ScheduleOccurrenceServiceTest {
+
+    @Mock
+    private lateinit var repository: ScheduleOccurrenceRepository
+
+    @Mock
+    private lateinit var batchRepository: ScheduleOccurrenceBatchRepository
+
+    @Mock
+    private lateinit var scheduleRepository: ScheduleRepository
+
+    @Mock
+    private lateinit var eventPublisher: ApplicationEventPublisher
+
+    @Mock
+    private lateinit var availabilityCounts: AvailabilityCountRepository
+
+    private lateinit var service: ScheduleOccurrenceService
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        service = ScheduleOccurrenceService(
+            repository,
+            batchRepository,
+            scheduleRepository,
+            eventPublisher,
+            availabilityCounts,
+            30
+        )
+    }
+
+    @Test
+    fun `test rebuild replaces occurrences for every interview type of the mentor`() {
+        // Given
+        val schedule = weeklySchedule(mentorWithInterviewTypes(1, 2))
+        val from = ZonedDateTime.parse("2024-09-02T00:00:00Z")
+        val to = ZonedDateTime.parse("2024-09-16T00:00:00Z")
+        val captor = windowsCaptor()
+
+        // When
+        service.rebuild(schedule, from, to)
+
+        // Then
+        verify(repository, times(1)).deleteByScheduleId(schedule.id)
+        // two weeks of monday and friday, inserted once per interview type
+        verify(batchRepository, times(1)).insert(eq(3L), eq(1L), eq(listOf(1L, 2L)), captor.captureNonNullable())
+        val windows = captor.value
+        assertThat(windows).hasSize(4)
+        assertThat(windows.map { it.start.dayOfWeek }.toSet())
+            .containsExactlyInAnyOrder(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)
+        assertThat(windows.all { it.end == it.start.plusMinutes(60) }).isTrue()
+        assertThat(schedule.occurrencesUntil).isEqualTo(to)
+        verify(eventPublisher, times(1)).publishEvent(MentorScheduleChanged(1))
+        // heatmap counters lose the old occurrences before they are deleted and gain the new ones after
+        val order = inOrder(availabilityCounts, repository, batchRepository)
+        order.verify(availabilityCounts).removeOccurrences(schedule.id)
+        order.verify(repository).deleteByScheduleId(schedule.id)
+        order.verify(batchRepository).insert(eq(3L), eq(1L), eq(listOf(1L, 2L)), any())
+        order.verify(availabilityCounts).countOccurrences(schedule.id, from)
+    }
+
+    @Test
+    fun `test remove deletes occurrences and resets materialized horizon`() {
+        // Given
+        val schedule = weeklySchedule(mentorWithInterviewTypes(1)).apply {
+            occurrencesUntil = ZonedDateTime.parse("2024-09-16T00:00:00Z")
+        }
+
+        // When
+        service.remove(schedule)
+
+        // Then
+        verify(availabilityCounts, times(1)).removeOccurrences(schedule.id)
+        verify(repository, times(1)).deleteByScheduleId(schedule.id)
+        assertThat(schedule.occurrencesUntil).isNull()
+        verify(eventPublisher, times(1)).publishEvent(MentorScheduleChanged(1))
+    }
+
+    @Test
+    fun `test extend horizon only appends occurrences after the materialized bound`() {
+        // Given
+        val today = ZonedDateTime.now(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+        val materializedUntil = today.plusDays(20)
+        val schedule = Schedule().apply {
+            id = 7
+            startTime = today.minusDays(10).withHour(9)
+            endTime = today.plusDays(100)
+            duration = 30
+            interval = 1
+            recurrenceType = RecurrenceType.DAILY
+            account = mentorWithInterviewTypes(1)
+            occurrencesUntil = materializedUntil
+        }
+        `when`(scheduleRepository.findWithOccurrencesBefore(any())).thenReturn(listOf(schedule))
+        val captor = windowsCaptor()
+
+        // When
+        service.extendHorizon()
+
+        // Then
+        verify(repository, times(1)).deleteEndedBefore(today)
+        verify(batchRepository, times(1)).insert(eq(7L), eq(1L), eq(listOf(1L)), captor.captureNonNullable())
+        val windows = captor.value
+        assertThat(windows).hasSize(10)
+        assertThat(windows.all { !it.start.isBefore(materializedUntil) }).isTrue()
+        assertThat(schedule.occurrencesUntil).isEqualTo(today.plusDays(30))
+        verify(availabilityCounts, times(1)).deleteBefore(today.toLocalDate())
+        verify(availabilityCounts, times(1)).countOccurrences(7, materializedUntil)
+    }
+
+    @Test
+    fun `test search inside the horizon does not evaluate schedules`() {
+        // Given
+        val today = ZonedDateTime.now(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+
+        // When
+        val occurrences = service.findUnmaterializedOccurrences(setOf(1), today, today.plusDays(29))
+
+        // Then
+        assertThat(occurrences).isEmpty()
+        verifyNoInteractions(scheduleRepository)
+    }
+
+    @Test
+    fun `test search past the horizon evaluates schedules from where their occurrences end`() {
+        // Given
+        val today = ZonedDateTime.now(ZoneOffset.UTC).with(LocalTime.MIDNIGHT)
+        val materializedUntil = today.plusDays(30)
+        val schedule = Schedule().apply {
+            id = 7
+            startTime = today.minusDays(10).withHour(9)
+            endTime = today.plusDays(100)
+            duration = 30
+            interval = 1
+            recurrenceType = RecurrenceType.DAILY
+            account = mentorWithInterviewTypes(1, 2)
+            occurrencesUntil = materializedUntil
+        }
+        val from = today.plusDays(20)
+        val to = today.plusDays(40)
+        `when`(scheduleRepository.findMentorSchedulesMaterializedBefore(setOf(1L), from, to))
+            .thenReturn(listOf(schedule))
+
+        // When
+        val occurrences = service.findUnmaterializedOccurrences(setOf(1), from, to)
+
+        // Then
+        assertThat(occurrences).hasSize(10)
+        assertThat(occurrences.all { it.interviewTypeId == 1L && it.mentorId == 1L }).isTrue()
+        assertThat(occurrences.first().start).isEqualTo(materializedUntil.withHour(9))
+        assertThat(occurrences.last().start).isEqualTo(to.minusDays(1).withHour(9))
+    }
+
+    private fun mentorWithInterviewTypes(vararg ids: Long) = Account().apply {
+        id = 1
+        ids.forEach { addInterviewType(InterviewType().apply { id = it; name = "type $it" }) }
+    }
+
+    private fun weeklySchedule(mentor: Account) = Schedule().apply {
+        id = 3
+        startTime = ZonedDateTime.parse("2024-08-28T12:30:00+03:00")
+        endTime = ZonedDateTime.parse("2024-12-30T13:30:00+03:00")
+        duration = 60
+        interval = 1
+        recurrenceType = RecurrenceType.WEEKLY
+        weekDays = mutableListOf(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)
+        account = mentor
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun windowsCaptor(): ArgumentCaptor<List<ValidWindow>> =
+        ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<ValidWindow>>
+}
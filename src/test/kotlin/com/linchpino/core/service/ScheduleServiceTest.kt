@@ -1,10 +1,15 @@
 package com.linchpino.core.service
 
 import com.linchpino.core.captureNonNullable
+import com.linchpino.core.dto.BookedTimeSlot
+import com.linchpino.core.dto.CalendarBusy
 import com.linchpino.core.dto.CreateInterviewRequest
+import com.linchpino.core.dto.ReleasedTimeSlot
 import com.linchpino.core.dto.ScheduleRequest
 import com.linchpino.core.dto.ScheduleUpdateRequest
+import com.linchpino.core.dto.ValidWindow
 import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.InterviewType
 import com.linchpino.core.entity.MentorTimeSlot
 import com.linchpino.core.entity.Schedule
 import com.linchpino.core.enums.MentorTimeSlotEnum
@@ -12,8 +17,12 @@ import com.linchpino.core.enums.RecurrenceType
 import com.linchpino.core.exception.ErrorCode
 import com.linchpino.core.exception.LinchpinException
 import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.CalendarBusyRepository
+import com.linchpino.core.repository.InterviewTypeRepository
 import com.linchpino.core.repository.MentorTimeSlotRepository
 import com.linchpino.core.repository.ScheduleRepository
+import com.linchpino.core.repository.SlotHoldRepository
 import com.linchpino.core.security.WithMockJwt
 import com.linchpino.core.security.email
 import org.assertj.core.api.Assertions.assertThat
@@ -24,13 +33,25 @@ import org.mockito.ArgumentCaptor
 import org.mockito.InjectMocks
 import org.mockito.Mock
 import org.mockito.Mockito.any
+import org.mockito.Mockito.doThrow
+import org.mockito.Mockito.eq
+import org.mockito.Mockito.inOrder
+import org.mockito.Mockito.never
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.`when`
+import org.mockito.Spy
 import org.mockito.junit.jupiter.MockitoExtension
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.dao.DataIntegrityViolationException
+import java.sql.SQLException
 import java.time.DayOfWeek
+import java.time.Duration
+import java.time.LocalDate
 import java.time.ZonedDateTime
+import java.util.Base64
+import java.util.BitSet
+import java.util.Optional
 
 @ExtendWith(MockitoExtension::class)
 class ScheduleServiceTest {
@@ -44,6 +65,30 @@ class ScheduleServiceTest {
     @Mock
     private lateinit var mentorTimeSlotRepository: MentorTimeSlotRepository
 
+    @Mock
+    private lateinit var scheduleOccurrenceService: ScheduleOccurrenceService
+
+    @Mock
+    private lateinit var mentorBookingLock: MentorBookingLock
+
+    @Mock
+    private lateinit var availabilityCounts: AvailabilityCountRepository
+
+    @Mock
+    private lateinit var slotHolds: SlotHoldRepository
+
+    @Mock
+    private lateinit var eventPublisher: ApplicationEventPublisher
+
+    @Mock
+    private lateinit var calendarBusy: CalendarBusyRepository
+
+    @Mock
+    private lateinit var interviewTypeRepository: InterviewTypeRepository
+
+    @Spy
+    private var compiledSchedules = CompiledScheduleCache(100)
+
     @InjectMocks
     private lateinit var scheduleService: ScheduleService
 
@@ -75,6 +120,7 @@ class ScheduleServiceTest {
         // Then
         verify(scheduleRepository).save(scheduleCaptor.captureNonNullable())
         val s = scheduleCaptor.value
+        verify(scheduleOccurrenceService).rebuild(s)
 
         assertThat(s.startTime).isEqualTo(request.startTime)
         assertThat(s.duration).isEqualTo(request.duration)
@@ -166,19 +212,23 @@ class ScheduleServiceTest {
             weekDays = mutableListOf(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
         }
         val account = Account().apply {
+            id = 1
             email = "john.doe@example.com"
             firstName = "John"
             lastName = "Doe"
             this.schedule = schedule
         }
         val timeSlotCaptor: ArgumentCaptor<MentorTimeSlot> = ArgumentCaptor.forClass(MentorTimeSlot::class.java)
-        `when`(mentorTimeSlotRepository.save(any())).thenReturn(MentorTimeSlot())
+        `when`(mentorTimeSlotRepository.saveAndFlush(any())).thenReturn(MentorTimeSlot().apply { id = 7 })
 
         // When
         scheduleService.availableTimeSlot(account, request)
 
         // Then
-        verify(mentorTimeSlotRepository, times(1)).save(timeSlotCaptor.captureNonNullable())
+        verify(mentorBookingLock, times(1)).acquire(1)
+        verify(availabilityCounts, times(1)).recount(1, request.startTime, request.endTime)
+        verify(mentorTimeSlotRepository, times(1)).saveAndFlush(timeSlotCaptor.captureNonNullable())
+        verify(eventPublisher, times(1)).publishEvent(any(MentorTimeSlotReserved::class.java))
         val timeSlot = timeSlotCaptor.value
         assertThat(timeSlot.account).isEqualTo(account)
         assertThat(timeSlot.fromTime).isEqualTo(request.startTime)
@@ -186,6 +236,44 @@ class ScheduleServiceTest {
         assertThat(timeSlot.status).isEqualTo(MentorTimeSlotEnum.ALLOCATED)
     }
 
+    @Test
+    fun `test held time slot releases expired holds and saves a held time slot`() {
+        // Given
+        val startTime = ZonedDateTime.parse("2024-09-18T12:30:45+03:00")
+        val endTime = ZonedDateTime.parse("2024-09-18T13:30:45+03:00")
+        val account = Account().apply {
+            id = 1
+            email = "john.doe@example.com"
+            schedule = Schedule().apply {
+                id = 1
+                this.startTime = ZonedDateTime.parse("2024-08-28T12:30:45+03:00")
+                this.endTime = ZonedDateTime.parse("2024-12-30T13:30:45+03:00")
+                duration = 60
+                recurrenceType = RecurrenceType.WEEKLY
+                interval = 3
+                weekDays = mutableListOf(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
+            }
+        }
+        val expired = ValidWindow(startTime.minusWeeks(3), endTime.minusWeeks(3))
+        val timeSlotCaptor: ArgumentCaptor<MentorTimeSlot> = ArgumentCaptor.forClass(MentorTimeSlot::class.java)
+        `when`(slotHolds.releaseExpired(eq(1L), any())).thenReturn(listOf(ReleasedTimeSlot(1, expired)))
+        `when`(mentorTimeSlotRepository.saveAndFlush(any())).thenReturn(MentorTimeSlot().apply { id = 7 })
+
+        // When
+        scheduleService.heldTimeSlot(account, startTime, endTime, 1)
+
+        // Then
+        val inOrder = inOrder(mentorBookingLock, slotHolds, mentorTimeSlotRepository)
+        inOrder.verify(mentorBookingLock).acquire(1)
+        inOrder.verify(slotHolds).releaseExpired(eq(1L), any())
+        inOrder.verify(mentorTimeSlotRepository).saveAndFlush(timeSlotCaptor.captureNonNullable())
+        assertThat(timeSlotCaptor.value.status).isEqualTo(MentorTimeSlotEnum.HELD)
+        assertThat(timeSlotCaptor.value.fromTime).isEqualTo(startTime)
+        verify(availabilityCounts, times(1)).recount(1, expired.start, expired.end)
+        verify(eventPublisher, times(1)).publishEvent(MentorTimeSlotReleased(1, expired.start, expired.end))
+        verify(availabilityCounts, times(1)).recount(1, startTime, endTime)
+    }
+
     @Test
     fun `test available time slot throws exception if requested time does not lie on mentor schedule`() {
         // Given
@@ -208,6 +296,7 @@ class ScheduleServiceTest {
             weekDays = mutableListOf(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
         }
         val account = Account().apply {
+            id = 1
             email = "john.doe@example.com"
             firstName = "John"
             lastName = "Doe"
@@ -244,13 +333,19 @@ class ScheduleServiceTest {
             weekDays = mutableListOf(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
         }
         val account = Account().apply {
+            id = 1
             email = "john.doe@example.com"
             firstName = "John"
             lastName = "Doe"
             this.schedule = schedule
         }
 
-        `when`(mentorTimeSlotRepository.numberOfOverlappingSlots(request.startTime, request.endTime)).thenReturn(1)
+        `when`(mentorTimeSlotRepository.saveAndFlush(any())).thenThrow(
+            DataIntegrityViolationException(
+                "could not execute statement",
+                SQLException("conflicting key value violates exclusion constraint", "23P01")
+            )
+        )
 
         // When & Then
         val ex = Assertions.assertThrows(LinchpinException::class.java) {
@@ -260,6 +355,178 @@ class ScheduleServiceTest {
         assertThat(ex.errorCode).isEqualTo(ErrorCode.TIMESLOT_IS_BOOKED)
     }
 
+    @Test
+    fun `test available time slot throws exception if mentor's calendar is busy`() {
+        // Given
+        val account = mentorWithDailySchedule(1, "john", "2024-09-01T09:00:00Z")
+        val request = CreateInterviewRequest(
+            1,
+            1,
+            ZonedDateTime.parse("2024-09-03T09:00:00Z"),
+            ZonedDateTime.parse("2024-09-03T10:00:00Z"),
+            1,
+            "jane.smith@example.com"
+        )
+        `when`(calendarBusy.overlaps(eq(1L), any(), any())).thenReturn(true)
+
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            scheduleService.availableTimeSlot(account, request)
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.TIMESLOT_IS_BOOKED)
+        verify(mentorTimeSlotRepository, never()).saveAndFlush(any())
+    }
+
+    @Test
+    fun `test available time slot books only the selected slot if interview type has a slot length`() {
+        // Given
+        val account = mentorWithDailySchedule(1, "john", "2024-09-01T09:00:00Z").apply { schedule!!.duration = 240 }
+        val request = CreateInterviewRequest(
+            1,
+            10,
+            ZonedDateTime.parse("2024-09-03T11:00:00Z"),
+            ZonedDateTime.parse("2024-09-03T12:00:00Z"),
+            1,
+            "jane.smith@example.com"
+        )
+        `when`(interviewTypeRepository.findById(10)).thenReturn(Optional.of(interviewType(10, 60)))
+        val timeSlotCaptor: ArgumentCaptor<MentorTimeSlot> = ArgumentCaptor.forClass(MentorTimeSlot::class.java)
+        `when`(mentorTimeSlotRepository.saveAndFlush(any())).thenReturn(MentorTimeSlot().apply { id = 7 })
+
+        // When
+        scheduleService.availableTimeSlot(account, request)
+
+        // Then
+        verify(mentorTimeSlotRepository, times(1)).saveAndFlush(timeSlotCaptor.captureNonNullable())
+        assertThat(timeSlotCaptor.value.fromTime).isEqualTo(request.startTime)
+        assertThat(timeSlotCaptor.value.toTime).isEqualTo(request.endTime)
+    }
+
+    @Test
+    fun `test available time slot throws exception if requested time is not a slot of the interview type`() {
+        // Given
+        val account = mentorWithDailySchedule(1, "john", "2024-09-01T09:00:00Z").apply { schedule!!.duration = 240 }
+        val request = CreateInterviewRequest(
+            1,
+            10,
+            ZonedDateTime.parse("2024-09-03T11:30:00Z"),
+            ZonedDateTime.parse("2024-09-03T12:30:00Z"),
+            1,
+            "jane.smith@example.com"
+        )
+        `when`(interviewTypeRepository.findById(10)).thenReturn(Optional.of(interviewType(10, 60)))
+
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            scheduleService.availableTimeSlot(account, request)
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_TIMESLOT)
+        verify(mentorTimeSlotRepository, never()).saveAndFlush(any())
+    }
+
+    @Test
+    fun `test bookable slots carves windows and skips booked slots`() {
+        // Given
+        val account = mentorWithDailySchedule(1, "john", "2024-09-01T09:00:00Z").apply { schedule!!.duration = 240 }
+        val from = ZonedDateTime.parse("2024-09-03T00:00:00Z")
+        val to = ZonedDateTime.parse("2024-09-04T00:00:00Z")
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(account))
+        `when`(interviewTypeRepository.findById(10)).thenReturn(Optional.of(interviewType(10, 60)))
+        `when`(mentorTimeSlotRepository.findBookedSlotsBetween(1, from, to)).thenReturn(
+            listOf(MentorTimeSlot().apply {
+                this.account = account
+                fromTime = ZonedDateTime.parse("2024-09-03T10:00:00Z")
+                toTime = ZonedDateTime.parse("2024-09-03T11:00:00Z")
+                status = MentorTimeSlotEnum.ALLOCATED
+            })
+        )
+
+        // When
+        val result = scheduleService.bookableSlots(1, 10, from, to)
+
+        // Then
+        assertThat(result.map { it.start.toInstant().toString() })
+            .containsExactly("2024-09-03T09:00:00Z", "2024-09-03T11:00:00Z", "2024-09-03T12:00:00Z")
+        assertThat(result).allMatch { Duration.between(it.start, it.end).toMinutes() == 60L }
+    }
+
+    @Test
+    fun `test available time slot rethrows integrity violations other than overlapping time slots`() {
+        // Given
+        val request = CreateInterviewRequest(
+            1,
+            1,
+            ZonedDateTime.parse("2024-09-18T12:30:45+03:00"),
+            ZonedDateTime.parse("2024-09-18T13:30:45+03:00"),
+            1,
+            "jane.smith@example.com"
+        )
+        val schedule = Schedule().apply {
+            id = 1
+            startTime = ZonedDateTime.parse("2024-08-28T12:30:45+03:00")
+            endTime = ZonedDateTime.parse("2024-12-30T13:30:45+03:00")
+            duration = 60
+            recurrenceType = RecurrenceType.WEEKLY
+            interval = 3
+            weekDays = mutableListOf(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
+        }
+        val account = Account().apply {
+            id = 1
+            email = "john.doe@example.com"
+            this.schedule = schedule
+        }
+        `when`(mentorTimeSlotRepository.saveAndFlush(any())).thenThrow(
+            DataIntegrityViolationException(
+                "could not execute statement",
+                SQLException("insert violates foreign key constraint", "23503")
+            )
+        )
+
+        // When & Then
+        Assertions.assertThrows(DataIntegrityViolationException::class.java) {
+            scheduleService.availableTimeSlot(account, request)
+        }
+    }
+
+    @Test
+    fun `test available time slot does not insert when mentor booking lock times out`() {
+        // Given
+        val request = CreateInterviewRequest(
+            1,
+            1,
+            ZonedDateTime.parse("2024-09-18T12:30:45+03:00"),
+            ZonedDateTime.parse("2024-09-18T13:30:45+03:00"),
+            1,
+            "jane.smith@example.com"
+        )
+        val schedule = Schedule().apply {
+            id = 1
+            startTime = ZonedDateTime.parse("2024-08-28T12:30:45+03:00")
+            endTime = ZonedDateTime.parse("2024-12-30T13:30:45+03:00")
+            duration = 60
+            recurrenceType = RecurrenceType.WEEKLY
+            interval = 3
+            weekDays = mutableListOf(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
+        }
+        val account = Account().apply {
+            id = 1
+            email = "john.doe@example.com"
+            this.schedule = schedule
+        }
+        doThrow(LinchpinException(ErrorCode.MENTOR_IS_BUSY, "busy")).`when`(mentorBookingLock).acquire(1)
+
+        // When & Then
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            scheduleService.availableTimeSlot(account, request)
+        }
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.MENTOR_IS_BUSY)
+        verify(mentorTimeSlotRepository, never()).saveAndFlush(any())
+    }
+
     @Test
     fun `should update schedule`() {
         val authentication = WithMockJwt.mockAuthentication("john.doe@example.com")
@@ -299,6 +566,7 @@ class ScheduleServiceTest {
         assertThat(result.weekDays).isEmpty()
         assertThat(result.recurrenceType).isEqualTo(request.recurrenceType)
         assertThat(result.monthDays).isEqualTo(request.monthDays)
+        verify(scheduleOccurrenceService, times(1)).rebuild(schedule)
     }
 
     @Test
@@ -329,6 +597,87 @@ class ScheduleServiceTest {
     }
 
 
+    @Test
+    fun `update schedule should be rejected if booked time slots no longer fit`() {
+        // Given
+        val authentication = WithMockJwt.mockAuthentication("john.doe@example.com")
+        val account = Account().apply {
+            id = 1
+            email = "john.doe@example.com"
+            schedule = mondaySchedule()
+        }
+        val request = ScheduleUpdateRequest(
+            startTime = ZonedDateTime.parse("2024-01-01T10:30:00Z"),
+            endTime = null,
+            duration = null,
+            recurrenceType = null,
+            interval = null
+        )
+        `when`(accountRepository.findByEmailIgnoreCase(authentication.email())).thenReturn(account)
+        `when`(mentorTimeSlotRepository.findBookedTimeSlotsAfter(eq(1L), any(), any())).thenReturn(
+            listOf(
+                BookedTimeSlot(5, 50, ZonedDateTime.parse("2030-01-07T10:00:00Z"), ZonedDateTime.parse("2030-01-07T11:00:00Z")),
+                BookedTimeSlot(6, 60, ZonedDateTime.parse("2030-01-14T10:30:00Z"), ZonedDateTime.parse("2030-01-14T11:30:00Z"))
+            )
+        )
+
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            scheduleService.updateSchedule(authentication, request)
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.SCHEDULE_CONFLICT)
+        assertThat(ex.params).containsExactly(1, "50")
+        verify(scheduleOccurrenceService, never()).rebuild(any())
+        val inOrder = inOrder(mentorBookingLock, mentorTimeSlotRepository)
+        inOrder.verify(mentorBookingLock).acquire(1)
+        inOrder.verify(mentorTimeSlotRepository).findBookedTimeSlotsAfter(eq(1L), any(), any())
+    }
+
+    @Test
+    fun `update schedule should be accepted if booked time slots still fit`() {
+        // Given
+        val authentication = WithMockJwt.mockAuthentication("john.doe@example.com")
+        val schedule = mondaySchedule()
+        val account = Account().apply {
+            id = 1
+            email = "john.doe@example.com"
+            this.schedule = schedule
+        }
+        val request = ScheduleUpdateRequest(
+            startTime = null,
+            endTime = ZonedDateTime.parse("2031-06-30T10:00:00Z"),
+            duration = 90,
+            recurrenceType = null,
+            interval = null
+        )
+        `when`(accountRepository.findByEmailIgnoreCase(authentication.email())).thenReturn(account)
+        `when`(mentorTimeSlotRepository.findBookedTimeSlotsAfter(eq(1L), any(), any())).thenReturn(
+            listOf(
+                BookedTimeSlot(5, 50, ZonedDateTime.parse("2030-01-07T10:00:00Z"), ZonedDateTime.parse("2030-01-07T11:00:00Z")),
+                BookedTimeSlot(7, null, ZonedDateTime.parse("2030-01-14T10:30:00Z"), ZonedDateTime.parse("2030-01-14T11:30:00Z"))
+            )
+        )
+
+        // When
+        val result = scheduleService.updateSchedule(authentication, request)
+
+        // Then
+        assertThat(result.duration).isEqualTo(90)
+        verify(scheduleOccurrenceService, times(1)).rebuild(schedule)
+    }
+
+    private fun mondaySchedule() = Schedule().apply {
+        id = 1
+        recurrenceType = RecurrenceType.WEEKLY
+        weekDays = mutableListOf(DayOfWeek.MONDAY)
+        interval = 1
+        duration = 60
+        startTime = ZonedDateTime.parse("2024-01-01T10:00:00Z")
+        endTime = ZonedDateTime.parse("2030-12-30T11:00:00Z")
+    }
+
     @Test
     fun `should delete schedule`() {
         val authentication = WithMockJwt.mockAuthentication("john.doe@example.com")
@@ -353,6 +702,191 @@ class ScheduleServiceTest {
         scheduleService.deleteSchedule(authentication)
         assertThat(account.schedule).isNull()
         verify(scheduleRepository, times(1)).deleteById(schedule.id)
+        verify(scheduleOccurrenceService, times(1)).remove(schedule)
+    }
+
+    @Test
+    fun `test free windows subtracts booked time slots from schedule occurrences`() {
+        // Given
+        val schedule = Schedule().apply {
+            id = 1
+            startTime = ZonedDateTime.parse("2024-09-01T09:00:00Z")
+            endTime = ZonedDateTime.parse("2024-12-30T11:00:00Z")
+            duration = 120
+            recurrenceType = RecurrenceType.DAILY
+            interval = 1
+        }
+        val account = Account().apply {
+            id = 1
+            this.schedule = schedule
+        }
+        val booked = MentorTimeSlot().apply {
+            this.account = account
+            fromTime = ZonedDateTime.parse("2024-09-02T09:30:00Z")
+            toTime = ZonedDateTime.parse("2024-09-02T10:00:00Z")
+            status = MentorTimeSlotEnum.ALLOCATED
+        }
+        val from = ZonedDateTime.parse("2024-09-02T00:00:00Z")
+        val to = ZonedDateTime.parse("2024-09-04T00:00:00Z")
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(account))
+        `when`(mentorTimeSlotRepository.findBookedSlotsBetween(1, from, to)).thenReturn(listOf(booked))
+
+        // When
+        val result = scheduleService.freeWindows(1, from, to)
+
+        // Then
+        assertThat(result).containsExactly(
+            ValidWindow(ZonedDateTime.parse("2024-09-02T09:00:00Z"), ZonedDateTime.parse("2024-09-02T09:30:00Z")),
+            ValidWindow(ZonedDateTime.parse("2024-09-02T10:00:00Z"), ZonedDateTime.parse("2024-09-02T11:00:00Z")),
+            ValidWindow(ZonedDateTime.parse("2024-09-03T09:00:00Z"), ZonedDateTime.parse("2024-09-03T11:00:00Z"))
+        )
+    }
+
+    @Test
+    fun `test free windows throws exception if date range is invalid`() {
+        // Given
+        val from = ZonedDateTime.parse("2024-09-02T00:00:00Z")
+
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            scheduleService.freeWindows(1, from, from.minusDays(1))
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_DATE_RANGE)
     }
 
+    @Test
+    fun `test availability bitmap sets occurrence slots and clears booked and calendar busy ones`() {
+        // Given
+        val account = mentorWithDailySchedule(1, "john", "2024-09-01T09:00:00Z")
+        val booked = MentorTimeSlot().apply {
+            this.account = account
+            fromTime = ZonedDateTime.parse("2024-09-03T09:15:00Z")
+            toTime = ZonedDateTime.parse("2024-09-03T09:45:00Z")
+            status = MentorTimeSlotEnum.ALLOCATED
+        }
+        val from = ZonedDateTime.parse("2024-09-02T00:00:00Z")
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(account))
+        `when`(mentorTimeSlotRepository.findBookedSlotsBetween(1, from, from.plusDays(2))).thenReturn(listOf(booked))
+        `when`(calendarBusy.findBusyBetween(listOf(1L), from, from.plusDays(2)))
+            .thenReturn(listOf(busy(1, "2024-09-02T09:45:00Z", "2024-09-02T10:00:00Z")))
+
+        // When
+        val result = scheduleService.availabilityBitmap(1, from.toLocalDate(), 2)
+
+        // Then
+        assertThat(result.slotMinutes).isEqualTo(15)
+        val days = result.days.map { BitSet.valueOf(Base64.getDecoder().decode(it)) }
+        // 09:00 to 10:00 is slot 36 to 39
+        assertThat(days[0].stream().toArray()).containsExactly(36, 37, 38)
+        assertThat(days[1].stream().toArray()).containsExactly(36, 39)
+    }
+
+    @Test
+    fun `test availability bitmap throws exception if number of days is invalid`() {
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            scheduleService.availabilityBitmap(1, LocalDate.parse("2024-09-02"), 93)
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_DATE_RANGE)
+    }
+
+    @Test
+    fun `test next available mentors returns earliest free window of each mentor outside calendar busy time`() {
+        // Given
+        val john = mentorWithDailySchedule(1, "john", "2024-09-01T09:00:00Z")
+        val jane = mentorWithDailySchedule(2, "jane", "2024-09-01T08:00:00Z")
+        val booked = MentorTimeSlot().apply {
+            account = jane
+            fromTime = ZonedDateTime.parse("2024-09-02T08:00:00Z")
+            toTime = ZonedDateTime.parse("2024-09-02T09:00:00Z")
+            status = MentorTimeSlotEnum.ALLOCATED
+        }
+        val from = ZonedDateTime.parse("2024-09-02T00:00:00Z")
+        val to = from.plusDays(ScheduleService.MAX_AVAILABILITY_DAYS)
+        `when`(scheduleRepository.findMentorSchedulesByInterviewType(3, from))
+            .thenReturn(listOf(john.schedule!!, jane.schedule!!))
+        `when`(mentorTimeSlotRepository.findBookedSlotsOf(setOf(1L, 2L), from, to)).thenReturn(listOf(booked))
+        `when`(calendarBusy.findBusyBetween(setOf(1L, 2L), from, to))
+            .thenReturn(listOf(busy(1, "2024-09-02T09:30:00Z", "2024-09-02T09:45:00Z")))
+
+        // When
+        val result = scheduleService.nextAvailableMentors(3, from, 5)
+
+        // Then
+        assertThat(result.map { it.mentorFirstName }).containsExactly("jane", "john")
+        assertThat(result.map { it.validWindow?.start }).containsExactly(
+            ZonedDateTime.parse("2024-09-03T08:00:00Z"),
+            ZonedDateTime.parse("2024-09-03T09:00:00Z")
+        )
+    }
+
+    @Test
+    fun `test common free windows returns time in which every panel mentor is free and not busy`() {
+        // Given
+        val john = mentorWithDailySchedule(1, "john", "2024-09-01T09:00:00Z")
+        val jane = mentorWithDailySchedule(2, "jane", "2024-09-01T09:30:00Z")
+        val booked = MentorTimeSlot().apply {
+            account = jane
+            fromTime = ZonedDateTime.parse("2024-09-03T09:30:00Z")
+            toTime = ZonedDateTime.parse("2024-09-03T09:45:00Z")
+            status = MentorTimeSlotEnum.ALLOCATED
+        }
+        val from = ZonedDateTime.parse("2024-09-02T00:00:00Z")
+        val to = from.plusDays(2)
+        `when`(scheduleRepository.findMentorSchedulesOf(setOf(1L, 2L), from))
+            .thenReturn(listOf(john.schedule!!, jane.schedule!!))
+        `when`(mentorTimeSlotRepository.findBookedSlotsOf(setOf(1L, 2L), from, to)).thenReturn(listOf(booked))
+        `when`(calendarBusy.findBusyBetween(setOf(1L, 2L), from, to))
+            .thenReturn(listOf(busy(1, "2024-09-02T09:30:00Z", "2024-09-02T09:45:00Z")))
+
+        // When
+        val result = scheduleService.commonFreeWindows(listOf(1L, 2L, 1L), from, to)
+
+        // Then
+        assertThat(result).containsExactly(
+            ValidWindow(ZonedDateTime.parse("2024-09-02T09:45:00Z"), ZonedDateTime.parse("2024-09-02T10:00:00Z")),
+            ValidWindow(ZonedDateTime.parse("2024-09-03T09:45:00Z"), ZonedDateTime.parse("2024-09-03T10:00:00Z"))
+        )
+    }
+
+    @Test
+    fun `test common free windows throws exception if panel is too large`() {
+        // Given
+        val from = ZonedDateTime.parse("2024-09-02T00:00:00Z")
+
+        // When
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            scheduleService.commonFreeWindows((1L..11L).toList(), from, from.plusDays(1))
+        }
+
+        // Then
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_STATE)
+    }
+
+    private fun interviewType(id: Long, slotMinutes: Int?) = InterviewType().apply {
+        this.id = id
+        name = "Kotlin"
+        this.slotMinutes = slotMinutes
+    }
+
+    private fun busy(accountId: Long, from: String, to: String) =
+        CalendarBusy(accountId, ZonedDateTime.parse(from), ZonedDateTime.parse(to))
+
+    private fun mentorWithDailySchedule(id: Long, name: String, start: String) = Account().apply {
+        this.id = id
+        firstName = name
+        email = "$name@example.com"
+        schedule = Schedule().apply {
+            this.id = id
+            startTime = ZonedDateTime.parse(start)
+            endTime = ZonedDateTime.parse(start).plusMonths(3)
+            duration = 60
+            recurrenceType = RecurrenceType.DAILY
+            interval = 1
+        }
+    }.also { it.schedule!!.account = it }
 }
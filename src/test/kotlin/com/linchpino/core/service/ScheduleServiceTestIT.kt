@@ -0,0 +1,141 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.PostgresContainerConfig
+import com.linchpino.core.dto.CreateInterviewRequest
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.MentorTimeSlot
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.RecurrenceType
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.MentorTimeSlotRepository
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import java.time.ZonedDateTime
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+// not @Transactional: every booking has to commit on its own connection for the exclusion constraint to race
+@SpringBootTest
+@Import(PostgresContainerConfig::class)
+class ScheduleServiceTestIT {
+
+    @Autowired
+    private lateinit var scheduleService: ScheduleService
+
+    @Autowired
+    private lateinit var accountRepository: AccountRepository
+
+    @Autowired
+    private lateinit var mentorTimeSlotRepository: MentorTimeSlotRepository
+
+    @Autowired
+    private lateinit var transactionManager: PlatformTransactionManager
+
+    private val mentorIds = mutableListOf<Long>()
+
+    @AfterEach
+    fun cleanUp() {
+        TransactionTemplate(transactionManager).executeWithoutResult {
+            mentorTimeSlotRepository.deleteAll(mentorTimeSlotRepository.findAll().filter { it.account?.id in mentorIds })
+            accountRepository.deleteAllById(mentorIds)
+        }
+        mentorIds.clear()
+    }
+
+    @Test
+    fun `test concurrent bookings of one mentor allocate the time slot only once`() {
+        // Given
+        val mentorId = saveMentor(0)
+        val request = bookingRequest(mentorId)
+
+        // When
+        val results = bookInParallel(List(10) { mentorId to request })
+
+        // Then
+        assertThat(results.filter { it.isSuccess }).hasSize(1)
+        assertThat(results.mapNotNull { it.exceptionOrNull() })
+            .hasSize(9)
+            .allSatisfy {
+                assertThat(it).isInstanceOf(LinchpinException::class.java)
+                // losers either find the slot booked or give up waiting for the mentor's booking lock
+                assertThat((it as LinchpinException).errorCode)
+                    .isIn(ErrorCode.TIMESLOT_IS_BOOKED, ErrorCode.MENTOR_IS_BUSY)
+            }
+        assertThat(mentorTimeSlotRepository.findBookedSlotsBetween(mentorId, request.startTime, request.endTime))
+            .hasSize(1)
+    }
+
+    @Test
+    fun `test concurrent bookings of different mentors all succeed`() {
+        // Given
+        val ids = (1..10).map { saveMentor(it) }
+
+        // When
+        val results = bookInParallel(ids.map { it to bookingRequest(it) })
+
+        // Then
+        assertThat(results).allSatisfy { assertThat(it.isSuccess).isTrue() }
+        ids.forEach {
+            val request = bookingRequest(it)
+            assertThat(mentorTimeSlotRepository.findBookedSlotsBetween(it, request.startTime, request.endTime))
+                .hasSize(1)
+        }
+    }
+
+    private fun bookInParallel(bookings: List<Pair<Long, CreateInterviewRequest>>): List<Result<MentorTimeSlot>> {
+        val executor = Executors.newFixedThreadPool(bookings.size)
+        val start = CountDownLatch(1)
+        try {
+            val futures = bookings.map { (mentorId, request) ->
+                executor.submit(Callable {
+                    start.await()
+                    runCatching {
+                        TransactionTemplate(transactionManager).execute {
+                            scheduleService.availableTimeSlot(accountRepository.findById(mentorId).get(), request)
+                        }!!
+                    }
+                })
+            }
+            start.countDown()
+            return futures.map { it.get(30, TimeUnit.SECONDS) }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    private fun saveMentor(index: Int): Long {
+        val account = Account().apply {
+            firstName = "mentor"
+            lastName = "$index"
+            email = "mentor$index.booking@example.com"
+        }
+        account.schedule = Schedule().apply {
+            startTime = ZonedDateTime.parse("2024-09-02T10:00:00Z")
+            endTime = ZonedDateTime.parse("2024-12-30T11:00:00Z")
+            interval = 1
+            duration = 60
+            recurrenceType = RecurrenceType.DAILY
+            this.account = account
+        }
+        return accountRepository.save(account).id!!.also { mentorIds.add(it) }
+    }
+
+    private fun bookingRequest(mentorId: Long) = CreateInterviewRequest(
+        1,
+        1,
+        ZonedDateTime.parse("2024-09-18T10:00:00Z"),
+        ZonedDateTime.parse("2024-09-18T11:00:00Z"),
+        mentorId,
+        "jane.smith@example.com"
+    )
+}
@@ -0,0 +1,275 @@
+package com.linchpino.core.service
+
+import com.linchpino.core.dto.CreateInterviewRequest
+import com.linchpino.core.dto.ReleasedTimeSlot
+import com.linchpino.core.dto.SlotHoldRequest
+import com.linchpino.core.dto.ValidWindow
+import com.linchpino.core.entity.Account
+import com.linchpino.core.entity.MentorTimeSlot
+import com.linchpino.core.entity.Schedule
+import com.linchpino.core.enums.MentorTimeSlotEnum
+import com.linchpino.core.enums.RecurrenceType
+import com.linchpino.core.exception.ErrorCode
+import com.linchpino.core.exception.LinchpinException
+import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.MentorTimeSlotRepository
+import com.linchpino.core.repository.SlotHoldRepository
+import com.linchpino.core.security.WithMockJwt
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyLong
+import org.mockito.ArgumentMatchers.eq
+import org.mockito.Mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.verifyNoInteractions
+import org.mockito.Mockito.`when`
+import org.mockito.MockitoAnnotations
+import org.springframework.context.ApplicationEventPublisher
+import java.time.DayOfWeek
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+import java.util.Optional
+import java.util.UUID
+
+class SlotHoldServiceTest {
+
+    @Mock
+    private lateinit var repository: SlotHoldRepository
+
+    @Mock
+    private lateinit var accountRepository: AccountRepository
+
+    @Mock
+    private lateinit var mentorTimeSlotRepository: MentorTimeSlotRepository
+
+    @Mock
+    private lateinit var availabilityCounts: AvailabilityCountRepository
+
+    @Mock
+    private lateinit var scheduleService: ScheduleService
+
+    @Mock
+    private lateinit var eventPublisher: ApplicationEventPublisher
+
+    private lateinit var meterRegistry: SimpleMeterRegistry
+
+    private lateinit var service: SlotHoldService
+
+    private val startTime = ZonedDateTime.parse("2024-09-18T12:30:45+03:00")
+    private val endTime = ZonedDateTime.parse("2024-09-18T13:30:45+03:00")
+
+    private val jobSeeker = WithMockJwt.mockAuthentication("jane.smith@example.com")
+
+    @BeforeEach
+    fun setUp() {
+        MockitoAnnotations.openMocks(this)
+        `when`(accountRepository.findIdByEmail("jane.smith@example.com")).thenReturn(2)
+        meterRegistry = SimpleMeterRegistry()
+        service = SlotHoldService(
+            repository,
+            accountRepository,
+            mentorTimeSlotRepository,
+            availabilityCounts,
+            scheduleService,
+            eventPublisher,
+            meterRegistry,
+            10,
+            30,
+            3,
+            1000,
+            64
+        )
+    }
+
+    @Test
+    fun `test hold reserves a held time slot and mirrors its expiry`() {
+        // Given
+        val account = mentor()
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(account))
+        `when`(scheduleService.heldTimeSlot(account, startTime, endTime, 1)).thenReturn(heldSlot(account))
+        val before = ZonedDateTime.now(ZoneOffset.UTC)
+
+        // When
+        val result = service.hold(SlotHoldRequest(1, startTime, endTime, 1), jobSeeker)
+
+        // Then
+        verify(repository, times(1)).insert(result.holdId, 7, 2, result.expiresAt)
+        assertThat(result.timeSlotId).isEqualTo(7)
+        assertThat(result.startTime).isEqualTo(startTime)
+        assertThat(result.endTime).isEqualTo(endTime)
+        assertThat(result.expiresAt).isBetween(before.plusMinutes(10), ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10))
+        assertThat(meterRegistry.get("slot.hold.pending").gauge().value()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun `test hold caps requested minutes at the maximum ttl`() {
+        // Given
+        val account = mentor()
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(account))
+        `when`(scheduleService.heldTimeSlot(account, startTime, endTime, 1)).thenReturn(heldSlot(account))
+
+        // When
+        val result = service.hold(SlotHoldRequest(1, startTime, endTime, 1, 120), jobSeeker)
+
+        // Then
+        assertThat(result.expiresAt).isBefore(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(31))
+    }
+
+    @Test
+    fun `test hold throws exception if mentor does not exist`() {
+        // Given
+        `when`(accountRepository.findById(1)).thenReturn(Optional.empty())
+
+        // When & Then
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            service.hold(SlotHoldRequest(1, startTime, endTime, 1), jobSeeker)
+        }
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.ACCOUNT_NOT_FOUND)
+    }
+
+    @Test
+    fun `test expired hold is released by the wheel once its deadline passed`() {
+        // Given
+        val account = mentor()
+        `when`(accountRepository.findById(1)).thenReturn(Optional.of(account))
+        `when`(scheduleService.heldTimeSlot(account, startTime, endTime, 1)).thenReturn(heldSlot(account))
+        val hold = service.hold(SlotHoldRequest(1, startTime, endTime, 1, 1), jobSeeker)
+        `when`(repository.release(hold.holdId)).thenReturn(ReleasedTimeSlot(1, ValidWindow(startTime, endTime)))
+
+        // When
+        val early = service.expireDue(System.currentTimeMillis())
+        val due = service.expireDue(hold.expiresAt.plusSeconds(1).toInstant().toEpochMilli())
+
+        // Then
+        assertThat(early).isZero()
+        assertThat(due).isEqualTo(1)
+        verify(repository, times(1)).release(hold.holdId)
+        verify(availabilityCounts, times(1)).recount(1, startTime, endTime)
+        verify(eventPublisher, times(1)).publishEvent(MentorTimeSlotReleased(1, startTime, endTime))
+        assertThat(meterRegistry.get("slot.hold.expired").counter().count()).isEqualTo(1.0)
+        assertThat(meterRegistry.get("slot.hold.pending").gauge().value()).isZero()
+    }
+
+    @Test
+    fun `test claim turns the hold into the allocated time slot`() {
+        // Given
+        val account = mentor()
+        val holdId = UUID.randomUUID()
+        val window = ValidWindow(startTime, endTime)
+        val timeSlot = heldSlot(account).apply { status = MentorTimeSlotEnum.ALLOCATED }
+        `when`(scheduleService.bookableWindow(account, startTime, endTime, 1)).thenReturn(window)
+        `when`(repository.claim(eq(holdId), eq(2L), eq(1L), eq(window), any())).thenReturn(7)
+        `when`(mentorTimeSlotRepository.getReferenceById(7)).thenReturn(timeSlot)
+
+        // When
+        val result = service.claim(holdId, account, interviewRequest(holdId), 2)
+
+        // Then
+        assertThat(result).isEqualTo(timeSlot)
+        verify(availabilityCounts, times(1)).recount(1, startTime, endTime)
+    }
+
+    @Test
+    fun `test claim throws exception if hold is expired or does not match`() {
+        // Given
+        val account = mentor()
+        val holdId = UUID.randomUUID()
+        `when`(scheduleService.bookableWindow(account, startTime, endTime, 1)).thenReturn(ValidWindow(startTime, endTime))
+        `when`(repository.claim(eq(holdId), eq(2L), eq(1L), eq(ValidWindow(startTime, endTime)), any())).thenReturn(null)
+
+        // When & Then
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            service.claim(holdId, account, interviewRequest(holdId), 2)
+        }
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_TIMESLOT)
+        verifyNoInteractions(availabilityCounts)
+    }
+
+    @Test
+    fun `test release throws exception if hold does not exist`() {
+        // Given
+        val holdId = UUID.randomUUID()
+        `when`(repository.release(holdId, 2)).thenReturn(null)
+
+        // When & Then
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            service.release(holdId, jobSeeker)
+        }
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.ENTITY_NOT_FOUND)
+    }
+
+    @Test
+    fun `test release only deletes holds of the authenticated job seeker`() {
+        // Given
+        val holdId = UUID.randomUUID()
+        `when`(repository.release(holdId, 2)).thenReturn(ReleasedTimeSlot(1, ValidWindow(startTime, endTime)))
+
+        // When
+        service.release(holdId, jobSeeker)
+
+        // Then
+        verify(repository, times(1)).release(holdId, 2)
+        verify(repository, never()).release(holdId)
+        verify(availabilityCounts, times(1)).recount(1, startTime, endTime)
+        verify(eventPublisher, times(1)).publishEvent(MentorTimeSlotReleased(1, startTime, endTime))
+    }
+
+    @Test
+    fun `test hold throws exception if job seeker already holds the maximum number of time slots`() {
+        // Given
+        `when`(repository.countActive(eq(2L), any())).thenReturn(3)
+
+        // When & Then
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            service.hold(SlotHoldRequest(1, startTime, endTime, 1), jobSeeker)
+        }
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.TOO_MANY_HOLDS)
+        verify(scheduleService, never()).heldTimeSlot(any(), any(), any(), anyLong())
+    }
+
+    @Test
+    fun `test hold throws exception if job seeker has no account`() {
+        // Given
+        val stranger = WithMockJwt.mockAuthentication("stranger@example.com")
+
+        // When & Then
+        val ex = Assertions.assertThrows(LinchpinException::class.java) {
+            service.hold(SlotHoldRequest(1, startTime, endTime, 1), stranger)
+        }
+        assertThat(ex.errorCode).isEqualTo(ErrorCode.ACCOUNT_NOT_FOUND)
+        verify(repository, never()).insert(any(), anyLong(), anyLong(), any())
+    }
+
+    private fun interviewRequest(holdId: UUID) =
+        CreateInterviewRequest(1, 1, startTime, endTime, 1, "jane.smith@example.com", holdId)
+
+    private fun heldSlot(account: Account) = MentorTimeSlot().apply {
+        id = 7
+        this.account = account
+        fromTime = startTime
+        toTime = endTime
+        status = MentorTimeSlotEnum.HELD
+    }
+
+    // note: schedule interval is 3 weeks and the held time is on same day of the third week => it is valid
+    private fun mentor() = Account().apply {
+        id = 1
+        email = "john.doe@example.com"
+        schedule = Schedule().apply {
+            id = 1
+            startTime = ZonedDateTime.parse("2024-08-28T12:30:45+03:00")
+            endTime = ZonedDateTime.parse("2024-12-30T13:30:45+03:00")
+            duration = 60
+            recurrenceType = RecurrenceType.WEEKLY
+            interval = 3
+            weekDays = mutableListOf(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)
+        }
+    }
+}
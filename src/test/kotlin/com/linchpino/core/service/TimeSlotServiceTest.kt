@@ -7,22 +7,25 @@ import com.linchpino.core.entity.MentorTimeSlot
 import com.linchpino.core.entity.Role
 import com.linchpino.core.enums.AccountTypeEnum
 import com.linchpino.core.enums.MentorTimeSlotEnum
+import com.linchpino.core.enums.TimeSlotResultStatus
 import com.linchpino.core.exception.ErrorCode
 import com.linchpino.core.exception.LinchpinException
 import com.linchpino.core.repository.AccountRepository
+import com.linchpino.core.repository.AvailabilityCountRepository
+import com.linchpino.core.repository.MentorTimeSlotBatchRepository
 import com.linchpino.core.repository.MentorTimeSlotRepository
 import java.time.ZonedDateTime
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Assertions
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
-import org.mockito.ArgumentCaptor
 import org.mockito.InjectMocks
 import org.mockito.Mock
 import org.mockito.Mockito
 import org.mockito.Mockito.times
 import org.mockito.Mockito.`when`
 import org.mockito.junit.jupiter.MockitoExtension
+import org.springframework.context.ApplicationEventPublisher
 
 @ExtendWith(MockitoExtension::class)
 class TimeSlotServiceTest {
@@ -36,6 +39,18 @@ class TimeSlotServiceTest {
     @Mock
     private lateinit var repository: MentorTimeSlotRepository
 
+    @Mock
+    private lateinit var batchRepository: MentorTimeSlotBatchRepository
+
+    @Mock
+    private lateinit var mentorBookingLock: MentorBookingLock
+
+    @Mock
+    private lateinit var availabilityCounts: AvailabilityCountRepository
+
+    @Mock
+    private lateinit var eventPublisher: ApplicationEventPublisher
+
 
     @Test
     fun `test adding time slots`() {
@@ -45,21 +60,46 @@ class TimeSlotServiceTest {
             TimeSlot(ZonedDateTime.parse("2024-05-10T12:30:45+03:00"), ZonedDateTime.parse("2024-05-10T13:30:45+03:00")),
         )
         val request = AddTimeSlotsRequest(1L, timeSlots)
-        val captor: ArgumentCaptor<List<MentorTimeSlot>> = ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<MentorTimeSlot>>
         val account = Account().apply { id = 1L }
         account.addRole(Role().apply { title = AccountTypeEnum.MENTOR })
         `when`(accountRepository.getReferenceById(1)).thenReturn(account)
+        `when`(batchRepository.findOverlapping(1, timeSlots)).thenReturn(emptySet())
 
         // When
-        service.addTimeSlots(request)
-        Mockito.verify(repository, times(1)).saveAll(captor.capture())
-        val mentorTimeSlots = captor.value
+        val result = service.addTimeSlots(request)
 
         // Then
-        assertThat(mentorTimeSlots.size).isEqualTo(2)
-        assertThat(mentorTimeSlots.map { it.fromTime }).isEqualTo(timeSlots.map { it.startTime })
-        assertThat(mentorTimeSlots.map { it.toTime }).containsExactly(timeSlots[0].endTime, timeSlots[1].endTime)
-        assertThat(mentorTimeSlots.all { it.status == MentorTimeSlotEnum.AVAILABLE }).isTrue()
+        Mockito.verify(mentorBookingLock, times(1)).acquire(1)
+        Mockito.verify(batchRepository, times(1)).insertAvailable(1, timeSlots)
+        assertThat(result.map { it.index }).containsExactly(0, 1)
+        assertThat(result.map { it.startTime }).isEqualTo(timeSlots.map { it.startTime })
+        assertThat(result.all { it.status == TimeSlotResultStatus.CREATED }).isTrue()
+    }
+
+    @Test
+    fun `test adding time slots rejects invalid and overlapping slots and inserts the rest`() {
+        // Given
+        val valid = TimeSlot(ZonedDateTime.parse("2024-05-09T09:00:00Z"), ZonedDateTime.parse("2024-05-09T10:00:00Z"))
+        val invalid = TimeSlot(ZonedDateTime.parse("2024-05-09T12:00:00Z"), ZonedDateTime.parse("2024-05-09T11:00:00Z"))
+        val overlapsRequest = TimeSlot(ZonedDateTime.parse("2024-05-09T11:30:00+02:00"), ZonedDateTime.parse("2024-05-09T12:30:00+02:00"))
+        val overlapsExisting = TimeSlot(ZonedDateTime.parse("2024-05-10T09:00:00Z"), ZonedDateTime.parse("2024-05-10T10:00:00Z"))
+        val request = AddTimeSlotsRequest(1L, listOf(overlapsRequest, valid, invalid, overlapsExisting))
+        val account = Account().apply { id = 1L }
+        account.addRole(Role().apply { title = AccountTypeEnum.MENTOR })
+        `when`(accountRepository.getReferenceById(1)).thenReturn(account)
+        `when`(batchRepository.findOverlapping(1, listOf(valid, overlapsExisting))).thenReturn(setOf(1))
+
+        // When
+        val result = service.addTimeSlots(request)
+
+        // Then
+        assertThat(result.map { it.status }).containsExactly(
+            TimeSlotResultStatus.OVERLAPS_REQUEST,
+            TimeSlotResultStatus.CREATED,
+            TimeSlotResultStatus.INVALID,
+            TimeSlotResultStatus.OVERLAPS_EXISTING
+        )
+        Mockito.verify(batchRepository, times(1)).insertAvailable(1, listOf(valid))
     }
 
     @Test
@@ -82,4 +122,55 @@ class TimeSlotServiceTest {
         assertThat(ex.errorCode).isEqualTo(ErrorCode.INVALID_ACCOUNT_ROLE)
 
     }
+
+    @Test
+    fun `test freeing an allocated time slot recounts its window`() {
+        // Given
+        val timeSlot = timeSlot(MentorTimeSlotEnum.ALLOCATED)
+        `when`(repository.saveAndFlush(timeSlot)).thenReturn(timeSlot)
+
+        // When
+        service.updateTimeSlotStatus(timeSlot, MentorTimeSlotEnum.AVAILABLE)
+
+        // Then
+        assertThat(timeSlot.status).isEqualTo(MentorTimeSlotEnum.AVAILABLE)
+        Mockito.verify(availabilityCounts, times(1)).recount(1, timeSlot.fromTime, timeSlot.toTime)
+        Mockito.verify(eventPublisher, times(1))
+            .publishEvent(MentorTimeSlotReleased(1, timeSlot.fromTime, timeSlot.toTime))
+    }
+
+    @Test
+    fun `test allocating a time slot recounts its window`() {
+        // Given
+        val timeSlot = timeSlot(MentorTimeSlotEnum.AVAILABLE)
+        `when`(repository.saveAndFlush(timeSlot)).thenReturn(timeSlot)
+
+        // When
+        service.updateTimeSlotStatus(timeSlot, MentorTimeSlotEnum.ALLOCATED)
+
+        // Then
+        Mockito.verify(availabilityCounts, times(1)).recount(1, timeSlot.fromTime, timeSlot.toTime)
+        Mockito.verifyNoInteractions(eventPublisher)
+    }
+
+    @Test
+    fun `test allocating a held time slot keeps the counters`() {
+        // Given
+        val timeSlot = timeSlot(MentorTimeSlotEnum.HELD)
+        `when`(repository.saveAndFlush(timeSlot)).thenReturn(timeSlot)
+
+        // When
+        service.updateTimeSlotStatus(timeSlot, MentorTimeSlotEnum.ALLOCATED)
+
+        // Then
+        Mockito.verifyNoInteractions(availabilityCounts)
+    }
+
+    private fun timeSlot(status: MentorTimeSlotEnum) = MentorTimeSlot().apply {
+        id = 7
+        account = Account().apply { id = 1 }
+        fromTime = ZonedDateTime.parse("2024-08-28T12:30:45+03:00")
+        toTime = ZonedDateTime.parse("2024-08-28T13:30:45+03:00")
+        this.status = status
+    }
 }